@@ -12,12 +12,17 @@ Orthographic::Orthographic(
         sizeV_ {sizeV / 2.0F} {
 }
 
-Ray Orthographic::generateRay(const float u, const float v,
-                              const float deviationU, const float deviationV) const {
-    const float rightFactor {(u - 0.5F) * this->sizeH_};
-    const ::glm::vec3 &right {this->right_ * rightFactor + this->right_ * deviationU};
-    const float upFactor {(0.5F - v) * this->sizeV_};
-    const ::glm::vec3 &up {this->up_ * upFactor + this->up_ * deviationV};
+float Orthographic::getRightFactor(const float u) const {
+    return (u - 0.5F) * this->sizeH_;
+}
+
+float Orthographic::getUpFactor(const float v) const {
+    return (0.5F - v) * this->sizeV_;
+}
+
+Ray Orthographic::generateRayFromFactors(const float rightFactor, const float upFactor) const {
+    const ::glm::vec3 &right {this->right_ * rightFactor};
+    const ::glm::vec3 &up {this->up_ * upFactor};
     const Ray ray {this->direction_, this->position_ + right + up, 1, false};
     return ray;
 }
@@ -37,6 +42,17 @@ AABB Orthographic::getAABB() const {
     return res;
 }
 
+/**
+ * Shrinks or enlarges the area seen by the camera, keeping its aspect ratio.
+ *
+ * @param factor How many times bigger the objects should look (bigger than 1 to zoom in).
+ */
+void Orthographic::zoom(const float factor) {
+    this->sizeH_ /= factor;
+    this->sizeV_ /= factor;
+    resetRayTables();
+}
+
 float Orthographic::getSizeH() const {
     return this->sizeH_;
 }
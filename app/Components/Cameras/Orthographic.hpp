@@ -19,6 +19,13 @@ namespace Components {
         float sizeH_ {};
         float sizeV_ {};
 
+    protected:
+        float getRightFactor(float u) const final;
+
+        float getUpFactor(float v) const final;
+
+        ::MobileRT::Ray generateRayFromFactors(float rightFactor, float upFactor) const final;
+
     public:
         explicit Orthographic() = delete;
 
@@ -36,12 +43,10 @@ namespace Components {
 
         Orthographic &operator=(Orthographic &&orthographic) noexcept = delete;
 
-        ::MobileRT::Ray generateRay(float u, float v,
-                        float deviationU,
-                        float deviationV) const final;
-
         ::MobileRT::AABB getAABB() const final;
 
+        void zoom(float factor) final;
+
         float getSizeH() const;
 
         float getSizeV() const;
@@ -1,10 +1,24 @@
 #include "Components/Cameras/Perspective.hpp"
+#include <algorithm>
 #include <glm/glm.hpp>
 #include <glm/gtc/constants.hpp>
 
 using ::Components::Perspective;
 using ::MobileRT::Ray;
 
+namespace {
+    /**
+     * The narrowest field of view, in radians, that the zoom allows.
+     */
+    const float MinFov {0.02F};
+
+    /**
+     * The widest field of view, in radians, that the zoom allows. The approximation of the arc
+     * tangent used for the rays is only accurate until 1, which is half of this field of view.
+     */
+    const float MaxFov {2.0F};
+}//namespace
+
 Perspective::Perspective(
     const ::glm::vec3 &position, const ::glm::vec3 &lookAt, const ::glm::vec3 &up,
     const float hFov, const float vFov) :
@@ -13,20 +27,49 @@ Perspective::Perspective(
         vFov_ {degToRad(vFov)} {
 }
 
-Ray Perspective::generateRay(const float u, const float v,
-                             const float deviationU, const float deviationV) const {
+float Perspective::getRightFactor(const float u) const {
     const float tanValueRight {this->hFov_ * (u - 0.5F)};
-    const float rightFactor {fastArcTan(tanValueRight) + deviationU};
-    const ::glm::vec3 &right {this->right_ * rightFactor};
+    return fastArcTan(tanValueRight);
+}
+
+float Perspective::getUpFactor(const float v) const {
     const float tanValueUp {this->vFov_ * (0.5F - v)};
-    const float upFactor {fastArcTan(tanValueUp) + deviationV};
+    return fastArcTan(tanValueUp);
+}
+
+Ray Perspective::generateRayFromFactors(const float rightFactor, const float upFactor) const {
+    const ::glm::vec3 &right {this->right_ * rightFactor};
     const ::glm::vec3 &up {this->up_ * upFactor};
-    const ::glm::vec3 &dest {this->position_ + this->direction_ + right + up};
-    const ::glm::vec3 &rayDirection {::glm::normalize(dest - position_)};
+    const ::glm::vec3 &rayDirection {::glm::normalize(this->direction_ + right + up)};
     const Ray ray {rayDirection, this->position_, 1, false};
     return ray;
 }
 
+/**
+ * Calculates the angle between the rays of two adjacent pixels.
+ *
+ * @param height The height of the image, in pixels.
+ * @return The angle, in radians, covered by a pixel.
+ */
+float Perspective::getPixelSpreadAngle(const ::std::int32_t height) const {
+    const float angle {height > 0 ? this->vFov_ / static_cast<float> (height) : 0.0F};
+    return angle;
+}
+
+/**
+ * Narrows or widens both fields of view by the same factor, so the aspect ratio is kept.
+ *
+ * @param factor How many times bigger the objects should look (bigger than 1 to zoom in).
+ */
+void Perspective::zoom(const float factor) {
+    const float minFov {::std::min(this->hFov_, this->vFov_)};
+    const float maxFov {::std::max(this->hFov_, this->vFov_)};
+    const float scale {::std::max(MinFov / minFov, ::std::min(1.0F / factor, MaxFov / maxFov))};
+    this->hFov_ *= scale;
+    this->vFov_ *= scale;
+    resetRayTables();
+}
+
 /**
  * Helper method that calculates the inverse tangent function.
  * This is an approximate algorithm from
@@ -19,6 +19,13 @@ namespace Components {
     private:
         static float fastArcTan(float value);
 
+    protected:
+        float getRightFactor(float u) const final;
+
+        float getUpFactor(float v) const final;
+
+        ::MobileRT::Ray generateRayFromFactors(float rightFactor, float upFactor) const final;
+
     public:
         explicit Perspective() = delete;
 
@@ -36,8 +43,9 @@ namespace Components {
 
         Perspective &operator=(Perspective &&perspective) noexcept = delete;
 
-        ::MobileRT::Ray generateRay(float u, float v,
-                        float deviationU, float deviationV) const final;
+        float getPixelSpreadAngle(::std::int32_t height) const final;
+
+        void zoom(float factor) final;
 
         float getHFov() const;
 
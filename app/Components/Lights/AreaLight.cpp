@@ -1,4 +1,6 @@
 #include "Components/Lights/AreaLight.hpp"
+#include <cmath>
+#include <limits>
 
 using ::Components::AreaLight;
 using ::MobileRT::Material;
@@ -25,6 +27,30 @@ AreaLight::AreaLight(
     return position;
 }
 
+::glm::vec3 AreaLight::getPointMin() const {
+    const ::glm::vec3 &pointA {this->triangle_.getA()};
+    return ::glm::min(pointA, ::glm::min(pointA + this->triangle_.getAB(), pointA + this->triangle_.getAC()));
+}
+
+::glm::vec3 AreaLight::getPointMax() const {
+    const ::glm::vec3 &pointA {this->triangle_.getA()};
+    return ::glm::max(pointA, ::glm::max(pointA + this->triangle_.getAB(), pointA + this->triangle_.getAC()));
+}
+
+float AreaLight::getPdf(const ::glm::vec3 &point, const ::glm::vec3 &lightPosition) const {
+    const ::glm::vec3 &perpendicular {::glm::cross(this->triangle_.getAB(), this->triangle_.getAC())};
+    const float doubleArea {::glm::length(perpendicular)};
+    const ::glm::vec3 vectorToLight {lightPosition - point};
+    const float distance2 {::glm::dot(vectorToLight, vectorToLight)};
+    // The light emits on both sides of the triangle.
+    const float cosLight {::std::abs(::glm::dot(perpendicular / doubleArea, vectorToLight)) / ::std::sqrt(distance2)};
+    const float projectedArea {cosLight * doubleArea * 0.5F};
+    if (projectedArea <= 0.0F) {
+        return ::std::numeric_limits<float>::infinity();
+    }
+    return distance2 / projectedArea;
+}
+
 void AreaLight::resetSampling() {
     this->samplerPointLight_->resetSampling();
 }
@@ -39,3 +65,12 @@ Intersection AreaLight::intersect(Intersection &&intersection) {
     }
     return ::std::move(intersection);
 }
+
+/**
+ * Gets the triangle which defines the area of this light.
+ *
+ * @return The triangle of the area light.
+ */
+const ::MobileRT::Triangle &AreaLight::getTriangle() const {
+    return this->triangle_;
+}
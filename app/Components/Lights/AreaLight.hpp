@@ -40,9 +40,17 @@ namespace Components {
 
         ::glm::vec3 getPosition() final;
 
+        ::glm::vec3 getPointMin() const final;
+
+        ::glm::vec3 getPointMax() const final;
+
+        float getPdf(const ::glm::vec3 &point, const ::glm::vec3 &lightPosition) const final;
+
         void resetSampling() final;
 
         ::MobileRT::Intersection intersect(::MobileRT::Intersection &&intersection) final;
+
+        const ::MobileRT::Triangle &getTriangle() const;
     };
 }//namespace Components
 
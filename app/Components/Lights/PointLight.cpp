@@ -13,6 +13,18 @@ PointLight::PointLight(const Material &radiance, const ::glm::vec3 &position) :
     return this->position_;
 }
 
+::glm::vec3 PointLight::getPointMin() const {
+    return this->position_;
+}
+
+::glm::vec3 PointLight::getPointMax() const {
+    return this->position_;
+}
+
+float PointLight::getPdf(const ::glm::vec3 &/*point*/, const ::glm::vec3 &/*lightPosition*/) const {
+    return 0.0F;
+}
+
 void PointLight::resetSampling() {
 }
 
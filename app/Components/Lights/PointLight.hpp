@@ -29,6 +29,12 @@ namespace Components {
 
         ::glm::vec3 getPosition() final;
 
+        ::glm::vec3 getPointMin() const final;
+
+        ::glm::vec3 getPointMax() const final;
+
+        float getPdf(const ::glm::vec3 &point, const ::glm::vec3 &lightPosition) const final;
+
         void resetSampling() final;
 
         ::MobileRT::Intersection intersect(::MobileRT::Intersection &&intersection) final;
@@ -0,0 +1,600 @@
+#include "Components/Loaders/BinarySceneLoader.hpp"
+#include "Components/Cameras/Orthographic.hpp"
+#include "Components/Cameras/Perspective.hpp"
+#include "Components/Lights/AreaLight.hpp"
+#include "Components/Loaders/OBJLoader.hpp"
+
+#include <cstring>
+#include <fcntl.h>
+#include <fstream>
+#include <sys/mman.h>
+#include <sys/stat.h>
+#include <type_traits>
+#include <unistd.h>
+
+using ::Components::AreaLight;
+using ::Components::BinarySceneLoader;
+using ::MobileRT::Camera;
+using ::MobileRT::Light;
+using ::MobileRT::Material;
+using ::MobileRT::Sampler;
+using ::MobileRT::Scene;
+using ::MobileRT::Texture;
+using ::MobileRT::Triangle;
+
+namespace {
+    /**
+     * The extension of the files in the MobileRT binary scene format.
+     */
+    const char *const FileExtension {".mrtb"};
+
+    /**
+     * The magic number at the start of every binary scene file.
+     */
+    const char Magic[4] {'M', 'R', 'T', 'B'};
+
+    /**
+     * The version of the binary scene format.
+     * It must be incremented every time the layout of any record changes.
+     */
+    const ::std::uint32_t Version {1};
+
+    /**
+     * The maximum length of the name of a texture file, including the null terminator.
+     */
+    const ::std::uint32_t TextureNameSize {256};
+
+    /**
+     * The alignment of every array in the file.
+     */
+    const ::std::uint32_t Alignment {16};
+
+    /**
+     * The types of camera supported by the binary scene format.
+     */
+    enum CameraType : ::std::int32_t {
+        PERSPECTIVE = 0,
+        ORTHOGRAPHIC = 1
+    };
+
+    /**
+     * The camera of the scene.
+     * <br>
+     * The vectors are stored as they are in the camera (already with the X axis inverted), so the
+     * camera is restored exactly as it was when the scene was converted.
+     * The field of view (or size) is stored for an aspect ratio of 1.
+     */
+    struct CameraRecord {
+        ::std::int32_t type;
+        float position[3];
+        float direction[3];
+        float right[3];
+        float up[3];
+        float fov[2];
+    };
+
+    /**
+     * The header of the binary scene file.
+     * <br>
+     * The offsets are in bytes from the start of the file.
+     */
+    struct Header {
+        char magic[4];
+        ::std::uint32_t version;
+        ::std::uint32_t numMaterials;
+        ::std::uint32_t numTextures;
+        ::std::uint32_t numTriangles;
+        ::std::uint32_t numLights;
+        ::std::uint32_t offsetMaterials;
+        ::std::uint32_t offsetTextures;
+        ::std::uint32_t offsetTriangles;
+        ::std::uint32_t offsetLights;
+        CameraRecord camera;
+    };
+
+    /**
+     * A material of the scene.
+     * <br>
+     * The texture index is an index in the textures array or -1 if the material has no texture.
+     */
+    struct MaterialRecord {
+        float Le[3];
+        float Kd[3];
+        float Ks[3];
+        float Kt[3];
+        float refractiveIndice;
+        ::std::int32_t textureIndex;
+    };
+
+    /**
+     * A reference to a texture file, relative to the directory of the scene file.
+     */
+    struct TextureRecord {
+        char name[TextureNameSize];
+    };
+
+    /**
+     * A triangle of the scene.
+     * <br>
+     * The area lights are also stored with this record, where the material index points to the
+     * material with the emission of the light.
+     */
+    struct TriangleRecord {
+        float pointA[3];
+        float pointB[3];
+        float pointC[3];
+        float normalA[3];
+        float normalB[3];
+        float normalC[3];
+        float texCoordA[2];
+        float texCoordB[2];
+        float texCoordC[2];
+        ::std::int32_t materialIndex;
+    };
+
+    static_assert(::std::is_standard_layout<Header>::value, "Header must have a standard layout.");
+    static_assert(::std::is_standard_layout<MaterialRecord>::value, "MaterialRecord must have a standard layout.");
+    static_assert(::std::is_standard_layout<TriangleRecord>::value, "TriangleRecord must have a standard layout.");
+    static_assert(sizeof(CameraRecord) == 15 * 4, "CameraRecord must not have padding.");
+    static_assert(sizeof(Header) == 10 * 4 + sizeof(CameraRecord), "Header must not have padding.");
+    static_assert(sizeof(MaterialRecord) == 14 * 4, "MaterialRecord must not have padding.");
+    static_assert(sizeof(TriangleRecord) == 25 * 4, "TriangleRecord must not have padding.");
+
+    /**
+     * Helper method which rounds up an offset to the alignment of the arrays in the file.
+     *
+     * @param offset The offset in bytes.
+     * @return The aligned offset.
+     */
+    ::std::uint32_t align(const ::std::uint32_t offset) {
+        return (offset + Alignment - 1) / Alignment * Alignment;
+    }
+
+    /**
+     * Helper method which copies a vector into an array of floats.
+     *
+     * @tparam S     The size of the vector.
+     * @param vec    The vector to copy.
+     * @param values The destination array.
+     */
+    template<int S>
+    void toArray(const ::glm::vec<S, float> &vec, float *const values) {
+        for (int i {0}; i < S; ++i) {
+            values[i] = vec[i];
+        }
+    }
+
+    /**
+     * Helper method which converts a triangle into its record.
+     *
+     * @param triangle      The triangle.
+     * @param materialIndex The index of the material of the triangle.
+     * @return The record of the triangle.
+     */
+    TriangleRecord toRecord(const Triangle &triangle, const ::std::int32_t materialIndex) {
+        TriangleRecord record {};
+        toArray(triangle.getA(), record.pointA);
+        toArray(triangle.getA() + triangle.getAB(), record.pointB);
+        toArray(triangle.getA() + triangle.getAC(), record.pointC);
+        toArray(triangle.getNormalA(), record.normalA);
+        toArray(triangle.getNormalB(), record.normalB);
+        toArray(triangle.getNormalC(), record.normalC);
+        toArray(triangle.getTexCoordA(), record.texCoordA);
+        toArray(triangle.getTexCoordB(), record.texCoordB);
+        toArray(triangle.getTexCoordC(), record.texCoordC);
+        record.materialIndex = materialIndex;
+        return record;
+    }
+
+    /**
+     * Helper method which converts a record into a triangle.
+     *
+     * @param record The record of the triangle.
+     * @return The triangle.
+     */
+    Triangle toTriangle(const TriangleRecord &record) {
+        return Triangle::Builder(
+                ::glm::vec3 {record.pointA[0], record.pointA[1], record.pointA[2]},
+                ::glm::vec3 {record.pointB[0], record.pointB[1], record.pointB[2]},
+                ::glm::vec3 {record.pointC[0], record.pointC[1], record.pointC[2]}
+            )
+            .withNormals(
+                ::glm::vec3 {record.normalA[0], record.normalA[1], record.normalA[2]},
+                ::glm::vec3 {record.normalB[0], record.normalB[1], record.normalB[2]},
+                ::glm::vec3 {record.normalC[0], record.normalC[1], record.normalC[2]}
+            )
+            .withTexCoords(
+                ::glm::vec2 {record.texCoordA[0], record.texCoordA[1]},
+                ::glm::vec2 {record.texCoordB[0], record.texCoordB[1]},
+                ::glm::vec2 {record.texCoordC[0], record.texCoordC[1]}
+            )
+            .withMaterialIndex(record.materialIndex)
+            .build();
+    }
+
+    /**
+     * Helper method which converts a material into its record.
+     *
+     * @param material     The material.
+     * @param textureIndex The index of the texture of the material or -1 if it has no texture.
+     * @return The record of the material.
+     */
+    MaterialRecord toRecord(const Material &material, const ::std::int32_t textureIndex) {
+        MaterialRecord record {};
+        toArray(material.Le_, record.Le);
+        toArray(material.Kd_, record.Kd);
+        toArray(material.Ks_, record.Ks);
+        toArray(material.Kt_, record.Kt);
+        record.refractiveIndice = material.refractiveIndice_;
+        record.textureIndex = textureIndex;
+        return record;
+    }
+
+    /**
+     * Helper method which gets the index of a texture in a vector of textures and adds it if
+     * it's not there yet.
+     *
+     * @param texture       The texture of a material.
+     * @param texturesCache The cache with the textures, indexed by the name of the file.
+     * @param textures      The textures already written in the file.
+     * @return The index of the texture or -1 if the material has no texture.
+     */
+    ::std::int32_t getTextureIndex(
+        const Texture &texture,
+        const ::std::unordered_map<::std::string, Texture> &texturesCache,
+        ::std::vector<::std::pair<::std::string, Texture>> *const textures
+    ) {
+        if (!texture.isValid()) {
+            return -1;
+        }
+        const auto itTexture {::std::find_if(textures->cbegin(), textures->cend(),
+            [&](const ::std::pair<::std::string, Texture> &pair) { return pair.second == texture; })};
+        if (itTexture != textures->cend()) {
+            return static_cast<::std::int32_t> (itTexture - textures->cbegin());
+        }
+        const auto itCache {::std::find_if(texturesCache.cbegin(), texturesCache.cend(),
+            [&](const ::std::pair<const ::std::string, Texture> &pair) { return pair.second == texture; })};
+        if (itCache == texturesCache.cend()) {
+            throw ::std::runtime_error {"Texture of a material is not in the textures cache."};
+        }
+        if (itCache->first.size() >= TextureNameSize) {
+            throw ::std::runtime_error {"Texture name is too long: " + itCache->first};
+        }
+        textures->emplace_back(*itCache);
+        return static_cast<::std::int32_t> (textures->size() - 1);
+    }
+}//namespace
+
+/**
+ * The constructor which memory maps a binary scene file.
+ *
+ * @param filePath The path to the binary scene file.
+ */
+BinarySceneLoader::BinarySceneLoader(const ::std::string &filePath) {
+    LOG_INFO("Loading binary scene: ", filePath);
+    const ::std::int32_t fileDescriptor {::open(filePath.c_str(), O_RDONLY)};
+    if (fileDescriptor < 0) {
+        errno = 0;
+        LOG_ERROR("Could not open binary scene: ", filePath);
+        return;
+    }
+    struct stat fileStat {};
+    if (::fstat(fileDescriptor, &fileStat) == 0 && fileStat.st_size > 0) {
+        mapFile(fileDescriptor, static_cast<::std::size_t> (fileStat.st_size));
+    }
+    ::close(fileDescriptor);
+    validate();
+}
+
+/**
+ * The constructor which memory maps a binary scene file already opened.
+ * <br>
+ * The file descriptor is not closed by this loader.
+ *
+ * @param fileDescriptor The file descriptor of the binary scene file.
+ * @param size           The size in bytes of the file.
+ */
+BinarySceneLoader::BinarySceneLoader(const ::std::int32_t fileDescriptor, const ::std::size_t size) {
+    mapFile(fileDescriptor, size);
+    validate();
+}
+
+/**
+ * Helper method which memory maps a file.
+ * If the file can't be mapped, then its contents are read into memory instead.
+ *
+ * @param fileDescriptor The file descriptor of the binary scene file.
+ * @param size           The size in bytes of the file.
+ */
+void BinarySceneLoader::mapFile(const ::std::int32_t fileDescriptor, const ::std::size_t size) {
+    this->size_ = size;
+    void *const address {::mmap(nullptr, size, PROT_READ, MAP_PRIVATE, fileDescriptor, 0)};
+    if (address != MAP_FAILED) {
+        this->data_ = static_cast<const ::std::uint8_t *> (address);
+        this->mapped_ = true;
+        return;
+    }
+    LOG_WARN("Could not memory map the binary scene, it will be read instead.");
+    errno = 0;
+    this->buffer_.resize(size);
+    const long bytesRead {::pread(fileDescriptor, &this->buffer_[0], size, 0)};
+    if (bytesRead != static_cast<long> (size)) {
+        errno = 0;
+        this->buffer_.clear();
+        this->size_ = 0;
+        return;
+    }
+    this->data_ = reinterpret_cast<const ::std::uint8_t *> (this->buffer_.data());
+}
+
+/**
+ * Helper method which validates the header of the binary scene and the bounds of all its arrays.
+ * If the binary scene is valid, then the loader is marked as processed.
+ */
+void BinarySceneLoader::validate() {
+    if (this->data_ == nullptr || this->size_ < sizeof(Header)) {
+        LOG_ERROR("Binary scene is too small: ", this->size_, " bytes");
+        return;
+    }
+    const Header &header {*reinterpret_cast<const Header *> (this->data_)};
+    if (::std::memcmp(header.magic, Magic, sizeof(Magic)) != 0) {
+        LOG_ERROR("File is not a binary scene.");
+        return;
+    }
+    if (header.version != Version) {
+        LOG_ERROR("Binary scene version ", header.version, " is not supported (expected ", Version, ")");
+        return;
+    }
+    const auto fits {[&](const ::std::uint32_t offset, const ::std::uint32_t count, const ::std::size_t recordSize) {
+        // Compared without adding nor multiplying, so it can't wrap around with 32 bits `size_t`.
+        return offset % Alignment == 0 && offset <= this->size_ &&
+            count <= (this->size_ - offset) / recordSize;
+    }};
+    if (!fits(header.offsetMaterials, header.numMaterials, sizeof(MaterialRecord)) ||
+        !fits(header.offsetTextures, header.numTextures, sizeof(TextureRecord)) ||
+        !fits(header.offsetTriangles, header.numTriangles, sizeof(TriangleRecord)) ||
+        !fits(header.offsetLights, header.numLights, sizeof(TriangleRecord))) {
+        LOG_ERROR("Binary scene is truncated.");
+        return;
+    }
+    this->numberTriangles_ = static_cast<::std::int32_t> (header.numTriangles);
+    this->isProcessed_ = true;
+    LOG_INFO("Binary scene has ", header.numTriangles, " triangles, ", header.numLights, " lights & ", header.numMaterials, " materials");
+}
+
+/**
+ * Fills the scene with the triangles, lights and materials read from the binary scene.
+ *
+ * @param scene         The scene to fill with geometry.
+ * @param lambda        A lambda which returns a sampler for the area lights.
+ * @param filePath      The path to the binary scene file, used to find the textures.
+ * @param texturesCache The cache for the textures.
+ * @return True if it succeeded to fill the scene or false otherwise.
+ */
+bool BinarySceneLoader::fillScene(Scene *const scene,
+                                  const ::std::function<::std::unique_ptr<Sampler>()> lambda,
+                                  ::std::string filePath,
+                                  ::std::unordered_map<::std::string, Texture> *const texturesCache) {
+    if (!this->isProcessed_) {
+        return false;
+    }
+    ::MobileRT::checkSystemError("Starting to fill scene from binary.");
+    filePath = filePath.substr(0, filePath.find_last_of('/')) + '/';
+    const Header &header {*reinterpret_cast<const Header *> (this->data_)};
+    const TextureRecord *const textures {reinterpret_cast<const TextureRecord *> (this->data_ + header.offsetTextures)};
+    const MaterialRecord *const materials {reinterpret_cast<const MaterialRecord *> (this->data_ + header.offsetMaterials)};
+    const TriangleRecord *const triangles {reinterpret_cast<const TriangleRecord *> (this->data_ + header.offsetTriangles)};
+    const TriangleRecord *const lights {reinterpret_cast<const TriangleRecord *> (this->data_ + header.offsetLights)};
+
+    ::std::vector<Material> sceneMaterials {};
+    sceneMaterials.reserve(header.numMaterials);
+    for (::std::uint32_t i {0}; i < header.numMaterials; ++i) {
+        const MaterialRecord &record {materials[i]};
+        Texture texture {};
+        if (record.textureIndex >= 0 && static_cast<::std::uint32_t> (record.textureIndex) < header.numTextures) {
+            const TextureRecord &textureRecord {textures[record.textureIndex]};
+            const ::std::string textureName {textureRecord.name, ::strnlen(textureRecord.name, TextureNameSize)};
+            texture = ::Components::OBJLoader::getTextureFromCache(texturesCache, filePath, textureName);
+        }
+        sceneMaterials.emplace_back(
+            ::MobileRT::toVec3(record.Kd), ::MobileRT::toVec3(record.Ks), ::MobileRT::toVec3(record.Kt),
+            record.refractiveIndice, ::MobileRT::toVec3(record.Le), ::std::move(texture)
+        );
+    }
+
+    const ::std::size_t firstMaterial {scene->materials_.size()};
+    scene->triangles_.reserve(scene->triangles_.size() + header.numTriangles);
+    for (::std::uint32_t i {0}; i < header.numTriangles; ++i) {
+        TriangleRecord record {triangles[i]};
+        // A triangle without material has the index -1.
+        if (record.materialIndex < -1 || (record.materialIndex >= 0 && static_cast<::std::uint32_t> (record.materialIndex) >= header.numMaterials)) {
+            LOG_ERROR("Triangle ", i, " has an invalid material: ", record.materialIndex);
+            return false;
+        }
+        if (record.materialIndex >= 0) {
+            record.materialIndex += static_cast<::std::int32_t> (firstMaterial);
+        }
+        scene->triangles_.emplace_back(toTriangle(record));
+    }
+
+    scene->lights_.reserve(scene->lights_.size() + header.numLights);
+    for (::std::uint32_t i {0}; i < header.numLights; ++i) {
+        const TriangleRecord &record {lights[i]};
+        if (record.materialIndex < 0 || static_cast<::std::uint32_t> (record.materialIndex) >= header.numMaterials) {
+            LOG_ERROR("Light ", i, " has an invalid material: ", record.materialIndex);
+            return false;
+        }
+        const Material &radiance {sceneMaterials[static_cast<::std::size_t> (record.materialIndex)]};
+        scene->lights_.emplace_back(::MobileRT::std::make_unique<AreaLight>(radiance, lambda(), toTriangle(record)));
+    }
+
+    scene->materials_.reserve(firstMaterial + sceneMaterials.size());
+    ::std::move(sceneMaterials.begin(), sceneMaterials.end(), ::std::back_inserter(scene->materials_));
+
+    ::MobileRT::checkSystemError("Filled Scene from binary");
+    LOG_INFO("Total triangles loaded: ", scene->triangles_.size());
+    LOG_INFO("Total lights loaded:  ", scene->lights_.size());
+    LOG_INFO("Total materials loaded:  ", scene->materials_.size());
+    return true;
+}
+
+/**
+ * Creates the camera stored in the binary scene.
+ *
+ * @param aspectRatio The aspect ratio of the image to render.
+ * @return The camera of the scene or nullptr if the binary scene is not valid.
+ */
+::std::unique_ptr<Camera> BinarySceneLoader::loadCamera(const float aspectRatio) const {
+    if (!this->isProcessed_) {
+        return nullptr;
+    }
+    const CameraRecord &record {reinterpret_cast<const Header *> (this->data_)->camera};
+    const ::glm::vec3 position {::MobileRT::toVec3(record.position)};
+    const ::glm::vec3 lookAt {position + ::MobileRT::toVec3(record.direction)};
+    const ::glm::vec3 up {::MobileRT::toVec3(record.up)};
+    ::std::unique_ptr<Camera> camera {};
+    if (record.type == ORTHOGRAPHIC) {
+        camera = ::MobileRT::std::make_unique<::Components::Orthographic> (
+            position, lookAt, up, record.fov[0] * aspectRatio, record.fov[1]
+        );
+    } else {
+        camera = ::MobileRT::std::make_unique<::Components::Perspective> (
+            position, lookAt, up, record.fov[0] * aspectRatio, record.fov[1]
+        );
+    }
+    // Restore the exact camera basis, since the camera derives its own basis from the `up` vector.
+    camera->right_ = ::MobileRT::toVec3(record.right);
+    camera->up_ = up;
+    return camera;
+}
+
+/**
+ * Checks whether a file path points to a scene in the binary scene format.
+ *
+ * @param filePath The path to a scene file.
+ * @return Whether the file is a binary scene.
+ */
+bool BinarySceneLoader::isBinaryScene(const ::std::string &filePath) {
+    const ::std::string extension {FileExtension};
+    return filePath.size() >= extension.size() &&
+        filePath.compare(filePath.size() - extension.size(), extension.size(), extension) == 0;
+}
+
+/**
+ * Writes a scene in the binary scene format.
+ * <br>
+ * The camera must have been created with an aspect ratio of 1, so it can be restored later with
+ * any aspect ratio.
+ *
+ * @param filePath      The path to the binary scene file to create.
+ * @param scene         The scene to write (only its triangles, area lights and materials).
+ * @param camera        The camera of the scene.
+ * @param texturesCache The cache with the textures used by the scene, indexed by the texture file name.
+ * @return Whether the binary scene was written successfully.
+ */
+bool BinarySceneLoader::writeScene(const ::std::string &filePath,
+                                   const Scene &scene,
+                                   const Camera &camera,
+                                   const ::std::unordered_map<::std::string, Texture> &texturesCache) {
+    LOG_INFO("Writing binary scene: ", filePath);
+    ::std::vector<::std::pair<::std::string, Texture>> textures {};
+    ::std::vector<MaterialRecord> materials {};
+    materials.reserve(scene.materials_.size() + scene.lights_.size());
+    for (const Material &material : scene.materials_) {
+        materials.emplace_back(toRecord(material, getTextureIndex(material.texture_, texturesCache, &textures)));
+    }
+
+    ::std::vector<TriangleRecord> triangles {};
+    triangles.reserve(scene.triangles_.size());
+    for (const Triangle &triangle : scene.triangles_) {
+        triangles.emplace_back(toRecord(triangle, triangle.getMaterialIndex()));
+    }
+
+    ::std::vector<TriangleRecord> lights {};
+    lights.reserve(scene.lights_.size());
+    for (const ::std::unique_ptr<Light> &light : scene.lights_) {
+        const AreaLight *const areaLight {dynamic_cast<const AreaLight *> (light.get())};
+        if (areaLight == nullptr) {
+            LOG_WARN("Only area lights can be written in a binary scene.");
+            continue;
+        }
+        const ::std::int32_t materialIndex {static_cast<::std::int32_t> (materials.size())};
+        materials.emplace_back(toRecord(light->radiance_, getTextureIndex(light->radiance_.texture_, texturesCache, &textures)));
+        lights.emplace_back(toRecord(areaLight->getTriangle(), materialIndex));
+    }
+
+    Header header {};
+    ::std::memcpy(header.magic, Magic, sizeof(Magic));
+    header.version = Version;
+    header.numMaterials = static_cast<::std::uint32_t> (materials.size());
+    header.numTextures = static_cast<::std::uint32_t> (textures.size());
+    header.numTriangles = static_cast<::std::uint32_t> (triangles.size());
+    header.numLights = static_cast<::std::uint32_t> (lights.size());
+    header.offsetMaterials = align(sizeof(Header));
+    header.offsetTextures = align(header.offsetMaterials + header.numMaterials * static_cast<::std::uint32_t> (sizeof(MaterialRecord)));
+    header.offsetTriangles = align(header.offsetTextures + header.numTextures * static_cast<::std::uint32_t> (sizeof(TextureRecord)));
+    header.offsetLights = align(header.offsetTriangles + header.numTriangles * static_cast<::std::uint32_t> (sizeof(TriangleRecord)));
+
+    const ::Components::Perspective *const perspective {dynamic_cast<const ::Components::Perspective *> (&camera)};
+    const ::Components::Orthographic *const orthographic {dynamic_cast<const ::Components::Orthographic *> (&camera)};
+    if (perspective != nullptr) {
+        header.camera.type = PERSPECTIVE;
+        header.camera.fov[0] = perspective->getHFov();
+        header.camera.fov[1] = perspective->getVFov();
+    } else if (orthographic != nullptr) {
+        header.camera.type = ORTHOGRAPHIC;
+        header.camera.fov[0] = orthographic->getSizeH();
+        header.camera.fov[1] = orthographic->getSizeV();
+    } else {
+        LOG_ERROR("Camera type not supported by the binary scene format.");
+        return false;
+    }
+    toArray(camera.position_, header.camera.position);
+    toArray(camera.direction_, header.camera.direction);
+    toArray(camera.right_, header.camera.right);
+    toArray(camera.up_, header.camera.up);
+
+    ::std::vector<TextureRecord> textureRecords (textures.size());
+    for (::std::size_t i {0}; i < textures.size(); ++i) {
+        ::std::strncpy(textureRecords[i].name, textures[i].first.c_str(), TextureNameSize - 1);
+    }
+
+    ::std::ofstream file {filePath, ::std::ios::binary | ::std::ios::trunc};
+    if (!file.is_open()) {
+        errno = 0;
+        LOG_ERROR("Could not create binary scene: ", filePath);
+        return false;
+    }
+    const auto writeAt {[&](const ::std::uint32_t offset, const void *const data, const ::std::size_t size) {
+        const ::std::streamoff padding {static_cast<::std::streamoff> (offset) - file.tellp()};
+        for (::std::streamoff i {0}; i < padding; ++i) {
+            file.put('\0');
+        }
+        file.write(static_cast<const char *> (data), static_cast<::std::streamsize> (size));
+    }};
+    writeAt(0, &header, sizeof(Header));
+    writeAt(header.offsetMaterials, materials.data(), materials.size() * sizeof(MaterialRecord));
+    writeAt(header.offsetTextures, textureRecords.data(), textureRecords.size() * sizeof(TextureRecord));
+    writeAt(header.offsetTriangles, triangles.data(), triangles.size() * sizeof(TriangleRecord));
+    writeAt(header.offsetLights, lights.data(), lights.size() * sizeof(TriangleRecord));
+    file.close();
+    if (file.fail()) {
+        errno = 0;
+        LOG_ERROR("Could not write binary scene: ", filePath);
+        return false;
+    }
+    ::MobileRT::checkSystemError("Wrote binary scene.");
+    LOG_INFO("Wrote binary scene with ", triangles.size(), " triangles, ", lights.size(), " lights & ", materials.size(), " materials");
+    return true;
+}
+
+/**
+ * The destructor.
+ */
+BinarySceneLoader::~BinarySceneLoader() {
+    if (this->mapped_) {
+        ::munmap(const_cast<::std::uint8_t *> (this->data_), this->size_);
+    }
+    this->data_ = nullptr;
+    LOG_DEBUG("BINARY SCENE LOADER DELETED");
+}
@@ -0,0 +1,90 @@
+#ifndef COMPONENTS_LOADERS_BINARYSCENELOADER_HPP
+#define COMPONENTS_LOADERS_BINARYSCENELOADER_HPP
+
+#include "MobileRT/Camera.hpp"
+#include "MobileRT/ObjectLoader.hpp"
+#include "MobileRT/Sampler.hpp"
+#include "MobileRT/Scene.hpp"
+#include "MobileRT/Texture.hpp"
+
+#include <cstddef>
+#include <memory>
+#include <string>
+#include <unordered_map>
+
+namespace Components {
+
+    /**
+     * A class which loads a scene from the MobileRT binary scene format and fills the scene with
+     * the loaded geometry.
+     * <br>
+     * The binary format is a versioned header followed by flat arrays of fixed size records
+     * (materials, texture references, triangles and area lights) plus the camera.
+     * Every record only contains 32 bits fields, so the file can be memory mapped and the arrays
+     * can be read in place without parsing any text.
+     * <br>
+     * A binary scene can be created from an OBJ scene with the {@link BinarySceneLoader::writeScene}
+     * method.
+     */
+    class BinarySceneLoader final : public ::MobileRT::ObjectLoader {
+    private:
+        /**
+         * The memory mapped file (or the buffer with its contents if the platform can't map it).
+         */
+        const ::std::uint8_t *data_ {nullptr};
+
+        /**
+         * The size in bytes of the binary scene.
+         */
+        ::std::size_t size_ {0};
+
+        /**
+         * Whether the data was mapped with mmap and has to be unmapped in the destructor.
+         */
+        bool mapped_ {false};
+
+        /**
+         * The contents of the file, only used when the file couldn't be memory mapped.
+         */
+        ::std::string buffer_ {};
+
+    public:
+        explicit BinarySceneLoader() = delete;
+
+        explicit BinarySceneLoader(const ::std::string &filePath);
+
+        explicit BinarySceneLoader(::std::int32_t fileDescriptor, ::std::size_t size);
+
+        BinarySceneLoader(const BinarySceneLoader &binarySceneLoader) = delete;
+
+        BinarySceneLoader(BinarySceneLoader &&binarySceneLoader) noexcept = delete;
+
+        ~BinarySceneLoader() final;
+
+        BinarySceneLoader &operator=(const BinarySceneLoader &binarySceneLoader) = delete;
+
+        BinarySceneLoader &operator=(BinarySceneLoader &&binarySceneLoader) noexcept = delete;
+
+        bool fillScene(::MobileRT::Scene *scene,
+                       ::std::function<::std::unique_ptr<::MobileRT::Sampler>()> lambda,
+                       ::std::string filePath,
+                       ::std::unordered_map<::std::string, ::MobileRT::Texture> *texturesCache) final;
+
+        ::std::unique_ptr<::MobileRT::Camera> loadCamera(float aspectRatio) const;
+
+    private:
+        void mapFile(::std::int32_t fileDescriptor, ::std::size_t size);
+
+        void validate();
+
+    public:
+        static bool isBinaryScene(const ::std::string &filePath);
+
+        static bool writeScene(const ::std::string &filePath,
+                               const ::MobileRT::Scene &scene,
+                               const ::MobileRT::Camera &camera,
+                               const ::std::unordered_map<::std::string, ::MobileRT::Texture> &texturesCache);
+    };
+}//namespace Components
+
+#endif //COMPONENTS_LOADERS_BINARYSCENELOADER_HPP
@@ -1,5 +1,6 @@
 #include "Components/Loaders/OBJLoader.hpp"
 #include "Components/Lights/AreaLight.hpp"
+#include "Components/Loaders/TextureLoader.hpp"
 #include <cstring>
 #include <fstream>
 #include <thread>
@@ -8,6 +9,7 @@
 
 using ::Components::AreaLight;
 using ::Components::OBJLoader;
+using ::Components::TextureLoader;
 using ::MobileRT::Light;
 using ::MobileRT::Material;
 using ::MobileRT::Scene;
@@ -74,12 +76,25 @@ OBJLoader::OBJLoader(::std::istream& isObj, ::std::istream& isMtl) {
 bool OBJLoader::fillScene(Scene *const scene,
                           const ::std::function<::std::unique_ptr<Sampler>()> lambda,
                           ::std::string filePath,
-                          ::std::unordered_map<::std::string, ::MobileRT::Texture> texturesCache) {
+                          ::std::unordered_map<::std::string, ::MobileRT::Texture> *const texturesCache) {
     ::MobileRT::checkSystemError("Starting to fill scene.");
     LOG_INFO("FILLING SCENE with ", this->numberTriangles_, " triangles in ", this->shapes_.size(), " shapes & ", this->materials_.size(), " materials");
     filePath = filePath.substr(0, filePath.find_last_of('/')) + '/';
     ::std::mutex mutex {};
 
+    // Load all the textures missing in the cache before filling the scene, so the threads
+    // only have to read them.
+    if (!this->attrib_.texcoords.empty()) {
+        TextureLoader textureLoader {};
+        for (const ::tinyobj::material_t &material : this->materials_) {
+            const ::std::string &texName {material.diffuse_texname};
+            if (!texName.empty() && texturesCache->find(texName) == texturesCache->cend()) {
+                textureLoader.addTextureFile(texName, filePath + texName);
+            }
+        }
+        textureLoader.finishLoading(texturesCache);
+    }
+
     const ::std::uint32_t numChildren {::std::thread::hardware_concurrency()};
     if (numChildren <= 0) {
         LOG_ERROR("Number of available CPU cores is ", numChildren);
@@ -89,9 +104,9 @@ bool OBJLoader::fillScene(Scene *const scene,
     threads.reserve(numChildren);
     LOG_INFO("Created mutex and it will fill the scene using ", numChildren + 1, " threads");
     for (::std::uint32_t i {}; i < numChildren; ++i) {
-        threads.emplace_back(&OBJLoader::fillSceneThreadWork, this, i, numChildren + 1, scene, lambda, filePath, &texturesCache, &mutex);
+        threads.emplace_back(&OBJLoader::fillSceneThreadWork, this, i, numChildren + 1, scene, lambda, filePath, texturesCache, &mutex);
     }
-    fillSceneThreadWork(numChildren, numChildren + 1, scene, lambda, filePath, &texturesCache, &mutex);
+    fillSceneThreadWork(numChildren, numChildren + 1, scene, lambda, filePath, texturesCache, &mutex);
     for (::std::thread &thread : threads) {
         thread.join();
     }
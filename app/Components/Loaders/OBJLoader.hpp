@@ -43,7 +43,7 @@ namespace Components {
         bool fillScene(::MobileRT::Scene *scene,
                        ::std::function<::std::unique_ptr<::MobileRT::Sampler>()> lambda,
                        ::std::string filePath,
-                       ::std::unordered_map<::std::string, ::MobileRT::Texture> texturesCache) final;
+                       ::std::unordered_map<::std::string, ::MobileRT::Texture> *texturesCache) final;
 
     private:
         triple<::glm::vec3, ::glm::vec3, ::glm::vec3> loadNormal(
@@ -55,12 +55,6 @@ namespace Components {
             const ::tinyobj::shape_t &shape,
             ::std::int32_t indexOffset) const;
 
-        const ::MobileRT::Texture& getTextureFromCache(
-            ::std::unordered_map<::std::string, ::MobileRT::Texture> *const texturesCache,
-            const ::std::string &filePath,
-            const ::std::string &texPath
-        );
-
        /**
         * Fill the scene with the loaded triangles.
         * <p>
@@ -81,6 +75,11 @@ namespace Components {
             long size,
             const ::std::string &texPath);
 
+        static const ::MobileRT::Texture& getTextureFromCache(
+            ::std::unordered_map<::std::string, ::MobileRT::Texture> *const texturesCache,
+            const ::std::string &filePath,
+            const ::std::string &texPath);
+
     private:
         static triple<::glm::vec2, ::glm::vec2, ::glm::vec2> normalizeTexCoord(
             const MobileRT::Texture &texture,
@@ -0,0 +1,274 @@
+#include "Components/Loaders/TextureLoader.hpp"
+#include "MobileRT/Utils/Utils.hpp"
+
+#include <algorithm>
+#include <atomic>
+#include <fstream>
+#include <functional>
+#include <iterator>
+#include <mutex>
+#include <sstream>
+
+using ::Components::TextureLoader;
+using ::MobileRT::Texture;
+
+namespace {
+    /**
+     * Helper method which executes a task for every index in [0, size[ with all the available CPU
+     * cores.
+     * If any task throws an exception, the first one is rethrown after all the threads finish.
+     *
+     * @param size The number of tasks.
+     * @param task The task to execute for each index.
+     */
+    void parallelFor(const ::std::size_t size, const ::std::function<void(::std::size_t)> &task) {
+        ::std::atomic<::std::size_t> nextIndex {0};
+        ::std::exception_ptr error {};
+        ::std::mutex mutex {};
+        const auto work {[&]() {
+            for (::std::size_t index {nextIndex++}; index < size; index = nextIndex++) {
+                try {
+                    task(index);
+                } catch (...) {
+                    const ::std::lock_guard<::std::mutex> lock {mutex};
+                    if (error == nullptr) {
+                        error = ::std::current_exception();
+                    }
+                }
+            }
+        }};
+
+        const ::std::size_t numCores {::std::max(1U, ::std::thread::hardware_concurrency())};
+        const ::std::size_t numChildren {::std::min(numCores, size) - (size > 0 ? 1 : 0)};
+        ::std::vector<::std::thread> threads {};
+        threads.reserve(numChildren);
+        for (::std::size_t i {0}; i < numChildren; ++i) {
+            threads.emplace_back(work);
+        }
+        work();
+        for (::std::thread &thread : threads) {
+            thread.join();
+        }
+        if (error != nullptr) {
+            ::std::rethrow_exception(error);
+        }
+    }
+
+    /**
+     * Helper method which reads all the contents of a file.
+     *
+     * @param path     The path to the file.
+     * @param contents The string where the contents should be put.
+     * @return Whether the file was read or not.
+     */
+    bool readFile(const ::std::string &path, ::std::string *const contents) {
+        ::std::ifstream file {path, ::std::ios::binary};
+        if (!file.is_open()) {
+            return false;
+        }
+        contents->assign(::std::istreambuf_iterator<char> {file}, ::std::istreambuf_iterator<char> {});
+        return !contents->empty();
+    }
+}//namespace
+
+/**
+ * The destructor.
+ */
+TextureLoader::~TextureLoader() {
+    if (this->worker_.joinable()) {
+        this->worker_.join();
+    }
+    LOG_DEBUG("TEXTURE LOADER DELETED");
+}
+
+/**
+ * Adds a texture, already read into memory, to be loaded.
+ *
+ * @param name    The name of the texture, as referenced in the MTL file.
+ * @param encoded The contents of the texture file.
+ */
+void TextureLoader::addTexture(const ::std::string &name, ::std::string &&encoded) {
+    ASSERT(!this->worker_.joinable(), "Can't add textures while loading.");
+    if (!hasRequest(name)) {
+        this->requests_.push_back(Request {name, ::std::string {}, ::std::move(encoded), 0});
+    }
+}
+
+/**
+ * Adds a texture file to be loaded.
+ * <br>
+ * The file is only read when the loading starts, so the reads are also done in parallel.
+ *
+ * @param name The name of the texture, as referenced in the MTL file.
+ * @param path The path to the texture file.
+ */
+void TextureLoader::addTextureFile(const ::std::string &name, const ::std::string &path) {
+    ASSERT(!this->worker_.joinable(), "Can't add textures while loading.");
+    if (!hasRequest(name)) {
+        this->requests_.push_back(Request {name, path, ::std::string {}, 0});
+    }
+}
+
+/**
+ * Checks whether there are textures waiting to be loaded.
+ *
+ * @return Whether there are textures to load.
+ */
+bool TextureLoader::hasPendingTextures() const {
+    return !this->requests_.empty();
+}
+
+/**
+ * Starts loading all the added textures in a background thread.
+ */
+void TextureLoader::startLoading() {
+    if (this->requests_.empty() || this->worker_.joinable()) {
+        return;
+    }
+    LOG_INFO("Starting to load ", this->requests_.size(), " textures");
+    this->worker_ = ::std::thread {&TextureLoader::loadAll, this};
+}
+
+/**
+ * Waits for all the textures to be loaded and adds them to the textures cache.
+ * <br>
+ * If the loading was not started yet, then the textures are loaded right away.
+ * The textures which are already in the cache are kept.
+ *
+ * @param texturesCache The cache for the textures.
+ */
+void TextureLoader::finishLoading(::std::unordered_map<::std::string, Texture> *const texturesCache) {
+    if (this->worker_.joinable()) {
+        this->worker_.join();
+    } else if (!this->requests_.empty()) {
+        loadAll();
+    }
+
+    for (::std::pair<const ::std::string, Texture> &pair : this->textures_) {
+        texturesCache->emplace(pair.first, ::std::move(pair.second));
+    }
+    this->requests_.clear();
+    this->textures_.clear();
+    // Ignore the errors of the texture files which couldn't be read.
+    errno = 0;
+
+    if (this->error_ != nullptr) {
+        const ::std::exception_ptr error {this->error_};
+        this->error_ = nullptr;
+        ::std::rethrow_exception(error);
+    }
+}
+
+/**
+ * Helper method which checks if a texture was already added.
+ *
+ * @param name The name of the texture.
+ * @return Whether the texture was already added.
+ */
+bool TextureLoader::hasRequest(const ::std::string &name) const {
+    const auto itRequest {::std::find_if(this->requests_.cbegin(), this->requests_.cend(),
+        [&](const Request &request) { return request.name == name; }
+    )};
+    return itRequest != this->requests_.cend();
+}
+
+/**
+ * Helper method which reads, deduplicates and validates all the added textures.
+ * <br>
+ * The textures are deduplicated by the hash of their contents, so a texture referenced by
+ * several names (e.g. copies of the same image) is only decoded once.
+ */
+void TextureLoader::loadAll() {
+    try {
+        const ::std::size_t numRequests {this->requests_.size()};
+
+        // Read the texture files and calculate the hash of their contents.
+        parallelFor(numRequests, [&](const ::std::size_t index) {
+            Request &request {this->requests_[index]};
+            if (request.encoded.empty() && !readFile(request.path, &request.encoded)) {
+                LOG_WARN("Could not read texture file: ", request.path);
+            }
+            request.hash = ::std::hash<::std::string> {}(request.encoded);
+        });
+
+        // Only create the first texture with the same contents.
+        ::std::vector<::std::size_t> uniqueIndex (numRequests);
+        ::std::vector<::std::size_t> uniqueRequests {};
+        ::std::unordered_multimap<::std::size_t, ::std::size_t> requestsByHash {};
+        for (::std::size_t index {0}; index < numRequests; ++index) {
+            const Request &request {this->requests_[index]};
+            uniqueIndex[index] = index;
+            if (request.encoded.empty()) {
+                continue;
+            }
+            const auto range {requestsByHash.equal_range(request.hash)};
+            const auto itDuplicate {::std::find_if(range.first, range.second,
+                [&](const ::std::pair<const ::std::size_t, ::std::size_t> &pair) {
+                    return this->requests_[pair.second].encoded == request.encoded;
+                }
+            )};
+            if (itDuplicate != range.second) {
+                uniqueIndex[index] = itDuplicate->second;
+            } else {
+                requestsByHash.emplace(request.hash, index);
+                uniqueRequests.emplace_back(index);
+            }
+        }
+        LOG_INFO("Loading ", uniqueRequests.size(), " unique textures from ", numRequests, " textures");
+
+        ::std::vector<Texture> textures (numRequests);
+        parallelFor(uniqueRequests.size(), [&](const ::std::size_t index) {
+            const ::std::size_t requestIndex {uniqueRequests[index]};
+            Request &request {this->requests_[requestIndex]};
+            const long size {static_cast<long> (request.encoded.size())};
+            textures[requestIndex] = Texture::createTexture(::std::move(request.encoded), size);
+        });
+
+        for (::std::size_t index {0}; index < numRequests; ++index) {
+            const Texture &texture {textures[uniqueIndex[index]]};
+            if (texture.isValid()) {
+                this->textures_.emplace(this->requests_[index].name, texture);
+            }
+        }
+        LOG_INFO("Loaded ", this->textures_.size(), " textures");
+    } catch (...) {
+        this->error_ = ::std::current_exception();
+    }
+}
+
+/**
+ * Gets the names of the diffuse textures referenced by a MTL file.
+ * <br>
+ * This allows to start loading the textures before the OBJ loader parses the MTL file.
+ * The stream is rewound to the beginning afterwards.
+ *
+ * @param isMtl The stream with the MTL file.
+ * @return The names of the textures.
+ */
+::std::vector<::std::string> TextureLoader::getTextureNames(::std::istream &isMtl) {
+    ::std::vector<::std::string> names {};
+    const ::std::ios::iostate exceptions {isMtl.exceptions()};
+    isMtl.exceptions(::std::ios::goodbit);
+    ::std::string line {};
+    while (::std::getline(isMtl, line)) {
+        ::std::istringstream isLine {line};
+        ::std::string keyword {};
+        isLine >> keyword;
+        if (keyword != "map_Kd") {
+            continue;
+        }
+        // The name of the texture is the last token, after the texture options.
+        ::std::string token {};
+        ::std::string name {};
+        while (isLine >> token) {
+            name = token;
+        }
+        if (!name.empty() && ::std::find(names.cbegin(), names.cend(), name) == names.cend()) {
+            names.emplace_back(name);
+        }
+    }
+    isMtl.clear();
+    isMtl.seekg(0, ::std::ios::beg);
+    isMtl.exceptions(exceptions);
+    return names;
+}
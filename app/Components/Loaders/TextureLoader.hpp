@@ -0,0 +1,75 @@
+#ifndef COMPONENTS_LOADERS_TEXTURELOADER_HPP
+#define COMPONENTS_LOADERS_TEXTURELOADER_HPP
+
+#include "MobileRT/Texture.hpp"
+
+#include <cstddef>
+#include <exception>
+#include <istream>
+#include <string>
+#include <thread>
+#include <unordered_map>
+#include <vector>
+
+namespace Components {
+
+    /**
+     * A class which loads the textures of a scene concurrently.
+     * <br>
+     * The texture files are read and validated in a background thread (which uses all the
+     * available CPU cores), so the caller can parse the geometry of the scene at the same time.
+     * The textures with the same contents share the same texels, even if they have different
+     * names, so they are only decoded once when they are sampled for the first time.
+     */
+    class TextureLoader final {
+    private:
+        /**
+         * A texture which has to be loaded.
+         */
+        struct Request {
+            ::std::string name;
+            ::std::string path;
+            ::std::string encoded;
+            ::std::size_t hash;
+        };
+
+    private:
+        ::std::vector<Request> requests_ {};
+        ::std::unordered_map<::std::string, ::MobileRT::Texture> textures_ {};
+        ::std::thread worker_ {};
+        ::std::exception_ptr error_ {};
+
+    public:
+        explicit TextureLoader() = default;
+
+        TextureLoader(const TextureLoader &textureLoader) = delete;
+
+        TextureLoader(TextureLoader &&textureLoader) noexcept = delete;
+
+        ~TextureLoader();
+
+        TextureLoader &operator=(const TextureLoader &textureLoader) = delete;
+
+        TextureLoader &operator=(TextureLoader &&textureLoader) noexcept = delete;
+
+        void addTexture(const ::std::string &name, ::std::string &&encoded);
+
+        void addTextureFile(const ::std::string &name, const ::std::string &path);
+
+        bool hasPendingTextures() const;
+
+        void startLoading();
+
+        void finishLoading(::std::unordered_map<::std::string, ::MobileRT::Texture> *texturesCache);
+
+    private:
+        bool hasRequest(const ::std::string &name) const;
+
+        void loadAll();
+
+    public:
+        static ::std::vector<::std::string> getTextureNames(::std::istream &isMtl);
+    };
+}//namespace Components
+
+#endif //COMPONENTS_LOADERS_TEXTURELOADER_HPP
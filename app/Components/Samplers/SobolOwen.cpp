@@ -0,0 +1,121 @@
+#include "Components/Samplers/SobolOwen.hpp"
+#include <algorithm>
+
+using ::Components::SobolOwen;
+
+namespace {
+    /**
+     * The greatest float smaller than 1, so the samples are always in the interval [0, 1[.
+     */
+    const float OneMinusEpsilon {0.99999994F};
+
+    /**
+     * Reverses the order of the bits of an integer.
+     *
+     * @param value The integer.
+     * @return The integer with the bits reversed.
+     */
+    ::std::uint32_t reverseBits(::std::uint32_t value) {
+        value = (value << 16U) | (value >> 16U);
+        value = ((value & 0x00FF00FFU) << 8U) | ((value & 0xFF00FF00U) >> 8U);
+        value = ((value & 0x0F0F0F0FU) << 4U) | ((value & 0xF0F0F0F0U) >> 4U);
+        value = ((value & 0x33333333U) << 2U) | ((value & 0xCCCCCCCCU) >> 2U);
+        value = ((value & 0x55555555U) << 1U) | ((value & 0xAAAAAAAAU) >> 1U);
+        return value;
+    }
+
+    /**
+     * Calculates a value of one of the first 2 dimensions of the Sobol sequence, as a fixed point
+     * number with 32 bits.
+     * <br>
+     * The first dimension is the Van der Corput sequence and the direction numbers of the second
+     * one are the rows of the Pascal triangle modulo 2.
+     *
+     * @param index     The index of the value in the sequence.
+     * @param dimension The dimension, 0 or 1.
+     * @return The value of the Sobol sequence.
+     */
+    ::std::uint32_t sobol(::std::uint32_t index, const ::std::uint32_t dimension) {
+        if (dimension == 0) {
+            return reverseBits(index);
+        }
+        ::std::uint32_t value {};
+        for (::std::uint32_t direction {1U << 31U}; index != 0; index >>= 1U, direction ^= direction >> 1U) {
+            if ((index & 1U) != 0) {
+                value ^= direction;
+            }
+        }
+        return value;
+    }
+
+    /**
+     * Mixes the bits of an integer, so similar integers give very different results.
+     *
+     * @param value The integer.
+     * @return The hash of the integer.
+     */
+    ::std::uint32_t hash(::std::uint32_t value) {
+        value ^= value >> 16U;
+        value *= 0x7FEB352DU;
+        value ^= value >> 15U;
+        value *= 0x846CA68BU;
+        value ^= value >> 16U;
+        return value;
+    }
+
+    /**
+     * Combines a seed with another value.
+     *
+     * @param seed  The seed.
+     * @param value The value.
+     * @return The new seed.
+     */
+    ::std::uint32_t hashCombine(const ::std::uint32_t seed, const ::std::uint32_t value) {
+        return seed ^ (value + 0x9E3779B9U + (seed << 6U) + (seed >> 2U));
+    }
+
+    /**
+     * Applies an Owen scramble to a fixed point number with 32 bits, by flipping each bit
+     * depending on the more significant bits and on the seed.
+     * <br>
+     * It keeps the stratification of the Sobol sequence and, when applied to the indexes of the
+     * sequence, it shuffles the values inside each block with a size which is a power of 2.
+     * @see <a href="https://jcgt.org/published/0009/04/01/">Practical Hash-based Owen Scrambling</a>
+     *
+     * @param value The number.
+     * @param seed  The seed of the scramble.
+     * @return The scrambled number.
+     */
+    ::std::uint32_t nestedUniformScramble(::std::uint32_t value, const ::std::uint32_t seed) {
+        value = reverseBits(value);
+        value += seed;
+        value ^= value * 0x6C50B47CU;
+        value ^= value * 0xB82F1E52U;
+        value ^= value * 0xC7AFE638U;
+        value ^= value * 0x8D22F6E6U;
+        return reverseBits(value);
+    }
+}//namespace
+
+float SobolOwen::getSample(const ::std::uint32_t /*sample*/) {
+    ::std::uint32_t pixel {};
+    ::std::uint32_t sample {};
+    const ::std::uint32_t dimension {Sampler::nextDimension(&pixel, &sample)};
+    return computeSample(pixel, sample, dimension);
+}
+
+/**
+ * Calculates a value of the Owen-scrambled Sobol sequence of a pixel.
+ *
+ * @param pixel     The index of the pixel in the image.
+ * @param sample    The index of the sample per pixel.
+ * @param dimension The dimension of the sample.
+ * @return A value between 0 and 1.
+ */
+float SobolOwen::computeSample(const ::std::uint32_t pixel, const ::std::uint32_t sample, const ::std::uint32_t dimension) {
+    const ::std::uint32_t pairSeed {hashCombine(hash(pixel), hash(dimension / 2U))};
+    const ::std::uint32_t index {nestedUniformScramble(sample, pairSeed)};
+    const ::std::uint32_t dimensionSeed {hashCombine(pairSeed, hash(dimension % 2U + 1U))};
+    const ::std::uint32_t value {nestedUniformScramble(sobol(index, dimension % 2U), dimensionSeed)};
+    return ::std::min(static_cast<float> (value) * 2.3283064365386963e-10F, OneMinusEpsilon);
+}
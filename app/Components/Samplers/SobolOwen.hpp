@@ -0,0 +1,37 @@
+#ifndef COMPONENTS_SAMPLERS_SOBOLOWEN_HPP
+#define COMPONENTS_SAMPLERS_SOBOLOWEN_HPP
+
+#include "MobileRT/Sampler.hpp"
+
+namespace Components {
+
+    /**
+     * This sampler returns the Owen-scrambled Sobol sequence of the pixel sample that the current
+     * thread is rendering.
+     * <br>
+     * The values are computed from the pixel, the sample per pixel and the dimension, without any
+     * state shared by the threads. The dimensions are taken in pairs of the first 2 dimensions of
+     * the Sobol sequence, and each pair is shuffled and scrambled with a different seed, so the
+     * dimensions and the pixels are not correlated.
+     */
+    class SobolOwen final : public ::MobileRT::Sampler {
+    public:
+        explicit SobolOwen() = default;
+
+        SobolOwen(const SobolOwen &sobolOwen) = delete;
+
+        SobolOwen(SobolOwen &&sobolOwen) noexcept = delete;
+
+        ~SobolOwen() final = default;
+
+        SobolOwen &operator=(const SobolOwen &sobolOwen) = delete;
+
+        SobolOwen &operator=(SobolOwen &&sobolOwen) noexcept = delete;
+
+        float getSample(::std::uint32_t sample) final;
+
+        static float computeSample(::std::uint32_t pixel, ::std::uint32_t sample, ::std::uint32_t dimension);
+    };
+}//namespace Components
+
+#endif //COMPONENTS_SAMPLERS_SOBOLOWEN_HPP
@@ -26,15 +26,19 @@ bool NoShadows::shade(::glm::vec3 *const rgb, const Intersection &intersection)
         if (sizeLights > 0) {
             const ::std::int32_t samplesLight {this->samplesLight_};
             for (::std::int32_t j {}; j < samplesLight; ++j) {
-                const ::std::uint32_t chosenLight {getLightIndex()};
-                ::MobileRT::Light &light {*this->lights_[chosenLight]};
+                float pdf {};
+                const ::std::int32_t chosenLight {sampleLight(intersection.point_, shadingNormal, &pdf)};
+                if (chosenLight < 0) {
+                    continue;
+                }
+                ::MobileRT::Light &light {*this->lights_[static_cast<::std::uint32_t> (chosenLight)]};
                 const ::glm::vec3 &lightPosition {light.getPosition()};
                 //vectorIntersectCameraNormalized = light.position_ - intersection.point_
                 const ::glm::vec3 &vectorToLightNormalized {::glm::normalize(lightPosition - intersection.point_)};
                 const float cosNl {::glm::dot(shadingNormal, vectorToLightNormalized)};
                 if (cosNl > 0.0F) {
-                    // "rgb += kD * radLight * cosNl;"
-                    *rgb += light.radiance_.Le_ * cosNl;
+                    // "rgb += kD * radLight * cosNl / (pdf * sizeLights);"
+                    *rgb += light.radiance_.Le_ * (cosNl / (pdf * static_cast<float> (sizeLights)));
                 }
             }
             *rgb *= kD;
@@ -1,5 +1,7 @@
 #include "Components/Shaders/PathTracer.hpp"
+#include <algorithm>
 #include <glm/gtc/constants.hpp>
+#include <limits>
 
 using ::Components::PathTracer;
 using ::MobileRT::Sampler;
@@ -7,137 +9,227 @@ using ::MobileRT::Intersection;
 using ::MobileRT::Ray;
 using ::MobileRT::Scene;
 using ::MobileRT::RayDepthMin;
-using ::MobileRT::RayDepthMax;
+
+namespace {
+    /**
+     * Calculates the weight of a sample with the power heuristic of multiple importance sampling.
+     *
+     * @param numSamples      The number of samples taken with the strategy of the sample.
+     * @param pdf             The probability density of the sample with its strategy.
+     * @param numSamplesOther The number of samples taken with the other strategy.
+     * @param pdfOther        The probability density of the sample with the other strategy.
+     * @return The weight of the sample.
+     */
+    float powerHeuristic(const float numSamples, const float pdf, const float numSamplesOther, const float pdfOther) {
+        const float f {numSamples * pdf};
+        const float g {numSamplesOther * pdfOther};
+        const float denominator {f * f + g * g};
+        return denominator > 0.0F ? (f * f) / denominator : 0.0F;
+    }
+
+    /**
+     * Gets the greatest component of a color.
+     *
+     * @param color The color.
+     * @return The greatest component.
+     */
+    float getMaxComponent(const ::glm::vec3 &color) {
+        return ::std::max(color[0], ::std::max(color[1], color[2]));
+    }
+}//namespace
 
 PathTracer::PathTracer(Scene scene,
                        ::std::unique_ptr<Sampler> samplerRussianRoulette,
                        const ::std::int32_t samplesLight,
-                       const Accelerator accelerator) :
+                       const Accelerator accelerator,
+                       const DirectLighting directLighting) :
     Shader {::std::move(scene), samplesLight, accelerator},
-    samplerRussianRoulette_ {::std::move(samplerRussianRoulette)} {
+    samplerRussianRoulette_ {::std::move(samplerRussianRoulette)},
+    directLighting_ {directLighting} {
     LOG_DEBUG("samplesLight = ", this->samplesLight_);
+    LOG_DEBUG("directLighting = ", this->directLighting_);
 }
 
-//pag 28 slides Monte Carlo
-bool PathTracer::shade(::glm::vec3 *const rgb, const Intersection &intersection) {
-    const ::std::int32_t rayDepth {intersection.ray_.depth_};
-    if (rayDepth > RayDepthMax) {
-        return false;
-    }
-
-    const ::glm::vec3 &lE {intersection.material_->Le_};
-    //stop if it intersects a light source
-    if (::MobileRT::hasPositiveValue(lE)) {
-        *rgb = lE;
-        return true;
-    }
+/**
+ * Calculates the shadowed direct lighting of a point with a diffuse material, by sampling the
+ * lights in the scene.
+ *
+ * @param intersection The intersection with the diffuse material.
+ * @return The reflected direct light.
+ */
+::glm::vec3 PathTracer::getDirectLight(const Intersection &intersection) {
     ::glm::vec3 Ld {};
-    ::glm::vec3 LiD {};
-    ::glm::vec3 LiS {};
-    ::glm::vec3 LiT {};
-
-    const ::glm::vec3 &kD {intersection.material_->Kd_};
-    const ::glm::vec3 &kS {intersection.material_->Ks_};
-    const ::glm::vec3 &kT {intersection.material_->Kt_};
-    const float finishProbability {0.5F};
-    const float continueProbability {1.0F - finishProbability};
-
-    // the normal always points to outside objects (e.g., spheres)
-    // if the cosine between the ray and the normal is less than 0 then
-    // the ray intersected the object from the inside and the shading normal
-    // should be symmetric to the geometric normal
+    const long long unsigned sizeLights {this->lights_.size()};
+    if (sizeLights == 0) {
+        return Ld;
+    }
+    const bool mis {this->directLighting_ == DirectLighting::DL_MIS};
+    const ::std::int32_t rayDepth {intersection.ray_.depth_};
+    const ::std::int32_t samplesLight {this->samplesLight_};
     const ::glm::vec3 &shadingNormal {intersection.normal_};
+    for (::std::int32_t i {}; i < samplesLight; ++i) {
+        //PDF = importance of the light / importance of all the lights
+        float pdf {};
+        const ::std::int32_t chosenLight {sampleLight(intersection.point_, shadingNormal, &pdf)};
+        if (chosenLight < 0) {
+            continue;
+        }
+        ::MobileRT::Light &light {*this->lights_[static_cast<::std::uint32_t> (chosenLight)]};
+        //calculates vector starting in intersection to the light
+        const ::glm::vec3 lightPosition {light.getPosition()};
+        ::glm::vec3 vectorToLight {lightPosition - intersection.point_};
+        //distance from intersection to the light (and normalize it)
+        const float distanceToLight {::glm::length(vectorToLight)};
+        vectorToLight = ::glm::normalize(vectorToLight);
+        //x*x + y*y + z*z
+        const float cosNormalLight {::glm::dot(shadingNormal, vectorToLight)};
+        if (cosNormalLight > 0.0F) {
+            //shadow ray->orig=intersection, dir=light
+            Ray shadowRay {vectorToLight, intersection.point_, rayDepth + 1, true, intersection.primitive_};
+            //intersection between shadow ray and the closest primitive
+            //if there are no primitives between intersection and the light
+            if (!shadowTrace(distanceToLight, ::std::move(shadowRay), chosenLight)) {
+                const float pdfPosition {mis ? light.getPdf(intersection.point_, lightPosition) : 0.0F};
+                if (pdfPosition > 0.0F && pdfPosition < ::std::numeric_limits<float>::infinity()) {
+                    // The point lights can't be hit by a bounce, so only the area lights are weighted.
+                    //PDF = PDF of the light * PDF of the position on the light (in solid angle)
+                    //Ld += kD / Pi * radLight * cosNormalLight * weight / (PDF * samplesLight)
+                    const float pdfLight {pdf * pdfPosition};
+                    const float pdfBsdf {cosNormalLight * ::glm::one_over_pi<float>()};
+                    const float weight {powerHeuristic(static_cast<float> (samplesLight), pdfLight, 1.0F, pdfBsdf)};
+                    Ld += light.radiance_.Le_ * (pdfBsdf * weight / pdfLight);
+                } else if (pdfPosition <= 0.0F) {
+                    //Ld += kD * radLight * cosNormalLight / (PDF * sizeLights * samplesLight)
+                    Ld += light.radiance_.Le_ * (cosNormalLight / (pdf * static_cast<float> (sizeLights)));
+                }
+            }
+        }
+    }
+    Ld *= intersection.material_->Kd_;
+    // "Ld *= sizeLights;"
+    Ld /= samplesLight;
+    return Ld;
+}
 
+/**
+ * Calculates the color of a path which starts in an intersection.
+ * <br>
+ * The path is traced iteratively: in each vertex, it adds the direct lighting and then it
+ * continues through one of the diffuse reflection, the specular reflection or the specular
+ * transmission, chosen with a probability proportional to their reflectance. The throughput keeps
+ * the attenuation of the path until the current vertex, and the Russian roulette ends the path
+ * with a probability which grows as the throughput gets lower.
+ *
+ * @param rgb          A pointer to store the color of the path.
+ * @param intersection The first intersection of the path.
+ * @return Whether the path ended in a light source or not.
+ */
+bool PathTracer::shade(::glm::vec3 *const rgb, const Intersection &intersection) {
+    const bool mis {this->directLighting_ == DirectLighting::DL_MIS};
+    ::glm::vec3 radiance {};
+    ::glm::vec3 throughput {1.0F};
     bool intersectedLight {false};
 
-    // shadowed direct lighting - only for diffuse materials
-    //Ld = Ld (p->Wr)
-    if (::MobileRT::hasPositiveValue(kD)) {
-        const long long unsigned sizeLights {this->lights_.size()};
-        if (sizeLights > 0) {
-            const ::std::int32_t samplesLight {this->samplesLight_};
-            //direct light
-            for (::std::int32_t i {}; i < samplesLight; ++i) {
-                //PDF = 1 / sizeLights
-                const ::std::uint32_t chosenLight {getLightIndex()};
-                ::MobileRT::Light &light {*this->lights_[chosenLight]};
-                //calculates vector starting in intersection to the light
-                const ::glm::vec3 lightPosition {light.getPosition()};
-                ::glm::vec3 vectorToLight {lightPosition - intersection.point_};
-                //distance from intersection to the light (and normalize it)
-                const float distanceToLight {::glm::length(vectorToLight)};
-                vectorToLight = ::glm::normalize(vectorToLight);
-                //x*x + y*y + z*z
-                const float cosNormalLight {::glm::dot(shadingNormal, vectorToLight)};
-                if (cosNormalLight > 0.0F) {
-                    //shadow ray->orig=intersection, dir=light
-                    Ray shadowRay {vectorToLight, intersection.point_, rayDepth + 1, true, intersection.primitive_};
-                    //intersection between shadow ray and the closest primitive
-                    //if there are no primitives between intersection and the light
-                    if (!shadowTrace(distanceToLight, ::std::move(shadowRay))) {
-                        //Ld += kD * radLight * cosNormalLight * sizeLights / samplesLight
-                        Ld += light.radiance_.Le_ * cosNormalLight;
-                    }
+    // The previous vertex of the path, used to weight the light source hit by a diffuse bounce.
+    bool diffuseBounce {false};
+    bool previousDirectLight {false};
+    ::glm::vec3 previousPoint {};
+    ::glm::vec3 previousNormal {};
+    float previousPdfBsdf {};
+
+    Intersection vertex {intersection};
+    while (true) {
+        const ::std::int32_t rayDepth {vertex.ray_.depth_};
+        const ::glm::vec3 &lE {vertex.material_->Le_};
+        //stop if it intersects a light source
+        if (::MobileRT::hasPositiveValue(lE)) {
+            float weight {1.0F};
+            if (diffuseBounce && mis) {
+                const ::std::int32_t lightIndex {getLightIndex(vertex.material_)};
+                if (lightIndex >= 0) {
+                    //weight the light hit by the bounce with the PDF of choosing the same point with light sampling
+                    const ::MobileRT::Light &light {*this->lights_[static_cast<::std::uint32_t> (lightIndex)]};
+                    const float pdfLight {
+                        getLightPdf(lightIndex, previousPoint, previousNormal) *
+                        light.getPdf(previousPoint, vertex.point_)
+                    };
+                    weight = powerHeuristic(1.0F, previousPdfBsdf, static_cast<float> (this->samplesLight_), pdfLight);
                 }
+            } else if (diffuseBounce && previousDirectLight) {
+                //if it has Ld and if the bounce intersects a light source then it was already sampled
+                weight = 0.0F;
             }
-            Ld *= kD;
-            // "Ld *= sizeLights;"
-            Ld /= samplesLight;
+            radiance += throughput * lE * weight;
+            intersectedLight = true;
+            break;
         }
 
-        //indirect light
-        if (rayDepth <= RayDepthMin || this->samplerRussianRoulette_->getSample() > finishProbability) {
-            const ::glm::vec3 &newDirection {getCosineSampleHemisphere(shadingNormal)};
-            Ray normalizedSecundaryRay {newDirection, intersection.point_, rayDepth + 1, false, intersection.primitive_};
-
-            //Li = Pi/N * SOMATORIO i=1->i=N [fr (p,Wi <-> Wr) L(p <- Wi)]
-            //estimator = <F^N>=1/N * ∑(i=0)(N−1) f(Xi) / pdf(Xi)
+        const ::glm::vec3 kD {vertex.material_->Kd_};
+        const ::glm::vec3 &kS {vertex.material_->Ks_};
+        const ::glm::vec3 &kT {vertex.material_->Kt_};
+
+        // the normal always points to outside objects (e.g., spheres)
+        // if the cosine between the ray and the normal is less than 0 then
+        // the ray intersected the object from the inside and the shading normal
+        // should be symmetric to the geometric normal
+        const ::glm::vec3 &shadingNormal {vertex.normal_};
+
+        // shadowed direct lighting - only for diffuse materials
+        //Ld = Ld (p->Wr)
+        ::glm::vec3 Ld {};
+        if (::MobileRT::hasPositiveValue(kD)) {
+            Ld = getDirectLight(vertex);
+            radiance += throughput * Ld;
+        }
 
-            ::glm::vec3 LiD_RGB {};
-            intersectedLight = rayTrace(&LiD_RGB, ::std::move(normalizedSecundaryRay));
+        // choose the next bounce with a probability proportional to the reflectance of each lobe
+        const float weightD {getMaxComponent(kD)};
+        const float weightS {getMaxComponent(kS)};
+        const float weightT {getMaxComponent(kT)};
+        const float weightTotal {weightD + weightS + weightT};
+        if (weightTotal <= 0.0F || rayDepth >= ::MobileRT::PathDepthMax) {
+            break;
+        }
+        const float chosenLobe {this->samplerRussianRoulette_->getSample() * weightTotal};
+        ::glm::vec3 newDirection {};
+        diffuseBounce = chosenLobe < weightD;
+        if (diffuseBounce) {
             //PDF = cos(theta) / Pi
-            //cos (theta) = cos(dir, normal)
-            //PDF = cos(dir, normal) / Pi
-
-            //LiD += kD * LiD_RGB * cos (dir, normal) / (PDF * continueProbability)
-            //LiD += kD * LiD_RGB * Pi / continueProbability
-            LiD += kD * LiD_RGB;
-            if (rayDepth > RayDepthMin) {
-                LiD /= continueProbability * 0.5F;
-            }
-
-            //if it has Ld and if LiD intersects a light source then LiD = 0
-            if (::MobileRT::hasPositiveValue(Ld) && intersectedLight) {
-                LiD = {};
+            //throughput *= kD * cos(dir, normal) / (Pi * PDF * PDF of the lobe)
+            newDirection = getCosineSampleHemisphere(shadingNormal);
+            throughput *= kD * (weightTotal / weightD);
+            previousPdfBsdf = ::glm::dot(shadingNormal, newDirection) * ::glm::one_over_pi<float>();
+        } else if (chosenLobe < weightD + weightS) {
+            // specular reflection
+            newDirection = ::glm::reflect(vertex.ray_.direction_, shadingNormal);
+            throughput *= kS * (weightTotal / weightS);
+        } else {
+            // specular transmission
+            const float refractiveIndice {1.0F / vertex.material_->refractiveIndice_};
+            newDirection = ::glm::refract(vertex.ray_.direction_, shadingNormal, refractiveIndice);
+            throughput *= kT * (weightTotal / weightT);
+        }
+        previousDirectLight = ::MobileRT::hasPositiveValue(Ld);
+        previousPoint = vertex.point_;
+        previousNormal = shadingNormal;
+
+        // Russian roulette driven by the throughput of the path
+        if (rayDepth > RayDepthMin) {
+            const float continueProbability {::std::min(1.0F, getMaxComponent(throughput))};
+            if (this->samplerRussianRoulette_->getSample() >= continueProbability) {
+                break;
             }
+            throughput /= continueProbability;
         }
-    }
 
-    // specular reflection
-    if (::MobileRT::hasPositiveValue(kS)) {
-        //PDF = 1 / 2 Pi
-        const ::glm::vec3 &reflectionDir {::glm::reflect(intersection.ray_.direction_, shadingNormal)};
-        Ray specularRay {reflectionDir, intersection.point_, rayDepth + 1, false, intersection.primitive_};
-        ::glm::vec3 LiS_RGB {};
-        rayTrace(&LiS_RGB, ::std::move(specularRay));
-        LiS += kS * LiS_RGB;
-    }
-
-    // specular transmission
-    if (::MobileRT::hasPositiveValue(kT)) {
-        //PDF = 1 / 2 Pi
-        const float refractiveIndice {1.0F / intersection.material_->refractiveIndice_};
-        const ::glm::vec3 &refractDir {::glm::refract(intersection.ray_.direction_, shadingNormal, refractiveIndice)};
-        Ray transmissionRay {refractDir, intersection.point_, rayDepth + 1, false, intersection.primitive_};
-        ::glm::vec3 LiT_RGB {};
-        rayTrace(&LiT_RGB, ::std::move(transmissionRay));
-        LiT += kT * LiT_RGB;
+        Intersection nextVertex {trace(Ray {newDirection, vertex.point_, rayDepth + 1, false, vertex.primitive_})};
+        if (nextVertex.length_ >= ::MobileRT::RayLengthMax) {
+            break;
+        }
+        vertex = ::std::move(nextVertex);
     }
 
-    *rgb += Ld;
-    *rgb += LiD;
-    *rgb += LiS;
-    *rgb += LiT;
+    *rgb += radiance;
     return intersectedLight;
 }
 
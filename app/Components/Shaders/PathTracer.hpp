@@ -9,20 +9,42 @@
 namespace Components {
 
     class PathTracer final : public ::MobileRT::Shader {
+    public:
+        /**
+         * The estimators of the direct lighting.
+         */
+        enum DirectLighting {
+            /**
+             * Only samples the lights, and discards the indirect light of the bounces which hit a light
+             * when the direct lighting is not zero.
+             */
+            DL_LIGHT_SAMPLING = 1,
+
+            /**
+             * Combines the samples of the lights and the bounces which hit a light with multiple
+             * importance sampling, weighted by the power heuristic.
+             */
+            DL_MIS,
+        };
+
     private:
         ::std::unique_ptr<::MobileRT::Sampler> samplerRussianRoulette_{};
+        const DirectLighting directLighting_ {};
 
     private:
         bool shade(
             ::glm::vec3 *rgb,
             const ::MobileRT::Intersection &intersection) final;
 
+        ::glm::vec3 getDirectLight(const ::MobileRT::Intersection &intersection);
+
     public:
         explicit PathTracer() = delete;
 
         explicit PathTracer(::MobileRT::Scene scene,
                             ::std::unique_ptr<::MobileRT::Sampler> samplerRussianRoulette,
-                            ::std::int32_t samplesLight, Accelerator accelerator);
+                            ::std::int32_t samplesLight, Accelerator accelerator,
+                            DirectLighting directLighting = DirectLighting::DL_LIGHT_SAMPLING);
 
         PathTracer(const PathTracer &pathTracer) = delete;
 
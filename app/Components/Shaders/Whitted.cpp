@@ -39,8 +39,12 @@ bool Whitted::shade(::glm::vec3 *const rgb, const Intersection &intersection) {
         if (sizeLights > 0) {
             const ::std::int32_t samplesLight {this->samplesLight_};
             for (::std::int32_t i {}; i < samplesLight; ++i) {
-                const ::std::uint32_t chosenLight {getLightIndex()};
-                ::MobileRT::Light &light {*this->lights_[chosenLight]};
+                float pdf {};
+                const ::std::int32_t chosenLight {sampleLight(intersection.point_, shadingNormal, &pdf)};
+                if (chosenLight < 0) {
+                    continue;
+                }
+                ::MobileRT::Light &light {*this->lights_[static_cast<::std::uint32_t> (chosenLight)]};
                 const ::glm::vec3 lightPosition {light.getPosition()};
                 //calculates vector starting in intersection to the light
                 ::glm::vec3 vectorToLight {lightPosition - intersection.point_};
@@ -53,9 +57,9 @@ bool Whitted::shade(::glm::vec3 *const rgb, const Intersection &intersection) {
                     Ray shadowRay {vectorToLight, intersection.point_, rayDepth + 1, true, intersection.primitive_};
                     //intersection between shadow ray and the closest primitive
                     //if there are no primitives between intersection and the light
-                    if (!shadowTrace(distanceToLight, ::std::move(shadowRay))) {
-                        // "rgb += kD * radLight * cosNl;"
-                        *rgb += light.radiance_.Le_ * cosNl;
+                    if (!shadowTrace(distanceToLight, ::std::move(shadowRay), chosenLight)) {
+                        // "rgb += kD * radLight * cosNl / (pdf * sizeLights);"
+                        *rgb += light.radiance_.Le_ * (cosNl / (pdf * static_cast<float> (sizeLights)));
                     }
                 }
             }
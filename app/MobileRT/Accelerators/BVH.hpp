@@ -112,6 +112,8 @@ namespace MobileRT {
             Intersection shadowTrace(Intersection intersection);
 
             const ::std::vector<T>& getPrimitives() const;
+
+            static ::std::size_t estimateMemory(::std::size_t numPrimitives);
     };
 
 
@@ -137,6 +139,25 @@ namespace MobileRT {
         LOG_INFO("Built BVH for '", typeid(T).name(), "' with '", this->primitives_.size(), "' primitives in '", this->boxes_.size(), "' boxes.");
     }
 
+    /**
+     * Estimates the peak memory, in bytes, that the BVH needs besides the primitives themselves.
+     * <br>
+     * While building, the BVH keeps the original primitives, the sorted copy of them, the build
+     * nodes and the nodes (which are copied once when they are shrunk to fit).
+     *
+     * @tparam T The type of the primitives.
+     * @param numPrimitives The number of primitives to store in the BVH.
+     * @return The number of bytes.
+     */
+    template<typename T>
+    ::std::size_t BVH<T>::estimateMemory(const ::std::size_t numPrimitives) {
+        if (numPrimitives == 0) {
+            return sizeof(BVHNode);
+        }
+        const ::std::size_t maxNodes {numPrimitives * 2 - 1};
+        return numPrimitives * (sizeof(T) + sizeof(BuildNode)) + 2 * maxNodes * sizeof(BVHNode);
+    }
+
     /**
      * The destructor.
      *
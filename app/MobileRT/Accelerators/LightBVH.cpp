@@ -0,0 +1,223 @@
+#include "MobileRT/Accelerators/LightBVH.hpp"
+#include "MobileRT/Utils/Utils.hpp"
+#include <algorithm>
+#include <cmath>
+
+using ::MobileRT::LightBVH;
+using ::MobileRT::Light;
+
+namespace {
+    /**
+     * The greatest float smaller than 1, used to keep the random number rescaled in each node of
+     * the light BVH inside the interval [0, 1[.
+     */
+    const float OneMinusEpsilon {0.99999994F};
+}//namespace
+
+/**
+ * The constructor.
+ * <br>
+ * The power of each light is the luminance of its emitted radiance, since the shaders add the
+ * radiance of the chosen light independently of its size and distance.
+ *
+ * @param lights The lights in the scene.
+ */
+LightBVH::LightBVH(const ::std::vector<::std::unique_ptr<Light>> &lights) {
+    if (lights.empty()) {
+        LOG_WARN("Empty light BVH without any lights.");
+        return;
+    }
+    ::std::vector<BuildNode> buildNodes {};
+    buildNodes.reserve(lights.size());
+    for (::std::uint32_t i {}; i < lights.size(); ++i) {
+        const Light &light {*lights[i]};
+        const ::glm::vec3 &emission {light.radiance_.Le_};
+        BuildNode buildNode {};
+        buildNode.pointMin_ = light.getPointMin();
+        buildNode.pointMax_ = light.getPointMax();
+        buildNode.centroid_ = (buildNode.pointMin_ + buildNode.pointMax_) * 0.5F;
+        buildNode.power_ = 0.2126F * emission[0] + 0.7152F * emission[1] + 0.0722F * emission[2];
+        buildNode.lightIndex_ = static_cast<::std::int32_t> (i);
+        buildNodes.emplace_back(buildNode);
+    }
+    this->nodes_.reserve(buildNodes.size() * 2 - 1);
+    this->leaves_.resize(buildNodes.size());
+    build(&buildNodes, 0, static_cast<::std::int32_t> (buildNodes.size()), -1);
+    LOG_INFO("Built light BVH with '", lights.size(), "' lights in '", this->nodes_.size(), "' nodes.");
+}
+
+/**
+ * A helper method which builds the subtree with the lights in the interval [begin, end[.
+ * <br>
+ * The lights are split in half by the median of their centroids in the longest axis.
+ *
+ * @param buildNodes The auxiliary nodes of all the lights.
+ * @param begin      The index of the first light of the subtree.
+ * @param end        The index after the last light of the subtree.
+ * @param parent     The index of the parent node of the subtree or -1 if it is the whole tree.
+ * @return The index of the root node of the subtree.
+ */
+::std::int32_t LightBVH::build(::std::vector<BuildNode> *const buildNodes, const ::std::int32_t begin, const ::std::int32_t end, const ::std::int32_t parent) {
+    const ::std::int32_t nodeIndex {static_cast<::std::int32_t> (this->nodes_.size())};
+    const auto itBegin {buildNodes->begin() + begin};
+    const auto itEnd {buildNodes->begin() + end};
+
+    LightNode node {};
+    node.parent_ = parent;
+    node.pointMin_ = itBegin->pointMin_;
+    node.pointMax_ = itBegin->pointMax_;
+    ::glm::vec3 centroidMin {itBegin->centroid_};
+    ::glm::vec3 centroidMax {itBegin->centroid_};
+    for (auto it {itBegin}; it < itEnd; ++it) {
+        node.pointMin_ = ::glm::min(node.pointMin_, it->pointMin_);
+        node.pointMax_ = ::glm::max(node.pointMax_, it->pointMax_);
+        centroidMin = ::glm::min(centroidMin, it->centroid_);
+        centroidMax = ::glm::max(centroidMax, it->centroid_);
+        node.power_ += it->power_;
+    }
+    if (end - begin == 1) {
+        node.lightIndex_ = itBegin->lightIndex_;
+        this->leaves_[static_cast<::std::uint32_t> (node.lightIndex_)] = nodeIndex;
+        this->nodes_.emplace_back(node);
+        return nodeIndex;
+    }
+    this->nodes_.emplace_back(node);
+
+    const ::glm::vec3 maxDist {centroidMax - centroidMin};
+    const int longestAxis {
+        maxDist[0] >= maxDist[1] && maxDist[0] >= maxDist[2]
+        ? 0
+        : maxDist[1] >= maxDist[2]
+          ? 1
+          : 2
+    };
+    const ::std::int32_t middle {begin + (end - begin) / 2};
+    ::std::nth_element(itBegin, buildNodes->begin() + middle, itEnd,
+        [&](const BuildNode &node1, const BuildNode &node2) {
+            return node1.centroid_[longestAxis] < node2.centroid_[longestAxis];
+        }
+    );
+
+    build(buildNodes, begin, middle, nodeIndex);
+    const ::std::int32_t rightChild {build(buildNodes, middle, end, nodeIndex)};
+    this->nodes_[static_cast<::std::uint32_t> (nodeIndex)].rightChild_ = rightChild;
+    return nodeIndex;
+}
+
+/**
+ * Estimates the contribution of the lights in a node to a point in the scene.
+ * <br>
+ * It is the power of the lights multiplied by an upper bound of the cosine between the normal
+ * and any direction from the point to the sphere that surrounds the node. The nearer the node
+ * is, the wider the cone of those directions is, and a node entirely below the surface has
+ * importance zero.
+ *
+ * @param node   The node of the light BVH.
+ * @param point  The point in the scene.
+ * @param normal The normal of the surface at the point.
+ * @return The importance of the node.
+ */
+float LightBVH::getImportance(const LightNode &node, const ::glm::vec3 &point, const ::glm::vec3 &normal) {
+    const ::glm::vec3 center {(node.pointMin_ + node.pointMax_) * 0.5F};
+    const float radius {::glm::length(node.pointMax_ - center)};
+    const ::glm::vec3 vectorToCenter {center - point};
+    const float distance2 {::glm::dot(vectorToCenter, vectorToCenter)};
+    if (distance2 <= radius * radius) {
+        return node.power_;
+    }
+    const float distance {::std::sqrt(distance2)};
+    const float cosTheta {::glm::dot(normal, vectorToCenter) / distance};
+    const float sinAlpha {radius / distance};
+    const float cosAlpha {::std::sqrt(::std::max(0.0F, 1.0F - sinAlpha * sinAlpha))};
+    if (cosTheta >= cosAlpha) {
+        return node.power_;
+    }
+    const float sinTheta {::std::sqrt(::std::max(0.0F, 1.0F - cosTheta * cosTheta))};
+    // cos(theta - alpha)
+    const float cosBound {cosTheta * cosAlpha + sinTheta * sinAlpha};
+    return node.power_ * ::std::max(0.0F, cosBound);
+}
+
+/**
+ * Chooses a light with a probability proportional to its estimated contribution to a point in
+ * the scene.
+ * <br>
+ * The random number is used in every level of the tree, by rescaling it to the interval of the
+ * chosen child.
+ *
+ * @param point        The point in the scene.
+ * @param normal       The normal of the surface at the point.
+ * @param randomNumber A random number in the interval [0, 1[.
+ * @param pdf          A pointer to store the probability of choosing the light.
+ * @return The index of the chosen light or -1 if no light can illuminate the point.
+ */
+::std::int32_t LightBVH::sampleLight(const ::glm::vec3 &point, const ::glm::vec3 &normal, const float randomNumber, float *const pdf) const {
+    *pdf = 0.0F;
+    if (this->nodes_.empty() || getImportance(this->nodes_.front(), point, normal) <= 0.0F) {
+        return -1;
+    }
+
+    float probability {1.0F};
+    float random {randomNumber};
+    ::std::uint32_t nodeIndex {0};
+    while (this->nodes_[nodeIndex].lightIndex_ < 0) {
+        const ::std::uint32_t leftChild {nodeIndex + 1};
+        const ::std::uint32_t rightChild {static_cast<::std::uint32_t> (this->nodes_[nodeIndex].rightChild_)};
+        const float importanceLeft {getImportance(this->nodes_[leftChild], point, normal)};
+        const float importanceRight {getImportance(this->nodes_[rightChild], point, normal)};
+        const float importance {importanceLeft + importanceRight};
+        if (importance <= 0.0F) {
+            return -1;
+        }
+        const float probabilityLeft {importanceLeft / importance};
+        if (random < probabilityLeft) {
+            random = ::std::min(random / probabilityLeft, OneMinusEpsilon);
+            probability *= probabilityLeft;
+            nodeIndex = leftChild;
+        } else {
+            const float probabilityRight {1.0F - probabilityLeft};
+            random = ::std::min((random - probabilityLeft) / probabilityRight, OneMinusEpsilon);
+            probability *= probabilityRight;
+            nodeIndex = rightChild;
+        }
+    }
+    *pdf = probability;
+    return this->nodes_[nodeIndex].lightIndex_;
+}
+
+/**
+ * Calculates the probability of the {@link #sampleLight} method choosing a light to illuminate a
+ * point in the scene.
+ * <br>
+ * It walks the tree from the leaf of the light up to the root, so it doesn't need the random
+ * number.
+ *
+ * @param lightIndex The index of the light.
+ * @param point      The point in the scene.
+ * @param normal     The normal of the surface at the point.
+ * @return The probability of choosing the light.
+ */
+float LightBVH::getPdf(const ::std::int32_t lightIndex, const ::glm::vec3 &point, const ::glm::vec3 &normal) const {
+    if (lightIndex < 0 || static_cast<::std::uint32_t> (lightIndex) >= this->leaves_.size()
+        || getImportance(this->nodes_.front(), point, normal) <= 0.0F) {
+        return 0.0F;
+    }
+
+    float probability {1.0F};
+    ::std::int32_t nodeIndex {this->leaves_[static_cast<::std::uint32_t> (lightIndex)]};
+    while (this->nodes_[static_cast<::std::uint32_t> (nodeIndex)].parent_ >= 0) {
+        const ::std::int32_t parent {this->nodes_[static_cast<::std::uint32_t> (nodeIndex)].parent_};
+        const ::std::uint32_t leftChild {static_cast<::std::uint32_t> (parent) + 1};
+        const ::std::uint32_t rightChild {static_cast<::std::uint32_t> (this->nodes_[static_cast<::std::uint32_t> (parent)].rightChild_)};
+        const float importanceLeft {getImportance(this->nodes_[leftChild], point, normal)};
+        const float importanceRight {getImportance(this->nodes_[rightChild], point, normal)};
+        const float importance {importanceLeft + importanceRight};
+        if (importance <= 0.0F) {
+            return 0.0F;
+        }
+        const bool isLeftChild {static_cast<::std::uint32_t> (nodeIndex) == leftChild};
+        probability *= (isLeftChild ? importanceLeft : importanceRight) / importance;
+        nodeIndex = parent;
+    }
+    return probability;
+}
@@ -0,0 +1,82 @@
+#ifndef MOBILERT_ACCELERATORS_LIGHTBVH_HPP
+#define MOBILERT_ACCELERATORS_LIGHTBVH_HPP
+
+#include "MobileRT/Light.hpp"
+#include <cstdint>
+#include <glm/glm.hpp>
+#include <memory>
+#include <vector>
+
+namespace MobileRT {
+
+    /**
+     * A class which represents a Bounding Volume Hierarchy of the light sources in the scene.
+     * <br>
+     * It is used to choose a light with a probability proportional to an estimate of its
+     * contribution to a point in the scene, instead of choosing it uniformly.
+     * Each node keeps the bounds and the emitted power of the lights under it, so a light is
+     * chosen by descending the tree from the root and going to one of the children with a
+     * probability proportional to its importance for the shading point.
+     */
+    class LightBVH final {
+        private:
+            /**
+             * An auxiliary node used for the construction of the light BVH.
+             */
+            struct BuildNode {
+                ::glm::vec3 pointMin_ {};
+                ::glm::vec3 pointMax_ {};
+                ::glm::vec3 centroid_ {};
+                float power_ {};
+                ::std::int32_t lightIndex_ {};
+            };
+
+            /**
+             * A node of the light BVH vector.
+             * <br>
+             * The left child of an inner node is always the next node in the vector.
+             */
+            struct LightNode {
+                ::glm::vec3 pointMin_ {};
+                ::glm::vec3 pointMax_ {};
+                float power_ {};
+                ::std::int32_t parent_ {-1};
+                ::std::int32_t rightChild_ {};
+                ::std::int32_t lightIndex_ {-1};
+            };
+
+        private:
+            ::std::vector<LightNode> nodes_ {};
+
+            /**
+             * The index of the leaf node of each light.
+             */
+            ::std::vector<::std::int32_t> leaves_ {};
+
+        private:
+            ::std::int32_t build(::std::vector<BuildNode> *buildNodes, ::std::int32_t begin, ::std::int32_t end, ::std::int32_t parent);
+
+            static float getImportance(const LightNode &node, const ::glm::vec3 &point, const ::glm::vec3 &normal);
+
+        public:
+            explicit LightBVH() = default;
+
+            explicit LightBVH(const ::std::vector<::std::unique_ptr<Light>> &lights);
+
+            LightBVH(const LightBVH &lightBVH) = delete;
+
+            LightBVH(LightBVH &&lightBVH) noexcept = default;
+
+            ~LightBVH() = default;
+
+            LightBVH &operator=(const LightBVH &lightBVH) = delete;
+
+            LightBVH &operator=(LightBVH &&lightBVH) noexcept = default;
+
+            ::std::int32_t sampleLight(const ::glm::vec3 &point, const ::glm::vec3 &normal, float randomNumber, float *pdf) const;
+
+            float getPdf(::std::int32_t lightIndex, const ::glm::vec3 &point, const ::glm::vec3 &normal) const;
+    };
+}//namespace MobileRT
+
+#endif //MOBILERT_ACCELERATORS_LIGHTBVH_HPP
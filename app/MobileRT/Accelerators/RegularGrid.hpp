@@ -98,6 +98,8 @@ namespace MobileRT {
         Intersection shadowTrace(Intersection intersection);
 
         const ::std::vector<T>& getPrimitives() const;
+
+        static ::std::size_t estimateMemory(::std::size_t numPrimitives, ::std::uint32_t gridSize);
     };
 
 
@@ -151,6 +153,25 @@ namespace MobileRT {
         ::MobileRT::checkSystemError("RegularGrid constructor end");
     }
 
+    /**
+     * Estimates the memory, in bytes, that the grid needs besides the primitives themselves.
+     * <br>
+     * Every cell has a vector of pointers and a mutex. The primitives are assumed to be smaller
+     * than a cell, so each one overlaps at most 2 cells in each axis.
+     *
+     * @tparam T The type of the primitives.
+     * @param numPrimitives The number of primitives to store in the grid.
+     * @param gridSize      The size of the cells in all the axes.
+     * @return The number of bytes.
+     */
+    template<typename T>
+    ::std::size_t RegularGrid<T>::estimateMemory(const ::std::size_t numPrimitives, const ::std::uint32_t gridSize) {
+        const ::std::size_t numCells {static_cast<::std::size_t> (gridSize) * gridSize * gridSize};
+        const ::std::size_t maxCellsPerPrimitive {8};
+        return numCells * (sizeof(::std::vector<T*>) + sizeof(::std::mutex))
+            + numPrimitives * maxCellsPerPrimitive * sizeof(T*);
+    }
+
     /**
      * The destructor.
      *
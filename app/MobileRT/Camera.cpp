@@ -1,8 +1,32 @@
 #include "MobileRT/Camera.hpp"
+#include <cmath>
 #include <glm/gtc/constants.hpp>
 
 using ::MobileRT::AABB;
 using ::MobileRT::Camera;
+using ::MobileRT::Ray;
+
+namespace {
+    /**
+     * The greatest angle, in radians, between the direction of the camera and the horizon of the
+     * scene, so the camera never looks straight up or down, where the yaw would flip the view.
+     */
+    const float MaxElevation {::glm::half_pi<float>() * 0.99F};
+
+    /**
+     * Rotates a vector around an axis, with the Rodrigues' rotation formula.
+     *
+     * @param vector The vector to rotate.
+     * @param axis   The unit axis of the rotation.
+     * @param angle  The angle of the rotation, in radians.
+     * @return The rotated vector, with the same length.
+     */
+    ::glm::vec3 rotateVector(const ::glm::vec3 &vector, const ::glm::vec3 &axis, const float angle) {
+        const float cosAngle {::std::cos(angle)};
+        const float sinAngle {::std::sin(angle)};
+        return vector * cosAngle + ::glm::cross(axis, vector) * sinAngle + axis * (::glm::dot(axis, vector) * (1.0F - cosAngle));
+    }
+}//namespace
 
 /**
  * The constructor.
@@ -12,6 +36,7 @@ using ::MobileRT::Camera;
  * @param up       The up vector.
  */
 Camera::Camera(const ::glm::vec3 &position, const ::glm::vec3 &lookAt, const ::glm::vec3 &up) :
+        worldUp_ {::glm::normalize(up)},
         position_ {position},
         direction_ {::glm::normalize(lookAt - position)},
         right_ {::glm::cross(up, direction_)},
@@ -28,6 +53,9 @@ Camera::Camera(const Camera &camera) {
     this->direction_ = camera.direction_;
     this->right_ = camera.right_;
     this->up_ = camera.up_;
+    this->rightFactors_ = camera.rightFactors_;
+    this->upFactors_ = camera.upFactors_;
+    this->worldUp_ = camera.worldUp_;
 }
 
 /**
@@ -52,6 +80,48 @@ float Camera::radToDeg(const float rad) {
     return degrees;
 }
 
+/**
+ * Turns the camera around its position.
+ * <br>
+ * The yaw is applied around the up vector of the scene and the pitch around the resulting right
+ * vector, so the right vector stays level and the camera never rolls. The pitch is limited so the
+ * camera never turns past looking straight up or down. The offsets of the rays don't depend on
+ * the orientation, so the tables of the rays stay valid.
+ *
+ * @param yaw   The angle to turn to the right, in radians.
+ * @param pitch The angle to turn up, in radians.
+ */
+void Camera::rotate(const float yaw, const float pitch) {
+    this->direction_ = rotateVector(this->direction_, this->worldUp_, yaw);
+    this->right_ = rotateVector(this->right_, this->worldUp_, yaw);
+    this->up_ = rotateVector(this->up_, this->worldUp_, yaw);
+    const float elevation {::std::asin(::glm::clamp(::glm::dot(::glm::normalize(this->direction_), this->worldUp_), -1.0F, 1.0F))};
+    const float clampedPitch {::glm::clamp(elevation + pitch, -MaxElevation, MaxElevation) - elevation};
+    const ::glm::vec3 pitchAxis {::glm::normalize(this->right_)};
+    this->direction_ = rotateVector(this->direction_, pitchAxis, -clampedPitch);
+    this->up_ = rotateVector(this->up_, pitchAxis, -clampedPitch);
+}
+
+/**
+ * Moves the camera without changing its orientation.
+ *
+ * @param offset The distance to move along the right, up and direction vectors of the camera.
+ */
+void Camera::move(const ::glm::vec3 &offset) {
+    this->position_ += ::glm::normalize(this->right_) * offset[0]
+                       + ::glm::normalize(this->up_) * offset[1]
+                       + this->direction_ * offset[2];
+}
+
+/**
+ * Discards the offsets of the rays, so the next call to {@link #setResolution} calculates them
+ * again. It must be called when the projection of the camera changes.
+ */
+void Camera::resetRayTables() {
+    this->rightFactors_.clear();
+    this->upFactors_.clear();
+}
+
 /**
  * Calculates the bounding box of the camera.
  *
@@ -63,3 +133,72 @@ AABB Camera::getAABB() const {
     const AABB res {min, max};
     return res;
 }
+
+/**
+ * Calculates the angle between the rays of two adjacent pixels, which is used to estimate the
+ * width of a ray when it intersects a primitive.
+ * <br>
+ * By default the rays don't spread, like the rays of an orthographic camera.
+ *
+ * @param height The height of the image, in pixels.
+ * @return The angle, in radians, covered by a pixel.
+ */
+float Camera::getPixelSpreadAngle(const ::std::int32_t /*height*/) const {
+    return 0.0F;
+}
+
+/**
+ * Generates a ray with the origin in the camera.
+ *
+ * @param u          u = x / width
+ * @param v          v = y / height
+ * @param deviationU deviationU = [-0.5F / width, 0.5F / width]
+ * @param deviationV deviationV = [-0.5F / height, 0.5F / height]
+ * @return The new generated ray.
+ */
+Ray Camera::generateRay(const float u, const float v, const float deviationU, const float deviationV) const {
+    return generateRayFromFactors(getRightFactor(u) + deviationU, getUpFactor(v) + deviationV);
+}
+
+/**
+ * Calculates the offsets of the rays of every column and row of an image, so the rays of its
+ * pixels can be generated with {@link #generatePixelRay}.
+ * <br>
+ * The offsets only depend on the resolution and on the projection of the camera, so they stay
+ * valid when the camera is moved or rotated. It must not be called while the rays are being
+ * generated.
+ *
+ * @param width  The width of the image.
+ * @param height The height of the image.
+ */
+void Camera::setResolution(const ::std::int32_t width, const ::std::int32_t height) {
+    if (static_cast<::std::int32_t> (this->rightFactors_.size()) == width
+        && static_cast<::std::int32_t> (this->upFactors_.size()) == height) {
+        return;
+    }
+    const float invWidth {1.0F / static_cast<float> (width)};
+    const float invHeight {1.0F / static_cast<float> (height)};
+    this->rightFactors_.resize(static_cast<::std::size_t> (width));
+    this->upFactors_.resize(static_cast<::std::size_t> (height));
+    for (::std::int32_t x {}; x < width; ++x) {
+        this->rightFactors_[static_cast<::std::size_t> (x)] = getRightFactor(static_cast<float> (x) * invWidth);
+    }
+    for (::std::int32_t y {}; y < height; ++y) {
+        this->upFactors_[static_cast<::std::size_t> (y)] = getUpFactor(static_cast<float> (y) * invHeight);
+    }
+}
+
+/**
+ * Generates the ray of a pixel of the image with the resolution given to {@link #setResolution}.
+ *
+ * @param x          The column of the pixel.
+ * @param y          The row of the pixel.
+ * @param deviationU deviationU = [-0.5F / width, 0.5F / width]
+ * @param deviationV deviationV = [-0.5F / height, 0.5F / height]
+ * @return The new generated ray.
+ */
+Ray Camera::generatePixelRay(const ::std::int32_t x, const ::std::int32_t y, const float deviationU, const float deviationV) const {
+    const float rightFactor {this->rightFactors_[static_cast<::std::size_t> (x)]};
+    const float upFactor {this->upFactors_[static_cast<::std::size_t> (y)]};
+    return generateRayFromFactors(rightFactor + deviationU, upFactor + deviationV);
+}
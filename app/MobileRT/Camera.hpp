@@ -7,18 +7,67 @@
 #include <atomic>
 #include <glm/glm.hpp>
 #include <random>
+#include <vector>
 
 namespace MobileRT {
 
     /**
      * A class which represents a camera in the scene.
+     * <br>
+     * The offset of a ray along the right vector only depends on the column of its pixel, and
+     * the offset along the up vector only depends on its row. So, they are kept in tables for
+     * the resolution of the image and only the jitter of each sample is added to them.
      */
     class Camera {
+    private:
+        /**
+         * The offset along the right vector of the rays of each column of the image.
+         */
+        ::std::vector<float> rightFactors_ {};
+
+        /**
+         * The offset along the up vector of the rays of each row of the image.
+         */
+        ::std::vector<float> upFactors_ {};
+
+        /**
+         * The up vector of the scene, around which the camera turns left and right.
+         */
+        ::glm::vec3 worldUp_ {};
+
     protected:
         static float degToRad(float deg);
 
         static float radToDeg(float rad);
 
+        /**
+         * Calculates the offset along the right vector of the rays of a column of the image.
+         *
+         * @param u u = x / width
+         * @return The offset along the right vector.
+         */
+        virtual float getRightFactor(float u) const = 0;
+
+        /**
+         * Calculates the offset along the up vector of the rays of a row of the image.
+         *
+         * @param v v = y / height
+         * @return The offset along the up vector.
+         */
+        virtual float getUpFactor(float v) const = 0;
+
+        /**
+         * Generates a ray with the origin in the camera from its offsets along the right and up
+         * vectors.
+         *
+         * @param rightFactor The offset along the right vector.
+         * @param upFactor    The offset along the up vector.
+         * @return The new generated ray.
+         */
+        virtual Ray generateRayFromFactors(float rightFactor, float upFactor) const = 0;
+
+        void resetRayTables();
+
     public:
         /**
          * The position of the camera (in axis X, Y, Z).
@@ -54,20 +103,26 @@ namespace MobileRT {
 
         Camera &operator=(Camera &&camera) noexcept = default;
 
+        Ray generateRay(float u, float v, float deviationU, float deviationV) const;
+
+        void setResolution(::std::int32_t width, ::std::int32_t height);
+
+        Ray generatePixelRay(::std::int32_t x, ::std::int32_t y, float deviationU, float deviationV) const;
+
+        void rotate(float yaw, float pitch);
+
+        void move(const ::glm::vec3 &offset);
+
         /**
-         * Generates a ray with the origin in the camera.
+         * Narrows or widens the area of the scene seen by the camera.
          *
-         * @param u          u = x / width
-         * @param v          v = y / height
-         * @param deviationU deviationU = [-0.5F / width, 0.5F / width]
-         * @param deviationV deviationV = [-0.5F / height, 0.5F / height]
-         * @return The new generated ray.
+         * @param factor How many times bigger the objects should look (bigger than 1 to zoom in).
          */
-        virtual Ray generateRay(float u, float v,
-                                float deviationU,
-                                float deviationV) const = 0;
+        virtual void zoom(float factor) = 0;
 
         virtual AABB getAABB() const;
+
+        virtual float getPixelSpreadAngle(::std::int32_t height) const;
     };
 }//namespace MobileRT
 
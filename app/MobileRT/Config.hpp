@@ -76,6 +76,56 @@ namespace MobileRT {
          */
         ::std::int32_t accelerator;
 
+        /**
+         * The maximum memory, in megabytes, used by the decoded textures (0 for no limit).
+         */
+        ::std::int32_t textureCacheSize;
+
+        /**
+         * The directory of the disk cache for the decoded textures (empty to disable it).
+         */
+        ::std::string textureCachePath;
+
+        /**
+         * The maximum disk space, in megabytes, used by the disk cache of the textures (0 for no limit).
+         */
+        ::std::int32_t textureDiskCacheSize;
+
+        /**
+         * The maximum time, in milliseconds, to render each frame (0 for no limit).
+         */
+        ::std::int32_t renderTime;
+
+        /**
+         * The column of the left side of the region of the image to render.
+         */
+        ::std::int32_t cropX;
+
+        /**
+         * The row of the top side of the region of the image to render.
+         */
+        ::std::int32_t cropY;
+
+        /**
+         * The width of the region of the image to render (0 for the whole image).
+         */
+        ::std::int32_t cropWidth;
+
+        /**
+         * The height of the region of the image to render (0 for the whole image).
+         */
+        ::std::int32_t cropHeight;
+
+        /**
+         * The number of samples per pixel of the last frame rendered, set by the Ray Tracer.
+         */
+        ::std::int32_t renderedSamples;
+
+        /**
+         * The time, in milliseconds, to render the last frame, set by the Ray Tracer.
+         */
+        ::std::int32_t renderedTime;
+
         /**
          * Whether or not the logs should be redirected to the standard output.
          */
@@ -0,0 +1,206 @@
+#include "MobileRT/Denoiser.hpp"
+#include "MobileRT/Utils/Constants.hpp"
+#include "MobileRT/Utils/Utils.hpp"
+#include <algorithm>
+#include <array>
+#include <cmath>
+#include <thread>
+
+using ::MobileRT::Denoiser;
+
+namespace {
+    /**
+     * The number of iterations of the filter. The distance between the samples of the kernel
+     * doubles in every iteration, so the last one covers a radius of 2 * 2^(iterations - 1)
+     * pixels.
+     */
+    const ::std::int32_t Iterations {5};
+
+    /**
+     * The weights of the B3 spline kernel used in every iteration, in each dimension.
+     */
+    const ::std::array<float, 5> Kernel {1.0F / 16.0F, 1.0F / 4.0F, 3.0F / 8.0F, 1.0F / 4.0F, 1.0F / 16.0F};
+
+    /**
+     * The tolerance to the difference of the colors in the first iteration. It is halved in each
+     * iteration, since the image gets smoother.
+     */
+    const float SigmaColor {1.0F};
+
+    /**
+     * The exponent of the cosine between the normals.
+     */
+    const float SigmaNormal {64.0F};
+
+    /**
+     * The tolerance to the difference of the depths, relative to the depth of the nearest pixel
+     * and to the distance between the pixels.
+     */
+    const float SigmaDepth {0.1F};
+
+    /**
+     * The minimum albedo by which a color is divided, so the pixels without albedo (e.g. the
+     * background) keep their color.
+     */
+    const float AlbedoMin {0.01F};
+}//namespace
+
+/**
+ * The constructor.
+ *
+ * @param width  The width of the image.
+ * @param height The height of the image.
+ */
+Denoiser::Denoiser(const ::std::int32_t width, const ::std::int32_t height) :
+        width_ {width},
+        height_ {height},
+        albedo_ (static_cast<::std::size_t> (width * height)),
+        normal_ (static_cast<::std::size_t> (width * height)),
+        depth_ (static_cast<::std::size_t> (width * height), RayLengthMax) {
+}
+
+/**
+ * Estimates the peak memory, in bytes, that the denoiser needs for an image.
+ * <br>
+ * Besides the auxiliary buffers, which are kept during the whole render, the denoise keeps two
+ * buffers of colors while it filters the image.
+ *
+ * @param width  The width of the image.
+ * @param height The height of the image.
+ * @return The number of bytes.
+ */
+::std::size_t Denoiser::estimateMemory(const ::std::int32_t width, const ::std::int32_t height) {
+    const ::std::size_t resolution {static_cast<::std::size_t> (width) * static_cast<::std::size_t> (height)};
+    const ::std::size_t auxiliaryBuffers {resolution * (sizeof(::glm::vec3) * 2 + sizeof(float))};
+    const ::std::size_t colorBuffers {resolution * sizeof(::glm::vec3) * 2};
+    return auxiliaryBuffers + colorBuffers;
+}
+
+/**
+ * Sets the auxiliary buffers of a pixel.
+ * <br>
+ * Each pixel should only be set by one thread at a time.
+ *
+ * @param pixelIndex The index of the pixel in the image.
+ * @param albedo     The albedo of the primary intersection.
+ * @param normal     The normal of the primary intersection.
+ * @param depth      The distance from the camera to the primary intersection.
+ */
+void Denoiser::setAov(const ::std::int32_t pixelIndex, const ::glm::vec3 &albedo, const ::glm::vec3 &normal, const float depth) {
+    const ::std::size_t index {static_cast<::std::size_t> (pixelIndex)};
+    this->albedo_[index] = albedo;
+    this->normal_[index] = normal;
+    this->depth_[index] = depth;
+}
+
+/**
+ * Removes the noise of an image.
+ * <br>
+ * The colors are divided by the albedo before filtering, so the filter only blurs the lighting
+ * and the details of the textures are restored when the colors are multiplied by the albedo
+ * again. The image is not modified, so it can keep accumulating samples while it is denoised.
+ *
+ * @param input      The image, with a pixel in the same format as the bitmap of the renderer.
+ * @param output     The image where the denoised pixels should be put.
+ * @param numThreads The number of threads to use.
+ */
+void Denoiser::denoise(const ::std::int32_t *const input, ::std::int32_t *const output, const ::std::int32_t numThreads) const {
+    const ::std::size_t resolution {this->albedo_.size()};
+    ::std::vector<::glm::vec3> colors (resolution);
+    for (::std::size_t i {}; i < resolution; ++i) {
+        const ::std::uint32_t pixel {static_cast<::std::uint32_t> (input[i])};
+        const ::glm::vec3 color {
+            static_cast<float> (pixel & 0xFFU) / 255.0F,
+            static_cast<float> ((pixel >> 8U) & 0xFFU) / 255.0F,
+            static_cast<float> ((pixel >> 16U) & 0xFFU) / 255.0F
+        };
+        colors[i] = color / ::glm::max(this->albedo_[i], ::glm::vec3 {AlbedoMin});
+    }
+
+    const ::std::int32_t numWorkers {::std::max(1, ::std::min(numThreads, this->height_))};
+    ::std::vector<::glm::vec3> filtered (resolution);
+    for (::std::int32_t iteration {}; iteration < Iterations; ++iteration) {
+        const ::std::int32_t step {1 << iteration};
+        const float sigmaColor {SigmaColor / static_cast<float> (step)};
+        ::std::vector<::std::thread> threads {};
+        threads.reserve(static_cast<::std::size_t> (numWorkers - 1));
+        for (::std::int32_t i {1}; i < numWorkers; ++i) {
+            threads.emplace_back(&Denoiser::filterRows, this, ::std::cref(colors), &filtered, step, sigmaColor,
+                                 this->height_ * i / numWorkers, this->height_ * (i + 1) / numWorkers);
+        }
+        if (errno == EINVAL) {
+            // Ignore invalid argument (necessary for Android API 16)
+            errno = 0;
+        }
+        filterRows(colors, &filtered, step, sigmaColor, 0, this->height_ / numWorkers);
+        for (::std::thread &thread : threads) {
+            thread.join();
+        }
+        colors.swap(filtered);
+    }
+
+    for (::std::size_t i {}; i < resolution; ++i) {
+        const ::glm::vec3 color {colors[i] * ::glm::max(this->albedo_[i], ::glm::vec3 {AlbedoMin})};
+        const ::std::uint32_t red {static_cast<::std::uint32_t> (::glm::clamp(color[0], 0.0F, 1.0F) * 255.0F)};
+        const ::std::uint32_t green {static_cast<::std::uint32_t> (::glm::clamp(color[1], 0.0F, 1.0F) * 255.0F)};
+        const ::std::uint32_t blue {static_cast<::std::uint32_t> (::glm::clamp(color[2], 0.0F, 1.0F) * 255.0F)};
+        output[i] = static_cast<::std::int32_t> (0xFF000000 | blue << 16U | green << 8U | red);
+    }
+    LOG_INFO("Denoised image with '", Iterations, "' iterations and '", numWorkers, "' threads.");
+}
+
+/**
+ * Helper method which applies an iteration of the filter to some rows of the image.
+ * <br>
+ * Each sample of the kernel is weighted by how similar its color, normal and depth are to the
+ * ones of the pixel being filtered.
+ *
+ * @param input      The image of the previous iteration.
+ * @param output     The image where the filtered pixels should be put.
+ * @param step       The distance, in pixels, between the samples of the kernel.
+ * @param sigmaColor The tolerance to the difference of the colors.
+ * @param startY     The first row to filter.
+ * @param endY       The row after the last one to filter.
+ */
+void Denoiser::filterRows(const ::std::vector<::glm::vec3> &input, ::std::vector<::glm::vec3> *const output,
+                          const ::std::int32_t step, const float sigmaColor,
+                          const ::std::int32_t startY, const ::std::int32_t endY) const {
+    const float invSigmaColor2 {1.0F / (sigmaColor * sigmaColor)};
+    for (::std::int32_t y {startY}; y < endY; ++y) {
+        for (::std::int32_t x {}; x < this->width_; ++x) {
+            const ::std::size_t index {static_cast<::std::size_t> (y * this->width_ + x)};
+            const ::glm::vec3 &color {input[index]};
+            const ::glm::vec3 &normal {this->normal_[index]};
+            const float depth {this->depth_[index]};
+
+            ::glm::vec3 sum {};
+            float sumWeights {};
+            for (::std::int32_t j {}; j < static_cast<::std::int32_t> (Kernel.size()); ++j) {
+                const ::std::int32_t sampleY {y + (j - 2) * step};
+                if (sampleY < 0 || sampleY >= this->height_) {
+                    continue;
+                }
+                for (::std::int32_t i {}; i < static_cast<::std::int32_t> (Kernel.size()); ++i) {
+                    const ::std::int32_t sampleX {x + (i - 2) * step};
+                    if (sampleX < 0 || sampleX >= this->width_) {
+                        continue;
+                    }
+                    const ::std::size_t sampleIndex {static_cast<::std::size_t> (sampleY * this->width_ + sampleX)};
+                    const ::glm::vec3 &sampleColor {input[sampleIndex]};
+                    const ::glm::vec3 colorDiff {color - sampleColor};
+                    const float weightColor {::std::exp(-::glm::dot(colorDiff, colorDiff) * invSigmaColor2)};
+                    const float cosNormals {::std::max(0.0F, ::glm::dot(normal, this->normal_[sampleIndex]))};
+                    const float weightNormal {::std::pow(cosNormals, SigmaNormal)};
+                    const float sampleDepth {this->depth_[sampleIndex]};
+                    const float depthScale {SigmaDepth * static_cast<float> (step) * ::std::min(depth, sampleDepth) + Epsilon};
+                    const float weightDepth {::std::exp(-::std::fabs(depth - sampleDepth) / depthScale)};
+                    const float weight {Kernel[static_cast<::std::size_t> (i)] * Kernel[static_cast<::std::size_t> (j)]
+                                        * weightColor * weightNormal * weightDepth};
+                    sum += sampleColor * weight;
+                    sumWeights += weight;
+                }
+            }
+            (*output)[index] = sumWeights > 0.0F ? sum / sumWeights : color;
+        }
+    }
+}
@@ -0,0 +1,55 @@
+#ifndef MOBILERT_DENOISER_HPP
+#define MOBILERT_DENOISER_HPP
+
+#include <cstddef>
+#include <cstdint>
+#include <glm/glm.hpp>
+#include <vector>
+
+namespace MobileRT {
+    /**
+     * A class which removes the noise of a rendered image with an edge-avoiding à-trous wavelet
+     * filter.
+     * <br>
+     * Besides the image, it uses auxiliary buffers with the albedo, the normal and the depth of
+     * the primary intersection of each pixel, which don't have noise. The filter blurs the image
+     * with a kernel whose holes increase in every iteration, but it stops at the edges found in
+     * those buffers, so the geometry and the textures of the scene stay sharp.
+     */
+    class Denoiser final {
+    private:
+        const ::std::int32_t width_ {};
+        const ::std::int32_t height_ {};
+        ::std::vector<::glm::vec3> albedo_ {};
+        ::std::vector<::glm::vec3> normal_ {};
+        ::std::vector<float> depth_ {};
+
+    private:
+        void filterRows(const ::std::vector<::glm::vec3> &input, ::std::vector<::glm::vec3> *output,
+                        ::std::int32_t step, float sigmaColor,
+                        ::std::int32_t startY, ::std::int32_t endY) const;
+
+    public:
+        explicit Denoiser () = delete;
+
+        explicit Denoiser(::std::int32_t width, ::std::int32_t height);
+
+        Denoiser(const Denoiser &denoiser) = delete;
+
+        Denoiser(Denoiser &&denoiser) noexcept = delete;
+
+        ~Denoiser() = default;
+
+        Denoiser &operator=(const Denoiser &denoiser) = delete;
+
+        Denoiser &operator=(Denoiser &&denoiser) noexcept = delete;
+
+        void setAov(::std::int32_t pixelIndex, const ::glm::vec3 &albedo, const ::glm::vec3 &normal, float depth);
+
+        void denoise(const ::std::int32_t *input, ::std::int32_t *output, ::std::int32_t numThreads) const;
+
+        static ::std::size_t estimateMemory(::std::int32_t width, ::std::int32_t height);
+    };
+}//namespace MobileRT
+
+#endif //MOBILERT_DENOISER_HPP
@@ -21,6 +21,12 @@ namespace MobileRT {
         ::std::int32_t materialIndex_ {-1};
         ::glm::vec2 texCoords_ {-1.0F, -1.0F};
 
+        /**
+         * The ratio between the texture coordinates and the world units of the intersected
+         * primitive, used to select the mip-map level of the texture.
+         */
+        float texCoordsScale_ {0.0F};
+
         /**
          * The casted ray into the scene.
          */
@@ -41,7 +47,8 @@ namespace MobileRT {
             const ::glm::vec3 &normal,
             const void *primitive,
             ::std::int32_t materialIndex,
-            const ::glm::vec2 &texCoords = ::glm::vec2 {-1});
+            const ::glm::vec2 &texCoords = ::glm::vec2 {-1},
+            float texCoordsScale = 0.0F);
 
         Intersection(const Intersection &intersection) = default;
 
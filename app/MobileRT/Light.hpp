@@ -37,6 +37,30 @@ namespace MobileRT {
          */
         virtual ::glm::vec3 getPosition() = 0;
 
+        /**
+         * Gets the point of the box which surrounds the light in the bottom corner.
+         *
+         * @return The point min of the light.
+         */
+        virtual ::glm::vec3 getPointMin() const = 0;
+
+        /**
+         * Gets the point of the box which surrounds the light in the upper corner.
+         *
+         * @return The point max of the light.
+         */
+        virtual ::glm::vec3 getPointMax() const = 0;
+
+        /**
+         * Calculates the probability density, with respect to the solid angle seen from a point in
+         * the scene, of choosing a position on this light with the {@link #getPosition} method.
+         *
+         * @param point         The point in the scene.
+         * @param lightPosition A position on the light.
+         * @return The probability density or 0 if the light is a single point.
+         */
+        virtual float getPdf(const ::glm::vec3 &point, const ::glm::vec3 &lightPosition) const = 0;
+
         /**
          * Resets the sampling counter.
          */
@@ -11,6 +11,16 @@ bool ObjectLoader::isProcessed() const {
     return this->isProcessed_;
 }
 
+/**
+ * Gets the number of triangles in the scene geometry, which is known right after parsing the
+ * file and before filling the scene.
+ *
+ * @return The number of triangles or -1 if the scene was not loaded.
+ */
+::std::int32_t ObjectLoader::getNumberOfTriangles() const {
+    return this->numberTriangles_;
+}
+
 /**
  * The destructor.
  */
@@ -40,17 +40,21 @@ namespace MobileRT {
 
         bool isProcessed() const;
 
+        ::std::int32_t getNumberOfTriangles() const;
+
         /**
          * Fills the scene with the triangles loaded from a geometry file, like .OBJ and .MTL.
          *
-         * @param scene  The scene to fill with geometry.
-         * @param lambda A lambda which returns a sampler.
+         * @param scene         The scene to fill with geometry.
+         * @param lambda        A lambda which returns a sampler.
+         * @param filePath      The path to the scene file.
+         * @param texturesCache The cache for the textures, which is filled with the textures used by the scene.
          * @return True if it succeeded to fill the scene or false otherwise.
          */
         virtual bool fillScene(Scene *scene,
                                ::std::function<::std::unique_ptr<Sampler>()> lambda,
                                ::std::string filePath,
-                               ::std::unordered_map<::std::string, ::MobileRT::Texture> texturesCache) = 0;
+                               ::std::unordered_map<::std::string, ::MobileRT::Texture> *texturesCache) = 0;
     };
 }//namespace MobileRT
 
@@ -1,4 +1,7 @@
 #include "MobileRT/Renderer.hpp"
+#include <algorithm>
+#include <chrono>
+#include <random>
 #include <thread>
 #include <vector>
 
@@ -7,9 +10,28 @@ using ::MobileRT::NumberOfTiles;
 using ::MobileRT::Shader;
 using ::MobileRT::Camera;
 using ::MobileRT::Sampler;
+using ::MobileRT::Texture;
 
 namespace {
     ::std::array<float, NumberOfTiles> randomSequence {};
+
+    /**
+     * Helper method which fills the order in which the tiles of every sample per pixel are
+     * rendered.
+     * <br>
+     * The tiles are shuffled with a fixed seed, so every renderer renders them in the same order
+     * and a stopped render can be resumed by another renderer from the first tile that wasn't
+     * rendered.
+     *
+     * @param values The array to fill with the positions of the tiles, between 0 and 1.
+     */
+    void fillTileOrder(::std::array<float, NumberOfTiles> *const values) {
+        for (::std::size_t index {}; index < values->size(); ++index) {
+            (*values)[index] = ::MobileRT::haltonSequence(static_cast<::std::uint32_t> (index), 2);
+        }
+        ::std::mt19937 generator {};
+        ::std::shuffle(values->begin(), values->end(), generator);
+    }
 }//namespace
 
 /**
@@ -32,15 +54,26 @@ Renderer::Renderer(::std::unique_ptr<Shader> shader,
         samplerPixel_ {::std::move(samplerPixel)},
         blockSizeX_ {width / static_cast<::std::int32_t> (::std::sqrt(NumberOfTiles))},
         blockSizeY_ {height / static_cast<::std::int32_t> (::std::sqrt(NumberOfTiles))},
-        sample_ {},
         width_ {width},
         height_ {height},
         domainSize_ {(width / blockSizeX_) * (height / blockSizeY_)},
         resolution_ {width * height},
-        samplesPixel_ {samplesPixel} {
+        tilesPerSide_ {static_cast<::std::int32_t> (::std::sqrt(NumberOfTiles))},
+        tileWidth_ {(width + tilesPerSide_ - 1) / tilesPerSide_},
+        tileHeight_ {(height + tilesPerSide_ - 1) / tilesPerSide_},
+        cropX_ {},
+        cropY_ {},
+        cropEndX_ {width},
+        cropEndY_ {height},
+        samplesPixel_ {samplesPixel},
+        dirtyTiles_ (static_cast<::std::size_t> (NumberOfTiles)),
+        tileSamples_ (static_cast<::std::size_t> (NumberOfTiles)),
+        pixelSamples_ (static_cast<::std::size_t> (width * height)) {
     LOG_DEBUG("Renderer constructor called.");
-    fillArrayWithHaltonSeq(&randomSequence);
+    this->shader_->setPixelSpreadAngle(this->camera_->getPixelSpreadAngle(height));
+    fillTileOrder(&randomSequence);
     Ray::resetIdGenerator();
+    Shader::resetOccluderCacheStats();
     LOG_DEBUG("Renderer constructor finished.");
 }
 
@@ -54,10 +87,34 @@ void Renderer::renderFrame(::std::int32_t *const bitmap, const ::std::int32_t nu
     LOG_INFO("numThreads = ", numThreads);
     LOG_INFO("Resolution = ", this->width_, "x", this->height_);
 
-    this->sample_ = 0;
+    // A resumed frame continues from the first tile that wasn't rendered, even in the middle of
+    // a sample per pixel, so every tile gets every sample exactly once.
+    const ::std::int32_t firstTile {this->firstTile_};
+    const ::std::int32_t firstSample {firstTile / NumberOfTiles};
+    this->frameFirstTile_ = firstTile;
+    // No thread is sampling the textures yet, so the least recently used can be released.
+    Texture::trimCache();
     this->samplerPixel_->resetSampling();
+    this->samplerPixel_->sample_ = this->firstSamplerPosition_;
     this->shader_->resetSampling();
-    this->block_ = 0;
+    this->block_ = firstTile;
+    this->tilesDone_ = firstTile;
+    for (::std::int32_t tile {}; tile < NumberOfTiles; ++tile) {
+        const ::std::int32_t tileSample {firstSample + (tile < firstTile % NumberOfTiles ? 1 : 0)};
+        this->tileSamples_[static_cast<::std::size_t> (tile)].store(tileSample, ::std::memory_order_relaxed);
+    }
+    this->firstTile_ = 0;
+    // The pixels of a new frame replace the image in the bitmap.
+    if (!this->resumed_) {
+        ::std::fill(this->pixelSamples_.begin(), this->pixelSamples_.end(), 0);
+    }
+    this->resumed_ = false;
+    this->firstSamplerPosition_ = 0;
+    this->busyTime_ = ::std::vector<::std::atomic<::std::int64_t>> (static_cast<::std::size_t> (::std::max(numThreads, 1)));
+    this->camera_->setResolution(this->width_, this->height_);
+    this->frameStart_ = ::std::chrono::steady_clock::now();
+    this->samplesBeforeDeadline_ = firstSample;
+    this->deadlineReached_ = false;
 
     const ::std::int32_t numChildren {numThreads - 1};
     ::std::vector<::std::thread> threads {};
@@ -68,14 +125,14 @@ void Renderer::renderFrame(::std::int32_t *const bitmap, const ::std::int32_t nu
 
     MobileRT::checkSystemError("Creating render threads");
     for (::std::int32_t i {}; i < numChildren; ++i) {
-        threads.emplace_back(&Renderer::renderScene, this, bitmap, i);
+        threads.emplace_back(&Renderer::renderScene, this, bitmap, i, firstSample);
     }
     if (errno == EINVAL) {
         // Ignore invalid argument (necessary for Android API 16)
         errno = 0;
     }
     MobileRT::checkSystemError("Created render threads");
-    renderScene(bitmap, numChildren);
+    renderScene(bitmap, numChildren, firstSample);
     MobileRT::checkSystemError("Rendered scene");
     for (::std::thread &thread : threads) {
         thread.join();
@@ -83,6 +140,10 @@ void Renderer::renderFrame(::std::int32_t *const bitmap, const ::std::int32_t nu
     MobileRT::checkSystemError("All render threads finished");
     threads.clear();
     MobileRT::checkSystemError("Deleted render threads");
+    Texture::trimCache();
+    if (this->deadlineReached_) {
+        LOG_INFO("Rendered ", getSample(), " samples per pixel before the deadline.");
+    }
 
     LOG_DEBUG("FINISH");
 }
@@ -91,8 +152,7 @@ void Renderer::renderFrame(::std::int32_t *const bitmap, const ::std::int32_t nu
  * Stops the rendering process.
  */
 void Renderer::stopRender() {
-    this->blockSizeX_ = 0;
-    this->blockSizeY_ = 0;
+    // The tiles already taken by the threads are still rendered, so the image can be resumed.
     this->block_.store(::std::numeric_limits<::std::int32_t>::max() - NumberOfTiles, ::std::memory_order_relaxed);
     this->samplesPixel_ = 0;
     this->samplerPixel_->stopSampling();
@@ -101,44 +161,67 @@ void Renderer::stopRender() {
 /**
  * Helper method which a thread renders the scene into the bitmap.
  *
- * @param bitmap The bitmap where the rendered scene should be put.
- * @param tid    The thread id.
+ * @param bitmap      The bitmap where the rendered scene should be put.
+ * @param tid         The thread id.
+ * @param firstSample The first sample per pixel to render.
  */
-void Renderer::renderScene(::std::int32_t *const bitmap, const ::std::int32_t tid) {
-    const float invImgWidth {1.0F / this->width_};
-    const float invImgHeight {1.0F / this->height_};
+void Renderer::renderScene(::std::int32_t *const bitmap, const ::std::int32_t tid, const ::std::int32_t firstSample) {
     const float pixelWidth {0.5F / this->width_};
     const float pixelHeight {0.5F / this->height_};
+    // The auxiliary buffers are filled in the first sample which all the tiles render in this frame.
+    const ::std::int32_t aovSample {(this->frameFirstTile_ + NumberOfTiles - 1) / NumberOfTiles};
     ::glm::vec3 pixelRgb {};
     LOG_INFO("(tid: ", tid, ") spp: ", this->samplesPixel_, " renderScene");
     const ::std::string currentTidStr {::std::string("renderScene (" + ::std::to_string(tid) + ")")};
     MobileRT::checkSystemError((currentTidStr + " start").c_str());
+    Texture::startSampling();
 
-    for (::std::int32_t sample {}; sample < this->samplesPixel_; ++sample) {
+    for (::std::int32_t sample {firstSample}; sample < this->samplesPixel_ && startSample(sample); ++sample) {
         LOG_DEBUG("(tid: ", tid, ") renderScene sample: ", sample);
         while (true) {
-            const float tile {getTile(sample)};
-            // LOG_DEBUG("(tid: ", tid, ") Will get tile: ", tile,", bx=", this->blockSizeX_, ", by=", this->blockSizeY_, ", spp=", sample, " (total: ", this->samplesPixel_, ")");
-            if (tile >= 1.0F) {
+            const ::std::chrono::steady_clock::time_point tileStart {::std::chrono::steady_clock::now()};
+            const ::std::int32_t tileIndex {getTile(sample)};
+            // LOG_DEBUG("(tid: ", tid, ") Will get tile: ", tileIndex,", bx=", this->blockSizeX_, ", by=", this->blockSizeY_, ", spp=", sample, " (total: ", this->samplesPixel_, ")");
+            if (tileIndex >= NumberOfTiles) {
                 break;
             }
+            // The tile can still be rendered by another thread with the previous sample, and the
+            // pixels must get the samples in order.
+            ::std::atomic<::std::int32_t> &tileSample {this->tileSamples_[static_cast<::std::size_t> (tileIndex)]};
+            while (tileSample.load(::std::memory_order_acquire) < sample) {
+                ::std::this_thread::yield();
+            }
+            const float tile {randomSequence[static_cast<::std::size_t> (tileIndex)]};
             const ::std::int32_t roundBlock {static_cast<::std::int32_t> (::roundf(tile * this->domainSize_))};
             const ::std::int32_t pixel {roundBlock * this->blockSizeX_ % this->resolution_};
             const ::std::int32_t startY {((pixel / this->width_) * this->blockSizeY_) % this->height_};
             const ::std::int32_t endY {startY + this->blockSizeY_};
+            // Only the pixels of the tile inside the crop window are rendered.
+            const ::std::int32_t startX {pixel % this->width_};
+            const ::std::int32_t cropStartX {::std::max(startX, this->cropX_)};
+            const ::std::int32_t cropEndX {::std::min(startX + this->blockSizeX_, this->cropEndX_)};
+            const ::std::int32_t cropStartY {::std::max(startY, this->cropY_)};
+            const ::std::int32_t cropEndY {::std::min(endY, this->cropEndY_)};
             // LOG_DEBUG("(tid: ", tid, ") Will render a tile. roundBlock: '", roundBlock, "', pixel: '", pixel, "', startY: '", startY, "', endY: '", endY, "'");
-            for (::std::int32_t y {startY}; y < endY; ++y) {
-                const float v {y * invImgHeight};
+            for (::std::int32_t y {cropStartY}; y < cropEndY; ++y) {
                 const ::std::int32_t yWidth {y * this->width_};
-                const ::std::int32_t startX {(pixel + yWidth) % this->width_};
-                const ::std::int32_t endX {startX + this->blockSizeX_};
-                for (::std::int32_t x {startX}; x < endX; ++x) {
-                    const float u {x * invImgWidth};
+                for (::std::int32_t x {cropStartX}; x < cropEndX; ++x) {
+                    const ::std::int32_t pixelIndex {yWidth + x};
+                    // The samples already in the pixel say the weight and the index of the new one.
+                    ::std::int32_t &pixelSamples {this->pixelSamples_[static_cast<::std::size_t> (pixelIndex)]};
+                    Sampler::setPixelSample(static_cast<::std::uint32_t> (pixelIndex), static_cast<::std::uint32_t> (pixelSamples));
                     const float r1 {this->samplerPixel_->getSample()};
                     const float r2 {this->samplerPixel_->getSample()};
                     const float deviationU {(r1 - 0.5F) * 2.0F * pixelWidth};
                     const float deviationV {(r2 - 0.5F) * 2.0F * pixelHeight};
-                    Ray &&ray {this->camera_->generateRay(u, v, deviationU, deviationV)};
+                    Ray &&ray {this->camera_->generatePixelRay(x, y, deviationU, deviationV)};
+                    if (this->denoiser_ && sample == aovSample) {
+                        ::glm::vec3 albedo {};
+                        ::glm::vec3 normal {};
+                        float depth {};
+                        this->shader_->traceAov(Ray {ray}, &albedo, &normal, &depth);
+                        this->denoiser_->setAov(pixelIndex, albedo, normal, depth);
+                    }
                     pixelRgb = {};
                     /*LOG_DEBUG(
                         "(tid: ", tid, ") u: ", u, ", v: ", v,
@@ -146,9 +229,9 @@ void Renderer::renderScene(::std::int32_t *const bitmap, const ::std::int32_t ti
                         ", rayId: ", ray.id_, ", depth: ", ray.depth_, ", origin: ", ray.origin_.length(), ", direction: ", ray.direction_.length()
                     );*/
                     this->shader_->rayTrace(&pixelRgb, ::std::move(ray));
-                    const ::std::int32_t pixelIndex {yWidth + x};
                     ::std::int32_t *bitmapPixel {&bitmap[pixelIndex]};
-                    const ::std::int32_t pixelColor {::MobileRT::incrementalAvg(pixelRgb, *bitmapPixel, sample + 1)};
+                    ++pixelSamples;
+                    const ::std::int32_t pixelColor {::MobileRT::incrementalAvg(pixelRgb, *bitmapPixel, pixelSamples)};
                     /*LOG_DEBUG(
                         "(tid: ", tid, ") pixelIndex: ", pixelIndex,
                         ", bitmapPixel: ", *bitmapPixel,
@@ -158,42 +241,160 @@ void Renderer::renderScene(::std::int32_t *const bitmap, const ::std::int32_t ti
                 }
             }
             // LOG_DEBUG("(tid: ", tid, ") Tile rendered");
-        }
-        if (tid == 0) {
-            this->sample_ = sample + 1;
-            LOG_DEBUG("(tid: ", tid, ") Sample = ", this->sample_);
+            // The textures which the next tiles don't sample can be released by the cache.
+            Texture::releaseSampledTextures();
+            // Publish the pixels of the tile, so it can be uploaded without the whole image.
+            // The tiles of the uploads cover the whole image, so a block of pixels can overlap
+            // more than one of them when the resolution isn't a multiple of the tiles per side.
+            if (cropStartX < cropEndX && cropStartY < cropEndY) {
+                for (::std::int32_t tileY {cropStartY / this->tileHeight_}; tileY <= (cropEndY - 1) / this->tileHeight_; ++tileY) {
+                    for (::std::int32_t tileX {cropStartX / this->tileWidth_}; tileX <= (cropEndX - 1) / this->tileWidth_; ++tileX) {
+                        const ::std::size_t dirtyTile {static_cast<::std::size_t> (tileY * this->tilesPerSide_ + tileX)};
+                        this->dirtyTiles_[dirtyTile].store(true, ::std::memory_order_release);
+                    }
+                }
+            }
+            tileSample.store(sample + 1, ::std::memory_order_release);
+            ++this->tilesDone_;
+            const ::std::chrono::steady_clock::duration tileTime {::std::chrono::steady_clock::now() - tileStart};
+            this->busyTime_[static_cast<::std::size_t> (tid)] += static_cast<::std::int64_t> (
+                ::std::chrono::duration_cast<::std::chrono::microseconds> (tileTime).count()
+            );
+            if (this->progressListener_) {
+                this->progressListener_();
+            }
         }
         LOG_DEBUG("(tid: ", tid, ") renderScene sample: ", sample, " finished");
     }
+    Texture::stopSampling();
+    Shader::flushOccluderCacheStats();
     LOG_INFO("(tid: ", tid, ") renderScene finished");
     MobileRT::checkSystemError((currentTidStr + " end").c_str());
 }
 
 /**
- * Gets the number of samples per pixel already rendered.
+ * Gets the number of samples per pixel already rendered in all the tiles.
+ * <br>
+ * While a frame is being rendered, it can already count a sample whose last tiles are still being
+ * rendered. When the frame finishes or is stopped, it only counts the complete samples.
  *
  * @return The current number of samples per pixel.
  */
 ::std::int32_t Renderer::getSample() const {
-    return this->sample_;
+    return getTilesDone() / NumberOfTiles;
 }
 
 /**
- * Helper method which calculates a random value between 0 and 1.
+ * Makes the next frame continue a previous render of the same scene, whose image is already in
+ * the bitmap.
  * <br>
- * This method never repeats the calculated value for the same given sample.
+ * The tiles are always rendered in the same order, so the number of tiles rendered says where the
+ * previous render stopped, even in the middle of a sample. The next frame starts at the first tile
+ * that wasn't rendered, or at the first tile again to add more samples to a finished render, e.g.,
+ * in a new crop window. The new samples of every pixel are averaged with the ones it already has,
+ * and the pixel sampler continues from its position in the previous render, so the resumed
+ * samples are not a repetition of the ones already in the image. All the tiles are marked as
+ * changed, so the restored image is shown before the first resumed tile is rendered.
+ *
+ * @param tilesDone       The number of tiles of the previous render to skip, for all the samples
+ *                        per pixel, as given by {@link #getTilesDone}.
+ * @param samplerPosition The position of the pixel sampler when the previous render stopped.
+ * @param pixelSamples    The number of samples of every pixel, as given by
+ *                        {@link #getPixelSamples}.
+ */
+void Renderer::resumeFrame(const ::std::int32_t tilesDone, const ::std::uint32_t samplerPosition,
+                           ::std::vector<::std::int32_t> pixelSamples) {
+    if (pixelSamples.size() != this->pixelSamples_.size()) {
+        LOG_WARN("Can't resume a render with another resolution.");
+        return;
+    }
+    this->pixelSamples_ = ::std::move(pixelSamples);
+    this->resumed_ = true;
+    this->firstTile_ = ::std::max(0, ::std::min(tilesDone, NumberOfTiles * this->samplesPixel_));
+    this->firstSamplerPosition_ = samplerPosition;
+    for (::std::atomic<bool> &dirtyTile : this->dirtyTiles_) {
+        dirtyTile.store(true, ::std::memory_order_release);
+    }
+}
+
+/**
+ * Gets the position of the pixel sampler, i.e., the number of random values taken from it.
+ *
+ * @return The position of the pixel sampler.
+ */
+::std::uint32_t Renderer::getSamplerPosition() const {
+    return this->samplerPixel_->sample_.load(::std::memory_order_relaxed);
+}
+
+/**
+ * Gets the number of samples averaged in every pixel of the image.
+ * <br>
+ * It must not be called while the scene is being rendered.
+ *
+ * @return The number of samples of every pixel, row by row.
+ */
+const ::std::vector<::std::int32_t> &Renderer::getPixelSamples() const {
+    return this->pixelSamples_;
+}
+
+/**
+ * Helper method which takes the next tile to render in a sample per pixel.
+ * <br>
+ * This method never repeats the tile for the same given sample, and the tiles of every sample are
+ * taken in the same order.
  *
  * @param sample The current sample of samples per pixel.
- * @return A random value between 0 and 1.
+ * @return The index of the tile in the order of the tiles, or {@link NumberOfTiles} if all the
+ * tiles of the sample were already taken.
+ */
+::std::int32_t Renderer::getTile(const ::std::int32_t sample) {
+    // The tiles are only taken while they belong to the sample, so the rendered tiles are always
+    // the first ones in the order, which is what a stopped render keeps to be resumed.
+    ::std::int32_t block {this->block_.load(::std::memory_order_relaxed)};
+    do {
+        if (block - NumberOfTiles * sample >= NumberOfTiles) {
+            return NumberOfTiles;
+        }
+    } while (!this->block_.compare_exchange_weak(block, block + 1, ::std::memory_order_relaxed));
+    return block - NumberOfTiles * sample;
+}
+
+/**
+ * Helper method which decides whether a thread can start rendering a sample per pixel, so the
+ * image only has complete samples when the deadline is reached.
+ * <br>
+ * The first thread that reaches a sample decides for all of them. It estimates the time of a
+ * sample with the average of the ones already rendered in this frame, and the sample only starts
+ * if it can finish before the deadline. The first sample of an empty image always starts.
+ *
+ * @param sample The sample per pixel that the thread will render.
+ * @return Whether the sample should be rendered.
  */
-float Renderer::getTile(const ::std::int32_t sample) {
-    const ::std::int32_t selectedSample {this->block_.fetch_add(1, ::std::memory_order_relaxed) - NumberOfTiles * sample};
-    if (selectedSample >= NumberOfTiles) {
-        this->block_.fetch_sub(1, ::std::memory_order_relaxed);
-        return 1.0F;
+bool Renderer::startSample(const ::std::int32_t sample) {
+    if (this->deadline_ == ::std::chrono::steady_clock::time_point::max()) {
+        return true;
+    }
+    const ::std::lock_guard<::std::mutex> lock {this->deadlineMutex_};
+    if (sample < this->samplesBeforeDeadline_) {
+        return true;
+    }
+    if (this->deadlineReached_) {
+        return false;
     }
-    const auto itTile {randomSequence.cbegin() + selectedSample};
-    return *itTile;
+    const ::std::chrono::steady_clock::time_point now {::std::chrono::steady_clock::now()};
+    const ::std::int32_t samplesDone {sample - this->frameFirstTile_ / NumberOfTiles};
+    const bool hasTime {
+        sample == 0
+        || (samplesDone == 0
+            ? now < this->deadline_
+            : now + (now - this->frameStart_) / samplesDone <= this->deadline_)
+    };
+    if (!hasTime) {
+        this->deadlineReached_ = true;
+        return false;
+    }
+    this->samplesBeforeDeadline_ = sample + 1;
+    return true;
 }
 
 /**
@@ -205,3 +406,179 @@ float Renderer::getTile(const ::std::int32_t sample) {
     const ::std::uint64_t castedRays {Ray::getNumberOfCastedRays()};
     return castedRays;
 }
+
+/**
+ * Gets the number of shadow rays which tested the occluder that blocked the previous shadow ray
+ * towards the same light.
+ *
+ * @return The number of lookups in the occluder caches.
+ */
+::std::uint64_t Renderer::getOccluderCacheLookups() const {
+    return Shader::getOccluderCacheLookups();
+}
+
+/**
+ * Gets the number of shadow rays which were blocked by the occluder of the previous shadow ray
+ * towards the same light, without traversing the acceleration structures.
+ *
+ * @return The number of hits in the occluder caches.
+ */
+::std::uint64_t Renderer::getOccluderCacheHits() const {
+    return Shader::getOccluderCacheHits();
+}
+
+/**
+ * Gets the regions of the image which were rendered since the last call to this method, and marks
+ * them as not rendered.
+ * <br>
+ * The adjacent tiles in the same row of tiles are merged in a single region, so the caller can
+ * update the changed parts of the image with few copies.
+ * This method can be called while the image is being rendered.
+ *
+ * @return The regions, with 4 values for each one: x, y, width and height in pixels.
+ */
+::std::vector<::std::int32_t> Renderer::takeDirtyRegions() {
+    ::std::vector<::std::int32_t> regions {};
+    for (::std::int32_t tileY {0}; tileY < this->tilesPerSide_; ++tileY) {
+        ::std::int32_t firstTileX {-1};
+        for (::std::int32_t tileX {0}; tileX <= this->tilesPerSide_; ++tileX) {
+            const bool dirty {
+                tileX < this->tilesPerSide_
+                && this->dirtyTiles_[static_cast<::std::size_t> (tileY * this->tilesPerSide_ + tileX)].exchange(false, ::std::memory_order_acquire)
+            };
+            if (dirty && firstTileX < 0) {
+                firstTileX = tileX;
+            } else if (!dirty && firstTileX >= 0) {
+                // The last tiles of a row and of a column can be cut by the border of the image.
+                const ::std::int32_t x {firstTileX * this->tileWidth_};
+                const ::std::int32_t y {tileY * this->tileHeight_};
+                regions.emplace_back(x);
+                regions.emplace_back(y);
+                regions.emplace_back(::std::min((tileX - firstTileX) * this->tileWidth_, this->width_ - x));
+                regions.emplace_back(::std::min(this->tileHeight_, this->height_ - y));
+                firstTileX = -1;
+            }
+        }
+    }
+    return regions;
+}
+
+/**
+ * Gets the number of tiles rendered in the current frame, for all the samples per pixel.
+ *
+ * @return The number of rendered tiles.
+ */
+::std::int32_t Renderer::getTilesDone() const {
+    return this->tilesDone_.load(::std::memory_order_relaxed);
+}
+
+/**
+ * Gets the number of threads rendering the current frame.
+ *
+ * @return The number of render threads.
+ */
+::std::int32_t Renderer::getNumThreads() const {
+    return static_cast<::std::int32_t> (this->busyTime_.size());
+}
+
+/**
+ * Gets the time that a render thread spent rendering tiles in the current frame.
+ *
+ * @param tid The thread id.
+ * @return The busy time of the thread in microseconds.
+ */
+::std::int64_t Renderer::getBusyTime(const ::std::int32_t tid) const {
+    return this->busyTime_[static_cast<::std::size_t> (tid)].load(::std::memory_order_relaxed);
+}
+
+/**
+ * Sets a function which is called by the render threads every time a tile is rendered.
+ * <br>
+ * The function is called concurrently by all the render threads, so it must be thread safe and
+ * fast.
+ *
+ * @param progressListener The function to call.
+ */
+void Renderer::setProgressListener(::std::function<void()> progressListener) {
+    this->progressListener_ = ::std::move(progressListener);
+}
+
+/**
+ * Makes the renderer fill the auxiliary buffers (albedo, normal and depth) of every pixel in the
+ * first sample of each frame, so the rendered image can be denoised.
+ * <br>
+ * It must not be called while the scene is being rendered.
+ */
+void Renderer::enableDenoiser() {
+    if (!this->denoiser_) {
+        this->denoiser_ = ::MobileRT::std::make_unique<Denoiser> (this->width_, this->height_);
+    }
+}
+
+/**
+ * Removes the noise of the rendered image into another image.
+ * <br>
+ * It can be called at any time after the first sample of the frame was rendered, even while the
+ * next samples are being accumulated in the bitmap. All the tiles are marked as changed, so the
+ * denoised image is shown if it is written into the same bitmap.
+ *
+ * @param bitmap     The bitmap with the rendered image.
+ * @param output     The bitmap where the denoised image should be put, which can be the same one.
+ * @param numThreads The number of threads to use.
+ * @return Whether the image was denoised or not, because the denoiser isn't enabled or the first
+ * sample of the frame wasn't rendered yet.
+ */
+bool Renderer::denoise(const ::std::int32_t *const bitmap, ::std::int32_t *const output, const ::std::int32_t numThreads) {
+    // The auxiliary buffers are only complete after all the tiles of the first sample are rendered.
+    const ::std::int32_t aovSample {(this->frameFirstTile_ + NumberOfTiles - 1) / NumberOfTiles};
+    if (!this->denoiser_ || getTilesDone() < NumberOfTiles * (aovSample + 1)) {
+        return false;
+    }
+    this->denoiser_->denoise(bitmap, output, numThreads);
+    for (::std::atomic<bool> &dirtyTile : this->dirtyTiles_) {
+        dirtyTile.store(true, ::std::memory_order_release);
+    }
+    return true;
+}
+
+/**
+ * Sets the time until which the next frames can keep rendering samples per pixel.
+ * <br>
+ * The renderer keeps adding samples per pixel progressively, up to the number given in the
+ * constructor, but it only starts a sample if the time measured for the previous ones says it can
+ * be finished before the deadline. When the frame finishes, {@link #getSample} has the number of
+ * samples per pixel in the image.
+ *
+ * @param deadline The deadline, or the maximum time point for no deadline.
+ */
+void Renderer::setDeadline(const ::std::chrono::steady_clock::time_point deadline) {
+    this->deadline_ = deadline;
+}
+
+/**
+ * Sets the rectangle of the image which the next frames render, so the samples can be focused in
+ * a region of interest.
+ * <br>
+ * The camera still projects the whole image, so the pixels inside the rectangle are the same as
+ * in a render of the whole image and the ones outside it keep their colors. The tiles which don't
+ * intersect the rectangle are skipped, but they still count as done.
+ *
+ * @param x      The column of the left side of the rectangle.
+ * @param y      The row of the top side of the rectangle.
+ * @param width  The width of the rectangle, or 0 for the whole image.
+ * @param height The height of the rectangle, or 0 for the whole image.
+ */
+void Renderer::setCropWindow(const ::std::int32_t x, const ::std::int32_t y, const ::std::int32_t width, const ::std::int32_t height) {
+    if (width <= 0 || height <= 0) {
+        this->cropX_ = 0;
+        this->cropY_ = 0;
+        this->cropEndX_ = this->width_;
+        this->cropEndY_ = this->height_;
+        return;
+    }
+    this->cropX_ = ::std::max(0, ::std::min(x, this->width_));
+    this->cropY_ = ::std::max(0, ::std::min(y, this->height_));
+    this->cropEndX_ = ::std::max(this->cropX_, ::std::min(x + width, this->width_));
+    this->cropEndY_ = ::std::max(this->cropY_, ::std::min(y + height, this->height_));
+    LOG_INFO("Crop window = ", this->cropX_, ",", this->cropY_, " to ", this->cropEndX_, ",", this->cropEndY_);
+}
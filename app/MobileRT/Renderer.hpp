@@ -2,11 +2,17 @@
 #define MOBILERT_RENDERER_HPP
 
 #include "MobileRT/Camera.hpp"
+#include "MobileRT/Denoiser.hpp"
 #include "MobileRT/Sampler.hpp"
 #include "MobileRT/Shader.hpp"
 #include "MobileRT/Utils/Utils.hpp"
+#include <atomic>
+#include <chrono>
 #include <cmath>
+#include <functional>
+#include <mutex>
 #include <thread>
+#include <vector>
 
 namespace MobileRT {
     /**
@@ -23,17 +29,40 @@ namespace MobileRT {
         ::std::unique_ptr<Sampler> samplerPixel_ {};
         ::std::int32_t blockSizeX_ {};
         ::std::int32_t blockSizeY_ {};
-        ::std::int32_t sample_ {};
+        ::std::int32_t firstTile_ {};
+        ::std::int32_t frameFirstTile_ {};
+        ::std::uint32_t firstSamplerPosition_ {};
         const ::std::int32_t width_ {};
         const ::std::int32_t height_ {};
         const ::std::int32_t domainSize_ {};
         const ::std::int32_t resolution_ {};
+        const ::std::int32_t tilesPerSide_ {};
+        const ::std::int32_t tileWidth_ {};
+        const ::std::int32_t tileHeight_ {};
+        ::std::int32_t cropX_ {};
+        ::std::int32_t cropY_ {};
+        ::std::int32_t cropEndX_ {};
+        ::std::int32_t cropEndY_ {};
         ::std::int32_t samplesPixel_ {};
         ::std::atomic<::std::int32_t> block_ {};
+        ::std::vector<::std::atomic<bool>> dirtyTiles_;
+        ::std::vector<::std::atomic<::std::int32_t>> tileSamples_;
+        ::std::vector<::std::int32_t> pixelSamples_ {};
+        bool resumed_ {};
+        ::std::atomic<::std::int32_t> tilesDone_ {};
+        ::std::vector<::std::atomic<::std::int64_t>> busyTime_ {};
+        ::std::function<void()> progressListener_ {};
+        ::std::unique_ptr<Denoiser> denoiser_ {};
+        ::std::chrono::steady_clock::time_point deadline_ {::std::chrono::steady_clock::time_point::max()};
+        ::std::chrono::steady_clock::time_point frameStart_ {};
+        ::std::mutex deadlineMutex_ {};
+        ::std::int32_t samplesBeforeDeadline_ {};
+        bool deadlineReached_ {};
 
     private:
-        void renderScene(::std::int32_t *bitmap, ::std::int32_t tid);
-        float getTile(::std::int32_t sample);
+        void renderScene(::std::int32_t *bitmap, ::std::int32_t tid, ::std::int32_t firstSample);
+        ::std::int32_t getTile(::std::int32_t sample);
+        bool startSample(::std::int32_t sample);
 
     public:
         explicit Renderer () = delete;
@@ -60,7 +89,35 @@ namespace MobileRT {
 
         ::std::int32_t getSample() const;
 
+        void resumeFrame(::std::int32_t tilesDone, ::std::uint32_t samplerPosition, ::std::vector<::std::int32_t> pixelSamples);
+
+        ::std::uint32_t getSamplerPosition() const;
+
+        const ::std::vector<::std::int32_t> &getPixelSamples() const;
+
         ::std::uint64_t getTotalCastedRays() const;
+
+        ::std::uint64_t getOccluderCacheLookups() const;
+
+        ::std::uint64_t getOccluderCacheHits() const;
+
+        ::std::vector<::std::int32_t> takeDirtyRegions();
+
+        ::std::int32_t getTilesDone() const;
+
+        ::std::int32_t getNumThreads() const;
+
+        ::std::int64_t getBusyTime(::std::int32_t tid) const;
+
+        void setProgressListener(::std::function<void()> progressListener);
+
+        void enableDenoiser();
+
+        void setDeadline(::std::chrono::steady_clock::time_point deadline);
+
+        void setCropWindow(::std::int32_t x, ::std::int32_t y, ::std::int32_t width, ::std::int32_t height);
+
+        bool denoise(const ::std::int32_t *bitmap, ::std::int32_t *output, ::std::int32_t numThreads);
     };
 }//namespace MobileRT
 
@@ -2,6 +2,23 @@
 
 using ::MobileRT::Sampler;
 
+namespace {
+    /**
+     * The pixel being rendered by the current thread.
+     */
+    thread_local ::std::uint32_t currentPixel {};
+
+    /**
+     * The sample per pixel being rendered by the current thread.
+     */
+    thread_local ::std::uint32_t currentSample {};
+
+    /**
+     * The number of values already taken for the current pixel sample by the current thread.
+     */
+    thread_local ::std::uint32_t currentDimension {};
+}//namespace
+
 /**
  * The constructor.
  *
@@ -44,3 +61,32 @@ void Sampler::stopSampling() {
 float Sampler::getSample() {
     return getSample(0);
 }
+
+/**
+ * Sets the pixel sample which the current thread is going to render.
+ * <br>
+ * The samplers which depend on the pixel take the values of the first dimensions of the new
+ * pixel sample afterwards.
+ *
+ * @param pixel  The index of the pixel in the image.
+ * @param sample The index of the sample per pixel.
+ */
+void Sampler::setPixelSample(const ::std::uint32_t pixel, const ::std::uint32_t sample) {
+    currentPixel = pixel;
+    currentSample = sample;
+    currentDimension = 0;
+}
+
+/**
+ * Gets the pixel sample which the current thread is rendering and the next dimension of it to
+ * use.
+ *
+ * @param pixel  A pointer to store the index of the pixel in the image.
+ * @param sample A pointer to store the index of the sample per pixel.
+ * @return The next dimension of the pixel sample.
+ */
+::std::uint32_t Sampler::nextDimension(::std::uint32_t *const pixel, ::std::uint32_t *const sample) {
+    *pixel = currentPixel;
+    *sample = currentSample;
+    return currentDimension++;
+}
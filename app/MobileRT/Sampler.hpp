@@ -9,6 +9,10 @@
 namespace MobileRT {
     /**
      * A class which abstracts a random number generator.
+     * <br>
+     * Besides the sequence shared by all the threads, each render thread keeps the pixel and the
+     * sample per pixel that it is rendering, so the samplers which depend on them can compute
+     * their values without any shared state.
      */
     class Sampler {
     public:
@@ -46,7 +50,11 @@ namespace MobileRT {
 
         float getSample();
 
+        static void setPixelSample(::std::uint32_t pixel, ::std::uint32_t sample);
+
     protected:
+        static ::std::uint32_t nextDimension(::std::uint32_t *pixel, ::std::uint32_t *sample);
+
         /**
          * An auxiliary method that increments the sample counter and gets the
          * current sample from an array received via parameters.
@@ -1,6 +1,7 @@
 #include "MobileRT/Shader.hpp"
 #include "MobileRT/Utils/Utils.hpp"
 #include <array>
+#include <functional>
 #include <glm/glm.hpp>
 #include <glm/gtc/constants.hpp>
 #include <random>
@@ -21,6 +22,77 @@ using ::MobileRT::Scene;
 
 namespace {
     ::std::array<float, ::MobileRT::ArraySize> randomSequence {};
+
+    /**
+     * The number of cells in each axis of the regular grid.
+     */
+    const ::std::uint32_t GridSize {32U};
+
+    /**
+     * The occluders of the shadow rays cached by a render thread.
+     */
+    struct OccluderCache {
+        /**
+         * The identifier of the primitives of the cached occluders.
+         */
+        ::std::uint32_t occluderCacheId_ {};
+
+        /**
+         * The last primitive which blocked a shadow ray towards each light, or null.
+         */
+        ::std::vector<const void *> occluders_ {};
+
+        /**
+         * The statistics of the thread which were not added to the global ones yet.
+         */
+        ::std::uint64_t lookups_ {};
+        ::std::uint64_t hits_ {};
+    };
+
+    /**
+     * The occluders cached by the current thread.
+     * <br>
+     * Adjacent pixels are usually blocked from a light by the same primitive, so each thread
+     * tests the last occluder of a light before traversing the acceleration structures.
+     */
+    thread_local OccluderCache occluderCache {};
+
+    /**
+     * The identifier for the primitives of the next acceleration structures built.
+     */
+    ::std::atomic<::std::uint32_t> nextOccluderCacheId {1};
+
+    /**
+     * The number of shadow rays which tested a cached occluder.
+     */
+    ::std::atomic<::std::uint64_t> occluderCacheLookups {};
+
+    /**
+     * The number of shadow rays which were blocked by a cached occluder.
+     */
+    ::std::atomic<::std::uint64_t> occluderCacheHits {};
+
+    /**
+     * The number of lookups of a thread after which its statistics are added to the global ones,
+     * so the threads don't contend for them in every shadow ray.
+     */
+    const ::std::uint64_t OccluderCacheStatsBatch {64};
+
+    /**
+     * Helper method which checks whether a primitive is in a vector of primitives.
+     *
+     * @tparam T The type of the primitives.
+     * @param primitives The primitives.
+     * @param primitive  The primitive.
+     * @return Whether the primitive is in the vector or not.
+     */
+    template<typename T>
+    bool contains(const ::std::vector<T> &primitives, const void *const primitive) {
+        const ::std::less_equal<const void *> lessEqual {};
+        return !primitives.empty()
+            && lessEqual(static_cast<const void *> (&primitives.front()), primitive)
+            && lessEqual(primitive, static_cast<const void *> (&primitives.back()));
+    }
 }//namespace
 
 /**
@@ -45,6 +117,7 @@ Shader::Shader(Scene scene, const ::std::int32_t samplesLight, const Accelerator
  */
 void Shader::initializeAccelerators(Scene scene) {
     ::MobileRT::checkSystemError("initializeAccelerators start");
+    this->occluderCacheId_ = nextOccluderCacheId.fetch_add(1, ::std::memory_order_relaxed);
     switch (this->accelerator_) {
         case Accelerator::ACC_NAIVE: {
             this->naivePlanes_ = Naive<Plane> {::std::move(scene.planes_)};
@@ -54,10 +127,9 @@ void Shader::initializeAccelerators(Scene scene) {
         }
 
         case Accelerator::ACC_REGULAR_GRID: {
-            const ::std::uint32_t gridSize {32U};
-            this->gridPlanes_ = RegularGrid<Plane> {::std::move(scene.planes_), gridSize};
-            this->gridSpheres_ = RegularGrid<Sphere> {::std::move(scene.spheres_), gridSize};
-            this->gridTriangles_ = RegularGrid<Triangle> {::std::move(scene.triangles_), gridSize};
+            this->gridPlanes_ = RegularGrid<Plane> {::std::move(scene.planes_), GridSize};
+            this->gridSpheres_ = RegularGrid<Sphere> {::std::move(scene.spheres_), GridSize};
+            this->gridTriangles_ = RegularGrid<Triangle> {::std::move(scene.triangles_), GridSize};
             break;
         }
 
@@ -70,6 +142,11 @@ void Shader::initializeAccelerators(Scene scene) {
     }
     ::MobileRT::checkSystemError("initializeAccelerators end");
     this->lights_ = ::std::move(scene.lights_);
+    this->lightBVH_ = LightBVH {this->lights_};
+    this->lightIndexes_.clear();
+    for (::std::uint32_t i {}; i < this->lights_.size(); ++i) {
+        this->lightIndexes_.emplace(&this->lights_[i]->radiance_, static_cast<::std::int32_t> (i));
+    }
     LOG_INFO("accelerator = ", this->accelerator_);
     LOG_INFO("materials = ", this->materials_.size());
     LOG_INFO("lights = ", this->lights_.size());
@@ -84,8 +161,53 @@ void Shader::initializeAccelerators(Scene scene) {
  * @return Whether the casted ray intersects a light source in the scene or not.
  */
 bool Shader::rayTrace(::glm::vec3 *rgb, Ray &&ray) {
+    const Intersection intersection {trace(::std::move(ray))};
+    return intersection.length_ < RayLengthMax && shade(rgb, intersection);
+}
+
+/**
+ * Calculates the auxiliary buffers of a casted ray, used to remove the noise of the rendered
+ * image.
+ * <br>
+ * The albedo is the sum of the reflected and transmitted colors of the material, or the emitted
+ * radiance if the ray intersects a light source. If the ray doesn't intersect anything, the
+ * albedo is black, the normal points back to the origin of the ray and the depth is the maximum
+ * length of a ray.
+ *
+ * @param ray    The casted ray into the scene.
+ * @param albedo A pointer where the albedo of the intersection should be put.
+ * @param normal A pointer where the normal of the intersection should be put.
+ * @param depth  A pointer where the distance to the intersection should be put.
+ */
+void Shader::traceAov(Ray &&ray, ::glm::vec3 *const albedo, ::glm::vec3 *const normal, float *const depth) {
+    const ::glm::vec3 direction {ray.direction_};
+    const Intersection intersection {trace(::std::move(ray))};
+    *depth = intersection.length_;
+    if (intersection.length_ >= RayLengthMax || intersection.material_ == nullptr) {
+        *albedo = ::glm::vec3 {0.0F};
+        *normal = -direction;
+        return;
+    }
+    const Material &material {*intersection.material_};
+    const ::glm::vec3 color {
+        ::MobileRT::hasPositiveValue(material.Le_) ? material.Le_ : material.Kd_ + material.Ks_ + material.Kt_
+    };
+    *albedo = ::glm::min(color, ::glm::vec3 {1.0F});
+    *normal = intersection.normal_;
+}
+
+/**
+ * Calculates the nearest intersection of a casted ray with the primitives and the light sources
+ * in the scene, without shading it.
+ * <br>
+ * If the ray doesn't intersect anything, then the length of the intersection is
+ * {@link ::MobileRT::RayLengthMax}.
+ *
+ * @param ray The casted ray into the scene.
+ * @return The nearest intersection with its material.
+ */
+Intersection Shader::trace(Ray &&ray) {
     Intersection intersection {::std::move(ray)};
-    const float lastDist {intersection.length_};
     switch (this->accelerator_) {
         case Accelerator::ACC_NAIVE: {
             intersection = this->naivePlanes_.trace(intersection);
@@ -116,20 +238,47 @@ bool Shader::rayTrace(::glm::vec3 *rgb, Ray &&ray) {
         const ::glm::vec2 &texCoords {intersection.texCoords_};
         if (texCoords[0] >= 0 && texCoords[1] >= 0) {
             const Texture &texture {material.texture_};
-            intersection.material_->Kd_ = texture.loadColor(texCoords);
+            const float footprint {intersection.length_ * this->pixelSpreadAngle_ * intersection.texCoordsScale_};
+            intersection.material_->Kd_ = texture.loadColor(texCoords, footprint);
         }
     }
-    return intersection.length_ < lastDist && shade(rgb, intersection);
+    return intersection;
 }
 
 /**
  * Determines if a casted ray intersects a primitive in the scene between the origin of the ray and a light source.
+ * <br>
  *
- * @param distance The distance from the origin of the ray to the light source.
- * @param ray      The casted ray.
+ * The last primitive which blocked a shadow ray towards the same light in the current thread is
+ * tested first, so most of the shadow rays of adjacent pixels don't need to traverse the
+ * acceleration structures.
+ *
+ * @param distance   The distance from the origin of the ray to the light source.
+ * @param ray        The casted ray.
+ * @param lightIndex The index of the light source or -1 to not use the cached occluders.
  * @return Whether the casted ray intersects a primitive in the scene or not.
  */
-bool Shader::shadowTrace(const float distance, Ray &&ray) {
+bool Shader::shadowTrace(const float distance, Ray &&ray, const ::std::int32_t lightIndex) {
+    const void **cachedOccluder {nullptr};
+    if (lightIndex >= 0 && static_cast<::std::size_t> (lightIndex) < this->lights_.size()) {
+        if (occluderCache.occluderCacheId_ != this->occluderCacheId_) {
+            occluderCache.occluderCacheId_ = this->occluderCacheId_;
+            occluderCache.occluders_.assign(this->lights_.size(), nullptr);
+        }
+        cachedOccluder = &occluderCache.occluders_[static_cast<::std::size_t> (lightIndex)];
+        if (*cachedOccluder != nullptr) {
+            const bool blocked {intersectOccluder(*cachedOccluder, Intersection {Ray {ray}, distance}).length_ < distance};
+            ++occluderCache.lookups_;
+            occluderCache.hits_ += blocked ? 1 : 0;
+            if (occluderCache.lookups_ >= OccluderCacheStatsBatch) {
+                flushOccluderCacheStats();
+            }
+            if (blocked) {
+                return true;
+            }
+        }
+    }
+
     Intersection intersection {::std::move(ray), distance};
     switch (this->accelerator_) {
         case Accelerator::ACC_NAIVE: {
@@ -154,9 +303,76 @@ bool Shader::shadowTrace(const float distance, Ray &&ray) {
         }
     }
     const bool res {intersection.length_ < distance};
+    if (res && cachedOccluder != nullptr) {
+        *cachedOccluder = intersection.primitive_;
+    }
     return res;
 }
 
+/**
+ * Helper method which calculates the intersection of a casted ray with a primitive that blocked a
+ * previous shadow ray.
+ *
+ * @param occluder     The primitive.
+ * @param intersection The current intersection of the ray.
+ * @return The intersection of the casted ray and the primitive.
+ */
+Intersection Shader::intersectOccluder(const void *const occluder, Intersection intersection) const {
+    const ::std::vector<Triangle> &triangles {getTriangles()};
+    if (contains(triangles, occluder)) {
+        return static_cast<const Triangle *> (occluder)->intersect(::std::move(intersection));
+    }
+    const ::std::vector<Sphere> &spheres {getSpheres()};
+    if (contains(spheres, occluder)) {
+        return static_cast<const Sphere *> (occluder)->intersect(::std::move(intersection));
+    }
+    const ::std::vector<Plane> &planes {getPlanes()};
+    if (contains(planes, occluder)) {
+        return static_cast<const Plane *> (occluder)->intersect(::std::move(intersection));
+    }
+    return intersection;
+}
+
+/**
+ * Gets the number of shadow rays which tested an occluder cached by a render thread.
+ * <br>
+ * Each thread only adds its lookups from time to time and when {@link #flushOccluderCacheStats}
+ * is called.
+ *
+ * @return The number of lookups in the occluder caches.
+ */
+::std::uint64_t Shader::getOccluderCacheLookups() {
+    return occluderCacheLookups.load(::std::memory_order_relaxed);
+}
+
+/**
+ * Gets the number of shadow rays which were blocked by an occluder cached by a render thread,
+ * without traversing the acceleration structures.
+ *
+ * @return The number of hits in the occluder caches.
+ */
+::std::uint64_t Shader::getOccluderCacheHits() {
+    return occluderCacheHits.load(::std::memory_order_relaxed);
+}
+
+/**
+ * Adds the statistics of the occluder cache of the current thread to the global ones.
+ */
+void Shader::flushOccluderCacheStats() {
+    occluderCacheLookups.fetch_add(occluderCache.lookups_, ::std::memory_order_relaxed);
+    occluderCacheHits.fetch_add(occluderCache.hits_, ::std::memory_order_relaxed);
+    occluderCache.lookups_ = 0;
+    occluderCache.hits_ = 0;
+}
+
+/**
+ * Resets the statistics of the occluder caches.
+ */
+void Shader::resetOccluderCacheStats() {
+    occluderCacheLookups.store(0, ::std::memory_order_relaxed);
+    occluderCacheHits.store(0, ::std::memory_order_relaxed);
+}
+
 /**
  * Helper method which calculates the nearest intersection point of a casted ray and the light sources.
  *
@@ -179,6 +395,30 @@ void Shader::resetSampling() {
     }
 }
 
+/**
+ * Sets the angle covered by each pixel of the camera.
+ * <br>
+ * The footprint of a ray in a texture is estimated as if every ray came directly from the camera,
+ * so the secondary rays only account for the distance of their last segment.
+ *
+ * @param pixelSpreadAngle The angle, in radians, covered by a pixel.
+ */
+void Shader::setPixelSpreadAngle(const float pixelSpreadAngle) {
+    this->pixelSpreadAngle_ = pixelSpreadAngle;
+}
+
+/**
+ * Sets the number of samples per light, so the scene and its acceleration structures can be
+ * rendered again with another number of samples without being built again.
+ * <br>
+ * It must not be called while the scene is being rendered.
+ *
+ * @param samplesLight The number of samples per light.
+ */
+void Shader::setSamplesLight(const ::std::int32_t samplesLight) {
+    this->samplesLight_ = samplesLight;
+}
+
 /**
  * Helper method which generates a random 3D direction in a hemisphere in world coordinates.
  *
@@ -216,20 +456,48 @@ void Shader::resetSampling() {
 }
 
 /**
- * Calculates the index of a random chosen light in the scene.
+ * Chooses a random light in the scene to illuminate a point.
+ * <br>
+ * The light is chosen through the light BVH, with a probability proportional to the estimate of
+ * its contribution to the point, so the lights which can't illuminate the point are never chosen.
  *
- * @return The index of a random chosen light.
+ * @param point  The point in the scene.
+ * @param normal The shading normal at the point.
+ * @param pdf    A pointer to store the probability of choosing the light.
+ * @return The index of the chosen light or -1 if no light can illuminate the point.
  */
-::std::uint32_t Shader::getLightIndex () {
+::std::int32_t Shader::sampleLight(const ::glm::vec3 &point, const ::glm::vec3 &normal, float *const pdf) const {
     static ::std::atomic<::std::uint32_t> sampler {};
     const ::std::uint32_t current {sampler.fetch_add(1, ::std::memory_order_relaxed)};
 
     const auto itRandomValue {randomSequence.begin() + (current & ::MobileRT::ArrayMask)};
 
-    const ::std::uint32_t sizeLights {static_cast<::std::uint32_t> (this->lights_.size())};
-    const float randomNumber {*itRandomValue};
-    const ::std::uint32_t chosenLight {static_cast<::std::uint32_t> (::std::floor(randomNumber * sizeLights * 0.99999F))};
-    return chosenLight;
+    const float randomNumber {::std::min(*itRandomValue, 0.99999F)};
+    return this->lightBVH_.sampleLight(point, normal, randomNumber, pdf);
+}
+
+/**
+ * Calculates the probability of the {@link #sampleLight} method choosing a light to illuminate a
+ * point.
+ *
+ * @param lightIndex The index of the light.
+ * @param point      The point in the scene.
+ * @param normal     The shading normal at the point.
+ * @return The probability of choosing the light.
+ */
+float Shader::getLightPdf(const ::std::int32_t lightIndex, const ::glm::vec3 &point, const ::glm::vec3 &normal) const {
+    return this->lightBVH_.getPdf(lightIndex, point, normal);
+}
+
+/**
+ * Gets the index of the light which an intersection hit, by the material of the intersection.
+ *
+ * @param radiance The material of the intersection.
+ * @return The index of the light or -1 if the material doesn't belong to a light.
+ */
+::std::int32_t Shader::getLightIndex(const Material *const radiance) const {
+    const auto itLight {this->lightIndexes_.find(radiance)};
+    return itLight != this->lightIndexes_.end() ? itLight->second : -1;
 }
 
 /**
@@ -315,3 +583,28 @@ const ::std::vector<::std::unique_ptr<Light>>& Shader::getLights() const {
 const ::std::vector<Material>& Shader::getMaterials() const {
     return this->materials_;
 }
+
+/**
+ * Estimates the peak memory, in bytes, that an acceleration structure needs for the triangles of a
+ * scene, besides the triangles themselves.
+ * <br>
+ * This allows to choose an acceleration structure that fits in the available memory before
+ * building it.
+ *
+ * @param accelerator  The acceleration structure.
+ * @param numTriangles The number of triangles in the scene.
+ * @return The number of bytes.
+ */
+::std::size_t Shader::estimateAcceleratorMemory(const Accelerator accelerator, const ::std::size_t numTriangles) {
+    switch (accelerator) {
+        case Accelerator::ACC_REGULAR_GRID:
+            return RegularGrid<Triangle>::estimateMemory(numTriangles, GridSize);
+
+        case Accelerator::ACC_BVH:
+            return BVH<Triangle>::estimateMemory(numTriangles);
+
+        case Accelerator::ACC_NAIVE:
+            break;
+    }
+    return 0;
+}
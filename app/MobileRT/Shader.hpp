@@ -2,6 +2,7 @@
 #define MOBILERT_SHADER_HPP
 
 #include "MobileRT/Accelerators/BVH.hpp"
+#include "MobileRT/Accelerators/LightBVH.hpp"
 #include "MobileRT/Accelerators/Naive.hpp"
 #include "MobileRT/Accelerators/RegularGrid.hpp"
 #include "MobileRT/Camera.hpp"
@@ -9,6 +10,7 @@
 #include "MobileRT/Ray.hpp"
 #include "MobileRT/Sampler.hpp"
 #include "MobileRT/Scene.hpp"
+#include <unordered_map>
 
 namespace MobileRT {
     /**
@@ -36,18 +38,39 @@ namespace MobileRT {
         BVH<Sphere> bvhSpheres_ {};
         BVH<Triangle> bvhTriangles_ {};
 
+        LightBVH lightBVH_ {};
+
+        /**
+         * The index of each light by the address of its emitted radiance, which is the material of
+         * the intersections with the light.
+         */
+        ::std::unordered_map<const Material *, ::std::int32_t> lightIndexes_ {};
+
         ::std::vector<Material> materials_ {};
 
+        /**
+         * The angle covered by each pixel, used to estimate the footprint of the rays in the textures.
+         */
+        float pixelSpreadAngle_ {0.0F};
+
+        /**
+         * The identifier of the primitives in the acceleration structures, so the occluders cached
+         * by the render threads for other primitives are not used.
+         */
+        ::std::uint32_t occluderCacheId_ {};
+
     private:
         const Accelerator accelerator_ {};
 
     protected:
-        const ::std::int32_t samplesLight_ {};
+        ::std::int32_t samplesLight_ {};
         ::std::vector<::std::unique_ptr<Light>> lights_ {};
 
     private:
         Intersection traceLights(Intersection intersection) const;
 
+        Intersection intersectOccluder(const void *occluder, Intersection intersection) const;
+
     protected:
         /**
          * Calculates the color of an intersection in the scene.
@@ -63,7 +86,13 @@ namespace MobileRT {
 
         static ::glm::vec3 getCosineSampleHemisphere(const ::glm::vec3 &normal);
 
-        ::std::uint32_t getLightIndex ();
+        Intersection trace(Ray &&ray);
+
+        ::std::int32_t sampleLight(const ::glm::vec3 &point, const ::glm::vec3 &normal, float *pdf) const;
+
+        float getLightPdf(::std::int32_t lightIndex, const ::glm::vec3 &point, const ::glm::vec3 &normal) const;
+
+        ::std::int32_t getLightIndex(const Material *radiance) const;
 
     public:
         void initializeAccelerators(Scene scene);
@@ -85,10 +114,16 @@ namespace MobileRT {
 
         bool rayTrace(::glm::vec3 *rgb, Ray &&ray);
 
-        bool shadowTrace(float distance, Ray &&ray);
+        void traceAov(Ray &&ray, ::glm::vec3 *albedo, ::glm::vec3 *normal, float *depth);
+
+        bool shadowTrace(float distance, Ray &&ray, ::std::int32_t lightIndex = -1);
 
         virtual void resetSampling();
 
+        void setPixelSpreadAngle(float pixelSpreadAngle);
+
+        void setSamplesLight(::std::int32_t samplesLight);
+
         const ::std::vector<Plane>& getPlanes() const;
 
         const ::std::vector<Sphere>& getSpheres() const;
@@ -98,6 +133,16 @@ namespace MobileRT {
         const ::std::vector<Material>& getMaterials() const;
 
         const ::std::vector<::std::unique_ptr<Light>>& getLights() const;
+
+        static ::std::size_t estimateAcceleratorMemory(Accelerator accelerator, ::std::size_t numTriangles);
+
+        static ::std::uint64_t getOccluderCacheLookups();
+
+        static ::std::uint64_t getOccluderCacheHits();
+
+        static void flushOccluderCacheStats();
+
+        static void resetOccluderCacheStats();
     };
 }//namespace MobileRT
 
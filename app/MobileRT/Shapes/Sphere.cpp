@@ -74,7 +74,7 @@ Intersection Sphere::intersect(Intersection intersection) const {
         intersectionPoint,
         distanceToIntersection,
         intersectionNormal,
-        nullptr,
+        this,
         this->materialIndex_
     };
     return res;
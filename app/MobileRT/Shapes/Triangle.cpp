@@ -22,6 +22,15 @@ Triangle::Triangle(const Triangle::Builder &builder) noexcept :
         texCoordB_ {builder.texCoordB_},
         texCoordC_ {builder.texCoordC_},
         materialIndex_ {builder.materialIndex_} {
+    // The square root of the ratio between the area in texture space and the area in world space
+    // converts the width of a ray in world units to the width in texture coordinates.
+    const ::glm::vec2 &texCoordAB {this->texCoordB_ - this->texCoordA_};
+    const ::glm::vec2 &texCoordAC {this->texCoordC_ - this->texCoordA_};
+    const float texCoordsArea {::std::abs(texCoordAB[0] * texCoordAC[1] - texCoordAB[1] * texCoordAC[0])};
+    const float worldArea {::glm::length(::glm::cross(this->AB_, this->AC_))};
+    if (worldArea > 0.0F && isValid(texCoordsArea)) {
+        this->texCoordsScale_ = ::std::sqrt(texCoordsArea / worldArea);
+    }
     checkArguments();
 }
 
@@ -102,7 +111,8 @@ Intersection Triangle::intersect(Intersection intersection) const {
                             intersectionNormal,
                             this,
                             this->materialIndex_,
-                            texCoords
+                            texCoords,
+                            this->texCoordsScale_
     };
 
     return res;
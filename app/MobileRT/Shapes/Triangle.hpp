@@ -24,6 +24,7 @@ namespace MobileRT {
         ::glm::vec2 texCoordA_ {-1};
         ::glm::vec2 texCoordB_ {-1};
         ::glm::vec2 texCoordC_ {-1};
+        float texCoordsScale_ {0.0F};
         ::std::int32_t materialIndex_ {-1};
 
     private:
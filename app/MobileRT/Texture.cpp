@@ -1,5 +1,20 @@
 #include "MobileRT/Texture.hpp"
 #include "MobileRT/Utils/Utils.hpp"
+#include <algorithm>
+#include <chrono>
+#include <cmath>
+#include <cstdio>
+#include <cstring>
+#include <dirent.h>
+#include <fcntl.h>
+#include <fstream>
+#include <iomanip>
+#include <iterator>
+#include <sstream>
+#include <sys/mman.h>
+#include <sys/stat.h>
+#include <unistd.h>
+#include <utime.h>
 
 #define STB_IMAGE_IMPLEMENTATION
 
@@ -7,10 +22,203 @@
 
 using ::MobileRT::Texture;
 
+namespace {
+    /**
+     * The width and height, in texels, of each block of texels.
+     */
+    const ::std::int32_t BlockSize {4};
+
+    /**
+     * The number of bytes of each texel (RGBA).
+     */
+    const ::std::int32_t TexelSize {4};
+
+    /**
+     * The number of bytes of each block of texels, which matches the size of a typical cache line.
+     */
+    const ::std::size_t BlockBytes {BlockSize * BlockSize * TexelSize};
+
+    /**
+     * The mutex which guards the registered textures of the cache.
+     */
+    ::std::mutex cacheMutex {};
+
+    /**
+     * The number of bytes used by all the decoded textures.
+     */
+    ::std::atomic<::std::size_t> cacheSize {0};
+
+    /**
+     * The maximum number of bytes that the decoded textures should use, or 0 for no limit.
+     */
+    ::std::atomic<::std::size_t> cacheBudget {0};
+
+    /**
+     * The current frame, used to find the least recently used textures.
+     */
+    ::std::atomic<::std::uint64_t> cacheFrame {1};
+
+    /**
+     * The mutex which guards the files of the disk cache.
+     */
+    ::std::mutex diskCacheMutex {};
+
+    /**
+     * The directory of the disk cache, or empty if the disk cache is disabled.
+     */
+    ::std::string diskCacheDirectory {};
+
+    /**
+     * The maximum number of bytes of the files in the disk cache, or 0 for no limit.
+     */
+    ::std::size_t diskCacheBudget {0};
+
+    /**
+     * The number of textures decoded from the encoded images (cold loads) and the time spent.
+     */
+    ::std::atomic<::std::int32_t> coldLoads {0};
+    ::std::atomic<::std::int64_t> coldLoadsTime {0};
+
+    /**
+     * The number of textures loaded from the disk cache (warm loads) and the time spent.
+     */
+    ::std::atomic<::std::int32_t> warmLoads {0};
+    ::std::atomic<::std::int64_t> warmLoadsTime {0};
+
+    /**
+     * The extension of the files in the disk cache.
+     */
+    const ::std::string DiskCacheExtension {".mrtt"};
+
+    /**
+     * The version of the format of the files in the disk cache.
+     */
+    const ::std::uint32_t DiskCacheVersion {1};
+
+    /**
+     * The alignment of the texels in the files of the disk cache, so each block of texels fits in
+     * a cache line.
+     */
+    const ::std::uint64_t DiskCacheAlignment {64};
+
+    /**
+     * The header of a file in the disk cache.
+     */
+    struct DiskCacheHeader {
+        char magic[4];
+        ::std::uint32_t version;
+        ::std::uint64_t hash;
+        ::std::uint64_t sourceSize;
+        ::std::int32_t width;
+        ::std::int32_t height;
+        ::std::uint32_t numLevels;
+        ::std::uint32_t padding;
+        ::std::uint64_t dataOffset;
+        ::std::uint64_t dataSize;
+    };
+
+    /**
+     * A mip-map level in a file of the disk cache.
+     */
+    struct DiskCacheLevel {
+        ::std::int32_t width;
+        ::std::int32_t height;
+        ::std::int32_t blocksX;
+        ::std::int32_t padding;
+        ::std::uint64_t offset;
+    };
+
+    static_assert(sizeof(DiskCacheHeader) == 56, "DiskCacheHeader must not have padding.");
+    static_assert(sizeof(DiskCacheLevel) == 24, "DiskCacheLevel must not have padding.");
+
+    /**
+     * Helper method which calculates the FNV-1a hash of an encoded image.
+     * <br>
+     * Unlike ::std::hash, the result is the same in every platform and execution, so it can be
+     * used as the key of the disk cache.
+     *
+     * @param data The encoded image.
+     * @return The hash of the image.
+     */
+    ::std::uint64_t hashImage(const ::std::string &data) {
+        ::std::uint64_t hash {14695981039346656037ULL};
+        for (const char byte : data) {
+            hash ^= static_cast<::std::uint8_t> (byte);
+            hash *= 1099511628211ULL;
+        }
+        return hash;
+    }
+
+    /**
+     * Helper method which gets the path to the file of a texture in the disk cache.
+     *
+     * @param hash The hash of the encoded image.
+     * @return The path to the file.
+     */
+    ::std::string getDiskCachePath(const ::std::uint64_t hash) {
+        ::std::ostringstream path {};
+        path << diskCacheDirectory << '/' << ::std::hex << ::std::setw(16) << ::std::setfill('0') << hash << DiskCacheExtension;
+        return path.str();
+    }
+
+    /**
+     * Helper method which gets the elapsed time since a point in time.
+     *
+     * @param start The point in time.
+     * @return The elapsed time in microseconds.
+     */
+    ::std::int64_t getElapsedMicroseconds(const ::std::chrono::steady_clock::time_point &start) {
+        const ::std::chrono::steady_clock::duration elapsed {::std::chrono::steady_clock::now() - start};
+        return static_cast<::std::int64_t> (::std::chrono::duration_cast<::std::chrono::microseconds> (elapsed).count());
+    }
+
+    /**
+     * Helper method which wraps a texel coordinate into the [0, size[ range, so the texture
+     * repeats itself.
+     *
+     * @param value The texel coordinate.
+     * @param size  The number of texels in that dimension.
+     * @return The wrapped texel coordinate.
+     */
+    ::std::int32_t wrap(const ::std::int32_t value, const ::std::int32_t size) {
+        const ::std::int32_t res {value % size};
+        return res < 0 ? res + size : res;
+    }
+}//namespace
+
+/**
+ * The destructor.
+ * <br>
+ * Removes the decoded texels from the size of the cache.
+ */
+Texture::Residency::~Residency() {
+    if (this->texels != nullptr) {
+        cacheSize -= this->texels->size;
+    }
+}
+
+/**
+ * The destructor.
+ * <br>
+ * Unmaps the file of the disk cache, if the texels were memory mapped.
+ */
+Texture::Texels::~Texels() {
+    if (this->mapping != nullptr) {
+        ::munmap(this->mapping, this->mappingSize);
+    }
+}
+
 /**
  * The constructor.
+ * <br>
+ * The texels are converted to RGBA, a mip-map chain is generated with a box filter and every level
+ * is stored in blocks of 4x4 texels, so the neighbour texels read by the bilinear filter are
+ * usually in the same cache line.
+ * <br>
+ * Since there is no encoded image to decode them again, these texels are never released by the
+ * cache.
  *
- * @param pointer  A shared_ptr to the texture data.
+ * @param pointer  A shared_ptr to the texture data, stored row by row.
  * @param width    The width of the texture.
  * @param height   The height of the texture.
  * @param channels The number of channels in the texture.
@@ -21,34 +229,527 @@ Texture::Texture(
     ::std::int32_t height,
     ::std::int32_t channels
 ) :
-    pointer_ {::std::move(pointer)},
-    image_ {pointer_.get()},
     width_ {width},
     height_ {height},
     channels_ {channels} {
+    if (pointer != nullptr && width > 0 && height > 0 && channels > 0) {
+        this->residency_ = ::std::make_shared<Residency> ();
+        this->residency_->texels = buildMipMaps(pointer.get(), width, height, channels);
+        this->residency_->resident.store(this->residency_->texels.get(), ::std::memory_order_release);
+        cacheSize += this->residency_->texels->size;
+        registerTexture(this->residency_);
+    }
+}
+
+/**
+ * Helper method which generates all the mip-map levels of a texture and stores them in blocks.
+ *
+ * @param data     The texture data, stored row by row.
+ * @param width    The width of the texture.
+ * @param height   The height of the texture.
+ * @param channels The number of channels in the texture.
+ * @return The texels of all the mip-map levels.
+ */
+::std::unique_ptr<const Texture::Texels> Texture::buildMipMaps(
+    const ::std::uint8_t *const data,
+    const ::std::int32_t width,
+    const ::std::int32_t height,
+    const ::std::int32_t channels
+) {
+    ::std::unique_ptr<Texels> texels {::MobileRT::std::make_unique<Texels> ()};
+    ::std::vector<MipLevel> &levels {texels->levels};
+    ::std::size_t totalSize {0};
+    ::std::int32_t levelWidth {width};
+    ::std::int32_t levelHeight {height};
+    while (true) {
+        const ::std::int32_t blocksX {(levelWidth + BlockSize - 1) / BlockSize};
+        const ::std::int32_t blocksY {(levelHeight + BlockSize - 1) / BlockSize};
+        levels.push_back(MipLevel {levelWidth, levelHeight, blocksX, totalSize});
+        totalSize += static_cast<::std::size_t> (blocksX * blocksY) * BlockBytes;
+        if (levelWidth == 1 && levelHeight == 1) {
+            break;
+        }
+        levelWidth = ::std::max(1, levelWidth / 2);
+        levelHeight = ::std::max(1, levelHeight / 2);
+    }
+    texels->buffer.resize(totalSize);
+    texels->data = texels->buffer.data();
+    texels->size = totalSize;
+
+    // Convert the first level to RGBA.
+    ::std::vector<::std::uint8_t> current (static_cast<::std::size_t> (width * height * TexelSize));
+    for (::std::size_t texel {0}; texel < static_cast<::std::size_t> (width * height); ++texel) {
+        const ::std::uint8_t *const src {data + texel * static_cast<::std::size_t> (channels)};
+        const bool isColor {channels >= 3};
+        ::std::uint8_t *const dst {&current[texel * TexelSize]};
+        dst[0] = src[0];
+        dst[1] = isColor ? src[1] : src[0];
+        dst[2] = isColor ? src[2] : src[0];
+        dst[3] = channels == 4 ? src[3] : channels == 2 ? src[1] : 255;
+    }
+
+    const auto storeLevel {[&](const MipLevel &level, const ::std::vector<::std::uint8_t> &levelTexels) {
+        for (::std::int32_t y {0}; y < level.height; ++y) {
+            for (::std::int32_t x {0}; x < level.width; ++x) {
+                const ::std::uint8_t *const src {&levelTexels[static_cast<::std::size_t> ((y * level.width + x) * TexelSize)]};
+                ::std::uint8_t *const dst {const_cast<::std::uint8_t *> (getTexel(*texels, level, x, y))};
+                ::std::copy(src, src + TexelSize, dst);
+            }
+        }
+    }};
+    storeLevel(levels.front(), current);
+
+    // Generate the remaining levels with a box filter over the previous level.
+    for (::std::size_t index {1}; index < levels.size(); ++index) {
+        const MipLevel &previous {levels[index - 1]};
+        const MipLevel &level {levels[index]};
+        ::std::vector<::std::uint8_t> next (static_cast<::std::size_t> (level.width * level.height * TexelSize));
+        for (::std::int32_t y {0}; y < level.height; ++y) {
+            const ::std::int32_t y0 {::std::min(2 * y, previous.height - 1)};
+            const ::std::int32_t y1 {::std::min(2 * y + 1, previous.height - 1)};
+            for (::std::int32_t x {0}; x < level.width; ++x) {
+                const ::std::int32_t x0 {::std::min(2 * x, previous.width - 1)};
+                const ::std::int32_t x1 {::std::min(2 * x + 1, previous.width - 1)};
+                for (::std::int32_t channel {0}; channel < TexelSize; ++channel) {
+                    const ::std::int32_t sum {
+                        current[static_cast<::std::size_t> ((y0 * previous.width + x0) * TexelSize + channel)] +
+                        current[static_cast<::std::size_t> ((y0 * previous.width + x1) * TexelSize + channel)] +
+                        current[static_cast<::std::size_t> ((y1 * previous.width + x0) * TexelSize + channel)] +
+                        current[static_cast<::std::size_t> ((y1 * previous.width + x1) * TexelSize + channel)]
+                    };
+                    next[static_cast<::std::size_t> ((y * level.width + x) * TexelSize + channel)] = static_cast<::std::uint8_t> ((sum + 2) / 4);
+                }
+            }
+        }
+        storeLevel(level, next);
+        current.swap(next);
+    }
+
+    LOG_DEBUG("Generated ", levels.size(), " mip-map levels with ", totalSize, " bytes");
+    return ::std::unique_ptr<const Texels> {::std::move(texels)};
+}
+
+/**
+ * Helper method which gets the address of a texel in a mip-map level.
+ *
+ * @param texels The texels of the texture.
+ * @param level  The mip-map level.
+ * @param x      The column of the texel.
+ * @param y      The row of the texel.
+ * @return A pointer to the RGBA values of the texel.
+ */
+const ::std::uint8_t *Texture::getTexel(const Texels &texels, const MipLevel &level, const ::std::int32_t x, const ::std::int32_t y) {
+    const ::std::int32_t block {(y / BlockSize) * level.blocksX + x / BlockSize};
+    const ::std::int32_t texelInBlock {(y % BlockSize) * BlockSize + x % BlockSize};
+    const ::std::size_t index {level.offset + static_cast<::std::size_t> ((block * BlockSize * BlockSize + texelInBlock) * TexelSize)};
+    return texels.data + index;
+}
+
+/**
+ * Helper method which gets the color of a point in a mip-map level, by interpolating the 4 nearest
+ * texels.
+ * The texture coordinates out of the [0, 1] range are wrapped, so the texture repeats itself.
+ *
+ * @param texels    The texels of the texture.
+ * @param level     The mip-map level.
+ * @param texCoords The texture coordinates.
+ * @return The color of the point.
+ */
+::glm::vec3 Texture::loadBilinear(const Texels &texels, const MipLevel &level, const ::glm::vec2 &texCoords) {
+    const ::glm::vec2 coords {::glm::fract(texCoords)};
+    const float x {coords[0] * static_cast<float> (level.width) - 0.5F};
+    const float y {coords[1] * static_cast<float> (level.height) - 0.5F};
+    const float floorX {::std::floor(x)};
+    const float floorY {::std::floor(y)};
+    const float weightX {x - floorX};
+    const float weightY {y - floorY};
+    const ::std::int32_t x0 {wrap(static_cast<::std::int32_t> (floorX), level.width)};
+    const ::std::int32_t y0 {wrap(static_cast<::std::int32_t> (floorY), level.height)};
+    const ::std::int32_t x1 {wrap(x0 + 1, level.width)};
+    const ::std::int32_t y1 {wrap(y0 + 1, level.height)};
+
+    const auto toColor {[](const ::std::uint8_t *const texel) {
+        return ::glm::vec3 {
+            static_cast<float> (texel[0]),
+            static_cast<float> (texel[1]),
+            static_cast<float> (texel[2])
+        };
+    }};
+    const ::glm::vec3 top {::glm::mix(toColor(getTexel(texels, level, x0, y0)), toColor(getTexel(texels, level, x1, y0)), weightX)};
+    const ::glm::vec3 bottom {::glm::mix(toColor(getTexel(texels, level, x0, y1)), toColor(getTexel(texels, level, x1, y1)), weightX)};
+    const ::glm::vec3 color {::glm::mix(top, bottom, weightY) / 255.0F};
+    return color;
+}
+
+/**
+ * Helper method which gets the decoded texels of the texture, decoding them if they are not
+ * resident in memory.
+ * <br>
+ * The calling thread becomes a reader of the texels, so they are not released until
+ * {@link #releaseTexels} is called. A render thread stays a reader until it releases all the
+ * textures sampled in its tile, so it only has to count itself once. If decoding the texels exceeds
+ * the budget of the cache, the least recently used textures without readers are released.
+ *
+ * @return The texels of the texture.
+ */
+const Texture::Texels &Texture::getTexels() const {
+    Residency &residency {*this->residency_};
+    const ::std::uint64_t frame {cacheFrame.load(::std::memory_order_relaxed)};
+    // Only write when the frame changes, to not invalidate the cache line of the other threads.
+    if (residency.lastUse.load(::std::memory_order_relaxed) != frame) {
+        residency.lastUse.store(frame, ::std::memory_order_relaxed);
+    }
+    SamplingThread &samplingThread {getSamplingThread()};
+    if (samplingThread.active) {
+        for (const ::std::pair<Residency *, const Texels *> &texture : samplingThread.textures) {
+            if (texture.first == &residency) {
+                return *texture.second;
+            }
+        }
+    }
+    // The texels are only read after counting this thread as a reader, and the cache only releases
+    // them after checking that there are no readers, so one of them always sees the other.
+    ++residency.readers;
+    const Texels *texels {residency.resident.load()};
+    if (texels == nullptr) {
+        --residency.readers;
+        texels = &decode();
+        const ::std::size_t budget {cacheBudget.load()};
+        if (budget > 0 && cacheSize.load() > budget) {
+            releaseLeastRecentlyUsed();
+        }
+    }
+    if (samplingThread.active) {
+        samplingThread.textures.emplace_back(&residency, texels);
+    }
+    return *texels;
+}
+
+/**
+ * Helper method which stops the calling thread from being a reader of the texels of the texture,
+ * unless it is a render thread, which only stops when it releases all its sampled textures.
+ */
+void Texture::releaseTexels() const {
+    if (!getSamplingThread().active) {
+        --this->residency_->readers;
+    }
+}
+
+/**
+ * Helper method which decodes the texture.
+ * <br>
+ * Only one thread decodes the texture, while the others which sample it wait for the texels.
+ * The calling thread is counted as a reader of the texels.
+ *
+ * @return The texels of the texture.
+ */
+const Texture::Texels &Texture::decode() const {
+    Residency &residency {*this->residency_};
+    const ::std::lock_guard<::std::mutex> lock {residency.mutex};
+    ++residency.readers;
+    if (residency.texels == nullptr) {
+        const ::std::chrono::steady_clock::time_point start {::std::chrono::steady_clock::now()};
+        residency.texels = loadFromDiskCache(residency);
+        if (residency.texels != nullptr) {
+            ++warmLoads;
+            warmLoadsTime += getElapsedMicroseconds(start);
+        } else {
+            ::std::int32_t width {};
+            ::std::int32_t height {};
+            ::std::int32_t channels {};
+            ::std::uint8_t *const data {stbi_load_from_memory(
+                reinterpret_cast<unsigned char const *> (residency.encoded.c_str()),
+                static_cast<int> (residency.encoded.size()), &width, &height, &channels, 0
+            )};
+            if (data == nullptr || width <= 0 || height <= 0 || channels <= 0) {
+                // The texture was validated when created, so use a black texel instead of stopping
+                // the render threads.
+                LOG_ERROR("Error decoding texture: ", stbi_failure_reason());
+                const ::std::uint8_t black[TexelSize] {0, 0, 0, 255};
+                residency.texels = buildMipMaps(black, 1, 1, TexelSize);
+            } else {
+                residency.texels = buildMipMaps(data, width, height, channels);
+                storeInDiskCache(residency, *residency.texels);
+            }
+            stbi_image_free(data);
+            ++coldLoads;
+            coldLoadsTime += getElapsedMicroseconds(start);
+        }
+        cacheSize += residency.texels->size;
+        residency.resident.store(residency.texels.get(), ::std::memory_order_release);
+        LOG_INFO("Loaded texture with ", this->width_, "x", this->height_, " texels, cache size: ", cacheSize.load());
+    }
+    return *residency.texels;
+}
+
+/**
+ * Helper method which loads the texels of a texture from the disk cache.
+ * <br>
+ * The file is memory mapped, so the texels are only read from the disk when they are sampled and
+ * the operating system can release them when it is running out of memory.
+ *
+ * @param residency The state of the texture.
+ * @return The texels of the texture, or null if the texture is not in the disk cache.
+ */
+::std::unique_ptr<const Texture::Texels> Texture::loadFromDiskCache(const Residency &residency) {
+    ::std::string path {};
+    {
+        const ::std::lock_guard<::std::mutex> lock {diskCacheMutex};
+        if (diskCacheDirectory.empty() || residency.encoded.empty()) {
+            return nullptr;
+        }
+        path = getDiskCachePath(residency.hash);
+    }
+
+    const int fd {::open(path.c_str(), O_RDONLY)};
+    if (fd < 0) {
+        errno = 0;
+        return nullptr;
+    }
+    struct stat fileStat {};
+    void *mapping {MAP_FAILED};
+    ::std::size_t mappingSize {0};
+    if (::fstat(fd, &fileStat) == 0 && fileStat.st_size >= static_cast<::off_t> (sizeof(DiskCacheHeader))) {
+        mappingSize = static_cast<::std::size_t> (fileStat.st_size);
+        mapping = ::mmap(nullptr, mappingSize, PROT_READ, MAP_PRIVATE, fd, 0);
+    }
+    ::close(fd);
+    if (mapping == MAP_FAILED) {
+        LOG_WARN("Could not map texture from disk cache: ", path);
+        errno = 0;
+        return nullptr;
+    }
+
+    ::std::unique_ptr<Texels> texels {::MobileRT::std::make_unique<Texels> ()};
+    texels->mapping = mapping;
+    texels->mappingSize = mappingSize;
+    const ::std::uint8_t *const bytes {static_cast<const ::std::uint8_t *> (mapping)};
+    DiskCacheHeader header {};
+    ::std::memcpy(&header, bytes, sizeof(header));
+    const ::std::uint64_t levelsEnd {sizeof(header) + static_cast<::std::uint64_t> (header.numLevels) * sizeof(DiskCacheLevel)};
+    const bool validHeader {
+        ::std::memcmp(header.magic, "MRTT", sizeof(header.magic)) == 0
+        && header.version == DiskCacheVersion
+        && header.hash == residency.hash
+        && header.sourceSize == residency.encoded.size()
+        && header.numLevels > 0 && levelsEnd <= header.dataOffset
+        && header.dataOffset + header.dataSize == mappingSize
+    };
+    if (!validHeader) {
+        LOG_WARN("Invalid texture in disk cache: ", path);
+        return nullptr;
+    }
+
+    texels->data = bytes + header.dataOffset;
+    texels->size = static_cast<::std::size_t> (header.dataSize);
+    texels->levels.reserve(header.numLevels);
+    for (::std::uint32_t index {0}; index < header.numLevels; ++index) {
+        DiskCacheLevel level {};
+        ::std::memcpy(&level, bytes + sizeof(header) + index * sizeof(DiskCacheLevel), sizeof(level));
+        const ::std::uint64_t levelSize {
+            static_cast<::std::uint64_t> (level.blocksX) * static_cast<::std::uint64_t> ((level.height + BlockSize - 1) / BlockSize) * BlockBytes
+        };
+        if (level.width <= 0 || level.height <= 0 || level.blocksX <= 0 || level.offset + levelSize > header.dataSize) {
+            LOG_WARN("Invalid texture in disk cache: ", path);
+            return nullptr;
+        }
+        texels->levels.emplace_back(MipLevel {level.width, level.height, level.blocksX, static_cast<::std::size_t> (level.offset)});
+    }
+
+    // Update the modification time, so the least recently used textures are evicted first.
+    ::utime(path.c_str(), nullptr);
+    errno = 0;
+    LOG_DEBUG("Loaded texture from disk cache: ", path);
+    return ::std::unique_ptr<const Texels> {texels.release()};
+}
+
+/**
+ * Helper method which stores the decoded texels of a texture in the disk cache.
+ * <br>
+ * The file is written with a temporary name and then renamed, so other processes never see a
+ * partially written file.
+ *
+ * @param residency The state of the texture.
+ * @param texels    The decoded texels of the texture.
+ */
+void Texture::storeInDiskCache(const Residency &residency, const Texels &texels) {
+    ::std::string path {};
+    {
+        const ::std::lock_guard<::std::mutex> lock {diskCacheMutex};
+        if (diskCacheDirectory.empty() || residency.encoded.empty()) {
+            return;
+        }
+        path = getDiskCachePath(residency.hash);
+    }
+
+    DiskCacheHeader header {};
+    ::std::memcpy(header.magic, "MRTT", sizeof(header.magic));
+    header.version = DiskCacheVersion;
+    header.hash = residency.hash;
+    header.sourceSize = residency.encoded.size();
+    header.width = texels.levels.front().width;
+    header.height = texels.levels.front().height;
+    header.numLevels = static_cast<::std::uint32_t> (texels.levels.size());
+    const ::std::uint64_t levelsEnd {sizeof(header) + static_cast<::std::uint64_t> (header.numLevels) * sizeof(DiskCacheLevel)};
+    header.dataOffset = (levelsEnd + DiskCacheAlignment - 1) / DiskCacheAlignment * DiskCacheAlignment;
+    header.dataSize = texels.size;
+
+    const ::std::string tmpPath {path + ".tmp"};
+    {
+        ::std::ofstream file {tmpPath, ::std::ios::binary | ::std::ios::trunc};
+        file.write(reinterpret_cast<const char *> (&header), sizeof(header));
+        for (const MipLevel &mipLevel : texels.levels) {
+            const DiskCacheLevel level {mipLevel.width, mipLevel.height, mipLevel.blocksX, 0, mipLevel.offset};
+            file.write(reinterpret_cast<const char *> (&level), sizeof(level));
+        }
+        const ::std::string padding (static_cast<::std::size_t> (header.dataOffset - levelsEnd), '\0');
+        file.write(padding.data(), static_cast<::std::streamsize> (padding.size()));
+        file.write(reinterpret_cast<const char *> (texels.data), static_cast<::std::streamsize> (texels.size));
+        if (!file.good()) {
+            LOG_WARN("Could not write texture to disk cache: ", tmpPath);
+            file.close();
+            ::std::remove(tmpPath.c_str());
+            errno = 0;
+            return;
+        }
+    }
+    if (::std::rename(tmpPath.c_str(), path.c_str()) != 0) {
+        LOG_WARN("Could not store texture in disk cache: ", path);
+        ::std::remove(tmpPath.c_str());
+    }
+    errno = 0;
+    LOG_DEBUG("Stored texture in disk cache: ", path);
+    trimDiskCache();
+}
+
+/**
+ * Helper method which deletes the least recently used files of the disk cache until the cache
+ * fits in its budget.
+ */
+void Texture::trimDiskCache() {
+    const ::std::lock_guard<::std::mutex> lock {diskCacheMutex};
+    if (diskCacheDirectory.empty() || diskCacheBudget == 0) {
+        return;
+    }
+    DIR *const directory {::opendir(diskCacheDirectory.c_str())};
+    if (directory == nullptr) {
+        errno = 0;
+        return;
+    }
+
+    struct CacheFile {
+        ::std::string path;
+        ::std::size_t size;
+        ::std::time_t lastUse;
+    };
+    ::std::vector<CacheFile> files {};
+    ::std::size_t totalSize {0};
+    for (const struct dirent *entry {::readdir(directory)}; entry != nullptr; entry = ::readdir(directory)) {
+        const ::std::string name {entry->d_name};
+        if (name.size() <= DiskCacheExtension.size()
+            || name.compare(name.size() - DiskCacheExtension.size(), DiskCacheExtension.size(), DiskCacheExtension) != 0) {
+            continue;
+        }
+        const ::std::string path {diskCacheDirectory + '/' + name};
+        struct stat fileStat {};
+        if (::stat(path.c_str(), &fileStat) == 0) {
+            const ::std::size_t size {static_cast<::std::size_t> (fileStat.st_size)};
+            files.emplace_back(CacheFile {path, size, fileStat.st_mtime});
+            totalSize += size;
+        }
+    }
+    ::closedir(directory);
+
+    ::std::sort(files.begin(), files.end(),
+        [](const CacheFile &file1, const CacheFile &file2) { return file1.lastUse < file2.lastUse; }
+    );
+    for (::std::vector<CacheFile>::const_iterator itFile {files.cbegin()}; itFile != files.cend() && totalSize > diskCacheBudget; ++itFile) {
+        // A texture which is memory mapped remains valid after its file is deleted.
+        if (::std::remove(itFile->path.c_str()) == 0) {
+            totalSize -= itFile->size;
+            LOG_DEBUG("Evicted texture from disk cache: ", itFile->path);
+        }
+    }
+    errno = 0;
 }
 
 /**
- * Gets the color of a point in the texture.
+ * Gets the color of a point in the texture, with bilinear filtering in the most detailed level.
  *
  * @param texCoords The texture coordinates.
  * @return The color of the point.
  */
 ::glm::vec3 Texture::loadColor(const ::glm::vec2 &texCoords) const {
-    const ::std::int32_t u {static_cast<::std::int32_t> (texCoords[0] * this->width_)};
-    const ::std::int32_t v {static_cast<::std::int32_t> (texCoords[1] * this->height_)};
-    const ::std::uint32_t index {static_cast<::std::uint32_t> (v * this->width_ * this->channels_ + u * this->channels_)};
-
-    const ::glm::vec3 vec {
-        static_cast<float> (this->image_[index + 0]) / 255.0F,
-        static_cast<float> (this->image_[index + 1]) / 255.0F,
-        static_cast<float> (this->image_[index + 2]) / 255.0F
+    return loadColor(texCoords, 0.0F);
+}
+
+/**
+ * Gets the color of a point in the texture, with trilinear filtering.
+ * <br>
+ * The mip-map levels are selected from the footprint of the ray, so the distant surfaces read the
+ * pre-filtered texels instead of aliasing.
+ *
+ * @param texCoords The texture coordinates.
+ * @param footprint The width of the ray at the intersection point, in texture coordinates units.
+ * @return The color of the point.
+ */
+::glm::vec3 Texture::loadColor(const ::glm::vec2 &texCoords, const float footprint) const {
+    if (!isValid()) {
+        return ::glm::vec3 {};
+    }
+    const ::glm::vec3 color {filterColor(getTexels(), texCoords, footprint)};
+    releaseTexels();
+    return color;
+}
+
+/**
+ * Helper method which gets the color of a point in the texels of the texture, with trilinear
+ * filtering.
+ *
+ * @param texels    The texels of the texture.
+ * @param texCoords The texture coordinates.
+ * @param footprint The width of the ray at the intersection point, in texture coordinates units.
+ * @return The color of the point.
+ */
+::glm::vec3 Texture::filterColor(const Texels &texels, const ::glm::vec2 &texCoords, const float footprint) const {
+    const ::std::vector<MipLevel> &levels {texels.levels};
+    const float texelsFootprint {footprint * static_cast<float> (::std::max(this->width_, this->height_))};
+    if (!(texelsFootprint > 1.0F)) {
+        return loadBilinear(texels, levels.front(), texCoords);
+    }
+    const float lod {::std::min(::std::log2(texelsFootprint), static_cast<float> (levels.size() - 1))};
+    const ::std::size_t lowerLevel {static_cast<::std::size_t> (lod)};
+    if (lowerLevel + 1 >= levels.size()) {
+        return loadBilinear(texels, levels.back(), texCoords);
+    }
+    const float weight {lod - static_cast<float> (lowerLevel)};
+    const ::glm::vec3 color {
+        ::glm::mix(loadBilinear(texels, levels[lowerLevel], texCoords), loadBilinear(texels, levels[lowerLevel + 1], texCoords), weight)
     };
-    return vec;
+    return color;
+}
+
+/**
+ * Gets the number of mip-map levels of the texture.
+ *
+ * @return The number of mip-map levels.
+ */
+::std::int32_t Texture::getNumberOfLevels() const {
+    if (!isValid()) {
+        return 0;
+    }
+    ::std::int32_t levels {1};
+    for (::std::int32_t size {::std::max(this->width_, this->height_)}; size > 1; size /= 2) {
+        ++levels;
+    }
+    return levels;
 }
 
 /**
  * A factory which loads a texture from memory in binary format and creates a new Texture.
+ * <br>
+ * Only the header of the image is read, the texels are decoded when the texture is sampled for
+ * the first time.
  *
  * @param textureBinary The texture loaded in memory.
  * @param size          The size of the texture in bytes.
@@ -60,22 +761,20 @@ Texture Texture::createTexture(::std::string &&textureBinary, const long size) {
     ::std::int32_t channels {};
     LOG_INFO("Loading Texture with size: ", size);
     const int info {stbi_info_from_memory(reinterpret_cast<unsigned char const *> (textureBinary.c_str()), static_cast<int> (size), &width, &height, &channels)};
-    if (info <= 0 || size <= 0) {
-        const char *error {stbi_failure_reason()};
-        LOG_ERROR("Error reading texture: ", error);
-        throw ::std::runtime_error {error};
-    }
-    ::std::uint8_t *const data {stbi_load_from_memory(reinterpret_cast<unsigned char const *> (textureBinary.c_str()), static_cast<int> (size), &width, &height, &channels, 0)};
-    if (data == nullptr || width <= 0 || height <= 0 || channels <= 0) {
+    if (info <= 0 || size <= 0 || width <= 0 || height <= 0 || channels <= 0) {
         const char *error {stbi_failure_reason()};
         LOG_ERROR("Error reading texture: ", error);
         throw ::std::runtime_error {error};
     }
-    ::std::shared_ptr<::std::uint8_t> pointer {data, [](::std::uint8_t *const internalData) {
-        stbi_image_free(internalData);
-        LOG_DEBUG("Deleted texture");
-    }};
-    Texture texture {pointer, width, height, channels};
+    Texture texture {};
+    texture.width_ = width;
+    texture.height_ = height;
+    texture.channels_ = channels;
+    texture.residency_ = ::std::make_shared<Residency> ();
+    texture.residency_->encoded = ::std::move(textureBinary);
+    texture.residency_->encoded.resize(static_cast<::std::size_t> (size));
+    texture.residency_->hash = hashImage(texture.residency_->encoded);
+    registerTexture(texture.residency_);
     ::MobileRT::checkSystemError("Created Texture.");
     LOG_INFO("Created Texture.");
     return texture;
@@ -88,28 +787,16 @@ Texture Texture::createTexture(::std::string &&textureBinary, const long size) {
  * @return A new texture.
  */
 Texture Texture::createTexture(const ::std::string &texturePath) {
-    ::std::int32_t width {};
-    ::std::int32_t height {};
-    ::std::int32_t channels {};
     LOG_INFO("Loading Texture from: ", texturePath);
     ::MobileRT::checkSystemError(("Loading Texture from: " + texturePath).c_str());
-    const int info {stbi_info(texturePath.c_str(), &width, &height, &channels)};
-    if (info <= 0) {
-        const char *error {stbi_failure_reason()};
-        LOG_ERROR(("Error reading texture '" + texturePath + "': " + error).c_str());
-        throw ::std::runtime_error {("Error reading texture '" + texturePath + "': " + error)};
+    ::std::ifstream file {texturePath, ::std::ios::binary};
+    ::std::string textureBinary {::std::istreambuf_iterator<char> {file}, ::std::istreambuf_iterator<char> {}};
+    if (!file.is_open() || textureBinary.empty()) {
+        LOG_ERROR("Error reading texture '", texturePath, "'");
+        throw ::std::runtime_error {"Error reading texture '" + texturePath + "'"};
     }
-    ::std::uint8_t *const data {stbi_load(texturePath.c_str(), &width, &height, &channels, 0)};
-    if (data == nullptr || width <= 0 || height <= 0 || channels <= 0) {
-        const char *error {stbi_failure_reason()};
-        LOG_ERROR("Error reading texture: ", error);
-        throw ::std::runtime_error {error};
-    }
-    ::std::shared_ptr<::std::uint8_t> pointer {data, [](::std::uint8_t *const internalData) {
-        stbi_image_free(internalData);
-    }};
-    Texture texture {pointer, width, height, channels};
-    ::MobileRT::checkSystemError(("Created Texture: " + texturePath).c_str());
+    const long size {static_cast<long> (textureBinary.size())};
+    Texture texture {createTexture(::std::move(textureBinary), size)};
     LOG_INFO("Created Texture: ", texturePath);
     return texture;
 }
@@ -124,7 +811,7 @@ bool Texture::operator==(const Texture &texture) const {
     const bool sameWidth {this->width_ == texture.width_};
     const bool sameHeight {this->height_ == texture.height_};
     const bool sameChannels {this->channels_ == texture.channels_};
-    const bool samePointer {this->image_ == texture.image_};
+    const bool samePointer {this->residency_ == texture.residency_};
     const bool same {sameWidth && sameHeight && sameChannels && samePointer};
     return same;
 }
@@ -135,5 +822,228 @@ bool Texture::operator==(const Texture &texture) const {
  * @return Whether the texture is a valid one or not.
  */
 bool Texture::isValid() const {
-    return this->width_ > 0 && this->height_ > 0 && this->channels_ > 0 && this->image_ != nullptr;
+    return this->width_ > 0 && this->height_ > 0 && this->channels_ > 0 && this->residency_ != nullptr;
+}
+
+/**
+ * Checks if the texels of the texture are decoded in memory.
+ *
+ * @return Whether the texture is resident in memory or not.
+ */
+bool Texture::isResident() const {
+    return this->residency_ != nullptr && this->residency_->resident.load(::std::memory_order_acquire) != nullptr;
+}
+
+/**
+ * Gets the number of bytes that the decoded texels of the texture use in memory, including all
+ * the levels of the mip-map chain.
+ * <br>
+ * It is known without decoding the texture, so it can be used to predict the memory needed by a
+ * scene.
+ *
+ * @return The number of bytes of the decoded texels.
+ */
+::std::size_t Texture::getMemorySize() const {
+    if (!isValid()) {
+        return 0;
+    }
+    ::std::size_t totalSize {0};
+    ::std::int32_t levelWidth {this->width_};
+    ::std::int32_t levelHeight {this->height_};
+    while (true) {
+        const ::std::int32_t blocksX {(levelWidth + BlockSize - 1) / BlockSize};
+        const ::std::int32_t blocksY {(levelHeight + BlockSize - 1) / BlockSize};
+        totalSize += static_cast<::std::size_t> (blocksX * blocksY) * BlockBytes;
+        if (levelWidth == 1 && levelHeight == 1) {
+            return totalSize;
+        }
+        levelWidth = ::std::max(1, levelWidth / 2);
+        levelHeight = ::std::max(1, levelHeight / 2);
+    }
+}
+
+/**
+ * Helper method which gets all the textures known by the cache.
+ *
+ * @return The textures of the cache.
+ */
+::std::vector<::std::weak_ptr<Texture::Residency>> &Texture::getRegisteredTextures() {
+    static ::std::vector<::std::weak_ptr<Residency>> textures {};
+    return textures;
+}
+
+/**
+ * Helper method which adds a texture to the cache, so its texels can be released later.
+ *
+ * @param residency The state of the texture.
+ */
+void Texture::registerTexture(const ::std::shared_ptr<Residency> &residency) {
+    const ::std::lock_guard<::std::mutex> lock {cacheMutex};
+    getRegisteredTextures().emplace_back(residency);
+}
+
+/**
+ * Sets the maximum number of bytes that the decoded textures should use.
+ *
+ * @param budget The number of bytes, or 0 for no limit.
+ */
+void Texture::setCacheBudget(const ::std::size_t budget) {
+    LOG_INFO("Textures cache budget: ", budget, " bytes");
+    cacheBudget.store(budget);
+}
+
+/**
+ * Gets the number of bytes used by all the decoded textures.
+ *
+ * @return The number of bytes of the decoded textures.
+ */
+::std::size_t Texture::getCacheSize() {
+    return cacheSize.load();
+}
+
+/**
+ * Starts a new frame of the textures cache and releases the least recently used textures until the
+ * decoded textures fit in the budget.
+ * <br>
+ * It is called between frames, so the textures sampled in the previous frame are the first to be
+ * kept. During a frame, the textures are also released when a decoded texture exceeds the budget.
+ */
+void Texture::trimCache() {
+    {
+        const ::std::lock_guard<::std::mutex> lock {cacheMutex};
+        ::std::vector<::std::weak_ptr<Residency>> &textures {getRegisteredTextures()};
+        textures.erase(::std::remove_if(textures.begin(), textures.end(),
+            [](const ::std::weak_ptr<Residency> &texture) { return texture.expired(); }
+        ), textures.end());
+        ++cacheFrame;
+    }
+    releaseLeastRecentlyUsed();
+}
+
+/**
+ * Helper method which releases the least recently used textures until the decoded textures fit in
+ * the budget.
+ * <br>
+ * The textures with readers are kept, so the budget can only be exceeded by the textures which
+ * are being sampled at the same time.
+ */
+void Texture::releaseLeastRecentlyUsed() {
+    const ::std::lock_guard<::std::mutex> lock {cacheMutex};
+    const ::std::size_t budget {cacheBudget.load()};
+    if (budget == 0 || cacheSize.load() <= budget) {
+        return;
+    }
+    const ::std::vector<::std::weak_ptr<Residency>> &textures {getRegisteredTextures()};
+
+    // Only the textures with an encoded image can be decoded again.
+    ::std::vector<::std::shared_ptr<Residency>> candidates {};
+    for (const ::std::weak_ptr<Residency> &texture : textures) {
+        ::std::shared_ptr<Residency> residency {texture.lock()};
+        if (residency != nullptr && !residency->encoded.empty() && residency->resident.load() != nullptr) {
+            candidates.emplace_back(::std::move(residency));
+        }
+    }
+    ::std::sort(candidates.begin(), candidates.end(),
+        [](const ::std::shared_ptr<Residency> &texture1, const ::std::shared_ptr<Residency> &texture2) {
+            return texture1->lastUse.load() < texture2->lastUse.load();
+        }
+    );
+
+    ::std::int32_t released {0};
+    for (const ::std::shared_ptr<Residency> &residency : candidates) {
+        if (cacheSize.load() <= budget) {
+            break;
+        }
+        const ::std::lock_guard<::std::mutex> lockTexture {residency->mutex};
+        if (residency->texels == nullptr) {
+            continue;
+        }
+        // A thread which started reading the texels before they were hidden keeps them resident.
+        residency->resident.store(nullptr);
+        if (residency->readers.load() > 0) {
+            residency->resident.store(residency->texels.get(), ::std::memory_order_release);
+            continue;
+        }
+        cacheSize -= residency->texels->size;
+        residency->texels.reset();
+        ++released;
+    }
+    LOG_INFO("Released ", released, " textures from the cache, size: ", cacheSize.load(), " bytes");
+}
+
+/**
+ * Helper method which gets the textures sampled by the calling thread.
+ *
+ * @return The textures sampled by the calling thread.
+ */
+Texture::SamplingThread &Texture::getSamplingThread() {
+    static thread_local SamplingThread samplingThread {};
+    return samplingThread;
+}
+
+/**
+ * Makes the calling thread a render thread, which keeps the textures it samples resident until it
+ * calls {@link #releaseSampledTextures}, instead of counting itself as a reader on every sample.
+ */
+void Texture::startSampling() {
+    getSamplingThread().active = true;
+}
+
+/**
+ * Releases the textures sampled by the calling thread since it started sampling or since the last
+ * call, so the cache can release them when it exceeds the budget.
+ * <br>
+ * It should be called by a render thread after every tile.
+ */
+void Texture::releaseSampledTextures() {
+    SamplingThread &samplingThread {getSamplingThread()};
+    for (const ::std::pair<Residency *, const Texels *> &texture : samplingThread.textures) {
+        --texture.first->readers;
+    }
+    samplingThread.textures.clear();
+}
+
+/**
+ * Releases the textures sampled by the calling thread and makes it count itself as a reader on
+ * every sample again.
+ */
+void Texture::stopSampling() {
+    releaseSampledTextures();
+    getSamplingThread().active = false;
+}
+
+/**
+ * Sets the disk cache for the decoded textures.
+ * <br>
+ * When the disk cache is enabled, the texels decoded from an image are stored in a file in the
+ * directory, keyed by the hash of the image, so they can be memory mapped when the same image is
+ * loaded again, even in another execution.
+ *
+ * @param directory The directory of the disk cache, or empty to disable the disk cache.
+ * @param budget    The maximum number of bytes of the files in the disk cache, or 0 for no limit.
+ */
+void Texture::setDiskCache(const ::std::string &directory, const ::std::size_t budget) {
+    {
+        const ::std::lock_guard<::std::mutex> lock {diskCacheMutex};
+        diskCacheDirectory = directory;
+        diskCacheBudget = budget;
+        if (!diskCacheDirectory.empty() && ::mkdir(diskCacheDirectory.c_str(), 0755) != 0 && errno != EEXIST) {
+            LOG_WARN("Could not create the textures disk cache: ", diskCacheDirectory);
+            diskCacheDirectory.clear();
+        }
+        errno = 0;
+    }
+    LOG_INFO("Textures disk cache: '", directory, "', budget: ", budget, " bytes");
+    trimDiskCache();
+}
+
+/**
+ * Logs the number of textures loaded and the time spent, both for the textures decoded from the
+ * encoded images (cold loads) and for the textures loaded from the disk cache (warm loads).
+ */
+void Texture::logLoadTimes() {
+    const double coldSecs {static_cast<double> (coldLoadsTime.load()) / 1000000.0};
+    const double warmSecs {static_cast<double> (warmLoadsTime.load()) / 1000000.0};
+    LOG_INFO("Textures decoded (cold loads): ", coldLoads.load(), " in ", coldSecs, " secs");
+    LOG_INFO("Textures from disk cache (warm loads): ", warmLoads.load(), " in ", warmSecs, " secs");
 }
@@ -1,9 +1,14 @@
 #ifndef MOBILERT_TEXTURE_HPP
 #define MOBILERT_TEXTURE_HPP
 
+#include <atomic>
+#include <cstddef>
+#include <cstdint>
 #include <glm/glm.hpp>
 #include <memory>
+#include <mutex>
 #include <string>
+#include <utility>
 #include <vector>
 
 namespace MobileRT {
@@ -12,15 +17,142 @@ namespace MobileRT {
      * <br>
      * A texture is an image where each cell in the image represents the
      * reflection of light in the object on an intersection point.
+     * <br>
+     * The textures created from an encoded image (e.g. PNG or JPG) are only decoded the first time
+     * they are sampled. The decoded texels of all the textures are kept in a global cache with a
+     * memory budget, which releases the least recently used textures when the budget is exceeded,
+     * even in the middle of a frame. The textures being sampled by a thread are never released.
+     * Optionally, the decoded texels can also be stored in a disk cache, so the next time the same
+     * image is used, its texels are memory mapped instead of decoded.
      */
     class Texture {
     private:
-        ::std::shared_ptr<::std::uint8_t> pointer_ {};
-        ::std::uint8_t *image_ {};
+        /**
+         * A level of the mip-map chain of the texture.
+         */
+        struct MipLevel {
+            ::std::int32_t width;
+            ::std::int32_t height;
+            ::std::int32_t blocksX;
+            ::std::size_t offset;
+        };
+
+        /**
+         * The texels of every mip-map level, in RGBA format and stored in blocks of 4x4 texels.
+         * <br>
+         * The texels are either in memory or memory mapped from a file in the disk cache.
+         */
+        struct Texels {
+            ::std::vector<::std::uint8_t> buffer {};
+            const ::std::uint8_t *data {nullptr};
+            ::std::size_t size {0};
+            void *mapping {nullptr};
+            ::std::size_t mappingSize {0};
+            ::std::vector<MipLevel> levels {};
+
+            explicit Texels() = default;
+
+            Texels(const Texels &texels) = delete;
+
+            Texels(Texels &&texels) noexcept = delete;
+
+            ~Texels();
+
+            Texels &operator=(const Texels &texels) = delete;
+
+            Texels &operator=(Texels &&texels) noexcept = delete;
+        };
+
+        /**
+         * The state of a texture, shared by all its copies.
+         */
+        struct Residency {
+            /**
+             * The mutex which guards the decoding and the release of the texels.
+             */
+            ::std::mutex mutex {};
+
+            /**
+             * The encoded image, used to decode the texels again after they are released.
+             * It is empty if the texture was created from decoded texels.
+             */
+            ::std::string encoded {};
+
+            /**
+             * The hash of the encoded image, used as key in the disk cache.
+             */
+            ::std::uint64_t hash {0};
+
+            /**
+             * The decoded texels, or null if the texture is not resident in memory.
+             */
+            ::std::unique_ptr<const Texels> texels {};
+
+            /**
+             * The decoded texels, read without locking the mutex.
+             */
+            ::std::atomic<const Texels *> resident {nullptr};
+
+            /**
+             * The last frame where the texture was sampled.
+             */
+            ::std::atomic<::std::uint64_t> lastUse {0};
+
+            /**
+             * The number of threads sampling the texels, which can't be released while it is
+             * positive.
+             */
+            ::std::atomic<::std::int32_t> readers {0};
+
+            ~Residency();
+        };
+
+        /**
+         * The textures sampled by a render thread, which stay resident until the thread releases
+         * them, so the thread only counts itself as a reader once per tile.
+         */
+        struct SamplingThread {
+            bool active {false};
+            ::std::vector<::std::pair<Residency *, const Texels *>> textures {};
+        };
+
+    private:
+        ::std::shared_ptr<Residency> residency_ {};
         ::std::int32_t width_ {};
         ::std::int32_t height_ {};
         ::std::int32_t channels_ {};
 
+    private:
+        const Texels &getTexels() const;
+
+        void releaseTexels() const;
+
+        const Texels &decode() const;
+
+        ::glm::vec3 filterColor(const Texels &texels, const ::glm::vec2 &texCoords, float footprint) const;
+
+        static ::std::unique_ptr<const Texels> buildMipMaps(
+            const ::std::uint8_t *data, ::std::int32_t width, ::std::int32_t height, ::std::int32_t channels
+        );
+
+        static const ::std::uint8_t *getTexel(const Texels &texels, const MipLevel &level, ::std::int32_t x, ::std::int32_t y);
+
+        static ::glm::vec3 loadBilinear(const Texels &texels, const MipLevel &level, const ::glm::vec2 &texCoords);
+
+        static ::std::unique_ptr<const Texels> loadFromDiskCache(const Residency &residency);
+
+        static void storeInDiskCache(const Residency &residency, const Texels &texels);
+
+        static void trimDiskCache();
+
+        static ::std::vector<::std::weak_ptr<Residency>> &getRegisteredTextures();
+
+        static void registerTexture(const ::std::shared_ptr<Residency> &residency);
+
+        static SamplingThread &getSamplingThread();
+
+        static void releaseLeastRecentlyUsed();
+
     public:
         explicit Texture() = default;
 
@@ -43,13 +175,37 @@ namespace MobileRT {
 
         ::glm::vec3 loadColor(const ::glm::vec2 &texCoords) const;
 
+        ::glm::vec3 loadColor(const ::glm::vec2 &texCoords, float footprint) const;
+
+        ::std::int32_t getNumberOfLevels() const;
+
         bool isValid() const;
 
+        bool isResident() const;
+
+        ::std::size_t getMemorySize() const;
+
         bool operator==(const Texture &texture) const;
 
         static Texture createTexture(::std::string &&texture, long size);
 
         static Texture createTexture(const ::std::string &texturePath);
+
+        static void setCacheBudget(::std::size_t budget);
+
+        static ::std::size_t getCacheSize();
+
+        static void trimCache();
+
+        static void startSampling();
+
+        static void releaseSampledTextures();
+
+        static void stopSampling();
+
+        static void setDiskCache(const ::std::string &directory, ::std::size_t budget);
+
+        static void logLoadTimes();
     };
 }//namespace MobileRT
 
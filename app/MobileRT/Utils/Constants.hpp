@@ -44,6 +44,12 @@ namespace MobileRT {
      */
     const ::std::int32_t RayDepthMax {6};
 
+    /**
+     * The number of maximum bounces of a path traced iteratively.
+     * The Russian roulette usually ends the paths long before this depth.
+     */
+    const ::std::int32_t PathDepthMax {32};
+
     /**
      * The number of tiles (blocks) that divide an image plane.
      */
@@ -4,13 +4,16 @@
 #include "Components/Cameras/Perspective.hpp"
 #include "Components/Lights/AreaLight.hpp"
 #include "Components/Lights/PointLight.hpp"
+#include "Components/Loaders/BinarySceneLoader.hpp"
 #include "Components/Loaders/CameraFactory.hpp"
 #include "Components/Loaders/OBJLoader.hpp"
 #include "Components/Loaders/PerspectiveLoader.hpp"
+#include "Components/Loaders/TextureLoader.hpp"
 #include "Components/Samplers/Constant.hpp"
 #include "Components/Samplers/HaltonSeq.hpp"
 #include "Components/Samplers/MersenneTwister.hpp"
 #include "Components/Samplers/PCG.hpp"
+#include "Components/Samplers/SobolOwen.hpp"
 #include "Components/Samplers/StaticHaltonSeq.hpp"
 #include "Components/Samplers/StaticMersenneTwister.hpp"
 #include "Components/Samplers/StaticPCG.hpp"
@@ -24,14 +27,114 @@
 #include "MobileRT/Scene.hpp"
 #include "Scenes/Scenes.hpp"
 
+#include <algorithm>
 #include <android/bitmap.h>
+#include <array>
+#include <cmath>
 #include <condition_variable>
+#include <cstdio>
+#include <cstring>
 #include <fstream>
 #include <istream>
 #include <glm/glm.hpp>
+#include <malloc.h>
 #include <mutex>
 #include <string>
 #include <unistd.h>
+#include <unordered_map>
+
+/**
+ * A vertex of the rasterized preview of the scene.
+ * <br>
+ * It has the same layout as the OpenGL vertex buffer used by the preview: the position in 3 floats
+ * and the color packed in 4 unsigned bytes (RGBA).
+ */
+struct PreviewVertex {
+    float position[3];
+    ::std::uint8_t color[4];
+
+    bool operator==(const PreviewVertex &vertex) const {
+        return ::std::memcmp(this, &vertex, sizeof(PreviewVertex)) == 0;
+    }
+};
+
+static_assert(sizeof(PreviewVertex) == 16, "The preview vertex must be packed in 16 bytes.");
+
+/**
+ * The hash of a {@link PreviewVertex}, used to share the vertices between the triangles.
+ */
+struct PreviewVertexHash {
+    ::std::size_t operator()(const PreviewVertex &vertex) const {
+        ::std::uint32_t words[4];
+        ::std::memcpy(words, &vertex, sizeof(words));
+        ::std::size_t hash {words[0]};
+        for (::std::size_t i {1}; i < 4; ++i) {
+            hash = hash * 31U + words[i];
+        }
+        return hash;
+    }
+};
+
+/**
+ * The indexed geometry of the rasterized preview of the scene.
+ * <br>
+ * The indices are 16 bits, because that's what OpenGL ES 2.0 supports, so the geometry is split in
+ * batches where each one references at most {@link MaxPreviewBatchVertices} vertices.
+ * Each batch is described by 3 values: the first index, the number of indices and the first
+ * vertex of the batch.
+ */
+struct PreviewGeometry {
+    ::std::vector<PreviewVertex> vertices {};
+    ::std::vector<::std::uint16_t> indices {};
+    ::std::vector<jint> batches {};
+};
+
+/**
+ * The maximum number of vertices referenced by a batch of the preview geometry.
+ */
+static const ::std::size_t MaxPreviewBatchVertices {1U << 16U};
+
+/**
+ * The accumulated image of the last render, so a render with the same {@link renderKey_} can
+ * continue it.
+ * <br>
+ * A render which was stopped before rendering all its samples per pixel is resumed from the same
+ * tile. A finished render gets more samples, e.g., in the crop window chosen by the user.
+ * The pixels have the average of the number of samples in {@code pixelSamples}.
+ */
+struct RenderState {
+    ::std::string key {};
+    ::std::int32_t width {};
+    ::std::int32_t height {};
+    ::std::int32_t tilesDone {};
+    ::std::uint32_t samplerPosition {};
+    bool finished {};
+    ::std::vector<::std::int32_t> pixels {};
+    ::std::vector<::std::int32_t> pixelSamples {};
+};
+
+/**
+ * The changes to the camera requested by the user which weren't applied to the camera yet.
+ * <br>
+ * The angles are in radians and the distances are fractions of the size of the scene.
+ */
+struct CameraMotion {
+    float yaw {};
+    float pitch {};
+    float moveRight {};
+    float moveUp {};
+    float zoom {1.0F};
+};
+
+/**
+ * The identifier of the files written by {@link rtSaveRenderState}.
+ */
+static const ::std::uint32_t RenderStateMagic {0x4D525433U};
+
+/**
+ * The maximum width and height of a {@link RenderState} read from a file.
+ */
+static const ::std::int32_t MaxRenderStateSize {1 << 14};
 
 /**
  * The number of frames per second.
@@ -73,6 +176,27 @@ static ::std::int32_t numLights_ {};
  */
 static ::std::int64_t timeRenderer_ {};
 
+/**
+ * The maximum time, in milliseconds, to render a frame (0 for no limit).
+ */
+static ::std::int32_t renderTime_ {};
+
+/**
+ * The changes to the camera which will be applied by the next {@link rtInitialize}.
+ */
+static CameraMotion cameraMotion_ {};
+
+/**
+ * The aspect ratio of the camera of the {@link renderer_}.
+ */
+static float cameraRatio_ {};
+
+/**
+ * The number of times the user changed the camera, so a render state of a previous point of view
+ * is not resumed.
+ */
+static ::std::int64_t cameraId_ {};
+
 /**
  * The condition variable to wait for the MobileRT Renderer to finish the rendering process.
  */
@@ -83,6 +207,17 @@ static ::std::condition_variable rendered_ {};
  */
 static ::std::atomic<bool> finishedRendering_ {true};
 
+/**
+ * The mutex which guards the changes of the {@link state_}, so a thread waiting for the state to
+ * change can't miss the notification.
+ */
+static ::std::mutex stateMutex_ {};
+
+/**
+ * The condition variable to wait for the {@link state_} to change.
+ */
+static ::std::condition_variable stateChanged_ {};
+
 /**
  * The definition of the OBJ file.
  */
@@ -98,11 +233,334 @@ static ::std::string mtlDefinition_ {};
  */
 static ::std::string camDefinition_ {};
 
+/**
+ * The memory mapped binary scene, if the selected scene was in the binary scene format.
+ */
+static ::std::unique_ptr<::Components::BinarySceneLoader> binaryScene_ {};
+
+/**
+ * The OBJ scene parsed before creating the renderer, so its memory can be estimated before
+ * filling the scene and building the acceleration structure.
+ */
+static ::std::unique_ptr<::Components::OBJLoader> objLoader_ {};
+
+/**
+ * The factory of the camera of the scene loaded in the {@link renderer_}, which creates it with
+ * the aspect ratio of the image.
+ * It is guarded by the {@link mutex_}.
+ */
+static ::std::function<::std::unique_ptr<::MobileRT::Camera>(float)> loadCamera_ {};
+
+/**
+ * The fingerprint of the configuration of the {@link renderer_}: the scene, shader, accelerator,
+ * samples per light and resolution.
+ * It is guarded by the {@link mutex_}.
+ */
+static ::std::string renderKey_ {};
+
+/**
+ * The state of the last render which was stopped before finishing, until it is resumed.
+ * It is guarded by the {@link mutex_}.
+ */
+static RenderState renderState_ {};
+
+/**
+ * The identifier of the scene loaded in the {@link renderer_}.
+ * It only changes when a different scene is loaded, so the preview geometry can be reused.
+ * It is guarded by the {@link mutex_}.
+ */
+static ::std::int64_t sceneId_ {};
+
+/**
+ * The key which identifies the scene with {@link sceneId_}.
+ */
+static ::std::string sceneKey_ {};
+
+/**
+ * The preview geometry built by {@link rtInitPreviewGeometry}, until it is uploaded to OpenGL.
+ * It is guarded by the {@link mutex_}.
+ */
+static PreviewGeometry preview_ {};
+
 /**
  * The cache for textures.
  */
 static ::std::unordered_map<::std::string, ::MobileRT::Texture> texturesCache_ {};
 
+/**
+ * The textures read from the files selected by the user, which are only loaded together with the
+ * scene.
+ */
+static ::Components::TextureLoader textureLoader_ {};
+
+/**
+ * The pixels of the Android bitmap while they are locked by the render thread, or null otherwise.
+ * It is guarded by the mutex_.
+ */
+static ::std::int32_t *bitmapPixels_ {};
+
+/**
+ * The distance between the rows of the Android bitmap in pixels, which can be larger than its
+ * width. It is guarded by the mutex_.
+ */
+static ::std::int32_t bitmapStride_ {};
+
+/**
+ * The maximum number of render threads with statistics.
+ */
+static const ::std::int32_t MaxStatsThreads {32};
+
+/**
+ * The minimum interval, in milliseconds, between the updates of the statistics by the render
+ * threads.
+ */
+static const ::std::int64_t StatsUpdateInterval {50};
+
+/**
+ * The statistics of the render, which are shared with Java through a read-only direct ByteBuffer
+ * so they can be read without calling native code.
+ * <br>
+ * The version is odd while the statistics are being updated, so the reader can detect an
+ * inconsistent read and try again. The layout must match the offsets in RenderTask.
+ */
+struct RenderStats {
+    ::std::atomic<::std::int32_t> version;
+    ::std::int32_t state;
+    float fps;
+    ::std::int32_t sample;
+    ::std::int64_t timeRenderer;
+    ::std::int64_t castedRays;
+    ::std::int64_t nativeHeap;
+    ::std::int32_t tilesDone;
+    ::std::int32_t numThreads;
+    ::std::int64_t occluderCacheLookups;
+    ::std::int64_t occluderCacheHits;
+    ::std::int64_t threadsBusyTime[MaxStatsThreads];
+};
+
+static_assert(sizeof(::std::atomic<::std::int32_t>) == sizeof(::std::int32_t), "The version must be a plain integer.");
+static_assert(sizeof(RenderStats) == 64 + MaxStatsThreads * sizeof(::std::int64_t), "RenderStats must not have padding.");
+
+/**
+ * The statistics of the render.
+ */
+static RenderStats stats_ {};
+
+/**
+ * The mutex for only 1 thread update the statistics at a time.
+ */
+static ::std::mutex statsMutex_ {};
+
+/**
+ * The time, in milliseconds, of the last update of the statistics by the render threads.
+ */
+static ::std::atomic<::std::int64_t> lastStatsUpdate_ {};
+
+/**
+ * The fraction of the physical memory of the device that the decoded textures can use.
+ */
+static const ::std::size_t TexturesCacheMemoryFraction {8};
+
+
+/**
+ * Helper method that calculates the maximum memory that the decoded textures should use.
+ *
+ * @return The number of bytes for the textures cache.
+ */
+static ::std::size_t getTexturesCacheBudget() {
+    const long pages {::sysconf(_SC_PHYS_PAGES)};
+    const long pageSize {::sysconf(_SC_PAGE_SIZE)};
+    if (pages <= 0 || pageSize <= 0) {
+        errno = 0;
+        return 0;
+    }
+    return static_cast<::std::size_t> (pages) * static_cast<::std::size_t> (pageSize) / TexturesCacheMemoryFraction;
+}
+
+/**
+ * Helper method that parses the OBJ and MTL files read by the {@link readFile} method, if they
+ * weren't parsed yet.
+ * The textures are loaded in background while the OBJ file is parsed.
+ * <br>
+ * It must be called with the {@link mutex_} locked.
+ */
+static void parseObjScene() {
+    if (objLoader_ != nullptr || objDefinition_.empty()) {
+        return;
+    }
+    if (mtlDefinition_.empty()) {
+        LOG_DEBUG("MTL file not read!");
+    }
+
+    // Load the textures while the OBJ file is being parsed.
+    textureLoader_.startLoading();
+
+    const ::std::istringstream isObj {objDefinition_};
+    const ::std::istringstream isMtl {mtlDefinition_};
+    ::std::istream iObj {isObj.rdbuf()};
+    ::std::istream iMtl {isMtl.rdbuf()};
+    objLoader_ = ::MobileRT::std::make_unique<::Components::OBJLoader> (iObj, iMtl);
+    objDefinition_.clear();
+    mtlDefinition_.clear();
+    iObj.clear();
+    iMtl.clear();
+    objDefinition_.erase();
+    mtlDefinition_.erase();
+    objDefinition_.shrink_to_fit();
+    mtlDefinition_.shrink_to_fit();
+
+    MobileRT::checkSystemError("parseObjScene after loading OBJ");
+    LOG_DEBUG("OBJLOADER PROCESSED");
+}
+
+/**
+ * Helper method that keeps the image rendered by the {@link renderer_}, so the render can be
+ * resumed later from the first tile that wasn't rendered, or refined if it finished.
+ * <br>
+ * It must be called with the {@link mutex_} locked and the bitmap pixels still locked.
+ *
+ * @param pixels   The pixels of the bitmap.
+ * @param width    The width of the bitmap.
+ * @param height   The height of the bitmap.
+ * @param finished Whether the render finished, instead of being stopped.
+ */
+static void saveRenderState(const ::std::int32_t *const pixels, const ::std::int32_t width, const ::std::int32_t height,
+                            const bool finished) {
+    renderState_ = RenderState {};
+    const ::std::int32_t tilesDone {renderer_ != nullptr ? renderer_->getTilesDone() : 0};
+    if (tilesDone <= 0) {
+        return;
+    }
+    renderState_.key = renderKey_;
+    renderState_.width = width;
+    renderState_.height = height;
+    renderState_.tilesDone = tilesDone;
+    renderState_.samplerPosition = renderer_->getSamplerPosition();
+    renderState_.finished = finished;
+    renderState_.pixels.assign(pixels, pixels + static_cast<::std::size_t> (width) * static_cast<::std::size_t> (height));
+    renderState_.pixelSamples = renderer_->getPixelSamples();
+    LOG_INFO("Kept the render state with ", tilesDone, " tiles rendered.");
+}
+
+/**
+ * Helper method that restores the image of the last render into the bitmap, if it was rendered
+ * with the same configuration as the {@link renderer_}, and makes the {@link renderer_} continue
+ * from its first tile that wasn't rendered, or add more samples if it finished.
+ * <br>
+ * The state is discarded afterwards, because the bitmap is going to be rendered again.
+ * It must be called with the {@link mutex_} locked and the bitmap pixels locked.
+ *
+ * @param pixels The pixels of the bitmap.
+ * @param width  The width of the bitmap.
+ * @param height The height of the bitmap.
+ */
+static void resumeRenderState(::std::int32_t *const pixels, const ::std::int32_t width, const ::std::int32_t height) {
+    if (renderer_ != nullptr && !renderState_.pixels.empty() && renderState_.key == renderKey_
+        && renderState_.width == width && renderState_.height == height) {
+        ::std::copy(renderState_.pixels.cbegin(), renderState_.pixels.cend(), pixels);
+        const ::std::int32_t firstTile {renderState_.finished ? 0 : renderState_.tilesDone};
+        renderer_->resumeFrame(firstTile, renderState_.samplerPosition, ::std::move(renderState_.pixelSamples));
+        LOG_INFO("Resuming the render from the tile ", firstTile);
+    }
+    renderState_ = RenderState {};
+}
+
+/**
+ * Helper method that applies the changes requested by the user to a camera, and discards them.
+ * <br>
+ * The distances are scaled by the size of the triangles and spheres of the scene, so a gesture
+ * moves the camera by the same fraction of any scene.
+ * It must be called with the {@link mutex_} locked.
+ *
+ * @param camera The camera.
+ * @param shader The shader with the scene.
+ */
+static void applyCameraMotion(::MobileRT::Camera *const camera, const ::MobileRT::Shader &shader) {
+    const CameraMotion motion {cameraMotion_};
+    cameraMotion_ = CameraMotion {};
+    if (motion.yaw == 0.0F && motion.pitch == 0.0F && motion.moveRight == 0.0F && motion.moveUp == 0.0F && motion.zoom == 1.0F) {
+        return;
+    }
+    float sceneSize {1.0F};
+    if (!shader.getTriangles().empty() || !shader.getSpheres().empty()) {
+        const ::MobileRT::AABB bounds {::MobileRT::surroundingBox(
+            ::MobileRT::Scene::getBounds(shader.getTriangles()), ::MobileRT::Scene::getBounds(shader.getSpheres())
+        )};
+        sceneSize = ::glm::length(bounds.getPointMax() - bounds.getPointMin());
+    }
+    camera->rotate(motion.yaw, motion.pitch);
+    camera->move(::glm::vec3 {motion.moveRight * sceneSize, motion.moveUp * sceneSize, 0.0F});
+    if (motion.zoom > 0.0F && motion.zoom != 1.0F) {
+        camera->zoom(motion.zoom);
+    }
+    ++cameraId_;
+    LOG_DEBUG("Moved the camera to: ", camera->position_[0], ", ", camera->position_[1], ", ", camera->position_[2]);
+}
+
+/**
+ * Helper method that updates the statistics shared with Java.
+ *
+ * @param renderer The renderer which is rendering the scene, or null to only update the state.
+ */
+static void updateStats(const ::MobileRT::Renderer *const renderer) {
+    const ::std::lock_guard<::std::mutex> lock {statsMutex_};
+    const ::std::int32_t version {stats_.version.load(::std::memory_order_relaxed)};
+    stats_.version.store(version + 1, ::std::memory_order_relaxed);
+    ::std::atomic_thread_fence(::std::memory_order_release);
+
+    stats_.state = static_cast<::std::int32_t> (state_.load());
+    stats_.fps = fps_;
+    stats_.timeRenderer = timeRenderer_;
+    stats_.nativeHeap = static_cast<::std::int64_t> (::mallinfo().uordblks);
+    if (renderer != nullptr) {
+        stats_.sample = renderer->getSample();
+        stats_.castedRays = static_cast<::std::int64_t> (renderer->getTotalCastedRays());
+        stats_.tilesDone = renderer->getTilesDone();
+        stats_.occluderCacheLookups = static_cast<::std::int64_t> (renderer->getOccluderCacheLookups());
+        stats_.occluderCacheHits = static_cast<::std::int64_t> (renderer->getOccluderCacheHits());
+        stats_.numThreads = ::std::min(renderer->getNumThreads(), MaxStatsThreads);
+        for (::std::int32_t tid {0}; tid < stats_.numThreads; ++tid) {
+            stats_.threadsBusyTime[tid] = renderer->getBusyTime(tid);
+        }
+    }
+
+    stats_.version.store(version + 2, ::std::memory_order_release);
+}
+
+/**
+ * Helper method that updates the statistics shared with Java while a frame is being rendered.
+ * <br>
+ * It is called by the render threads after each tile, so the statistics are only updated if some
+ * time passed since the last update.
+ *
+ * @param renderer The renderer which is rendering the scene.
+ */
+static void updateStatsWhileRendering(const ::MobileRT::Renderer *const renderer) {
+    const ::std::int64_t now {
+        ::std::chrono::duration_cast<::std::chrono::milliseconds> (::std::chrono::steady_clock::now().time_since_epoch()).count()
+    };
+    ::std::int64_t lastUpdate {lastStatsUpdate_.load(::std::memory_order_relaxed)};
+    if (now - lastUpdate < StatsUpdateInterval
+        || !lastStatsUpdate_.compare_exchange_strong(lastUpdate, now, ::std::memory_order_relaxed)) {
+        return;
+    }
+    updateStats(renderer);
+}
+
+/**
+ * Helper method that changes the state of the MobileRT engine, wakes up the threads waiting for
+ * the state to change and updates the statistics shared with Java.
+ *
+ * @param state The new state.
+ */
+static void setState(const State state) {
+    {
+        const ::std::lock_guard<::std::mutex> lock {stateMutex_};
+        state_ = state;
+    }
+    stateChanged_.notify_all();
+    updateStats(nullptr);
+}
 
 /**
  * Helper method that throws a Java exception.
@@ -121,7 +579,7 @@ static void handleException(JNIEnv *const env,
     } else {
         LOG_ERROR(exceptionName, " thrown");
     }
-    state_ = State::IDLE;
+    setState(State::IDLE);
     finishedRendering_ = true;
 }
 
@@ -239,153 +697,167 @@ jobject Java_puscas_mobilertapp_MainRenderer_rtInitCameraArray(
     return nullptr;
 }
 
+/**
+ * Helper method which calculates the color of a material in the preview of the scene.
+ * <br>
+ * It uses the brightest of its diffuse, specular, transmission and emission colors.
+ *
+ * @param material The material.
+ * @return The color packed in RGBA.
+ */
+static ::std::array<::std::uint8_t, 4> getPreviewColor(const ::MobileRT::Material &material) {
+    ::glm::vec3 color {material.Kd_};
+    color = ::glm::all(::glm::greaterThan(material.Ks_, color)) ? material.Ks_ : color;
+    color = ::glm::all(::glm::greaterThan(material.Kt_, color)) ? material.Kt_ : color;
+    color = ::glm::all(::glm::greaterThan(material.Le_, color)) ? material.Le_ : color;
+    color = ::glm::clamp(color, 0.0F, 1.0F) * 255.0F + 0.5F;
+    return ::std::array<::std::uint8_t, 4> {{
+        static_cast<::std::uint8_t> (color.r),
+        static_cast<::std::uint8_t> (color.g),
+        static_cast<::std::uint8_t> (color.b),
+        255
+    }};
+}
+
+/**
+ * Helper method which builds the indexed geometry of the preview of the scene.
+ * <br>
+ * The vertices with the same position and color are shared between the triangles, and the colors
+ * are packed in 4 bytes, which needs much less memory than a copy of every vertex and color of
+ * every triangle in floats.
+ *
+ * @param shader The shader with the scene.
+ * @return The preview geometry.
+ */
+static PreviewGeometry buildPreviewGeometry(const ::MobileRT::Shader &shader) {
+    const ::std::vector<::MobileRT::Triangle> &triangles {shader.getTriangles()};
+    const ::std::vector<::MobileRT::Material> &materials {shader.getMaterials()};
+
+    ::std::vector<::std::array<::std::uint8_t, 4>> colors {};
+    colors.reserve(materials.size());
+    for (const ::MobileRT::Material &material : materials) {
+        colors.emplace_back(getPreviewColor(material));
+    }
+    const ::std::array<::std::uint8_t, 4> defaultColor {getPreviewColor(::MobileRT::Material {})};
+
+    PreviewGeometry preview {};
+    preview.indices.reserve(triangles.size() * 3);
+    ::std::unordered_map<PreviewVertex, ::std::uint16_t, PreviewVertexHash> batchVertices {};
+    ::std::size_t firstIndex {0};
+    ::std::size_t baseVertex {0};
+    const auto closeBatch {[&]() {
+        if (preview.indices.size() > firstIndex) {
+            preview.batches.emplace_back(static_cast<jint> (firstIndex));
+            preview.batches.emplace_back(static_cast<jint> (preview.indices.size() - firstIndex));
+            preview.batches.emplace_back(static_cast<jint> (baseVertex));
+        }
+        firstIndex = preview.indices.size();
+        baseVertex = preview.vertices.size();
+        batchVertices.clear();
+    }};
+
+    for (const ::MobileRT::Triangle &triangle : triangles) {
+        // Start a new batch if the vertices of this triangle might not be addressable with 16 bits.
+        if (preview.vertices.size() - baseVertex + 3 > MaxPreviewBatchVertices) {
+            closeBatch();
+        }
+        const ::std::int32_t materialIndex {triangle.getMaterialIndex()};
+        const ::std::array<::std::uint8_t, 4> &color {
+            materialIndex >= 0 ? colors[static_cast<::std::size_t> (materialIndex)] : defaultColor
+        };
+        const ::glm::vec3 &pointA {triangle.getA()};
+        const ::glm::vec3 points[] {pointA, pointA + triangle.getAB(), pointA + triangle.getAC()};
+        for (const ::glm::vec3 &point : points) {
+            const PreviewVertex vertex {{point.x, point.y, -point.z}, {color[0], color[1], color[2], color[3]}};
+            const ::std::uint16_t index {static_cast<::std::uint16_t> (preview.vertices.size() - baseVertex)};
+            const auto itVertex {batchVertices.emplace(vertex, index)};
+            if (itVertex.second) {
+                preview.vertices.emplace_back(vertex);
+            }
+            preview.indices.emplace_back(itVertex.first->second);
+        }
+    }
+    closeBatch();
+
+    LOG_INFO("Preview geometry: ", preview.vertices.size(), " vertices for ", triangles.size(), " triangles in ", preview.batches.size() / 3, " batches");
+    return preview;
+}
+
 extern "C"
-jobject Java_puscas_mobilertapp_MainRenderer_rtInitVerticesArray(
+jlong Java_puscas_mobilertapp_MainRenderer_rtGetSceneId(
     JNIEnv *env,
     jobject /*thiz*/
 ) {
-    MobileRT::checkSystemError("rtInitVerticesArray start");
+    const ::std::lock_guard<::std::mutex> lock {mutex_};
+    env->ExceptionClear();
+    return static_cast<jlong> (sceneId_);
+}
+
+extern "C"
+jintArray Java_puscas_mobilertapp_MainRenderer_rtInitPreviewGeometry(
+    JNIEnv *env,
+    jobject /*thiz*/
+) {
+    MobileRT::checkSystemError("rtInitPreviewGeometry start");
     try {
-        jobject directBuffer {};
+        jintArray batches {};
         {
             const ::std::lock_guard<::std::mutex> lock {mutex_};
-            if (renderer_ != nullptr) {
-                const ::std::vector<::MobileRT::Triangle> &triangles {renderer_->shader_->getTriangles()};
-                const ::std::uint32_t arraySize {static_cast<::std::uint32_t> (triangles.size() * 3 * 4)};
-                const jlong arrayBytes {arraySize * static_cast<jlong> (sizeof(jfloat))};
-
-                float *const floatBuffer {new float[arraySize]};
-
-                if (floatBuffer != nullptr) {
-                    directBuffer = env->NewDirectByteBuffer(floatBuffer, arrayBytes);
-                    if (directBuffer != nullptr) {
-                        ::std::int32_t i {};
-                        for (const ::MobileRT::Triangle &triangle : triangles) {
-                            const ::glm::vec4 &pointA {triangle.getA().x,
-                                                      triangle.getA().y,
-                                                      triangle.getA().z, 1.0F};
-                            const ::glm::vec4 &pointB {pointA.x + triangle.getAB().x,
-                                                      pointA.y + triangle.getAB().y,
-                                                      pointA.z + triangle.getAB().z, 1.0F};
-                            const ::glm::vec4 &pointC {pointA.x + triangle.getAC().x,
-                                                      pointA.y + triangle.getAC().y,
-                                                      pointA.z + triangle.getAC().z, 1.0F};
-
-                            floatBuffer[i++] = pointA.x;
-                            floatBuffer[i++] = pointA.y;
-                            floatBuffer[i++] = -pointA.z;
-                            floatBuffer[i++] = pointA.w;
-
-                            floatBuffer[i++] = pointB.x;
-                            floatBuffer[i++] = pointB.y;
-                            floatBuffer[i++] = -pointB.z;
-                            floatBuffer[i++] = pointB.w;
-
-                            floatBuffer[i++] = pointC.x;
-                            floatBuffer[i++] = pointC.y;
-                            floatBuffer[i++] = -pointC.z;
-                            floatBuffer[i++] = pointC.w;
-                        }
-                    } else {
-                        const ::std::string errorMessage {"JNIEnv::NewDirectByteBuffer failed to allocate native memory!"};
-                        throw ::std::runtime_error {errorMessage};
-                    }
-                } else {
-                    const ::std::string errorMessage {"C++ failed to allocate native memory!"};
-                    throw ::std::runtime_error {errorMessage};
-                }
+            preview_ = renderer_ != nullptr ? buildPreviewGeometry(*renderer_->shader_) : PreviewGeometry {};
+            const jsize size {static_cast<jsize> (preview_.batches.size())};
+            batches = env->NewIntArray(size);
+            if (batches == nullptr) {
+                throw ::std::bad_alloc {};
             }
+            env->SetIntArrayRegion(batches, 0, size, preview_.batches.data());
             env->ExceptionClear();
         }
-        MobileRT::checkSystemError("rtInitVerticesArray finish");
-        return directBuffer;
+        MobileRT::checkSystemError("rtInitPreviewGeometry finish");
+        return batches;
     } catch (const ::std::bad_alloc &badAlloc) {
+        preview_ = PreviewGeometry {};
         handleException(env, badAlloc, "puscas/mobilertapp/exceptions/LowMemoryException");
     } catch (const ::std::exception &exception) {
+        preview_ = PreviewGeometry {};
         handleException(env, exception, "java/lang/RuntimeException");
-    } catch (...) {
-        handleException(env, ::std::exception{}, "java/lang/RuntimeException");
     }
-    MobileRT::checkSystemError("rtInitVerticesArray finish");
     return nullptr;
 }
 
 extern "C"
-jobject Java_puscas_mobilertapp_MainRenderer_rtInitColorsArray(
+jobject Java_puscas_mobilertapp_MainRenderer_rtGetPreviewVertices(
     JNIEnv *env,
     jobject /*thiz*/
 ) {
-    MobileRT::checkSystemError("rtInitColorsArray start");
-    try {
-        jobject directBuffer {};
-        {
-            const ::std::lock_guard<::std::mutex> lock {mutex_};
-            if (renderer_ != nullptr) {
-                const ::std::vector<::MobileRT::Triangle> &triangles {renderer_->shader_->getTriangles()};
-                const ::std::uint32_t arraySize {static_cast<::std::uint32_t> (triangles.size() * 3 * 4)};
-                const jlong arrayBytes {arraySize * static_cast<::std::int64_t> (sizeof(jfloat))};
-
-                float *const floatBuffer {new float[arraySize]};
-
-                if (floatBuffer != nullptr) {
-                    directBuffer = env->NewDirectByteBuffer(floatBuffer, arrayBytes);
-                    if (directBuffer != nullptr) {
-                        ::std::int32_t i {};
-                        for (const ::MobileRT::Triangle &triangle : triangles) {
-                            const ::std::int32_t materialIndex {triangle.getMaterialIndex()};
-                            ::MobileRT::Material material {::MobileRT::Material{}};
-                            if (materialIndex >= 0) {
-                                material = renderer_->shader_->getMaterials()[static_cast<::std::uint32_t> (materialIndex)];
-                            }
-
-                            const ::glm::vec3 &kD{material.Kd_};
-                            const ::glm::vec3 &kS{material.Ks_};
-                            const ::glm::vec3 &kT{material.Kt_};
-                            const ::glm::vec3 &lE{material.Le_};
-                            ::glm::vec3 color {kD};
-
-                            color = ::glm::all(::glm::greaterThan(kS, color)) ? kS : color;
-                            color = ::glm::all(::glm::greaterThan(kT, color)) ? kT : color;
-                            color = ::glm::all(::glm::greaterThan(lE, color)) ? lE : color;
-
-                            floatBuffer[i++] = color.r;
-                            floatBuffer[i++] = color.g;
-                            floatBuffer[i++] = color.b;
-                            floatBuffer[i++] = 1.0F;
-
-                            floatBuffer[i++] = color.r;
-                            floatBuffer[i++] = color.g;
-                            floatBuffer[i++] = color.b;
-                            floatBuffer[i++] = 1.0F;
-
-                            floatBuffer[i++] = color.r;
-                            floatBuffer[i++] = color.g;
-                            floatBuffer[i++] = color.b;
-                            floatBuffer[i++] = 1.0F;
-                        }
-                    } else {
-                        const ::std::string errorMessage {"JNIEnv::NewDirectByteBuffer failed to allocate native memory!"};
-                        throw ::std::runtime_error {errorMessage};
-                    }
-                } else {
-                    const ::std::string errorMessage {"C++ failed to allocate native memory!"};
-                    throw ::std::runtime_error {errorMessage};
-                }
+    const ::std::lock_guard<::std::mutex> lock {mutex_};
+    if (preview_.vertices.empty()) {
+        return nullptr;
+    }
+    const jlong bytes {static_cast<jlong> (preview_.vertices.size() * sizeof(PreviewVertex))};
+    return env->NewDirectByteBuffer(preview_.vertices.data(), bytes);
+}
 
-            }
-            env->ExceptionClear();
-        }
-        MobileRT::checkSystemError("rtInitColorsArray finish 1");
-        return directBuffer;
-    } catch (const ::std::bad_alloc &badAlloc) {
-        handleException(env, badAlloc, "puscas/mobilertapp/exceptions/LowMemoryException");
-    } catch (const ::std::exception &exception) {
-        handleException(env, exception, "java/lang/RuntimeException");
-    } catch (...) {
-        handleException(env, ::std::exception{}, "java/lang/RuntimeException");
+extern "C"
+jobject Java_puscas_mobilertapp_MainRenderer_rtGetPreviewIndices(
+    JNIEnv *env,
+    jobject /*thiz*/
+) {
+    const ::std::lock_guard<::std::mutex> lock {mutex_};
+    if (preview_.indices.empty()) {
+        return nullptr;
     }
-    MobileRT::checkSystemError("rtInitColorsArray finish 2");
-    return nullptr;
+    const jlong bytes {static_cast<jlong> (preview_.indices.size() * sizeof(::std::uint16_t))};
+    return env->NewDirectByteBuffer(preview_.indices.data(), bytes);
+}
+
+extern "C"
+void Java_puscas_mobilertapp_MainRenderer_rtFreePreviewGeometry(
+    JNIEnv */*env*/,
+    jobject /*thiz*/
+) {
+    const ::std::lock_guard<::std::mutex> lock {mutex_};
+    // The geometry was already uploaded to OpenGL.
+    preview_ = PreviewGeometry {};
 }
 
 static void updateFps() {
@@ -416,7 +888,7 @@ void Java_puscas_mobilertapp_DrawView_rtStartRender(
             rendered_.wait(lock, [&] { return finishedRendering_.load(); });
             finishedRendering_ = false;
         }
-        state_ = State::BUSY;
+        setState(State::BUSY);
         LOG_DEBUG("STATE = BUSY");
         env->ExceptionClear();
         MobileRT::checkSystemError("rtStartRender finish");
@@ -434,7 +906,7 @@ void Java_puscas_mobilertapp_DrawView_rtStopRender(
     MobileRT::checkSystemError("rtStopRender start");
     {
         LOG_DEBUG("Will get lock");
-        state_ = State::STOPPED;
+        setState(State::STOPPED);
         LOG_DEBUG("STATE = STOPPED");
         ::std::unique_lock<::std::mutex> lock {mutex_};
         LOG_DEBUG("Got lock, waiting for renderer to finish");
@@ -461,11 +933,205 @@ void Java_puscas_mobilertapp_DrawView_rtStopRender(
     MobileRT::checkSystemError("rtStopRender finish");
 }
 
+/**
+ * Helper method which builds the scene layer: the scene with its acceleration structure, owned
+ * by the shader, and the factory of its camera in {@link loadCamera_}.
+ * <br>
+ * This layer is expensive to build, so it is kept by the {@link renderer_} and reused while only
+ * the render settings (resolution, samples per pixel and per light, threads) change.
+ * <br>
+ * It must be called with the {@link mutex_} locked.
+ *
+ * @param sceneIndex       The index of the scene.
+ * @param shaderIndex      The index of the shader.
+ * @param acceleratorIndex The index of the acceleration structure.
+ * @param samplesLight     The number of samples per light.
+ * @param objFilePath      The path to the OBJ file of the scene.
+ * @return The shader with the scene, or null if the scene couldn't be loaded.
+ */
+static ::std::unique_ptr<::MobileRT::Shader> buildSceneShader(
+    const jint sceneIndex,
+    const jint shaderIndex,
+    const jint acceleratorIndex,
+    const jint samplesLight,
+    const ::std::string &objFilePath
+) {
+    ::MobileRT::Scene scene {};
+    ::std::unique_ptr<::MobileRT::Shader> shader {};
+    ::glm::vec3 maxDist {};
+    LOG_DEBUG("LOADING SCENE: ", sceneIndex);
+    switch (sceneIndex) {
+        case 0:
+            scene = cornellBox_Scene(::std::move(scene));
+            loadCamera_ = [](const float ratio) { return cornellBox_Cam(ratio); };
+            maxDist = ::glm::vec3 {1, 1, 1};
+            break;
+
+        case 1:
+            scene = spheres_Scene(::std::move(scene));
+            loadCamera_ = [](const float ratio) { return spheres_Cam(ratio); };
+            maxDist = ::glm::vec3 {8, 8, 8};
+            break;
+
+        case 2:
+            scene = cornellBox2_Scene(::std::move(scene));
+            loadCamera_ = [](const float ratio) { return cornellBox_Cam(ratio); };
+            maxDist = ::glm::vec3 {1, 1, 1};
+            break;
+
+        case 3:
+            scene = spheres2_Scene(::std::move(scene));
+            loadCamera_ = [](const float ratio) { return spheres2_Cam(ratio); };
+            maxDist = ::glm::vec3 {8, 8, 8};
+            break;
+
+        default: {
+            if (binaryScene_ != nullptr) {
+                const ::std::shared_ptr<::Components::BinarySceneLoader> binaryScene {::std::move(binaryScene_)};
+                if (!binaryScene->isProcessed()) {
+                    LOG_ERROR("BinarySceneLoader could not load the scene.");
+                    return nullptr;
+                }
+                // The camera is read from the mapped file, which stays mapped while the scene is resident.
+                loadCamera_ = [binaryScene](const float ratio) { return binaryScene->loadCamera(ratio); };
+                textureLoader_.finishLoading(&texturesCache_);
+                const bool sceneBuilt {binaryScene->fillScene(
+                    &scene,
+                    []() {return ::MobileRT::std::make_unique<Components::SobolOwen>();},
+                    objFilePath,
+                    &texturesCache_
+                )};
+                texturesCache_.clear();
+                MobileRT::checkSystemError("rtInitialize after filling scene from binary");
+                if (!sceneBuilt) {
+                    LOG_ERROR("BinarySceneLoader could not load the scene.");
+                    return nullptr;
+                }
+                maxDist = ::glm::vec3 {1, 1, 1};
+                break;
+            }
+            if (objDefinition_.empty() && objLoader_ == nullptr) {
+                LOG_DEBUG("OBJ file not read!");
+                throw ::std::runtime_error {"OBJ file not read!"};
+            }
+            if (camDefinition_.empty()) {
+                LOG_DEBUG("CAM file not read!");
+            }
+
+            // The OBJ file might already be parsed by the memory estimation.
+            parseObjScene();
+            const ::std::unique_ptr<::Components::OBJLoader> objLoader {::std::move(objLoader_)};
+
+            const ::std::string camDefinition {camDefinition_};
+            loadCamera_ = [camDefinition](const float ratio) {
+                ::Components::CameraFactory cameraFactory {::Components::CameraFactory()};
+                const ::std::istringstream isCam {camDefinition};
+                ::std::istream iCam {isCam.rdbuf()};
+                return cameraFactory.loadFromFile(iCam, ratio);
+            };
+            camDefinition_.clear();
+            camDefinition_.erase();
+            camDefinition_.shrink_to_fit();
+
+            textureLoader_.finishLoading(&texturesCache_);
+            if (!objLoader->isProcessed()) {
+                LOG_ERROR("OBJLOADER could not load the scene.");
+                return nullptr;
+            }
+            const bool sceneBuilt {objLoader->fillScene(
+                &scene,
+                []() {return ::MobileRT::std::make_unique<Components::SobolOwen>();},
+                objFilePath,
+                &texturesCache_
+            )};
+            texturesCache_.clear();
+            MobileRT::checkSystemError("rtInitialize after filling scene");
+            if (!sceneBuilt) {
+                LOG_ERROR("OBJLOADER could not load the scene.");
+                return nullptr;
+            }
+
+            maxDist = ::glm::vec3{1, 1, 1};
+        }
+            break;
+    }
+    LOG_DEBUG("LOADING SHADER: ", shaderIndex);
+    LOG_DEBUG("LOADING ACCELERATOR: ", ::MobileRT::Shader::Accelerator(acceleratorIndex));
+    LOG_DEBUG("samplesLight: ", samplesLight);
+    MobileRT::checkSystemError("rtInitialize before loading shader");
+    switch (shaderIndex) {
+        case 1: {
+            shader = ::MobileRT::std::make_unique<Components::Whitted>(
+                ::std::move(scene),
+                samplesLight,
+                ::MobileRT::Shader::Accelerator(acceleratorIndex)
+            );
+            break;
+        }
+
+        case 2: {
+            ::std::unique_ptr<MobileRT::Sampler> samplerRussianRoulette{
+                ::MobileRT::std::make_unique<Components::SobolOwen>()
+            };
+
+            shader = ::MobileRT::std::make_unique<Components::PathTracer>(
+                ::std::move(scene),
+                ::std::move(samplerRussianRoulette),
+                samplesLight,
+                ::MobileRT::Shader::Accelerator(acceleratorIndex)
+            );
+            break;
+        }
+
+        case 5: {
+            ::std::unique_ptr<MobileRT::Sampler> samplerRussianRoulette{
+                ::MobileRT::std::make_unique<Components::SobolOwen>()
+            };
+
+            shader = ::MobileRT::std::make_unique<Components::PathTracer>(
+                ::std::move(scene),
+                ::std::move(samplerRussianRoulette),
+                samplesLight,
+                ::MobileRT::Shader::Accelerator(acceleratorIndex),
+                Components::PathTracer::DirectLighting::DL_MIS
+            );
+            break;
+        }
+
+        case 3: {
+            shader = ::MobileRT::std::make_unique<Components::DepthMap>(
+                ::std::move(scene), maxDist,
+                ::MobileRT::Shader::Accelerator(acceleratorIndex)
+            );
+            break;
+        }
+
+        case 4: {
+            shader = ::MobileRT::std::make_unique<Components::DiffuseMaterial>(
+                ::std::move(scene), ::MobileRT::Shader::Accelerator(acceleratorIndex)
+            );
+            break;
+        }
+
+        default: {
+            shader = ::MobileRT::std::make_unique<Components::NoShadows>(
+                ::std::move(scene),
+                samplesLight,
+                ::MobileRT::Shader::Accelerator(acceleratorIndex)
+            );
+            break;
+        }
+    }
+    MobileRT::checkSystemError("rtInitialize after loading shader");
+    return shader;
+}
+
 extern "C"
 jint Java_puscas_mobilertapp_MainRenderer_rtInitialize(
     JNIEnv *env,
     jobject /*thiz*/,
-    jobject localConfig
+    jobject localConfig,
+    jboolean keepScene
 ) {
     MobileRT::checkSystemError("rtInitialize start");
     LOG_DEBUG("INITIALIZE");
@@ -512,6 +1178,29 @@ jint Java_puscas_mobilertapp_MainRenderer_rtInitialize(
         const jint samplesLight {env->CallIntMethod(samplesConfig, samplesLightMethodId)};
         LOG_DEBUG("samplesLight: ", samplesLight);
 
+        const jmethodID denoiseMethodId {env->GetMethodID(configClass, "getDenoise", "()Z")};
+        const bool denoise {env->CallBooleanMethod(localConfig, denoiseMethodId) == JNI_TRUE};
+        LOG_DEBUG("denoise: ", denoise);
+
+        const jmethodID renderTimeMethodId {env->GetMethodID(configClass, "getRenderTime", "()I")};
+        const jint renderTime {env->CallIntMethod(localConfig, renderTimeMethodId)};
+        LOG_DEBUG("renderTime: ", renderTime);
+
+        const jmethodID configCropWindowMethodId {env->GetMethodID(configClass, "getConfigCropWindow",
+                                                      "()Lpuscas/mobilertapp/configs/ConfigCropWindow;")};
+        const jobject cropWindowConfig {env->CallObjectMethod(localConfig, configCropWindowMethodId)};
+        const jclass cropWindowConfigClass {env->GetObjectClass(cropWindowConfig)};
+        const jmethodID cropLeftMethodId {env->GetMethodID(cropWindowConfigClass, "getLeft", "()F")};
+        const jmethodID cropTopMethodId {env->GetMethodID(cropWindowConfigClass, "getTop", "()F")};
+        const jmethodID cropRightMethodId {env->GetMethodID(cropWindowConfigClass, "getRight", "()F")};
+        const jmethodID cropBottomMethodId {env->GetMethodID(cropWindowConfigClass, "getBottom", "()F")};
+        // The crop window is relative to the image, so it is kept if the resolution is lowered.
+        const ::std::int32_t cropX {static_cast<::std::int32_t> (::std::floor(env->CallFloatMethod(cropWindowConfig, cropLeftMethodId) * static_cast<float> (width)))};
+        const ::std::int32_t cropY {static_cast<::std::int32_t> (::std::floor(env->CallFloatMethod(cropWindowConfig, cropTopMethodId) * static_cast<float> (height)))};
+        const ::std::int32_t cropEndX {static_cast<::std::int32_t> (::std::ceil(env->CallFloatMethod(cropWindowConfig, cropRightMethodId) * static_cast<float> (width)))};
+        const ::std::int32_t cropEndY {static_cast<::std::int32_t> (::std::ceil(env->CallFloatMethod(cropWindowConfig, cropBottomMethodId) * static_cast<float> (height)))};
+        LOG_DEBUG("crop window: ", cropX, ",", cropY, " to ", cropEndX, ",", cropEndY);
+
         jboolean isCopy {JNI_FALSE};
         const jmethodID objMethodId {env->GetMethodID(configClass, "getObjFilePath", "()Ljava/lang/String;")};
         const jstring localObjFilePath {reinterpret_cast<jstring> (env->CallObjectMethod(localConfig, objMethodId))};
@@ -522,155 +1211,40 @@ jint Java_puscas_mobilertapp_MainRenderer_rtInitialize(
             [&]() -> ::std::int32_t {
                 LOG_DEBUG("Acquiring lock");
                 const ::std::lock_guard<::std::mutex> lock {mutex_};
-                renderer_ = nullptr;
-                const float ratio {static_cast<float> (width) / static_cast<float> (height)};
-                ::MobileRT::Scene scene {};
-                ::std::unique_ptr<::MobileRT::Sampler> samplerPixel {};
                 ::std::unique_ptr<::MobileRT::Shader> shader {};
                 ::std::unique_ptr<::MobileRT::Camera> camera {};
-                ::glm::vec3 maxDist {};
-                LOG_DEBUG("LOADING SCENE: ", sceneIndex);
-                switch (sceneIndex) {
-                    case 0:
-                        scene = cornellBox_Scene(::std::move(scene));
-                        camera = cornellBox_Cam(ratio);
-                        maxDist = ::glm::vec3 {1, 1, 1};
-                        break;
-
-                    case 1:
-                        scene = spheres_Scene(::std::move(scene));
-                        camera = spheres_Cam(ratio);
-                        maxDist = ::glm::vec3 {8, 8, 8};
-                        break;
-
-                    case 2:
-                        scene = cornellBox2_Scene(::std::move(scene));
-                        camera = cornellBox_Cam(ratio);
-                        maxDist = ::glm::vec3 {1, 1, 1};
-                        break;
-
-                    case 3:
-                        scene = spheres2_Scene(::std::move(scene));
-                        camera = spheres2_Cam(ratio);
-                        maxDist = ::glm::vec3 {8, 8, 8};
-                        break;
-
-                    default: {
-                        if (objDefinition_.empty()) {
-                            LOG_DEBUG("OBJ file not read!");
-                            throw ::std::runtime_error {"OBJ file not read!"};
-                        }
-                        if (mtlDefinition_.empty()) {
-                            LOG_DEBUG("MTL file not read!");
-                        }
-                        if (camDefinition_.empty()) {
-                            LOG_DEBUG("CAM file not read!");
-                        }
-
-                        ::Components::CameraFactory cameraFactory {::Components::CameraFactory()};
-                        const ::std::istringstream isCam {camDefinition_};
-                        ::std::istream iCam {isCam.rdbuf()};
-                        camera = cameraFactory.loadFromFile(iCam, ratio);
-
-                        const ::std::istringstream isObj {objDefinition_};
-                        const ::std::istringstream isMtl {mtlDefinition_};
-                        ::std::istream iObj {isObj.rdbuf()};
-                        ::std::istream iMtl {isMtl.rdbuf()};
-                        ::Components::OBJLoader objLoader {iObj, iMtl};
-                        objDefinition_.clear();
-                        mtlDefinition_.clear();
-                        camDefinition_.clear();
-                        iObj.clear();
-                        iMtl.clear();
-                        objDefinition_.erase();
-                        mtlDefinition_.erase();
-                        camDefinition_.erase();
-                        objDefinition_.shrink_to_fit();
-                        mtlDefinition_.shrink_to_fit();
-                        camDefinition_.shrink_to_fit();
-
-                        MobileRT::checkSystemError("rtInitialize after loading OBJ");
-                        LOG_DEBUG("OBJLOADER PROCESSED");
-
-                        if (!objLoader.isProcessed()) {
-                            LOG_ERROR("OBJLOADER could not load the scene.");
-                            return -1;
-                        }
-                        const bool sceneBuilt {objLoader.fillScene(
-                            &scene,
-                            []() {return ::MobileRT::std::make_unique<Components::StaticPCG>();},
-                            objFilePath,
-                            texturesCache_
-                        )};
-                        texturesCache_.clear();
-                        MobileRT::checkSystemError("rtInitialize after filling scene");
-                        if (!sceneBuilt) {
-                            LOG_ERROR("OBJLOADER could not load the scene.");
-                            return -1;
-                        }
-
-                        maxDist = ::glm::vec3{1, 1, 1};
-                    }
-                        break;
+                if (keepScene && renderer_ != nullptr && renderer_->shader_ != nullptr && loadCamera_) {
+                    LOG_INFO("Reusing the scene already loaded.");
+                    shader = ::std::move(renderer_->shader_);
+                    // The camera keeps the changes made by the user while the scene is resident.
+                    camera = ::std::move(renderer_->camera_);
                 }
-                samplerPixel = samplesPixel <= 1
-                   ? ::std::unique_ptr<::MobileRT::Sampler>(::MobileRT::std::make_unique<Components::Constant>(0.5F))
-                   : ::std::unique_ptr<::MobileRT::Sampler>(::MobileRT::std::make_unique<Components::StaticPCG>());
-                LOG_DEBUG("LOADING SHADER: ", shaderIndex);
-                LOG_DEBUG("LOADING ACCELERATOR: ", ::MobileRT::Shader::Accelerator(acceleratorIndex));
-                LOG_DEBUG("samplesLight: ", samplesLight);
-                MobileRT::checkSystemError("rtInitialize before loading shader");
+                renderer_ = nullptr;
+                ::MobileRT::Texture::setCacheBudget(getTexturesCacheBudget());
                 const ::std::chrono::time_point<::std::chrono::system_clock> chronoStart {::std::chrono::system_clock::now()};
-                switch (shaderIndex) {
-                    case 1: {
-                        shader = ::MobileRT::std::make_unique<Components::Whitted>(
-                            ::std::move(scene),
-                            samplesLight,
-                            ::MobileRT::Shader::Accelerator(acceleratorIndex)
-                        );
-                        break;
-                    }
-
-                    case 2: {
-                        ::std::unique_ptr<MobileRT::Sampler> samplerRussianRoulette{
-                            ::MobileRT::std::make_unique<Components::StaticPCG>()
-                        };
-
-                        shader = ::MobileRT::std::make_unique<Components::PathTracer>(
-                            ::std::move(scene),
-                            ::std::move(samplerRussianRoulette),
-                            samplesLight,
-                            ::MobileRT::Shader::Accelerator(acceleratorIndex)
-                        );
-                        break;
-                    }
-
-                    case 3: {
-                        shader = ::MobileRT::std::make_unique<Components::DepthMap>(
-                            ::std::move(scene), maxDist,
-                            ::MobileRT::Shader::Accelerator(acceleratorIndex)
-                        );
-                        break;
-                    }
-
-                    case 4: {
-                        shader = ::MobileRT::std::make_unique<Components::DiffuseMaterial>(
-                            ::std::move(scene), ::MobileRT::Shader::Accelerator(acceleratorIndex)
-                        );
-                        break;
-                    }
-
-                    default: {
-                        shader = ::MobileRT::std::make_unique<Components::NoShadows>(
-                            ::std::move(scene),
-                            samplesLight,
-                            ::MobileRT::Shader::Accelerator(acceleratorIndex)
-                        );
-                        break;
+                if (shader != nullptr) {
+                    shader->setSamplesLight(samplesLight);
+                } else {
+                    loadCamera_ = nullptr;
+                    shader = buildSceneShader(sceneIndex, shaderIndex, acceleratorIndex, samplesLight, objFilePath);
+                    if (shader == nullptr) {
+                        return -1;
                     }
                 }
                 const ::std::chrono::time_point<::std::chrono::system_clock> chronoEnd {::std::chrono::system_clock::now()};
-                MobileRT::checkSystemError("rtInitialize after loading shader");
+
+                const float ratio {static_cast<float> (width) / static_cast<float> (height)};
+                if (camera == nullptr || ratio != cameraRatio_) {
+                    camera = loadCamera_(ratio);
+                    cameraMotion_ = CameraMotion {};
+                }
+                cameraRatio_ = ratio;
+                applyCameraMotion(camera.get(), *shader);
+                ::std::unique_ptr<::MobileRT::Sampler> samplerPixel {
+                    samplesPixel <= 1
+                        ? ::std::unique_ptr<::MobileRT::Sampler>(::MobileRT::std::make_unique<Components::Constant>(0.5F))
+                        : ::std::unique_ptr<::MobileRT::Sampler>(::MobileRT::std::make_unique<Components::SobolOwen>())
+                };
 
                 LOG_DEBUG("LOADING RENDERER");
                 const ::std::int32_t planes {static_cast<::std::int32_t> (shader->getPlanes().size())};
@@ -692,9 +1266,28 @@ jint Java_puscas_mobilertapp_MainRenderer_rtInitialize(
                     ::std::move(shader), ::std::move(camera), ::std::move(samplerPixel),
                     width, height, samplesPixel
                 );
+                if (denoise) {
+                    renderer_->enableDenoiser();
+                }
+                renderTime_ = renderTime;
+                renderer_->setCropWindow(cropX, cropY, cropEndX - cropX, cropEndY - cropY);
                 MobileRT::checkSystemError("Renderer was built.");
+                const ::std::string sceneKey {
+                    ::std::to_string(sceneIndex) + ":" + objFilePath + ":" + ::std::to_string(triangles) + ":" + ::std::to_string(materials)
+                };
+                if (sceneKey != sceneKey_) {
+                    sceneKey_ = sceneKey;
+                    ++sceneId_;
+                }
+                renderKey_ = sceneKey + ":" + ::std::to_string(shaderIndex) + ":" + ::std::to_string(acceleratorIndex)
+                    + ":" + ::std::to_string(samplesLight) + ":" + ::std::to_string(width) + "x" + ::std::to_string(height)
+                    + ":" + ::std::to_string(cameraId_);
                 timeRenderer_ = ::std::chrono::duration_cast<::std::chrono::milliseconds>(chronoEnd - chronoStart).count();
                 LOG_INFO("TIME CONSTRUCTION RENDERER = ", timeRenderer_, "ms");
+                const ::MobileRT::Renderer *const renderer {renderer_.get()};
+                renderer_->setProgressListener([renderer]() { updateStatsWhileRendering(renderer); });
+                fps_ = 0.0F;
+                updateStats(renderer);
                 MobileRT::checkSystemError("rtInitialize almost finished");
                 return nPrimitives;
             }()};
@@ -715,6 +1308,78 @@ jint Java_puscas_mobilertapp_MainRenderer_rtInitialize(
     }
 }
 
+extern "C"
+jlongArray Java_puscas_mobilertapp_MainRenderer_rtEstimateMemory(
+    JNIEnv *env,
+    jobject /*thiz*/,
+    jint sceneIndex,
+    jint acceleratorIndex,
+    jint width,
+    jint height,
+    jboolean denoise
+) {
+    MobileRT::checkSystemError("rtEstimateMemory start");
+    try {
+        ::std::int64_t triangles {0};
+        ::std::int64_t textures {0};
+        {
+            const ::std::lock_guard<::std::mutex> lock {mutex_};
+            // The scenes built in the code are small, so only the loaded scenes are estimated.
+            if (sceneIndex < 0 || sceneIndex > 3) {
+                parseObjScene();
+                const ::MobileRT::ObjectLoader *const loader {
+                    objLoader_ != nullptr ? static_cast<const ::MobileRT::ObjectLoader *> (objLoader_.get())
+                                          : static_cast<const ::MobileRT::ObjectLoader *> (binaryScene_.get())
+                };
+                if (loader != nullptr && loader->isProcessed()) {
+                    triangles = ::std::max(0, loader->getNumberOfTriangles());
+                }
+                // The textures of a binary scene are only known when filling the scene.
+                if (objLoader_ != nullptr) {
+                    textureLoader_.finishLoading(&texturesCache_);
+                    ::std::vector<::MobileRT::Texture> uniqueTextures {};
+                    for (const ::std::pair<const ::std::string, ::MobileRT::Texture> &pair : texturesCache_) {
+                        if (::std::find(uniqueTextures.cbegin(), uniqueTextures.cend(), pair.second) == uniqueTextures.cend()) {
+                            uniqueTextures.emplace_back(pair.second);
+                        }
+                    }
+                    ::std::size_t texturesSize {0};
+                    for (const ::MobileRT::Texture &texture : uniqueTextures) {
+                        texturesSize += texture.getMemorySize();
+                    }
+                    // The textures sampled at the same time can exceed the budget of their cache, so
+                    // all of them are counted.
+                    textures = static_cast<::std::int64_t> (texturesSize);
+                }
+            }
+        }
+
+        const ::std::size_t numTriangles {static_cast<::std::size_t> (triangles)};
+        // The Android bitmap where the scene is rendered, the buffer used to upload it, the samples
+        // of each pixel, and the pixels and samples kept in the state of the last render.
+        const ::std::size_t framebuffers {static_cast<::std::size_t> (width) * static_cast<::std::size_t> (height) * sizeof(::std::int32_t) * 5};
+        const jlong estimate[] {
+            static_cast<jlong> (numTriangles * sizeof(::MobileRT::Triangle)),
+            static_cast<jlong> (::MobileRT::Shader::estimateAcceleratorMemory(::MobileRT::Shader::Accelerator(acceleratorIndex), numTriangles)),
+            static_cast<jlong> (textures),
+            static_cast<jlong> (framebuffers),
+            static_cast<jlong> (denoise ? ::MobileRT::Denoiser::estimateMemory(width, height) : 0),
+        };
+        const jsize size {static_cast<jsize> (sizeof(estimate) / sizeof(estimate[0]))};
+        const jlongArray result {env->NewLongArray(size)};
+        env->SetLongArrayRegion(result, 0, size, estimate);
+        LOG_INFO("Estimated memory (triangles: ", triangles, "): ", estimate[0], " + ", estimate[1], " + ", estimate[2], " + ", estimate[3], " + ", estimate[4], " bytes");
+        env->ExceptionClear();
+        MobileRT::checkSystemError("rtEstimateMemory finish");
+        return result;
+    } catch (const ::std::bad_alloc &badAlloc) {
+        handleException(env, badAlloc, "puscas/mobilertapp/exceptions/LowMemoryException");
+    } catch (const ::std::exception &exception) {
+        handleException(env, exception, "java/lang/RuntimeException");
+    }
+    return nullptr;
+}
+
 extern "C"
 void Java_puscas_mobilertapp_MainRenderer_rtFinishRender(
     JNIEnv *env,
@@ -724,16 +1389,19 @@ void Java_puscas_mobilertapp_MainRenderer_rtFinishRender(
 
     {
         const ::std::lock_guard<::std::mutex> lock {mutex_};
-        state_ = State::FINISHED;
+        setState(State::FINISHED);
         LOG_DEBUG("STATE = FINISHED");
         if (renderer_ != nullptr) {
             LOG_DEBUG("RENDERER STOP");
             renderer_->stopRender();
         }
-        state_ = State::IDLE;
-        LOG_DEBUG("STATE = IDLE");
         fps_ = 0.0F;
         timeRenderer_ = 0;
+        // Release a scene parsed for the memory estimation which was not rendered.
+        objLoader_ = nullptr;
+        texturesCache_.clear();
+        setState(State::IDLE);
+        LOG_DEBUG("STATE = IDLE");
         finishedRendering_ = true;
         env->ExceptionClear();
     }
@@ -800,6 +1468,12 @@ void Java_puscas_mobilertapp_MainRenderer_rtRenderIntoBitmap(
                     LOG_DEBUG("ret = ", ret);
                     static_cast<void> (ret);
                 }
+                {
+                    const ::std::lock_guard<::std::mutex> lock {mutex_};
+                    bitmapPixels_ = dstPixels;
+                    bitmapStride_ = static_cast<::std::int32_t> (info.stride / sizeof(::std::int32_t));
+                    resumeRenderState(dstPixels, static_cast<::std::int32_t> (info.width), static_cast<::std::int32_t> (info.height));
+                }
 
                 LOG_DEBUG("rtRenderIntoBitmap step 5");
                 ::std::int32_t rep {1};
@@ -817,23 +1491,38 @@ void Java_puscas_mobilertapp_MainRenderer_rtRenderIntoBitmap(
                     {
                         if (renderer_ != nullptr) {
                             MobileRT::checkSystemError("starting renderFrame");
+                            if (renderTime_ > 0) {
+                                renderer_->setDeadline(::std::chrono::steady_clock::now() + ::std::chrono::milliseconds {renderTime_});
+                            }
                             renderer_->renderFrame(dstPixels, nThreads);
                             MobileRT::checkSystemError("renderFrame done");
                         }
                     }
                     LOG_DEBUG("FINISHED RENDERING");
                     updateFps();
+                    updateStats(renderer_.get());
                     rep--;
                 }
                 const ::std::chrono::time_point<::std::chrono::system_clock> chronoEndRendering {::std::chrono::system_clock::now()};
                 timeRendering = chronoEndRendering - chronoStartRendering;
                 LOG_DEBUG("RENDER FINISHED");
+                {
+                    // Keep the samples rendered so far before anyone waiting for the render can
+                    // discard or save them, and before they are denoised.
+                    const ::std::lock_guard<::std::mutex> lock {mutex_};
+                    saveRenderState(dstPixels, static_cast<::std::int32_t> (info.width), static_cast<::std::int32_t> (info.height),
+                                    state_ != State::STOPPED);
+                }
+                // The denoised image is only shown, so a stopped render is resumed from the kept samples.
+                if (renderer_ != nullptr && renderer_->denoise(dstPixels, dstPixels, nThreads)) {
+                    LOG_INFO("Denoised the rendered image.");
+                }
                 finishedRendering_ = true;
                 rendered_.notify_all();
                 {
                     const ::std::lock_guard<::std::mutex> lock {mutex_};
                     if (state_ != State::STOPPED) {
-                        state_ = State::FINISHED;
+                        setState(State::FINISHED);
                         LOG_DEBUG("STATE = FINISHED");
                     }
                     {
@@ -847,6 +1536,7 @@ void Java_puscas_mobilertapp_MainRenderer_rtRenderIntoBitmap(
                         ASSERT(result == JNI_OK, "Couldn't attach current thread to JVM.");
                         static_cast<void> (result);
                     }
+                    bitmapPixels_ = nullptr;
                     {
                         const jint result{AndroidBitmap_unlockPixels(env, globalBitmap)};
                         ASSERT(result == JNI_OK, "Couldn't unlock the Android bitmap pixels.");
@@ -872,9 +1562,10 @@ void Java_puscas_mobilertapp_MainRenderer_rtRenderIntoBitmap(
                 const ::std::uint64_t castedRays {renderer_->getTotalCastedRays()};
                 LOG_INFO("Rendering Time in secs = ", renderingTime);
                 LOG_INFO("Casted rays = ", castedRays);
+                LOG_INFO("Occluder cache hits = ", renderer_->getOccluderCacheHits(), " / ", renderer_->getOccluderCacheLookups());
                 LOG_INFO("Total Millions rays per second = ", (static_cast<double> (castedRays) / renderingTime) / 1000000L);
 
-                state_ = State::IDLE;
+                setState(State::IDLE);
                 LOG_DEBUG("rtRenderIntoBitmap finished");
             }
         };
@@ -900,6 +1591,110 @@ void Java_puscas_mobilertapp_MainRenderer_rtRenderIntoBitmap(
     }
 }
 
+extern "C"
+void Java_puscas_mobilertapp_MainRenderer_rtClearBitmap(
+    JNIEnv *env,
+    jobject /*thiz*/,
+    jobject localBitmap,
+    jint nThreads
+) {
+    MobileRT::checkSystemError("rtClearBitmap start");
+    AndroidBitmapInfo info {};
+    {
+        const jint ret {AndroidBitmap_getInfo(env, localBitmap, &info)};
+        ASSERT(ret == JNI_OK, "Couldn't get the Android bitmap information structure.");
+        static_cast<void> (ret);
+    }
+    ::std::uint8_t *pixels {};
+    {
+        const jint ret {AndroidBitmap_lockPixels(env, localBitmap, reinterpret_cast<void **> (&pixels))};
+        ASSERT(ret == JNI_OK, "Couldn't lock the Android bitmap pixels.");
+        static_cast<void> (ret);
+    }
+
+    // Opaque black, like the pixels written by the Renderer.
+    const ::std::int32_t black {static_cast<::std::int32_t> (0xFF000000)};
+    const ::std::int32_t height {static_cast<::std::int32_t> (info.height)};
+    const ::std::int32_t width {static_cast<::std::int32_t> (info.width)};
+    const ::std::int32_t numThreads {::std::max(1, ::std::min(static_cast<::std::int32_t> (nThreads), height))};
+    const ::std::int32_t rowsPerThread {(height + numThreads - 1) / numThreads};
+    const auto clearRows {
+        [=](const ::std::int32_t firstRow) -> void {
+            const ::std::int32_t lastRow {::std::min(firstRow + rowsPerThread, height)};
+            for (::std::int32_t row {firstRow}; row < lastRow; ++row) {
+                ::std::int32_t *const rowPixels {reinterpret_cast<::std::int32_t *> (pixels + static_cast<::std::size_t> (row) * info.stride)};
+                ::std::fill(rowPixels, rowPixels + width, black);
+            }
+        }
+    };
+    ::std::vector<::std::thread> threads {};
+    try {
+        threads.reserve(static_cast<::std::size_t> (numThreads - 1));
+        for (::std::int32_t i {1}; i < numThreads; ++i) {
+            threads.emplace_back(clearRows, i * rowsPerThread);
+        }
+    } catch (const ::std::exception &exception) {
+        // Clear the rows of the threads which couldn't be created in this thread.
+        LOG_WARN("Couldn't create all the threads to clear the bitmap: ", exception.what());
+    }
+    if (errno == EINVAL || errno == EAGAIN) {
+        // Ignore invalid argument (necessary for Android API 16)
+        errno = 0;
+    }
+    clearRows(0);
+    for (::std::int32_t i {static_cast<::std::int32_t> (threads.size()) + 1}; i < numThreads; ++i) {
+        clearRows(i * rowsPerThread);
+    }
+    for (::std::thread &thread : threads) {
+        thread.join();
+    }
+
+    {
+        const jint ret {AndroidBitmap_unlockPixels(env, localBitmap)};
+        ASSERT(ret == JNI_OK, "Couldn't unlock the Android bitmap pixels.");
+        static_cast<void> (ret);
+    }
+    MobileRT::checkSystemError("rtClearBitmap finish");
+}
+
+extern "C"
+jint Java_puscas_mobilertapp_MainRenderer_rtGetDirtyTiles(
+    JNIEnv *env,
+    jobject /*thiz*/,
+    jobject pixelsBuffer,
+    jintArray regionsArray
+) {
+    MobileRT::checkSystemError("rtGetDirtyTiles start");
+    jint numRegions {-1};
+    {
+        const ::std::lock_guard<::std::mutex> lock {mutex_};
+        if (renderer_ != nullptr && bitmapPixels_ != nullptr) {
+            const ::std::vector<::std::int32_t> regions {renderer_->takeDirtyRegions()};
+            ::std::int32_t *dstPixels {static_cast<::std::int32_t *> (env->GetDirectBufferAddress(pixelsBuffer))};
+            ASSERT(dstPixels != nullptr, "The pixels buffer must be a direct buffer.");
+            ASSERT(static_cast<::std::size_t> (env->GetArrayLength(regionsArray)) >= regions.size(), "The regions array is too small.");
+
+            // Pack the pixels of each region contiguously, because OpenGL ES 2 can't upload a
+            // region of a texture directly from the whole image.
+            for (::std::size_t index {0}; index < regions.size(); index += 4) {
+                const ::std::int32_t x {regions[index]};
+                const ::std::int32_t y {regions[index + 1]};
+                const ::std::int32_t width {regions[index + 2]};
+                const ::std::int32_t height {regions[index + 3]};
+                for (::std::int32_t row {y}; row < y + height; ++row) {
+                    const ::std::int32_t *const srcPixels {bitmapPixels_ + row * bitmapStride_ + x};
+                    dstPixels = ::std::copy(srcPixels, srcPixels + width, dstPixels);
+                }
+            }
+            env->SetIntArrayRegion(regionsArray, 0, static_cast<jsize> (regions.size()), regions.data());
+            numRegions = static_cast<jint> (regions.size() / 4);
+        }
+    }
+    env->ExceptionClear();
+    MobileRT::checkSystemError("rtGetDirtyTiles finish");
+    return numRegions;
+}
+
 extern "C"
 ::std::int32_t Java_puscas_mobilertapp_RenderTask_rtGetState(
     JNIEnv *env,
@@ -914,52 +1709,58 @@ extern "C"
 }
 
 extern "C"
-float Java_puscas_mobilertapp_RenderTask_rtGetFps(
+::std::int32_t Java_puscas_mobilertapp_RenderTask_rtAwaitState(
     JNIEnv *env,
-    jobject /*thiz*/
+    jobject /*thiz*/,
+    jint state,
+    jlong timeout
 ) {
-    if (errno == ETIMEDOUT || errno == EBADF) {
-        // Ignore connection timed out
-        // Ignore bad file descriptor (necessary for Android API 24)
-        errno = 0;
+    MobileRT::checkSystemError("rtAwaitState start");
+
+    ::std::int32_t res {};
+    {
+        ::std::unique_lock<::std::mutex> lock {stateMutex_};
+        stateChanged_.wait_for(lock, ::std::chrono::milliseconds(timeout),
+                               [&] { return static_cast<::std::int32_t> (state_.load()) != state; });
+        res = static_cast<::std::int32_t> (state_.load());
     }
-    MobileRT::checkSystemError("rtGetFps start");
     env->ExceptionClear();
-    MobileRT::checkSystemError("rtGetFps finish");
-    return fps_;
+    MobileRT::checkSystemError("rtAwaitState finish");
+    return res;
 }
 
 extern "C"
-jlong Java_puscas_mobilertapp_RenderTask_rtGetTimeRenderer(
+void Java_puscas_mobilertapp_RenderTask_rtCancelRender(
     JNIEnv *env,
     jobject /*thiz*/
 ) {
-    MobileRT::checkSystemError("rtGetTimeRenderer start");
+    MobileRT::checkSystemError("rtCancelRender start");
+    {
+        const ::std::lock_guard<::std::mutex> lock {mutex_};
+        if (state_ == State::BUSY) {
+            setState(State::STOPPED);
+            LOG_DEBUG("STATE = STOPPED");
+        }
+        if (renderer_ != nullptr) {
+            LOG_DEBUG("RENDERER STOP");
+            renderer_->stopRender();
+        }
+    }
     env->ExceptionClear();
-    MobileRT::checkSystemError("rtGetTimeRenderer finish");
-    return timeRenderer_;
+    MobileRT::checkSystemError("rtCancelRender finish");
 }
 
 extern "C"
-::std::int32_t Java_puscas_mobilertapp_RenderTask_rtGetSample(
+jobject Java_puscas_mobilertapp_RenderTask_rtGetStats(
     JNIEnv *env,
     jobject /*thiz*/
 ) {
-    if (errno == EBADF) {
-        // Ignore bad file descriptor (necessary for Android API 24)
-        errno = 0;
-    }
-    MobileRT::checkSystemError("rtGetSample start");
-    ::std::int32_t sample {};
-    {
-        const ::std::lock_guard<::std::mutex> lock {mutex_};
-        if (renderer_ != nullptr) {
-            sample = renderer_->getSample();
-        }
-    }
+    MobileRT::checkSystemError("rtGetStats start");
+    // The statistics are static, so the buffer is valid while the library is loaded.
+    const jobject directBuffer {env->NewDirectByteBuffer(&stats_, static_cast<jlong> (sizeof(stats_)))};
     env->ExceptionClear();
-    MobileRT::checkSystemError("rtGetSample finish");
-    return sample;
+    MobileRT::checkSystemError("rtGetStats finish");
+    return directBuffer;
 }
 
 extern "C"
@@ -1019,9 +1820,13 @@ void JNICALL Java_puscas_mobilertapp_MainActivity_readFile(
     LOG_DEBUG("Will read a file natively.");
     ::std::string *file {nullptr};
     switch (type) {
-        case 0:
+        case 0: {
             file = &objDefinition_;
+            // A new scene replaces the one parsed before.
+            const ::std::lock_guard<::std::mutex> lock {mutex_};
+            objLoader_ = nullptr;
             break;
+        }
 
         case 1:
             file = &mtlDefinition_;
@@ -1038,7 +1843,13 @@ void JNICALL Java_puscas_mobilertapp_MainActivity_readFile(
     ASSERT(fileDescriptor > 2, "File descriptor not valid.");
     ASSERT(fileSize > 0, "File size not valid.");
 
-    if (file != nullptr) {
+    if (::Components::BinarySceneLoader::isBinaryScene(filePathRaw)) {
+        LOG_DEBUG("Will map a binary scene file.");
+        // The mapping stays valid after Java closes the file descriptor.
+        binaryScene_ = ::MobileRT::std::make_unique<::Components::BinarySceneLoader> (fileDescriptor, static_cast<::std::size_t> (fileSize));
+        MobileRT::checkSystemError("After mapping binary scene file.");
+        LOG_DEBUG("Mapped a binary scene file.");
+    } else if (file != nullptr) {
         LOG_DEBUG("Will read a scene file.");
         file->resize(static_cast<::std::size_t> (fileSize));
         MobileRT::checkSystemError("Before read file.");
@@ -1056,12 +1867,144 @@ void JNICALL Java_puscas_mobilertapp_MainActivity_readFile(
         MobileRT::checkSystemError("After read file.");
         ASSERT(remainingLength == 0 || remainingLength == fileSize, "File not read entirely.");
         const ::std::string fileName {filePathRaw.substr(filePathRaw.find_last_of('/') + 1, filePathRaw.size())};
-        ::Components::OBJLoader::getTextureFromCache(&texturesCache_, ::std::move(texture), static_cast<long> (fileSize), fileName);
+        // The texture is only loaded together with the scene and all the other textures.
+        textureLoader_.addTexture(fileName, ::std::move(texture));
         LOG_DEBUG("Read a texture file: ", filePathRaw);
         static_cast<void>(remainingLength);
     }
 }
 
+extern "C"
+jboolean Java_puscas_mobilertapp_DrawView_rtSaveRenderState(
+    JNIEnv *env,
+    jobject /*thiz*/,
+    jstring jFilePath
+) {
+    MobileRT::checkSystemError("rtSaveRenderState start");
+    jboolean isCopy {JNI_FALSE};
+    const char *const filePathChars {env->GetStringUTFChars(jFilePath, &isCopy)};
+    const ::std::string filePath {filePathChars};
+    env->ReleaseStringUTFChars(jFilePath, filePathChars);
+
+    // The state is copied, so the file is written without blocking the renders. A finished render
+    // is complete in the bitmap, so it's not resumed.
+    RenderState state {};
+    {
+        const ::std::lock_guard<::std::mutex> lock {mutex_};
+        if (!renderState_.finished) {
+            state = renderState_;
+        }
+    }
+    if (state.pixels.empty()) {
+        ::std::remove(filePath.c_str());
+        errno = 0;
+        return JNI_FALSE;
+    }
+    ::std::ofstream file {filePath, ::std::ios::binary | ::std::ios::trunc};
+    const ::std::uint32_t keySize {static_cast<::std::uint32_t> (state.key.size())};
+    file.write(reinterpret_cast<const char *> (&RenderStateMagic), sizeof(RenderStateMagic));
+    file.write(reinterpret_cast<const char *> (&keySize), sizeof(keySize));
+    file.write(state.key.data(), static_cast<::std::streamsize> (keySize));
+    file.write(reinterpret_cast<const char *> (&state.width), sizeof(state.width));
+    file.write(reinterpret_cast<const char *> (&state.height), sizeof(state.height));
+    file.write(reinterpret_cast<const char *> (&state.tilesDone), sizeof(state.tilesDone));
+    file.write(reinterpret_cast<const char *> (&state.samplerPosition), sizeof(state.samplerPosition));
+    file.write(reinterpret_cast<const char *> (state.pixels.data()),
+               static_cast<::std::streamsize> (state.pixels.size() * sizeof(::std::int32_t)));
+    file.write(reinterpret_cast<const char *> (state.pixelSamples.data()),
+               static_cast<::std::streamsize> (state.pixelSamples.size() * sizeof(::std::int32_t)));
+    file.close();
+    const bool saved {!file.fail()};
+    if (!saved) {
+        LOG_WARN("Couldn't save the render state into: ", filePath);
+        ::std::remove(filePath.c_str());
+    }
+    errno = 0;
+    env->ExceptionClear();
+    MobileRT::checkSystemError("rtSaveRenderState finish");
+    return saved ? JNI_TRUE : JNI_FALSE;
+}
+
+extern "C"
+jboolean Java_puscas_mobilertapp_DrawView_rtLoadRenderState(
+    JNIEnv *env,
+    jobject /*thiz*/,
+    jstring jFilePath
+) {
+    MobileRT::checkSystemError("rtLoadRenderState start");
+    jboolean isCopy {JNI_FALSE};
+    const char *const filePathChars {env->GetStringUTFChars(jFilePath, &isCopy)};
+    const ::std::string filePath {filePathChars};
+    env->ReleaseStringUTFChars(jFilePath, filePathChars);
+
+    const ::std::lock_guard<::std::mutex> lock {mutex_};
+    // The process wasn't killed, so the state in memory is the most recent.
+    if (!renderState_.pixels.empty()) {
+        return renderState_.finished ? JNI_FALSE : JNI_TRUE;
+    }
+    ::std::ifstream file {filePath, ::std::ios::binary};
+    ::std::uint32_t magic {};
+    ::std::uint32_t keySize {};
+    file.read(reinterpret_cast<char *> (&magic), sizeof(magic));
+    file.read(reinterpret_cast<char *> (&keySize), sizeof(keySize));
+    RenderState state {};
+    if (file && magic == RenderStateMagic && keySize <= 4096U) {
+        state.key.resize(keySize);
+        file.read(&state.key[0], static_cast<::std::streamsize> (keySize));
+        file.read(reinterpret_cast<char *> (&state.width), sizeof(state.width));
+        file.read(reinterpret_cast<char *> (&state.height), sizeof(state.height));
+        file.read(reinterpret_cast<char *> (&state.tilesDone), sizeof(state.tilesDone));
+        file.read(reinterpret_cast<char *> (&state.samplerPosition), sizeof(state.samplerPosition));
+        if (file && state.width > 0 && state.height > 0 && state.tilesDone > 0
+            && state.width <= MaxRenderStateSize && state.height <= MaxRenderStateSize) {
+            state.pixels.resize(static_cast<::std::size_t> (state.width) * static_cast<::std::size_t> (state.height));
+            file.read(reinterpret_cast<char *> (state.pixels.data()),
+                      static_cast<::std::streamsize> (state.pixels.size() * sizeof(::std::int32_t)));
+            state.pixelSamples.resize(state.pixels.size());
+            file.read(reinterpret_cast<char *> (state.pixelSamples.data()),
+                      static_cast<::std::streamsize> (state.pixelSamples.size() * sizeof(::std::int32_t)));
+        }
+    }
+    const bool loaded {file && !state.pixels.empty()};
+    if (loaded) {
+        renderState_ = ::std::move(state);
+        LOG_INFO("Loaded the render state with ", renderState_.tilesDone, " tiles rendered.");
+    }
+    errno = 0;
+    env->ExceptionClear();
+    MobileRT::checkSystemError("rtLoadRenderState finish");
+    return loaded ? JNI_TRUE : JNI_FALSE;
+}
+
+extern "C"
+void Java_puscas_mobilertapp_DrawView_rtMoveCamera(
+    JNIEnv *env,
+    jobject /*thiz*/,
+    const jfloat yaw,
+    const jfloat pitch,
+    const jfloat moveRight,
+    const jfloat moveUp,
+    const jfloat zoom
+) {
+    const ::std::lock_guard<::std::mutex> lock {mutex_};
+    cameraMotion_.yaw += yaw;
+    cameraMotion_.pitch += pitch;
+    cameraMotion_.moveRight += moveRight;
+    cameraMotion_.moveUp += moveUp;
+    cameraMotion_.zoom *= zoom;
+    env->ExceptionClear();
+}
+
+extern "C"
+void Java_puscas_mobilertapp_DrawView_rtDiscardRenderState(
+    JNIEnv *env,
+    jobject /*thiz*/
+) {
+    const ::std::lock_guard<::std::mutex> lock {mutex_};
+    renderState_ = RenderState {};
+    env->ExceptionClear();
+}
+
 extern "C"
 ::std::int32_t Java_puscas_mobilertapp_DrawView_rtGetNumberOfLights(
     JNIEnv *env,
@@ -43,6 +43,26 @@ jint Java_puscas_mobilertapp_DrawView_rtGetNumberOfLights(
         jobject thiz
 );
 
+extern "C"
+jboolean Java_puscas_mobilertapp_DrawView_rtSaveRenderState(
+        JNIEnv *env,
+        jobject thiz,
+        jstring jFilePath
+);
+
+extern "C"
+jboolean Java_puscas_mobilertapp_DrawView_rtLoadRenderState(
+        JNIEnv *env,
+        jobject thiz,
+        jstring jFilePath
+);
+
+extern "C"
+void Java_puscas_mobilertapp_DrawView_rtDiscardRenderState(
+        JNIEnv *env,
+        jobject thiz
+);
+
 
 // ViewText
 extern "C"
@@ -52,19 +72,21 @@ jint Java_puscas_mobilertapp_RenderTask_rtGetState(
 );
 
 extern "C"
-jfloat Java_puscas_mobilertapp_RenderTask_rtGetFps(
+jint Java_puscas_mobilertapp_RenderTask_rtAwaitState(
         JNIEnv *env,
-        jobject
+        jobject thiz,
+        jint state,
+        jlong timeout
 );
 
 extern "C"
-jlong Java_puscas_mobilertapp_RenderTask_rtGetTimeRenderer(
+void Java_puscas_mobilertapp_RenderTask_rtCancelRender(
         JNIEnv *env,
         jobject thiz
 );
 
 extern "C"
-jint Java_puscas_mobilertapp_RenderTask_rtGetSample(
+jobject Java_puscas_mobilertapp_RenderTask_rtGetStats(
         JNIEnv *env,
         jobject thiz
 );
@@ -112,13 +134,58 @@ void Java_puscas_mobilertapp_MainRenderer_rtRenderIntoBitmap(
 );
 
 extern "C"
-jobject Java_puscas_mobilertapp_MainRenderer_rtInitVerticesArray(
+jlongArray Java_puscas_mobilertapp_MainRenderer_rtEstimateMemory(
+        JNIEnv *env,
+        jobject thiz,
+        jint sceneIndex,
+        jint acceleratorIndex,
+        jint width,
+        jint height,
+        jboolean denoise
+);
+
+extern "C"
+void Java_puscas_mobilertapp_MainRenderer_rtClearBitmap(
+        JNIEnv *env,
+        jobject thiz,
+        jobject localBitmap,
+        jint nThreads
+);
+
+extern "C"
+jint Java_puscas_mobilertapp_MainRenderer_rtGetDirtyTiles(
+        JNIEnv *env,
+        jobject thiz,
+        jobject pixelsBuffer,
+        jintArray regionsArray
+);
+
+extern "C"
+jlong Java_puscas_mobilertapp_MainRenderer_rtGetSceneId(
+        JNIEnv *env,
+        jobject thiz
+);
+
+extern "C"
+jintArray Java_puscas_mobilertapp_MainRenderer_rtInitPreviewGeometry(
+        JNIEnv *env,
+        jobject thiz
+);
+
+extern "C"
+jobject Java_puscas_mobilertapp_MainRenderer_rtGetPreviewVertices(
+        JNIEnv *env,
+        jobject thiz
+);
+
+extern "C"
+jobject Java_puscas_mobilertapp_MainRenderer_rtGetPreviewIndices(
         JNIEnv *env,
         jobject thiz
 );
 
 extern "C"
-jobject Java_puscas_mobilertapp_MainRenderer_rtInitColorsArray(
+void Java_puscas_mobilertapp_MainRenderer_rtFreePreviewGeometry(
         JNIEnv *env,
         jobject thiz
 );
@@ -140,7 +207,8 @@ extern "C"
 jint Java_puscas_mobilertapp_MainRenderer_rtInitialize(
         JNIEnv *env,
         jobject thiz,
-        jobject localConfig
+        jobject localConfig,
+        jboolean keepScene
 );
 
 #endif //APP_JNI_LAYER_HPP
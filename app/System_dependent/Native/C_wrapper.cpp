@@ -3,8 +3,10 @@
 #include "Components/Cameras/Perspective.hpp"
 #include "Components/Lights/AreaLight.hpp"
 #include "Components/Lights/PointLight.hpp"
+#include "Components/Loaders/BinarySceneLoader.hpp"
 #include "Components/Loaders/CameraFactory.hpp"
 #include "Components/Loaders/OBJLoader.hpp"
+#include "Components/Loaders/TextureLoader.hpp"
 #include "Components/Samplers/Constant.hpp"
 #include "Components/Samplers/HaltonSeq.hpp"
 #include "Components/Samplers/MersenneTwister.hpp"
@@ -21,6 +23,7 @@
 #include "MobileRT/Scene.hpp"
 #include "Scenes/Scenes.hpp"
 
+#include <algorithm>
 #include <chrono>
 #include <cstring>
 #include <fstream>
@@ -64,6 +67,14 @@ static void work_thread(::MobileRT::Config &config) {
             LOG_DEBUG("objFilePath = ", config.objFilePath);
             LOG_DEBUG("mtlFilePath = ", config.mtlFilePath);
             LOG_DEBUG("camFilePath = ", config.camFilePath);
+            LOG_DEBUG("textureCacheSize = ", config.textureCacheSize);
+            ::MobileRT::Texture::setCacheBudget(static_cast<::std::size_t> (::std::max(0, config.textureCacheSize)) * 1024 * 1024);
+            LOG_DEBUG("textureCachePath = ", config.textureCachePath);
+            LOG_DEBUG("textureDiskCacheSize = ", config.textureDiskCacheSize);
+            ::MobileRT::Texture::setDiskCache(
+                config.textureCachePath,
+                static_cast<::std::size_t> (::std::max(0, config.textureDiskCacheSize)) * 1024 * 1024
+            );
 
             const float ratio {static_cast<float> (config.width) / config.height};
             ::MobileRT::Scene scene {};
@@ -99,25 +110,62 @@ static void work_thread(::MobileRT::Config &config) {
                     break;
 
                 default: {
+                    if (::Components::BinarySceneLoader::isBinaryScene(config.objFilePath)) {
+                        LOG_DEBUG("BinarySceneLoader starting loading scene");
+                        const ::std::chrono::time_point<::std::chrono::system_clock> chronoStartLoading {::std::chrono::system_clock::now()};
+                        ::Components::BinarySceneLoader binaryLoader {config.objFilePath};
+                        if (!binaryLoader.isProcessed()) {
+                            LOG_ERROR("Error occurred while loading binary scene.");
+                            exit(1);
+                        }
+                        const ::std::chrono::time_point<::std::chrono::system_clock> chronoEndLoading {::std::chrono::system_clock::now()};
+                        timeLoading = chronoEndLoading - chronoStartLoading;
+                        ::std::unordered_map<::std::string, ::MobileRT::Texture> texturesCache {};
+                        const ::std::chrono::time_point<::std::chrono::system_clock> chronoStartFilling {::std::chrono::system_clock::now()};
+                        const bool sceneBuilt {binaryLoader.fillScene(
+                            &scene,
+                            []() { return ::MobileRT::std::make_unique<Components::StaticHaltonSeq> (); },
+                            config.objFilePath,
+                            &texturesCache
+                        )};
+                        if (!sceneBuilt) {
+                            LOG_ERROR("BinarySceneLoader could not load the scene.");
+                            return;
+                        }
+                        const ::std::chrono::time_point<::std::chrono::system_clock> chronoEndFilling {::std::chrono::system_clock::now()};
+                        timeFilling = chronoEndFilling - chronoStartFilling;
+                        texturesCache.clear();
+                        camera = binaryLoader.loadCamera(ratio);
+                        maxDist = ::glm::vec3 {1, 1, 1};
+                        break;
+                    }
                     LOG_DEBUG("OBJLoader starting loading scene");
                     const ::std::chrono::time_point<::std::chrono::system_clock> chronoStartLoading {::std::chrono::system_clock::now()};
                     ::std::ifstream ifObj {config.objFilePath};
                     ::std::ifstream ifMtl {config.mtlFilePath};
+                    // Load the textures while the OBJ file is being parsed.
+                    ::Components::TextureLoader textureLoader {};
+                    const ::std::string texturesPath {config.objFilePath.substr(0, config.objFilePath.find_last_of('/')) + '/'};
+                    for (const ::std::string &textureName : ::Components::TextureLoader::getTextureNames(ifMtl)) {
+                        textureLoader.addTextureFile(textureName, texturesPath + textureName);
+                    }
+                    textureLoader.startLoading();
                     ::Components::OBJLoader objLoader {ifObj, ifMtl};
                     if (!objLoader.isProcessed()) {
                         LOG_ERROR("Error occurred while loading scene.");
                         exit(1);
                     }
+                    ::std::unordered_map<::std::string, ::MobileRT::Texture> texturesCache {};
+                    textureLoader.finishLoading(&texturesCache);
                     const ::std::chrono::time_point<::std::chrono::system_clock> chronoEndLoading {::std::chrono::system_clock::now()};
                     timeLoading = chronoEndLoading - chronoStartLoading;
-                    ::std::unordered_map<::std::string, ::MobileRT::Texture> texturesCache {};
                     LOG_INFO("OBJLoader loaded = ", ::std::chrono::duration_cast<::std::chrono::seconds>(timeLoading).count(), " seconds");
                     const ::std::chrono::time_point<::std::chrono::system_clock> chronoStartFilling {::std::chrono::system_clock::now()};
                     const bool sceneBuilt {objLoader.fillScene(
                         &scene,
                         []() { return ::MobileRT::std::make_unique<Components::StaticHaltonSeq> (); },
                         config.objFilePath,
-                        texturesCache
+                        &texturesCache
                     )};
                     if (!sceneBuilt) {
                         LOG_ERROR("OBJLOADER could not load the scene.");
@@ -171,6 +219,19 @@ static void work_thread(::MobileRT::Config &config) {
                     break;
                 }
 
+                case 5: {
+                    ::std::unique_ptr<MobileRT::Sampler> samplerRussianRoulette {
+                            ::MobileRT::std::make_unique<::Components::StaticHaltonSeq> ()
+                    };
+
+                    shader_ = ::MobileRT::std::make_unique<::Components::PathTracer> (
+                    ::std::move(scene), ::std::move(samplerRussianRoulette), config.samplesLight,
+                    ::MobileRT::Shader::Accelerator(config.accelerator),
+                    ::Components::PathTracer::DirectLighting::DL_MIS
+                    );
+                    break;
+                }
+
                 case 3: {
                 shader_ = ::MobileRT::std::make_unique<::Components::DepthMap> (
                     ::std::move(scene), maxDist, ::MobileRT::Shader::Accelerator(config.accelerator)
@@ -208,6 +269,7 @@ static void work_thread(::MobileRT::Config &config) {
                     ::std::move(shader_), ::std::move(camera), ::std::move(samplerPixel),
                     config.width, config.height, config.samplesPixel
             );
+            renderer_->setCropWindow(config.cropX, config.cropY, config.cropWidth, config.cropHeight);
             ::MobileRT::checkSystemError("Created renderer");
 
             // Print debug information
@@ -220,6 +282,7 @@ static void work_thread(::MobileRT::Config &config) {
             LOG_INFO("height = ", config.height);
             LOG_INFO("repeats = ", config.repeats);
             LOG_INFO("accelerator = ", config.accelerator);
+            LOG_INFO("renderTime = ", config.renderTime);
 
             ::std::int32_t repeats {config.repeats};
             ::MobileRT::checkSystemError("Starting rendering");
@@ -227,7 +290,14 @@ static void work_thread(::MobileRT::Config &config) {
             const ::std::chrono::time_point<::std::chrono::system_clock> chronoStartRendering {::std::chrono::system_clock::now()};
             do {
                 // Render a frame
+                const ::std::chrono::steady_clock::time_point frameStart {::std::chrono::steady_clock::now()};
+                if (config.renderTime > 0) {
+                    renderer_->setDeadline(frameStart + ::std::chrono::milliseconds {config.renderTime});
+                }
                 renderer_->renderFrame(config.bitmap.data(), config.threads);
+                config.renderedTime = static_cast<::std::int32_t> (::std::chrono::duration_cast<::std::chrono::milliseconds> (
+                    ::std::chrono::steady_clock::now() - frameStart).count());
+                config.renderedSamples = renderer_->getSample();
                 repeats--;
             } while (repeats > 0);
             const ::std::chrono::time_point<::std::chrono::system_clock> chronoEndRendering {::std::chrono::system_clock::now()};
@@ -246,10 +316,13 @@ static void work_thread(::MobileRT::Config &config) {
         const double renderingTime {timeRendering.count()};
         const ::std::uint64_t castedRays {renderer_->getTotalCastedRays()};
         LOG_INFO("Loading Time in secs = ", timeLoading.count());
+        ::MobileRT::Texture::logLoadTimes();
         LOG_INFO("Filling Time in secs = ", timeFilling.count());
         LOG_INFO("Creating Time in secs = ", timeCreating.count());
         LOG_INFO("Rendering Time in secs = ", renderingTime);
         LOG_INFO("Casted rays = ", castedRays);
+        LOG_INFO("Occluder cache hits = ", renderer_->getOccluderCacheHits(), " / ", renderer_->getOccluderCacheLookups());
+        LOG_INFO("Samples per pixel = ", renderer_->getSample());
         LOG_INFO("width = ", config.width);
         LOG_INFO("height = ", config.height);
 
@@ -288,3 +361,49 @@ void RayTrace(::MobileRT::Config &config, const bool async) {
         work_thread(config);
     }
 }
+
+/**
+ * Helper method that converts an OBJ scene (with the MTL and CAM files) into the binary scene
+ * format, so it can be loaded without parsing any text.
+ *
+ * @param config         The MobileRT configurator with the paths to the OBJ, MTL and CAM files.
+ * @param binaryFilePath The path to the binary scene file to create.
+ * @return Whether the scene was converted successfully.
+ */
+bool ConvertScene(const ::MobileRT::Config &config, const char *const binaryFilePath) {
+    errno = 0;
+    try {
+        ::std::ifstream ifObj {config.objFilePath};
+        ::std::ifstream ifMtl {config.mtlFilePath};
+        ::Components::OBJLoader objLoader {ifObj, ifMtl};
+        if (!objLoader.isProcessed()) {
+            LOG_ERROR("Error occurred while loading scene.");
+            return false;
+        }
+        ::MobileRT::Scene scene {};
+        ::std::unordered_map<::std::string, ::MobileRT::Texture> texturesCache {};
+        const bool sceneBuilt {objLoader.fillScene(
+            &scene,
+            []() { return ::MobileRT::std::make_unique<Components::StaticHaltonSeq> (); },
+            config.objFilePath,
+            &texturesCache
+        )};
+        if (!sceneBuilt) {
+            LOG_ERROR("OBJLOADER could not load the scene.");
+            return false;
+        }
+
+        // The camera is stored with an aspect ratio of 1, so it can be restored with any resolution.
+        ::std::ifstream ifCamera {config.camFilePath};
+        ::std::istream iCam {ifCamera.rdbuf()};
+        const ::std::unique_ptr<::MobileRT::Camera> camera {::Components::CameraFactory().loadFromFile(iCam, 1.0F)};
+        if (camera == nullptr) {
+            LOG_ERROR("Could not load the camera: ", config.camFilePath);
+            return false;
+        }
+        return ::Components::BinarySceneLoader::writeScene(binaryFilePath, scene, *camera, texturesCache);
+    } catch (const ::std::exception &exception) {
+        LOG_ERROR("exception: ", exception.what());
+    }
+    return false;
+}
@@ -19,4 +19,9 @@ extern "C"
 #endif
 void stopRender();
 
+#ifdef __cplusplus
+extern "C"
+#endif
+bool ConvertScene(const ::MobileRT::Config &config, const char *binaryFilePath);
+
 #endif // C_WRAPPER_HPP
@@ -2,6 +2,7 @@
 #include "MobileRT/Config.hpp"
 #include "MobileRT/Utils/Constants.hpp"
 #include "MobileRT/Utils/Utils.hpp"
+#include "System_dependent/Native/C_wrapper.h"
 
 #include <QApplication>
 #include <cmath>
@@ -9,7 +10,8 @@
 int main(int argc, char **argv) {
     /*
      * ${THREAD} ${SHADER} ${SCENE} ${SPP} ${SPL} ${WIDTH} ${HEIGHT} ${ACC} ${REP} \
-            ${OBJ} ${MTL} ${CAM} ${PRINT} ${ASYNC} ${SHOWIMAGE}
+            ${OBJ} ${MTL} ${CAM} ${PRINT} ${ASYNC} ${SHOWIMAGE} \
+            [${TEXTURE_CACHE_SIZE} ${TEXTURE_CACHE_DIR} ${TEXTURE_DISK_CACHE_SIZE} [${RENDER_TIME}]]
      */
 //    const char* argv[] {"appName",
 //        "2", "2", "4", "1", "1", "800", "800", "3", "1",
@@ -19,8 +21,21 @@ int main(int argc, char **argv) {
 //        "true", "true", "true"};
 //    argc = 16;
 
-    if (argc != 16) {
-        LOG_ERROR("Wrong number of arguments: ", argc, ", must be 16");
+    /*
+     * Converter mode:
+     * --convert ${OBJ} ${MTL} ${CAM} ${BINARY_SCENE}
+     */
+    if (argc == 6 && ::std::string {argv[1]} == "--convert") {
+        ::MobileRT::Config config {};
+        config.objFilePath = ::std::string {argv[2]};
+        config.mtlFilePath = ::std::string {argv[3]};
+        config.camFilePath = ::std::string {argv[4]};
+        const bool converted {ConvertScene(config, argv[5])};
+        return converted ? 0 : 1;
+    }
+
+    if (argc != 16 && argc != 19 && argc != 20) {
+        LOG_ERROR("Wrong number of arguments: ", argc, ", must be 16, 19 or 20");
         for (int i = 0; i < argc - 1; ++i) {
             LOG_ERROR(i, " ", argv[i]);
         }
@@ -61,6 +76,13 @@ int main(int argc, char **argv) {
     ssPrintStdOut >> printStdOut;
     ssAsync >> ::std::boolalpha >> async;
     ssShowImage >> ::std::boolalpha >> showImage;
+
+    // The textures caches are optional, and disabled by default.
+    const ::std::int32_t textureCacheSize {argc >= 19 ? static_cast<::std::int32_t> (strtol(argv[16], nullptr, 0)) : 0};
+    const char *const pathTextureCache {argc >= 19 ? argv[17] : ""};
+    const ::std::int32_t textureDiskCacheSize {argc >= 19 ? static_cast<::std::int32_t> (strtol(argv[18], nullptr, 0)) : 0};
+    // The maximum time, in milliseconds, to render each frame, or 0 for no deadline.
+    const ::std::int32_t renderTime {argc == 20 ? static_cast<::std::int32_t> (strtol(argv[19], nullptr, 0)) : 0};
     
     if (!showImage) {
         return 0;
@@ -82,6 +104,10 @@ int main(int argc, char **argv) {
     config.objFilePath = ::std::string {pathObj};
     config.mtlFilePath = ::std::string {pathMtl};
     config.camFilePath = ::std::string {pathCam};
+    config.textureCacheSize = textureCacheSize;
+    config.textureCachePath = ::std::string {pathTextureCache};
+    config.textureDiskCacheSize = textureDiskCacheSize;
+    config.renderTime = renderTime;
 
     mainWindow.setImage(config, async);
     mainWindow.show();
@@ -0,0 +1,115 @@
+#include "Components/Cameras/Perspective.hpp"
+#include <cmath>
+#include <glm/gtc/constants.hpp>
+#include <gtest/gtest.h>
+
+using ::Components::Perspective;
+
+class TestCamera : public testing::Test {
+protected:
+    const ::glm::vec3 position {0.0F, 0.0F, 0.0F};
+    const ::glm::vec3 lookAt {0.0F, 0.0F, 1.0F};
+    const ::glm::vec3 up {0.0F, 1.0F, 0.0F};
+
+    void SetUp() final {
+    }
+
+    void TearDown() final {
+    }
+
+    ~TestCamera() override;
+};
+
+TestCamera::~TestCamera() {
+}
+
+/**
+ * Tests that turning the camera keeps its vectors perpendicular and with the same length, and that
+ * a positive yaw and pitch turn it to the right and up.
+ */
+TEST_F(TestCamera, TestRotate) {
+    Perspective camera {position, lookAt, up, 60.0F, 60.0F};
+    const ::glm::vec3 right {camera.right_};
+
+    camera.rotate(::glm::half_pi<float>(), 0.0F);
+    ASSERT_NEAR(::glm::dot(camera.direction_, right), 1.0F, 1.0e-5F);
+
+    camera.rotate(0.3F, 0.2F);
+    ASSERT_NEAR(::glm::dot(camera.direction_, camera.right_), 0.0F, 1.0e-5F);
+    ASSERT_NEAR(::glm::dot(camera.direction_, camera.up_), 0.0F, 1.0e-5F);
+    ASSERT_NEAR(::glm::dot(camera.right_, camera.up_), 0.0F, 1.0e-5F);
+    ASSERT_NEAR(::glm::length(camera.direction_), 1.0F, 1.0e-5F);
+    ASSERT_NEAR(::glm::length(camera.up_), 1.0F, 1.0e-5F);
+    ASSERT_GT(camera.direction_[1], 0.0F);
+}
+
+/**
+ * Tests that turning the camera left and right while it looks up or down doesn't roll it, so the
+ * right vector stays level with the up vector of the scene.
+ */
+TEST_F(TestCamera, TestRotateWithoutRoll) {
+    Perspective camera {position, lookAt, up, 60.0F, 60.0F};
+
+    camera.rotate(0.0F, 0.5F);
+    camera.rotate(0.7F, 0.0F);
+    camera.rotate(-0.4F, -0.2F);
+    camera.rotate(1.1F, 0.0F);
+
+    ASSERT_NEAR(::glm::dot(camera.right_, up), 0.0F, 1.0e-5F);
+    ASSERT_NEAR(::glm::dot(camera.direction_, camera.up_), 0.0F, 1.0e-5F);
+    ASSERT_NEAR(::glm::dot(camera.right_, camera.up_), 0.0F, 1.0e-5F);
+    ASSERT_NEAR(camera.direction_[1], ::std::sin(0.3F), 1.0e-5F);
+}
+
+/**
+ * Tests that turning the camera up or down stops before it looks straight up or down, so the view
+ * doesn't flip.
+ */
+TEST_F(TestCamera, TestRotatePitchLimit) {
+    Perspective camera {position, lookAt, up, 60.0F, 60.0F};
+
+    camera.rotate(0.0F, 1.0F);
+    camera.rotate(0.0F, 1.0F);
+    ASSERT_GT(camera.direction_[1], 0.99F);
+    ASSERT_LT(camera.direction_[1], 1.0F);
+    ASSERT_GT(camera.direction_[2], 0.0F);
+    ASSERT_GT(camera.up_[1], 0.0F);
+
+    camera.rotate(0.0F, -4.0F);
+    ASSERT_LT(camera.direction_[1], -0.99F);
+    ASSERT_GT(camera.direction_[2], 0.0F);
+    ASSERT_GT(camera.up_[1], 0.0F);
+}
+
+/**
+ * Tests that moving the camera doesn't change its orientation.
+ */
+TEST_F(TestCamera, TestMove) {
+    Perspective camera {position, lookAt, up, 60.0F, 60.0F};
+    const ::glm::vec3 direction {camera.direction_};
+
+    camera.move(::glm::vec3 {1.0F, 2.0F, 3.0F});
+
+    ASSERT_FLOAT_EQ(::glm::dot(camera.position_, ::glm::normalize(camera.right_)), 1.0F);
+    ASSERT_FLOAT_EQ(camera.position_[1], 2.0F);
+    ASSERT_FLOAT_EQ(camera.position_[2], 3.0F);
+    ASSERT_EQ(camera.direction_, direction);
+}
+
+/**
+ * Tests that zooming in narrows the rays of the pixels, even after their offsets were already
+ * calculated for the resolution.
+ */
+TEST_F(TestCamera, TestZoom) {
+    Perspective camera {position, lookAt, up, 60.0F, 60.0F};
+    camera.setResolution(4, 4);
+    const ::MobileRT::Ray rayBefore {camera.generatePixelRay(0, 0, 0.0F, 0.0F)};
+
+    camera.zoom(2.0F);
+    camera.setResolution(4, 4);
+    const ::MobileRT::Ray rayAfter {camera.generatePixelRay(0, 0, 0.0F, 0.0F)};
+
+    ASSERT_NEAR(camera.getHFov(), 30.0F, 1.0e-4F);
+    ASSERT_NEAR(camera.getVFov(), 30.0F, 1.0e-4F);
+    ASSERT_GT(::glm::dot(rayAfter.direction_, camera.direction_), ::glm::dot(rayBefore.direction_, camera.direction_));
+}
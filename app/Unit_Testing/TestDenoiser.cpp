@@ -0,0 +1,67 @@
+#include "MobileRT/Denoiser.hpp"
+#include <gtest/gtest.h>
+
+using ::MobileRT::Denoiser;
+
+class TestDenoiser : public testing::Test {
+protected:
+    const ::std::int32_t width {16};
+    const ::std::int32_t height {16};
+    const ::std::int32_t white {static_cast<::std::int32_t> (0xFFFFFFFF)};
+    const ::std::int32_t black {static_cast<::std::int32_t> (0xFF000000)};
+
+    void SetUp () final {
+    }
+
+    void TearDown () final {
+    }
+
+    ~TestDenoiser () override;
+};
+
+TestDenoiser::~TestDenoiser () {
+}
+
+/**
+ * Tests that the denoiser doesn't blur the colors across an edge of the geometry.
+ */
+TEST_F(TestDenoiser, TestKeepsEdges) {
+    Denoiser denoiser {width, height};
+    ::std::vector<::std::int32_t> image (static_cast<::std::size_t> (width * height));
+    for (::std::int32_t y {}; y < height; ++y) {
+        for (::std::int32_t x {}; x < width; ++x) {
+            const ::std::int32_t pixelIndex {y * width + x};
+            const bool left {x < width / 2};
+            const ::glm::vec3 normal {left ? ::glm::vec3 {1.0F, 0.0F, 0.0F} : ::glm::vec3 {0.0F, 1.0F, 0.0F}};
+            denoiser.setAov(pixelIndex, ::glm::vec3 {1.0F}, normal, 1.0F);
+            image[static_cast<::std::size_t> (pixelIndex)] = left ? white : black;
+        }
+    }
+
+    ::std::vector<::std::int32_t> output (image.size());
+    denoiser.denoise(image.data(), output.data(), 4);
+
+    ASSERT_EQ(output, image);
+}
+
+/**
+ * Tests that the denoiser blurs a noisy pixel in a surface without edges, without modifying the
+ * original image.
+ */
+TEST_F(TestDenoiser, TestRemovesNoise) {
+    Denoiser denoiser {width, height};
+    ::std::vector<::std::int32_t> image (static_cast<::std::size_t> (width * height), black);
+    for (::std::int32_t pixelIndex {}; pixelIndex < width * height; ++pixelIndex) {
+        denoiser.setAov(pixelIndex, ::glm::vec3 {1.0F}, ::glm::vec3 {0.0F, 1.0F, 0.0F}, 1.0F);
+    }
+    const ::std::size_t noisyPixel {static_cast<::std::size_t> ((height / 2) * width + width / 2)};
+    image[noisyPixel] = white;
+    const ::std::vector<::std::int32_t> original {image};
+
+    ::std::vector<::std::int32_t> output (image.size());
+    denoiser.denoise(image.data(), output.data(), 3);
+
+    ASSERT_EQ(image, original);
+    const ::std::uint32_t noisyRed {static_cast<::std::uint32_t> (output[noisyPixel]) & 0xFFU};
+    ASSERT_LT(noisyRed, 0xFFU);
+}
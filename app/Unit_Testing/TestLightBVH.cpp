@@ -0,0 +1,77 @@
+#include "Components/Lights/PointLight.hpp"
+#include "MobileRT/Accelerators/LightBVH.hpp"
+#include "MobileRT/Utils/Utils.hpp"
+#include <gtest/gtest.h>
+
+using ::Components::PointLight;
+using ::MobileRT::LightBVH;
+using ::MobileRT::Light;
+using ::MobileRT::Material;
+
+class TestLightBVH : public testing::Test {
+protected:
+    ::std::vector<::std::unique_ptr<Light>> lights {};
+
+    void SetUp () final {
+        const Material lightMat {::glm::vec3 {0.0F}, ::glm::vec3 {0.0F}, ::glm::vec3 {0.0F}, 1.0F, ::glm::vec3 {1.0F}};
+        const Material strongLightMat {::glm::vec3 {0.0F}, ::glm::vec3 {0.0F}, ::glm::vec3 {0.0F}, 1.0F, ::glm::vec3 {3.0F}};
+        lights.emplace_back(::MobileRT::std::make_unique<PointLight> (lightMat, ::glm::vec3 {-1.0F, 1.0F, 0.0F}));
+        lights.emplace_back(::MobileRT::std::make_unique<PointLight> (strongLightMat, ::glm::vec3 {1.0F, 1.0F, 0.0F}));
+        lights.emplace_back(::MobileRT::std::make_unique<PointLight> (lightMat, ::glm::vec3 {0.0F, -1.0F, 0.0F}));
+    }
+
+    void TearDown () final {
+    }
+
+    ~TestLightBVH () override;
+};
+
+TestLightBVH::~TestLightBVH () {
+}
+
+/**
+ * Tests that a light BVH without lights never chooses a light.
+ */
+TEST_F(TestLightBVH, TestEmpty) {
+    const LightBVH lightBVH {};
+    float pdf {1.0F};
+
+    ASSERT_EQ(lightBVH.sampleLight(::glm::vec3 {0.0F}, ::glm::vec3 {0.0F, 1.0F, 0.0F}, 0.5F, &pdf), -1);
+    ASSERT_FLOAT_EQ(pdf, 0.0F);
+}
+
+/**
+ * Tests that the lights with more power are chosen with a higher probability and that the lights
+ * below the surface are never chosen.
+ */
+TEST_F(TestLightBVH, TestSampleLight) {
+    const LightBVH lightBVH {lights};
+    const ::glm::vec3 point {0.0F, 0.0F, 0.0F};
+    const ::glm::vec3 normal {0.0F, 1.0F, 0.0F};
+
+    ::std::vector<float> probabilities (lights.size());
+    const ::std::int32_t numSamples {1000};
+    for (::std::int32_t i {}; i < numSamples; ++i) {
+        const float randomNumber {(static_cast<float> (i) + 0.5F) / static_cast<float> (numSamples)};
+        float pdf {};
+        const ::std::int32_t lightIndex {lightBVH.sampleLight(point, normal, randomNumber, &pdf)};
+        ASSERT_GE(lightIndex, 0);
+        ASSERT_LT(lightIndex, static_cast<::std::int32_t> (lights.size()));
+        probabilities[static_cast<::std::uint32_t> (lightIndex)] = pdf;
+    }
+
+    ASSERT_FLOAT_EQ(probabilities[0] + probabilities[1], 1.0F);
+    ASSERT_GT(probabilities[1], probabilities[0]);
+    ASSERT_FLOAT_EQ(probabilities[2], 0.0F);
+}
+
+/**
+ * Tests that no light is chosen for a point where all the lights are below the surface.
+ */
+TEST_F(TestLightBVH, TestSampleLightBelowSurface) {
+    const LightBVH lightBVH {lights};
+    float pdf {1.0F};
+
+    ASSERT_EQ(lightBVH.sampleLight(::glm::vec3 {0.0F, 2.0F, 0.0F}, ::glm::vec3 {0.0F, 1.0F, 0.0F}, 0.5F, &pdf), -1);
+    ASSERT_FLOAT_EQ(pdf, 0.0F);
+}
@@ -0,0 +1,227 @@
+#include "Components/Samplers/SobolOwen.hpp"
+#include "Components/Shaders/DepthMap.hpp"
+#include "MobileRT/Renderer.hpp"
+#include "Scenes/Scenes.hpp"
+#include <gtest/gtest.h>
+
+using ::Components::DepthMap;
+using ::Components::SobolOwen;
+using ::MobileRT::NumberOfTiles;
+using ::MobileRT::Renderer;
+
+class TestRenderer : public testing::Test {
+protected:
+    const ::std::int32_t width {64};
+    const ::std::int32_t height {64};
+    const ::std::int32_t samplesPixel {4};
+    const ::std::int32_t numThreads {2};
+
+    void SetUp () final {
+    }
+
+    void TearDown () final {
+    }
+
+    ~TestRenderer () override;
+
+    /**
+     * Helper method which creates a renderer of the Cornell Box, whose pixels only depend on the
+     * pixel and on the sample per pixel, so the images don't depend on the render threads.
+     *
+     * @return A new renderer.
+     */
+    ::std::unique_ptr<Renderer> createRenderer () const {
+        ::MobileRT::Scene scene {};
+        scene = cornellBox_Scene(::std::move(scene));
+        ::std::unique_ptr<::MobileRT::Shader> shader {::MobileRT::std::make_unique<DepthMap> (
+            ::std::move(scene), ::glm::vec3 {1.0F}, ::MobileRT::Shader::Accelerator::ACC_BVH
+        )};
+        return ::MobileRT::std::make_unique<Renderer> (
+            ::std::move(shader), cornellBox_Cam(1.0F), ::MobileRT::std::make_unique<SobolOwen> (),
+            width, height, samplesPixel
+        );
+    }
+
+    /**
+     * Helper method which renders the image until the given number of tiles is rendered, stops
+     * the render and then resumes it in a new renderer, like the Android JNI layer does.
+     *
+     * @param stopTile The number of tiles to render before stopping the render.
+     * @return The rendered image.
+     */
+    ::std::vector<::std::int32_t> renderStoppedAndResumed (const ::std::int32_t stopTile) const {
+        ::std::vector<::std::int32_t> bitmap (static_cast<::std::size_t> (width * height));
+        ::std::int32_t tilesDone {};
+        ::std::uint32_t samplerPosition {};
+        ::std::vector<::std::int32_t> pixelSamples {};
+        {
+            const ::std::unique_ptr<Renderer> renderer {createRenderer()};
+            Renderer *const stoppedRenderer {renderer.get()};
+            renderer->setProgressListener([stoppedRenderer, stopTile]() {
+                if (stoppedRenderer->getTilesDone() >= stopTile) {
+                    stoppedRenderer->stopRender();
+                }
+            });
+            renderer->renderFrame(bitmap.data(), numThreads);
+            tilesDone = renderer->getTilesDone();
+            samplerPosition = renderer->getSamplerPosition();
+            pixelSamples = renderer->getPixelSamples();
+            EXPECT_LT(tilesDone, NumberOfTiles * samplesPixel);
+            EXPECT_EQ(renderer->getSample(), tilesDone / NumberOfTiles);
+        }
+        const ::std::unique_ptr<Renderer> renderer {createRenderer()};
+        renderer->resumeFrame(tilesDone, samplerPosition, ::std::move(pixelSamples));
+        renderer->renderFrame(bitmap.data(), numThreads);
+        EXPECT_EQ(renderer->getSample(), samplesPixel);
+        return bitmap;
+    }
+};
+
+TestRenderer::~TestRenderer () {
+}
+
+/**
+ * Tests that a render stopped in the middle of the first sample per pixel and resumed has the
+ * same image as a render which was never stopped.
+ */
+TEST_F(TestRenderer, TestResumeInFirstSample) {
+    ::std::vector<::std::int32_t> expected (static_cast<::std::size_t> (width * height));
+    createRenderer()->renderFrame(expected.data(), numThreads);
+
+    const ::std::vector<::std::int32_t> resumed {renderStoppedAndResumed(NumberOfTiles / 3)};
+    ASSERT_EQ(resumed, expected);
+}
+
+/**
+ * Tests that a render stopped in the middle of a later sample per pixel and resumed has the same
+ * image as a render which was never stopped, so every tile gets every sample exactly once.
+ */
+TEST_F(TestRenderer, TestResumeInLaterSample) {
+    ::std::vector<::std::int32_t> expected (static_cast<::std::size_t> (width * height));
+    createRenderer()->renderFrame(expected.data(), numThreads);
+
+    const ::std::vector<::std::int32_t> resumed {renderStoppedAndResumed(NumberOfTiles * 2 + NumberOfTiles / 2)};
+    ASSERT_EQ(resumed, expected);
+}
+
+/**
+ * Tests that a finished render refined in a crop window keeps the pixels outside the window and
+ * has, inside the window, the same pixels as a render of the whole image with the samples of both
+ * renders.
+ */
+TEST_F(TestRenderer, TestRefineFinishedRenderInCropWindow) {
+    const ::std::int32_t cropX {width / 4};
+    const ::std::int32_t cropY {height / 8};
+    const ::std::int32_t cropWidth {width / 2};
+    const ::std::int32_t cropHeight {height / 3};
+
+    ::std::vector<::std::int32_t> expected (static_cast<::std::size_t> (width * height));
+    {
+        ::std::unique_ptr<Renderer> renderer {createRenderer()};
+        renderer->renderFrame(expected.data(), numThreads);
+        renderer->resumeFrame(0, renderer->getSamplerPosition(), renderer->getPixelSamples());
+        renderer->renderFrame(expected.data(), numThreads);
+    }
+
+    ::std::vector<::std::int32_t> bitmap (static_cast<::std::size_t> (width * height));
+    ::std::uint32_t samplerPosition {};
+    ::std::vector<::std::int32_t> pixelSamples {};
+    {
+        const ::std::unique_ptr<Renderer> renderer {createRenderer()};
+        renderer->renderFrame(bitmap.data(), numThreads);
+        samplerPosition = renderer->getSamplerPosition();
+        pixelSamples = renderer->getPixelSamples();
+    }
+    const ::std::vector<::std::int32_t> finished {bitmap};
+
+    const ::std::unique_ptr<Renderer> renderer {createRenderer()};
+    renderer->setCropWindow(cropX, cropY, cropWidth, cropHeight);
+    renderer->resumeFrame(0, samplerPosition, ::std::move(pixelSamples));
+    renderer->renderFrame(bitmap.data(), numThreads);
+    ASSERT_EQ(renderer->getSample(), samplesPixel);
+
+    for (::std::int32_t y {0}; y < height; ++y) {
+        for (::std::int32_t x {0}; x < width; ++x) {
+            const ::std::size_t pixelIndex {static_cast<::std::size_t> (y * width + x)};
+            const bool insideCropWindow {x >= cropX && x < cropX + cropWidth && y >= cropY && y < cropY + cropHeight};
+            if (insideCropWindow) {
+                ASSERT_EQ(bitmap[pixelIndex], expected[pixelIndex]);
+                ASSERT_EQ(renderer->getPixelSamples()[pixelIndex], samplesPixel * 2);
+            } else {
+                ASSERT_EQ(bitmap[pixelIndex], finished[pixelIndex]);
+                ASSERT_EQ(renderer->getPixelSamples()[pixelIndex], samplesPixel);
+            }
+        }
+    }
+}
+
+/**
+ * Tests that the regions of a render with a resolution which isn't a multiple of the tiles per
+ * side are inside the image and cover every rendered pixel.
+ */
+TEST_F(TestRenderer, TestDirtyRegionsWithOddResolution) {
+    const ::std::int32_t oddWidth {30};
+    const ::std::int32_t oddHeight {45};
+    ::MobileRT::Scene scene {};
+    scene = cornellBox_Scene(::std::move(scene));
+    ::std::unique_ptr<::MobileRT::Shader> shader {::MobileRT::std::make_unique<DepthMap> (
+        ::std::move(scene), ::glm::vec3 {1.0F}, ::MobileRT::Shader::Accelerator::ACC_BVH
+    )};
+    Renderer renderer {
+        ::std::move(shader), cornellBox_Cam(1.0F), ::MobileRT::std::make_unique<SobolOwen> (),
+        oddWidth, oddHeight, 1
+    };
+    ::std::vector<::std::int32_t> bitmap (static_cast<::std::size_t> (oddWidth * oddHeight));
+    renderer.renderFrame(bitmap.data(), numThreads);
+
+    ::std::vector<bool> uploaded (bitmap.size());
+    const ::std::vector<::std::int32_t> regions {renderer.takeDirtyRegions()};
+    ASSERT_FALSE(regions.empty());
+    for (::std::size_t index {0}; index < regions.size(); index += 4) {
+        const ::std::int32_t x {regions[index]};
+        const ::std::int32_t y {regions[index + 1]};
+        const ::std::int32_t regionWidth {regions[index + 2]};
+        const ::std::int32_t regionHeight {regions[index + 3]};
+        ASSERT_GT(regionWidth, 0);
+        ASSERT_GT(regionHeight, 0);
+        ASSERT_LE(x + regionWidth, oddWidth);
+        ASSERT_LE(y + regionHeight, oddHeight);
+        for (::std::int32_t row {y}; row < y + regionHeight; ++row) {
+            for (::std::int32_t column {x}; column < x + regionWidth; ++column) {
+                uploaded[static_cast<::std::size_t> (row * oddWidth + column)] = true;
+            }
+        }
+    }
+    const ::std::vector<::std::int32_t> pixelSamples {renderer.getPixelSamples()};
+    for (::std::size_t pixelIndex {0}; pixelIndex < pixelSamples.size(); ++pixelIndex) {
+        if (pixelSamples[pixelIndex] > 0) {
+            ASSERT_TRUE(uploaded[pixelIndex]);
+        }
+    }
+    ASSERT_TRUE(renderer.takeDirtyRegions().empty());
+}
+
+/**
+ * Tests that a frame with a deadline already in the past only renders the first sample per pixel,
+ * which always starts, and that a frame without deadline renders all the samples per pixel.
+ */
+TEST_F(TestRenderer, TestDeadline) {
+    ::std::vector<::std::int32_t> bitmap (static_cast<::std::size_t> (width * height));
+    {
+        const ::std::unique_ptr<Renderer> renderer {createRenderer()};
+        renderer->setDeadline(::std::chrono::steady_clock::now() - ::std::chrono::seconds {1});
+        renderer->renderFrame(bitmap.data(), numThreads);
+        ASSERT_EQ(renderer->getSample(), 1);
+        for (const ::std::int32_t pixelSamples : renderer->getPixelSamples()) {
+            ASSERT_EQ(pixelSamples, 1);
+        }
+    }
+
+    const ::std::unique_ptr<Renderer> renderer {createRenderer()};
+    renderer->setDeadline(::std::chrono::steady_clock::time_point::max());
+    renderer->renderFrame(bitmap.data(), numThreads);
+    ASSERT_EQ(renderer->getSample(), samplesPixel);
+    for (const ::std::int32_t pixelSamples : renderer->getPixelSamples()) {
+        ASSERT_EQ(pixelSamples, samplesPixel);
+    }
+}
@@ -0,0 +1,134 @@
+#include "Components/Shaders/DepthMap.hpp"
+#include "Scenes/Scenes.hpp"
+#include <gtest/gtest.h>
+
+using ::Components::DepthMap;
+using ::MobileRT::Ray;
+using ::MobileRT::Shader;
+
+class TestShader : public testing::Test {
+protected:
+    const ::std::int32_t gridSize {16};
+
+    void SetUp () final {
+        Shader::flushOccluderCacheStats();
+        Shader::resetOccluderCacheStats();
+    }
+
+    void TearDown () final {
+        Shader::flushOccluderCacheStats();
+        Shader::resetOccluderCacheStats();
+    }
+
+    ~TestShader () override;
+
+    /**
+     * Helper method which creates a shader of the Cornell Box.
+     *
+     * @param accelerator The acceleration structure to use.
+     * @return A new shader.
+     */
+    static ::std::unique_ptr<Shader> createShader (const Shader::Accelerator accelerator) {
+        ::MobileRT::Scene scene {};
+        scene = cornellBox_Scene(::std::move(scene));
+        return ::MobileRT::std::make_unique<DepthMap> (::std::move(scene), ::glm::vec3 {1.0F}, accelerator);
+    }
+
+    /**
+     * Helper method which casts a shadow ray from a point towards the first light of the scene.
+     *
+     * @param shader     The shader with the scene.
+     * @param origin     The origin of the shadow ray.
+     * @param lightIndex The index of the light to use the cached occluders, or -1 to not use them.
+     * @return Whether the shadow ray is blocked.
+     */
+    static bool shadowTrace (Shader *const shader, const ::glm::vec3 &origin, const ::std::int32_t lightIndex) {
+        const ::glm::vec3 lightPosition {shader->getLights()[0]->getPointMin()};
+        const ::glm::vec3 vectorToLight {lightPosition - origin};
+        Ray ray {::glm::normalize(vectorToLight), origin, 1, true};
+        return shader->shadowTrace(::glm::length(vectorToLight), ::std::move(ray), lightIndex);
+    }
+
+    /**
+     * Helper method which casts the shadow rays of a grid of points in the bounds of the scene
+     * towards its first light, with and without the cached occluders, and checks that both give
+     * the same results.
+     *
+     * @param shader The shader with the scene.
+     * @return The number of blocked shadow rays.
+     */
+    ::std::int32_t checkShadowRays (Shader *const shader) const {
+        const ::MobileRT::AABB bounds {::MobileRT::surroundingBox(
+            ::MobileRT::Scene::getBounds(shader->getTriangles()), ::MobileRT::Scene::getBounds(shader->getSpheres())
+        )};
+        const ::glm::vec3 size {bounds.getPointMax() - bounds.getPointMin()};
+        ::std::int32_t blocked {};
+        for (::std::int32_t i {}; i < gridSize; ++i) {
+            for (::std::int32_t j {}; j < gridSize; ++j) {
+                const ::glm::vec3 origin {bounds.getPointMin() + size * ::glm::vec3 {
+                    (static_cast<float> (i) + 0.5F) / static_cast<float> (gridSize),
+                    0.05F,
+                    (static_cast<float> (j) + 0.5F) / static_cast<float> (gridSize)
+                }};
+                const bool cached {shadowTrace(shader, origin, 0)};
+                const bool uncached {shadowTrace(shader, origin, -1)};
+                EXPECT_EQ(cached, uncached);
+                blocked += cached ? 1 : 0;
+            }
+        }
+        return blocked;
+    }
+};
+
+TestShader::~TestShader () {
+}
+
+/**
+ * Tests that the shadow rays give the same results with and without the occluders cached by the
+ * thread, also after the acceleration structures are built again with other primitives, whose
+ * addresses can reuse the ones of the cached occluders.
+ */
+TEST_F(TestShader, TestOccluderCacheAfterRebuild) {
+    const Shader::Accelerator accelerators[] {
+        Shader::Accelerator::ACC_NAIVE, Shader::Accelerator::ACC_REGULAR_GRID, Shader::Accelerator::ACC_BVH
+    };
+    for (const Shader::Accelerator accelerator : accelerators) {
+        const ::std::unique_ptr<Shader> shader {createShader(accelerator)};
+        const ::std::int32_t blocked {checkShadowRays(shader.get())};
+        ASSERT_GT(blocked, 0);
+        ASSERT_LT(blocked, gridSize * gridSize);
+
+        ::MobileRT::Scene scene {};
+        scene = spheres2_Scene(::std::move(scene));
+        shader->initializeAccelerators(::std::move(scene));
+        checkShadowRays(shader.get());
+
+        ::MobileRT::Scene cornellBox {};
+        cornellBox = cornellBox_Scene(::std::move(cornellBox));
+        shader->initializeAccelerators(::std::move(cornellBox));
+        ASSERT_EQ(checkShadowRays(shader.get()), blocked);
+    }
+}
+
+/**
+ * Tests that a shadow ray blocked by the cached occluder of the light is counted as a lookup and
+ * as a hit, and that one which isn't blocked by it is only counted as a lookup.
+ */
+TEST_F(TestShader, TestOccluderCacheStats) {
+    const ::std::unique_ptr<Shader> shader {createShader(Shader::Accelerator::ACC_BVH)};
+
+    // The green sphere blocks both points from the light, and the first one caches it.
+    ASSERT_TRUE(shadowTrace(shader.get(), ::glm::vec3 {-0.45F, -0.9F, 0.0F}, 0));
+    Shader::flushOccluderCacheStats();
+    ASSERT_EQ(Shader::getOccluderCacheLookups(), 0U);
+
+    ASSERT_TRUE(shadowTrace(shader.get(), ::glm::vec3 {-0.44F, -0.9F, 0.01F}, 0));
+    Shader::flushOccluderCacheStats();
+    ASSERT_EQ(Shader::getOccluderCacheLookups(), 1U);
+    ASSERT_EQ(Shader::getOccluderCacheHits(), 1U);
+
+    ASSERT_FALSE(shadowTrace(shader.get(), ::glm::vec3 {0.0F, -0.9F, -0.8F}, 0));
+    Shader::flushOccluderCacheStats();
+    ASSERT_EQ(Shader::getOccluderCacheLookups(), 2U);
+    ASSERT_EQ(Shader::getOccluderCacheHits(), 1U);
+}
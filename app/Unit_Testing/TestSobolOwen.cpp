@@ -0,0 +1,65 @@
+#include "Components/Samplers/SobolOwen.hpp"
+#include <gtest/gtest.h>
+#include <set>
+
+using ::Components::SobolOwen;
+
+class TestSobolOwen : public testing::Test {
+protected:
+    void SetUp () final {
+    }
+
+    void TearDown () final {
+    }
+
+    ~TestSobolOwen () override;
+};
+
+TestSobolOwen::~TestSobolOwen () {
+}
+
+/**
+ * Tests that the first 16 samples of each pair of dimensions of a pixel are stratified, i.e.,
+ * there is one sample in each cell of a 4x4 grid and in each of the 16 intervals of each
+ * dimension.
+ */
+TEST_F(TestSobolOwen, TestStratification) {
+    for (::std::uint32_t pixel {}; pixel < 16; ++pixel) {
+        for (::std::uint32_t dimension {}; dimension < 8; dimension += 2) {
+            ::std::set<::std::int32_t> cells {};
+            ::std::set<::std::int32_t> intervalsX {};
+            ::std::set<::std::int32_t> intervalsY {};
+            for (::std::uint32_t sample {}; sample < 16; ++sample) {
+                const float x {SobolOwen::computeSample(pixel, sample, dimension)};
+                const float y {SobolOwen::computeSample(pixel, sample, dimension + 1)};
+                ASSERT_GE(x, 0.0F);
+                ASSERT_LT(x, 1.0F);
+                ASSERT_GE(y, 0.0F);
+                ASSERT_LT(y, 1.0F);
+                cells.emplace(static_cast<::std::int32_t> (x * 4.0F) * 4 + static_cast<::std::int32_t> (y * 4.0F));
+                intervalsX.emplace(static_cast<::std::int32_t> (x * 16.0F));
+                intervalsY.emplace(static_cast<::std::int32_t> (y * 16.0F));
+            }
+            ASSERT_EQ(cells.size(), 16U);
+            ASSERT_EQ(intervalsX.size(), 16U);
+            ASSERT_EQ(intervalsY.size(), 16U);
+        }
+    }
+}
+
+/**
+ * Tests that the sampler takes the next dimension of the pixel sample set by the render thread.
+ */
+TEST_F(TestSobolOwen, TestPixelSample) {
+    SobolOwen sobolOwen {};
+    ::MobileRT::Sampler &sampler {sobolOwen};
+    ::MobileRT::Sampler::setPixelSample(3, 5);
+    const float first {sampler.getSample()};
+    const float second {sampler.getSample()};
+    ASSERT_FLOAT_EQ(first, SobolOwen::computeSample(3, 5, 0));
+    ASSERT_FLOAT_EQ(second, SobolOwen::computeSample(3, 5, 1));
+
+    ::MobileRT::Sampler::setPixelSample(3, 5);
+    ASSERT_FLOAT_EQ(sampler.getSample(), first);
+    ASSERT_NE(SobolOwen::computeSample(4, 5, 0), first);
+}
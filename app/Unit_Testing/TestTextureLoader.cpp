@@ -1,13 +1,58 @@
+#include "Components/Loaders/TextureLoader.hpp"
 #include "MobileRT/Texture.hpp"
 #include "MobileRT/Utils/Utils.hpp"
+#include <cstdio>
+#include <dirent.h>
 #include <gtest/gtest.h>
+#include <memory>
+#include <sstream>
+#include <unistd.h>
 
 using ::MobileRT::Texture;
 
+namespace {
+    /**
+     * Helper method which counts the files of the disk cache of the textures.
+     *
+     * @param path The directory of the disk cache.
+     * @return The number of textures in the disk cache.
+     */
+    ::std::int32_t countDiskCacheFiles(const ::std::string &path) {
+        DIR *const directory {::opendir(path.c_str())};
+        if (directory == nullptr) {
+            return 0;
+        }
+        ::std::int32_t numFiles {0};
+        for (const struct dirent *entry {::readdir(directory)}; entry != nullptr; entry = ::readdir(directory)) {
+            const ::std::string name {entry->d_name};
+            if (name.find(".mrtt") != ::std::string::npos) {
+                ++numFiles;
+            }
+        }
+        ::closedir(directory);
+        return numFiles;
+    }
+}//namespace
+
 class TestTextureLoader : public testing::Test {
 protected:
+    Texture texture {};
 
     void SetUp() final {
+        // A 4x4 RGB checkerboard with black and white texels.
+        const ::std::int32_t width {4};
+        const ::std::int32_t height {4};
+        const ::std::int32_t channels {3};
+        ::std::shared_ptr<::std::uint8_t> data {new ::std::uint8_t[width * height * channels](), ::std::default_delete<::std::uint8_t[]>()};
+        for (::std::int32_t y {0}; y < height; ++y) {
+            for (::std::int32_t x {0}; x < width; ++x) {
+                const ::std::uint8_t value {static_cast<::std::uint8_t> ((x + y) % 2 == 0 ? 255 : 0)};
+                for (::std::int32_t channel {0}; channel < channels; ++channel) {
+                    data.get()[(y * width + x) * channels + channel] = value;
+                }
+            }
+        }
+        texture = Texture {data, width, height, channels};
     }
 
     void TearDown() final {
@@ -18,3 +63,177 @@ protected:
 
 TestTextureLoader::~TestTextureLoader() {
 }
+
+/**
+ * Tests that the texture generates all the mip-map levels down to 1x1.
+ */
+TEST_F(TestTextureLoader, TestMipMapLevels) {
+    ASSERT_TRUE(texture.isValid());
+    ASSERT_EQ(3, texture.getNumberOfLevels());
+}
+
+/**
+ * Tests that the center of a texel returns the color of that texel.
+ */
+TEST_F(TestTextureLoader, TestLoadColorTexelCenter) {
+    const ::glm::vec3 white {texture.loadColor(::glm::vec2 {0.125F, 0.125F})};
+    const ::glm::vec3 black {texture.loadColor(::glm::vec2 {0.375F, 0.125F})};
+    ASSERT_TRUE(::MobileRT::equal(white, ::glm::vec3 {1.0F}));
+    ASSERT_TRUE(::MobileRT::equal(black, ::glm::vec3 {0.0F}));
+}
+
+/**
+ * Tests that the texture coordinates out of the [0, 1] range repeat the texture instead of reading
+ * out of the texture memory.
+ */
+TEST_F(TestTextureLoader, TestLoadColorWrapsTexCoords) {
+    const ::glm::vec3 expected {texture.loadColor(::glm::vec2 {0.125F, 0.125F})};
+    ASSERT_TRUE(::MobileRT::equal(expected, texture.loadColor(::glm::vec2 {1.125F, 2.125F})));
+    ASSERT_TRUE(::MobileRT::equal(expected, texture.loadColor(::glm::vec2 {-0.875F, -0.875F})));
+    ASSERT_TRUE(::MobileRT::equal(texture.loadColor(::glm::vec2 {0.0F, 0.0F}), texture.loadColor(::glm::vec2 {1.0F, 1.0F})));
+}
+
+/**
+ * Tests that a footprint which covers the whole texture returns the average color of the texture.
+ */
+TEST_F(TestTextureLoader, TestLoadColorLargeFootprint) {
+    const ::glm::vec3 color {texture.loadColor(::glm::vec2 {0.3F, 0.7F}, 10.0F)};
+    ASSERT_NEAR(0.5F, color[0], 0.01F);
+    ASSERT_NEAR(0.5F, color[1], 0.01F);
+    ASSERT_NEAR(0.5F, color[2], 0.01F);
+}
+
+/**
+ * Tests that the names of the diffuse textures are read from a MTL file, ignoring the texture
+ * options and the repeated textures, and that the stream is rewound afterwards.
+ */
+TEST_F(TestTextureLoader, TestGetTextureNames) {
+    ::std::istringstream isMtl {
+        "newmtl floor\n"
+        "Kd 1 1 1\n"
+        "map_Kd floor.png\n"
+        "map_Ks specular.png\n"
+        "newmtl wall\n"
+        "  map_Kd -s 2 2 1 textures/wall.jpg\n"
+        "newmtl ceiling\n"
+        "map_Kd floor.png\n"
+    };
+    const ::std::vector<::std::string> names {::Components::TextureLoader::getTextureNames(isMtl)};
+    ASSERT_EQ(2U, names.size());
+    ASSERT_EQ("floor.png", names[0]);
+    ASSERT_EQ("textures/wall.jpg", names[1]);
+
+    ::std::string firstLine {};
+    ::std::getline(isMtl, firstLine);
+    ASSERT_EQ("newmtl floor", firstLine);
+}
+
+/**
+ * Tests that a texture created from an encoded image is only decoded when it is sampled and that
+ * it is decoded again after being released by the textures cache.
+ */
+TEST_F(TestTextureLoader, TestLazyTextureResidency) {
+    // A 2x2 RGB image in the PPM format with red, green, blue and white texels.
+    const ::std::string header {"P6\n2 2\n255\n"};
+    const ::std::string texels {"\xFF\x00\x00\x00\xFF\x00\x00\x00\xFF\xFF\xFF\xFF", 12};
+    ::std::string encoded {header + texels};
+    const long size {static_cast<long> (encoded.size())};
+    const Texture lazyTexture {Texture::createTexture(::std::move(encoded), size)};
+    ASSERT_TRUE(lazyTexture.isValid());
+    ASSERT_FALSE(lazyTexture.isResident());
+
+    const ::glm::vec3 red {lazyTexture.loadColor(::glm::vec2 {0.25F, 0.25F})};
+    ASSERT_TRUE(lazyTexture.isResident());
+    ASSERT_TRUE(::MobileRT::equal(red, ::glm::vec3 {1.0F, 0.0F, 0.0F}));
+
+    // The texture created from decoded texels can't be released.
+    Texture::setCacheBudget(1);
+    Texture::trimCache();
+    ASSERT_FALSE(lazyTexture.isResident());
+    ASSERT_TRUE(texture.isResident());
+
+    ASSERT_TRUE(::MobileRT::equal(red, lazyTexture.loadColor(::glm::vec2 {0.25F, 0.25F})));
+    ASSERT_TRUE(lazyTexture.isResident());
+    Texture::setCacheBudget(0);
+}
+
+/**
+ * Tests that the textures cache releases the least recently used textures as soon as a decoded
+ * texture exceeds the budget, even in the middle of a frame, but never the textures that a render
+ * thread is sampling in its current tile.
+ */
+TEST_F(TestTextureLoader, TestCacheBudgetDuringFrame) {
+    // 2x2 RGB images in the PPM format with a single color.
+    const ::std::string header {"P6\n2 2\n255\n"};
+    const auto createTexture {[&header](const char value) {
+        ::std::string encoded {header + ::std::string(12, value)};
+        const long size {static_cast<long> (encoded.size())};
+        return Texture::createTexture(::std::move(encoded), size);
+    }};
+    const Texture texture1 {createTexture('\x10')};
+    const Texture texture2 {createTexture('\x20')};
+    const Texture texture3 {createTexture('\x30')};
+    const ::glm::vec2 texCoords {0.25F, 0.25F};
+
+    // Only one of the lazy textures fits in the budget, besides the texture of the fixture.
+    const ::std::size_t budget {texture.getMemorySize() + texture1.getMemorySize()};
+    Texture::setCacheBudget(budget);
+    Texture::startSampling();
+
+    // Both textures are sampled in the same tile, so neither can be released.
+    texture1.loadColor(texCoords);
+    texture2.loadColor(texCoords);
+    ASSERT_TRUE(texture1.isResident());
+    ASSERT_TRUE(texture2.isResident());
+    ASSERT_GT(Texture::getCacheSize(), budget);
+
+    // In the next tile, decoding another texture releases the ones sampled in the previous tile.
+    Texture::releaseSampledTextures();
+    texture3.loadColor(texCoords);
+    ASSERT_FALSE(texture1.isResident());
+    ASSERT_FALSE(texture2.isResident());
+    ASSERT_TRUE(texture3.isResident());
+    ASSERT_LE(Texture::getCacheSize(), budget);
+
+    Texture::stopSampling();
+    Texture::setCacheBudget(0);
+}
+
+/**
+ * Tests that the decoded texels are stored in the disk cache, and that a texture created again
+ * from the same image loads the same texels from the disk cache.
+ */
+TEST_F(TestTextureLoader, TestDiskCacheTexture) {
+    const ::std::string cachePath {"./TexturesCacheTest"};
+    Texture::setDiskCache(cachePath, 0);
+    ASSERT_EQ(0, countDiskCacheFiles(cachePath));
+
+    // A 2x2 RGB image in the PPM format with red, green, blue and white texels.
+    const ::std::string encoded {::std::string {"P6\n2 2\n255\n"} + ::std::string {"\xFF\x00\x00\x00\xFF\x00\x00\x00\xFF\xFF\xFF\xFF", 12}};
+    const long size {static_cast<long> (encoded.size())};
+    const ::glm::vec2 texCoords[] {{0.25F, 0.25F}, {0.75F, 0.25F}, {0.25F, 0.75F}, {0.75F, 0.75F}};
+    ::std::vector<::glm::vec3> colors {};
+    {
+        const Texture coldTexture {Texture::createTexture(::std::string {encoded}, size)};
+        for (const ::glm::vec2 &texCoord : texCoords) {
+            colors.emplace_back(coldTexture.loadColor(texCoord));
+        }
+    }
+    Texture::trimCache();
+    ASSERT_EQ(1, countDiskCacheFiles(cachePath));
+
+    const Texture warmTexture {Texture::createTexture(::std::string {encoded}, size)};
+    ASSERT_FALSE(warmTexture.isResident());
+    for (::std::size_t index {0}; index < colors.size(); ++index) {
+        ASSERT_TRUE(::MobileRT::equal(colors[index], warmTexture.loadColor(texCoords[index])));
+    }
+    ASSERT_TRUE(::MobileRT::equal(colors.front(), ::glm::vec3 {1.0F, 0.0F, 0.0F}));
+    ASSERT_EQ(1, countDiskCacheFiles(cachePath));
+
+    // A budget smaller than a texture evicts all the files.
+    Texture::setDiskCache(cachePath, 1);
+    ASSERT_EQ(0, countDiskCacheFiles(cachePath));
+    Texture::setDiskCache("", 0);
+    ::rmdir(cachePath.c_str());
+    errno = 0;
+}
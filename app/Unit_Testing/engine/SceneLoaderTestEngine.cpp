@@ -0,0 +1,240 @@
+#include "System_dependent/Native/C_wrapper.h"
+#include <gtest/gtest.h>
+
+#include "Components/Cameras/Perspective.hpp"
+#include "Components/Lights/AreaLight.hpp"
+#include "Components/Loaders/BinarySceneLoader.hpp"
+#include "Components/Loaders/CameraFactory.hpp"
+#include "Components/Loaders/OBJLoader.hpp"
+#include "Components/Samplers/StaticHaltonSeq.hpp"
+#include "MobileRT/Shader.hpp"
+
+#include <algorithm>
+#include <cstdio>
+#include <cstring>
+#include <fstream>
+#include <iterator>
+
+class SceneLoaderTestEngine : public testing::Test {
+protected:
+    ::MobileRT::Config config {};
+    const ::std::string binaryFilePath {"./WavefrontOBJs/conference/conference.mrtb"};
+
+    void SetUp () final {
+        config.width = 30;
+        config.height = 30;
+        config.threads = 3;
+        config.sceneIndex = -1; // OBJ
+        config.samplesPixel = 1;
+        config.samplesLight = 1;
+        config.repeats = 1;
+        config.printStdOut = true;
+        config.objFilePath = ::std::string {"./WavefrontOBJs/conference/conference.obj"};
+        config.mtlFilePath = ::std::string {"./WavefrontOBJs/conference/conference.mtl"};
+        config.camFilePath = ::std::string {"./WavefrontOBJs/conference/conference.cam"};
+        const ::std::uint32_t size {static_cast<::std::uint32_t> (config.width) * static_cast<::std::uint32_t> (config.height)};
+        config.bitmap = ::std::vector<::std::int32_t> (size);
+    }
+
+    void TearDown () final {
+        ::std::remove(binaryFilePath.c_str());
+        errno = 0;
+    }
+
+    ~SceneLoaderTestEngine () override;
+};
+
+SceneLoaderTestEngine::~SceneLoaderTestEngine () {
+}
+
+TEST_F(SceneLoaderTestEngine, testConvertSceneToBinaryRoundTrip) {
+    ::MobileRT::checkSystemError("testConvertSceneToBinaryRoundTrip start");
+
+    ASSERT_TRUE(ConvertScene(config, binaryFilePath.c_str()));
+    ASSERT_TRUE(::Components::BinarySceneLoader::isBinaryScene(binaryFilePath));
+
+    ::MobileRT::Scene objScene {};
+    ::std::unordered_map<::std::string, ::MobileRT::Texture> texturesCache {};
+    {
+        ::std::ifstream ifObj {config.objFilePath};
+        ::std::ifstream ifMtl {config.mtlFilePath};
+        ::Components::OBJLoader objLoader {ifObj, ifMtl};
+        ASSERT_TRUE(objLoader.isProcessed());
+        ASSERT_TRUE(objLoader.fillScene(
+            &objScene,
+            []() { return ::MobileRT::std::make_unique<::Components::StaticHaltonSeq> (); },
+            config.objFilePath,
+            &texturesCache
+        ));
+    }
+
+    ::MobileRT::Scene binaryScene {};
+    ::Components::BinarySceneLoader binaryLoader {binaryFilePath};
+    ASSERT_TRUE(binaryLoader.isProcessed());
+    ASSERT_TRUE(binaryLoader.fillScene(
+        &binaryScene,
+        []() { return ::MobileRT::std::make_unique<::Components::StaticHaltonSeq> (); },
+        binaryFilePath,
+        &texturesCache
+    ));
+
+    // The OBJ loader fills the scene with multiple threads, so the order of the triangles is not
+    // deterministic, but the binary scene must keep the same primitives.
+    ASSERT_EQ(objScene.triangles_.size(), binaryScene.triangles_.size());
+    ASSERT_EQ(objScene.lights_.size(), binaryScene.lights_.size());
+    ASSERT_GE(binaryScene.materials_.size(), objScene.materials_.size());
+
+    const ::MobileRT::AABB objBounds {::MobileRT::Scene::getBounds(objScene.triangles_)};
+    const ::MobileRT::AABB binaryBounds {::MobileRT::Scene::getBounds(binaryScene.triangles_)};
+    ASSERT_TRUE(::MobileRT::equal(objBounds.getPointMin(), binaryBounds.getPointMin()));
+    ASSERT_TRUE(::MobileRT::equal(objBounds.getPointMax(), binaryBounds.getPointMax()));
+
+    for (const ::MobileRT::Material &material : objScene.materials_) {
+        ASSERT_TRUE(::std::find(binaryScene.materials_.cbegin(), binaryScene.materials_.cend(), material) != binaryScene.materials_.cend());
+    }
+    for (const ::MobileRT::Triangle &triangle : binaryScene.triangles_) {
+        ASSERT_GE(triangle.getMaterialIndex(), 0);
+        ASSERT_LT(triangle.getMaterialIndex(), static_cast<::std::int32_t> (binaryScene.materials_.size()));
+    }
+
+    const float ratio {static_cast<float> (config.width) / static_cast<float> (config.height)};
+    ::std::ifstream ifCamera {config.camFilePath};
+    ::std::istream iCam {ifCamera.rdbuf()};
+    const ::std::unique_ptr<::MobileRT::Camera> objCamera {::Components::CameraFactory().loadFromFile(iCam, ratio)};
+    const ::std::unique_ptr<::MobileRT::Camera> binaryCamera {binaryLoader.loadCamera(ratio)};
+    ASSERT_TRUE(objCamera != nullptr);
+    ASSERT_TRUE(binaryCamera != nullptr);
+    ASSERT_TRUE(::MobileRT::equal(objCamera->position_, binaryCamera->position_));
+    ASSERT_TRUE(::MobileRT::equal(objCamera->direction_, binaryCamera->direction_));
+    ASSERT_TRUE(::MobileRT::equal(objCamera->right_, binaryCamera->right_));
+    ASSERT_TRUE(::MobileRT::equal(objCamera->up_, binaryCamera->up_));
+    const ::Components::Perspective *const objPerspective {dynamic_cast<const ::Components::Perspective *> (objCamera.get())};
+    const ::Components::Perspective *const binaryPerspective {dynamic_cast<const ::Components::Perspective *> (binaryCamera.get())};
+    ASSERT_TRUE(objPerspective != nullptr);
+    ASSERT_TRUE(binaryPerspective != nullptr);
+    ASSERT_FLOAT_EQ(objPerspective->getHFov(), binaryPerspective->getHFov());
+    ASSERT_FLOAT_EQ(objPerspective->getVFov(), binaryPerspective->getVFov());
+
+    ::MobileRT::checkSystemError("testConvertSceneToBinaryRoundTrip end");
+}
+
+TEST_F(SceneLoaderTestEngine, testRenderBinaryScene) {
+    ::MobileRT::checkSystemError("testRenderBinaryScene start");
+
+    ASSERT_TRUE(ConvertScene(config, binaryFilePath.c_str()));
+
+    config.shader = 3; // DepthMap
+    config.accelerator = ::MobileRT::Shader::Accelerator::ACC_BVH;
+    config.objFilePath = binaryFilePath;
+    config.mtlFilePath = ::std::string {""};
+    config.camFilePath = ::std::string {""};
+
+    ASSERT_TRUE(::std::all_of(config.bitmap.begin()+1, config.bitmap.end(), ::std::bind(std::equal_to<int>(), ::std::placeholders::_1, config.bitmap.front())));
+    RayTrace(config, false);
+    ASSERT_FALSE(::std::all_of(config.bitmap.begin()+1, config.bitmap.end(), ::std::bind(std::equal_to<int>(), ::std::placeholders::_1, config.bitmap.front())));
+
+    ::MobileRT::checkSystemError("testRenderBinaryScene end");
+}
+
+TEST_F(SceneLoaderTestEngine, testLoadInvalidBinaryScene) {
+    ::MobileRT::checkSystemError("testLoadInvalidBinaryScene start");
+
+    {
+        ::std::ofstream file {binaryFilePath, ::std::ios::binary | ::std::ios::trunc};
+        file << "This is not a binary scene.";
+    }
+    ::Components::BinarySceneLoader binaryLoader {binaryFilePath};
+    ASSERT_FALSE(binaryLoader.isProcessed());
+    ASSERT_TRUE(binaryLoader.loadCamera(1.0F) == nullptr);
+
+    ::MobileRT::Scene scene {};
+    ::std::unordered_map<::std::string, ::MobileRT::Texture> texturesCache {};
+    ASSERT_FALSE(binaryLoader.fillScene(
+        &scene,
+        []() { return ::MobileRT::std::make_unique<::Components::StaticHaltonSeq> (); },
+        binaryFilePath,
+        &texturesCache
+    ));
+    errno = 0;
+
+    ::MobileRT::checkSystemError("testLoadInvalidBinaryScene end");
+}
+
+TEST_F(SceneLoaderTestEngine, testLoadBinarySceneWithInvalidMaterial) {
+    ::MobileRT::checkSystemError("testLoadBinarySceneWithInvalidMaterial start");
+
+    ASSERT_TRUE(ConvertScene(config, binaryFilePath.c_str()));
+    ::std::string contents {};
+    {
+        ::std::ifstream file {binaryFilePath, ::std::ios::binary};
+        contents.assign(::std::istreambuf_iterator<char> {file}, ::std::istreambuf_iterator<char> {});
+    }
+    // The header starts with the magic, the version and the number of materials, and the offset of
+    // the triangles is its 9th field. The material index is the last field of a triangle.
+    ::std::uint32_t numMaterials {};
+    ::std::uint32_t offsetTriangles {};
+    ::std::memcpy(&numMaterials, &contents[2 * sizeof(::std::uint32_t)], sizeof(numMaterials));
+    ::std::memcpy(&offsetTriangles, &contents[8 * sizeof(::std::uint32_t)], sizeof(offsetTriangles));
+    const ::std::size_t triangleRecordSize {24 * sizeof(float) + sizeof(::std::int32_t)};
+    const ::std::int32_t invalidMaterial {static_cast<::std::int32_t> (numMaterials)};
+    ::std::memcpy(&contents[offsetTriangles + triangleRecordSize - sizeof(::std::int32_t)], &invalidMaterial, sizeof(invalidMaterial));
+    {
+        ::std::ofstream file {binaryFilePath, ::std::ios::binary | ::std::ios::trunc};
+        file.write(contents.data(), static_cast<::std::streamsize> (contents.size()));
+    }
+
+    ::Components::BinarySceneLoader binaryLoader {binaryFilePath};
+    ASSERT_TRUE(binaryLoader.isProcessed());
+    ::MobileRT::Scene scene {};
+    ::std::unordered_map<::std::string, ::MobileRT::Texture> texturesCache {};
+    ASSERT_FALSE(binaryLoader.fillScene(
+        &scene,
+        []() { return ::MobileRT::std::make_unique<::Components::StaticHaltonSeq> (); },
+        binaryFilePath,
+        &texturesCache
+    ));
+    errno = 0;
+
+    ::MobileRT::checkSystemError("testLoadBinarySceneWithInvalidMaterial end");
+}
+
+/**
+ * Tests that a binary scene isn't loaded if its header is truncated, or if the number of triangles or
+ * the offset of the lights in its header point outside of the file, even if the size of the arrays
+ * would wrap around with 32 bits `size_t`.
+ */
+TEST_F(SceneLoaderTestEngine, testLoadBinarySceneWithTruncatedHeader) {
+    ::MobileRT::checkSystemError("testLoadBinarySceneWithTruncatedHeader start");
+
+    ASSERT_TRUE(ConvertScene(config, binaryFilePath.c_str()));
+    ::std::string contents {};
+    {
+        ::std::ifstream file {binaryFilePath, ::std::ios::binary};
+        contents.assign(::std::istreambuf_iterator<char> {file}, ::std::istreambuf_iterator<char> {});
+    }
+    const auto isProcessed {[&](const ::std::string &corrupted) {
+        {
+            ::std::ofstream file {binaryFilePath, ::std::ios::binary | ::std::ios::trunc};
+            file.write(corrupted.data(), static_cast<::std::streamsize> (corrupted.size()));
+        }
+        const ::Components::BinarySceneLoader binaryLoader {binaryFilePath};
+        return binaryLoader.isProcessed();
+    }};
+    ASSERT_TRUE(isProcessed(contents));
+
+    // The header is cut after the offset of the triangles, which is its 9th field.
+    ASSERT_FALSE(isProcessed(contents.substr(0, 9 * sizeof(::std::uint32_t))));
+
+    // The number of triangles is the 5th field of the header and the offset of the lights the 10th.
+    const ::std::uint32_t hugeNumber {0xFFFFFFFFU};
+    const ::std::uint32_t alignedOffsetAfterFile {static_cast<::std::uint32_t> ((contents.size() + 64) / 16 * 16)};
+    ::std::string corrupted {contents};
+    ::std::memcpy(&corrupted[4 * sizeof(::std::uint32_t)], &hugeNumber, sizeof(hugeNumber));
+    ASSERT_FALSE(isProcessed(corrupted));
+    corrupted = contents;
+    ::std::memcpy(&corrupted[9 * sizeof(::std::uint32_t)], &alignedOffsetAfterFile, sizeof(alignedOffsetAfterFile));
+    ASSERT_FALSE(isProcessed(corrupted));
+    errno = 0;
+
+    ::MobileRT::checkSystemError("testLoadBinarySceneWithTruncatedHeader end");
+}
@@ -2,6 +2,7 @@
 #include <gtest/gtest.h>
 
 #include "MobileRT/Shader.hpp"
+#include <algorithm>
 
 class ShaderTestEngine : public testing::Test {
 protected:
@@ -27,6 +28,20 @@ protected:
     }
 
     ~ShaderTestEngine () override;
+
+    /**
+     * Helper method which calculates the mean of the color channels of all the pixels of the
+     * rendered image.
+     *
+     * @return The mean brightness of the image, between 0 and 255.
+     */
+    float getMeanBrightness () const {
+        float sum {};
+        for (const ::std::int32_t pixel : config.bitmap) {
+            sum += static_cast<float> ((pixel & 0xFF) + ((pixel >> 8) & 0xFF) + ((pixel >> 16) & 0xFF));
+        }
+        return sum / static_cast<float> (3 * config.bitmap.size());
+    }
 };
 
 ShaderTestEngine::~ShaderTestEngine () {
@@ -121,3 +136,138 @@ TEST_F(ShaderTestEngine, testRenderSceneWithDiffuse) {
 
     ::MobileRT::checkSystemError("testRenderSceneWithDiffuse end");
 }
+
+TEST_F(ShaderTestEngine, testRenderSceneWithPathTracingMis) {
+    ::MobileRT::checkSystemError("testRenderSceneWithPathTracingMis start");
+
+    config.sceneIndex = -1; // OBJ
+    config.shader = 5; // PathTracing with MIS
+    config.accelerator = ::MobileRT::Shader::Accelerator::ACC_BVH;
+
+    config.objFilePath = ::std::string {"./app/src/androidTest/resources/CornellBox/CornellBox-Water.obj"};
+    config.mtlFilePath = ::std::string {"./app/src/androidTest/resources/CornellBox/CornellBox-Water.mtl"};
+    config.camFilePath = ::std::string {"./app/src/androidTest/resources/CornellBox/CornellBox-Water.cam"};
+
+    ASSERT_TRUE(::std::all_of(config.bitmap.begin()+1, config.bitmap.end(), ::std::bind(std::equal_to<int>(), ::std::placeholders::_1, config.bitmap.front())));
+    RayTrace(config, false);
+    ASSERT_FALSE(::std::all_of(config.bitmap.begin()+1, config.bitmap.end(), ::std::bind(std::equal_to<int>(), ::std::placeholders::_1, config.bitmap.front())));
+
+    ::MobileRT::checkSystemError("testRenderSceneWithPathTracingMis end");
+}
+
+/**
+ * Tests that the path tracer renders every pixel of a scene with diffuse, mirror and glass
+ * materials and with area lights, with each estimator of the direct lighting, so the paths choose
+ * all the lobes and go through the Russian roulette.
+ */
+TEST_F(ShaderTestEngine, testRenderSceneWithPathTracingDirectLightingModes) {
+    ::MobileRT::checkSystemError("testRenderSceneWithPathTracingDirectLightingModes start");
+
+    config.sceneIndex = 2; // Cornell Box with a mirror sphere, a glass sphere and area lights
+    config.accelerator = ::MobileRT::Shader::Accelerator::ACC_BVH;
+    config.samplesPixel = 8;
+    // A resolution multiple of the number of tiles per side, so every pixel belongs to a tile.
+    config.width = 32;
+    config.height = 32;
+    config.bitmap = ::std::vector<::std::int32_t> (static_cast<::std::size_t> (config.width * config.height));
+
+    const ::std::int32_t shaders[] {2, 5}; // PathTracing with light sampling and with MIS
+    for (const ::std::int32_t shader : shaders) {
+        config.shader = shader;
+        ::std::fill(config.bitmap.begin(), config.bitmap.end(), 0);
+        RayTrace(config, false);
+        ASSERT_EQ(config.renderedSamples, config.samplesPixel);
+        // Every pixel is written with an opaque color, even the ones whose paths have no light.
+        ASSERT_TRUE(::std::none_of(config.bitmap.begin(), config.bitmap.end(), ::std::bind(std::equal_to<int>(), ::std::placeholders::_1, 0)));
+        ASSERT_FALSE(::std::all_of(config.bitmap.begin()+1, config.bitmap.end(), ::std::bind(std::equal_to<int>(), ::std::placeholders::_1, config.bitmap.front())));
+    }
+
+    ::MobileRT::checkSystemError("testRenderSceneWithPathTracingDirectLightingModes end");
+}
+
+/**
+ * Tests that the path tracer with multiple importance sampling renders as bright as with light
+ * sampling a scene with only a point light, which the bounces can't hit, so both estimators only
+ * differ in the noise.
+ */
+TEST_F(ShaderTestEngine, testRenderSceneWithPathTracingMisAndPointLight) {
+    ::MobileRT::checkSystemError("testRenderSceneWithPathTracingMisAndPointLight start");
+
+    config.sceneIndex = 0; // Cornell Box with a point light
+    config.accelerator = ::MobileRT::Shader::Accelerator::ACC_BVH;
+    config.samplesPixel = 16;
+    // A resolution multiple of the number of tiles per side, so every pixel belongs to a tile.
+    config.width = 32;
+    config.height = 32;
+    config.bitmap = ::std::vector<::std::int32_t> (static_cast<::std::size_t> (config.width * config.height));
+
+    config.shader = 2; // PathTracing
+    RayTrace(config, false);
+    const float meanLightSampling {getMeanBrightness()};
+
+    config.shader = 5; // PathTracing with MIS
+    ::std::fill(config.bitmap.begin(), config.bitmap.end(), 0);
+    RayTrace(config, false);
+    const float meanMis {getMeanBrightness()};
+
+    ASSERT_GT(meanLightSampling, 0.0F);
+    ASSERT_NEAR(meanMis, meanLightSampling, meanLightSampling * 0.05F);
+
+    ::MobileRT::checkSystemError("testRenderSceneWithPathTracingMisAndPointLight end");
+}
+
+TEST_F(ShaderTestEngine, testRenderSceneWithRenderTime) {
+    ::MobileRT::checkSystemError("testRenderSceneWithRenderTime start");
+
+    config.sceneIndex = -1; // OBJ
+    config.shader = 2; // PathTracing
+    config.accelerator = ::MobileRT::Shader::Accelerator::ACC_BVH;
+    config.samplesPixel = 1 << 20;
+    config.renderTime = 200;
+
+    config.objFilePath = ::std::string {"./app/src/androidTest/resources/CornellBox/CornellBox-Water.obj"};
+    config.mtlFilePath = ::std::string {"./app/src/androidTest/resources/CornellBox/CornellBox-Water.mtl"};
+    config.camFilePath = ::std::string {"./app/src/androidTest/resources/CornellBox/CornellBox-Water.cam"};
+
+    // The samples per pixel can't be rendered in the render time, so it stops at the deadline
+    // with only complete samples. The number of samples depends on the speed of the device, so
+    // the scheduling of the samples is checked with fixed deadlines in the renderer tests.
+    RayTrace(config, false);
+    ASSERT_GE(config.renderedSamples, 1);
+    ASSERT_LT(config.renderedSamples, config.samplesPixel);
+    ASSERT_FALSE(::std::all_of(config.bitmap.begin()+1, config.bitmap.end(), ::std::bind(std::equal_to<int>(), ::std::placeholders::_1, config.bitmap.front())));
+
+    ::MobileRT::checkSystemError("testRenderSceneWithRenderTime end");
+}
+
+TEST_F(ShaderTestEngine, testRenderSceneWithCropWindow) {
+    ::MobileRT::checkSystemError("testRenderSceneWithCropWindow start");
+
+    config.sceneIndex = -1; // OBJ
+    config.shader = 1; // Whitted
+    config.accelerator = ::MobileRT::Shader::Accelerator::ACC_BVH;
+    // A resolution multiple of the number of tiles per side, so every pixel belongs to a tile.
+    config.width = 32;
+    config.height = 32;
+    config.bitmap = ::std::vector<::std::int32_t> (static_cast<::std::size_t> (config.width * config.height));
+    config.cropX = 5;
+    config.cropY = 10;
+    config.cropWidth = 10;
+    config.cropHeight = 15;
+
+    config.objFilePath = ::std::string {"./app/src/androidTest/resources/CornellBox/CornellBox-Water.obj"};
+    config.mtlFilePath = ::std::string {"./app/src/androidTest/resources/CornellBox/CornellBox-Water.mtl"};
+    config.camFilePath = ::std::string {"./app/src/androidTest/resources/CornellBox/CornellBox-Water.cam"};
+
+    RayTrace(config, false);
+    for (::std::int32_t y {}; y < config.height; ++y) {
+        for (::std::int32_t x {}; x < config.width; ++x) {
+            const bool insideCropWindow {x >= 5 && x < 15 && y >= 10 && y < 25};
+            const ::std::int32_t pixel {config.bitmap[static_cast<::std::size_t> (y * config.width + x)]};
+            // The pixels outside the crop window are not rendered.
+            ASSERT_EQ(insideCropWindow, pixel != 0);
+        }
+    }
+
+    ::MobileRT::checkSystemError("testRenderSceneWithCropWindow end");
+}
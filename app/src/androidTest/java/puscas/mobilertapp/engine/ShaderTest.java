@@ -96,4 +96,20 @@ public final class ShaderTest extends AbstractTest {
         assertRenderScene(Scene.OBJ, Shader.DIFFUSE, Accelerator.BVH, 1, 1, false, false);
     }
 
+    /**
+     * Tests rendering a scene with the Path Tracing shader with multiple importance sampling.
+     *
+     * @throws TimeoutException If it couldn't render the whole scene in time.
+     */
+    @Test
+    public void testRenderSceneWithPathTracingMis() throws TimeoutException {
+        mockFileManagerReply(false,
+            ConstantsAndroidTests.CORNELL_BOX_WATER_OBJ,
+            ConstantsAndroidTests.CORNELL_BOX_WATER_MTL,
+            ConstantsAndroidTests.CORNELL_BOX_WATER_CAM
+        );
+
+        assertRenderScene(Scene.OBJ, Shader.PATH_TRACING_MIS, Accelerator.BVH, 1, 1, false, false);
+    }
+
 }
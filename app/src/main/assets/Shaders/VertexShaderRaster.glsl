@@ -15,6 +15,10 @@ uniform mat4 uniformViewMatrix;
 // Projection parameter
 uniform mat4 uniformProjectionMatrix;
 
+// Vertical flip: -1 to render the image upside down (e.g. into a framebuffer to be read into a
+// bitmap), or 1 otherwise
+uniform float uniformFlipY;
+
 // Vertex position for each vertex
 attribute vec4 vertexPosition;
 
@@ -29,6 +33,7 @@ varying vec4 fragmentColor;
 void main () {
     // Output the position for this vertex
     gl_Position = uniformProjectionMatrix * uniformViewMatrix * uniformModelMatrix * vertexPosition;
+    gl_Position.y *= uniformFlipY;
     // Output the color for this vertex
     fragmentColor = vertexColor;
 }
@@ -5,7 +5,11 @@ import android.app.ActivityManager;
 import android.content.Context;
 import android.content.ContextWrapper;
 import android.opengl.GLSurfaceView;
+import android.os.SystemClock;
 import android.util.AttributeSet;
+import android.view.GestureDetector;
+import android.view.MotionEvent;
+import android.view.ScaleGestureDetector;
 import android.view.View;
 import android.widget.Button;
 import android.widget.TextView;
@@ -16,6 +20,7 @@ import androidx.annotation.VisibleForTesting;
 import com.google.common.util.concurrent.Uninterruptibles;
 
 import java.util.Map;
+import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
@@ -28,7 +33,10 @@ import java.util.logging.Logger;
 import java8.util.Optional;
 import kotlin.Pair;
 import puscas.mobilertapp.configs.Config;
+import puscas.mobilertapp.configs.ConfigCropWindow;
 import puscas.mobilertapp.configs.ConfigResolution;
+import puscas.mobilertapp.configs.ConfigSamples;
+import puscas.mobilertapp.constants.Accelerator;
 import puscas.mobilertapp.constants.ConstantsError;
 import puscas.mobilertapp.constants.ConstantsMethods;
 import puscas.mobilertapp.constants.ConstantsRenderer;
@@ -36,6 +44,7 @@ import puscas.mobilertapp.constants.ConstantsToast;
 import puscas.mobilertapp.constants.State;
 import puscas.mobilertapp.exceptions.FailureException;
 import puscas.mobilertapp.exceptions.LowMemoryException;
+import puscas.mobilertapp.utils.SingleTaskScope;
 import puscas.mobilertapp.utils.Utils;
 import puscas.mobilertapp.utils.UtilsLogging;
 
@@ -49,11 +58,41 @@ public final class DrawView extends GLSurfaceView {
      */
     private static final Logger logger = Logger.getLogger(DrawView.class.getSimpleName());
 
+    /**
+     * The minimum width and height of the image that is rendered when the scene doesn't fit in
+     * memory with the requested resolution.
+     */
+    private static final int MIN_RESOLUTION = 16;
+
+    /**
+     * The size of the region rendered when the user double taps the image, as a fraction of the
+     * width and of the height of the image.
+     */
+    private static final float CROP_WINDOW_SIZE = 0.5F;
+
+    /**
+     * The angle, in radians, that the camera turns when the user drags a finger across the whole
+     * view.
+     */
+    private static final float ROTATION_SPEED = (float) Math.PI;
+
+    /**
+     * The minimum time, in milliseconds, between the renders started while the user moves the
+     * camera, so the Ray Tracer engine isn't restarted more often than it can show a frame.
+     */
+    private static final long NAVIGATION_RENDER_INTERVAL = 50L;
+
     /**
      * The {@link GLSurfaceView.Renderer}.
      */
     private final MainRenderer renderer = new MainRenderer();
 
+    /**
+     * The {@link SingleTaskScope} which runs the {@link RenderTask} of the {@link #renderer}.
+     * It is owned by this view, so cancelling it stops the render task and the Ray Tracer engine.
+     */
+    private final SingleTaskScope renderTasks = new SingleTaskScope();
+
     /**
      * The {@link ExecutorService} which holds
      * {@link ConstantsRenderer#NUMBER_THREADS} number of threads that will
@@ -61,6 +100,22 @@ public final class DrawView extends GLSurfaceView {
      */
     private final ExecutorService executorService = Executors.newFixedThreadPool(ConstantsRenderer.NUMBER_THREADS);
 
+    /**
+     * The {@link ExecutorService} which starts the renders while the user moves the camera, so the
+     * UI thread doesn't wait for the Ray Tracer engine to stop.
+     * <br>
+     * It has a single thread, so the renders start in the same order as the gestures.
+     */
+    private final ExecutorService navigationExecutor = Executors.newSingleThreadExecutor();
+
+    /**
+     * The last render submitted to {@link #navigationExecutor}.
+     * <br>
+     * No other render is submitted by {@link #navigate} until it finishes, since the changes of
+     * the camera are accumulated by the Ray Tracer engine anyway.
+     */
+    private volatile Future<?> navigationTask = null;
+
     /**
      * The changing configs.
      *
@@ -69,9 +124,44 @@ public final class DrawView extends GLSurfaceView {
     private boolean changingConfigs = false;
 
     /**
-     * The last task submitted to {@link #executorService}.
+     * The last task submitted to {@link #executorService}, with a {@link CountDownLatch} which is
+     * released when the task finishes or when it is removed before starting.
+     */
+    private Pair<CountDownLatch, Future<Boolean>> lastTask = null;
+
+    /**
+     * The {@link Config} of the last render, which the gestures render again with another region
+     * of the image or another point of view.
+     * <br>
+     * Once the scene is loaded, it is the {@link Config} admitted in memory, so the gestures keep
+     * its acceleration structure and resolution.
+     * <br>
+     * The renders with less samples shown while the camera moves don't replace it.
+     * It is written by the render tasks and read by the UI thread.
+     */
+    private volatile Config lastConfig = null;
+
+    /**
+     * The detector of the gestures which select the region of the image to render and which
+     * turn and move the camera.
+     */
+    private GestureDetector gestureDetector = null;
+
+    /**
+     * The detector of the pinch gesture which zooms the camera.
      */
-    private Pair<Long, Future<Boolean>> lastTask = null;
+    private ScaleGestureDetector scaleGestureDetector = null;
+
+    /**
+     * Whether the user is moving the camera.
+     */
+    private boolean navigating = false;
+
+    /**
+     * The time, in milliseconds since boot, when the last render was started while the user
+     * moved the camera.
+     */
+    private long lastNavigationRender = 0L;
 
     /**
      * The constructor for this class.
@@ -82,8 +172,9 @@ public final class DrawView extends GLSurfaceView {
         super(context);
         logger.info("DrawView start 1");
 
-        this.renderer.prepareRenderer(this::requestRender);
+        this.renderer.prepareRenderer(this::requestRender, this.renderTasks);
         initEglContextFactory();
+        initGestureDetector();
 
         logger.info("DrawView finished 1");
     }
@@ -99,8 +190,9 @@ public final class DrawView extends GLSurfaceView {
         super(context, attrs);
         logger.info("DrawView start 2");
 
-        this.renderer.prepareRenderer(this::requestRender);
+        this.renderer.prepareRenderer(this::requestRender, this.renderTasks);
         initEglContextFactory();
+        initGestureDetector();
 
         logger.info("DrawView finished 2");
     }
@@ -138,6 +230,150 @@ public final class DrawView extends GLSurfaceView {
         logger.info("initEglContextFactory finished");
     }
 
+    /**
+     * Helper method which initiates the {@link GestureDetector} and the
+     * {@link ScaleGestureDetector}.
+     * <br>
+     * A double tap renders only the region of the image around the tapped point, so the samples
+     * are focused where they matter, and a long press renders the whole image again.
+     * Dragging one finger turns the camera, dragging two fingers moves it and pinching zooms it.
+     */
+    private void initGestureDetector() {
+        this.gestureDetector = new GestureDetector(getContext(), new GestureDetector.SimpleOnGestureListener() {
+            @Override
+            public boolean onDown(@NonNull final MotionEvent event) {
+                return true;
+            }
+
+            @Override
+            public boolean onSingleTapConfirmed(@NonNull final MotionEvent event) {
+                return performClick();
+            }
+
+            @Override
+            public boolean onDoubleTap(@NonNull final MotionEvent event) {
+                focusRegion(event.getX(), event.getY());
+                return true;
+            }
+
+            @Override
+            public void onLongPress(@NonNull final MotionEvent event) {
+                renderCropWindow(ConfigCropWindow.Builder.Companion.create().build());
+            }
+
+            @Override
+            public boolean onScroll(final MotionEvent firstEvent, @NonNull final MotionEvent event,
+                                    final float distanceX, final float distanceY) {
+                navigate(distanceX, distanceY, event.getPointerCount() > 1, 1.0F);
+                return true;
+            }
+        });
+        this.scaleGestureDetector = new ScaleGestureDetector(getContext(), new ScaleGestureDetector.SimpleOnScaleGestureListener() {
+            @Override
+            public boolean onScale(@NonNull final ScaleGestureDetector detector) {
+                navigate(0.0F, 0.0F, false, detector.getScaleFactor());
+                return true;
+            }
+        });
+    }
+
+    @Override
+    public boolean onTouchEvent(@NonNull final MotionEvent event) {
+        final boolean scaled = this.scaleGestureDetector.onTouchEvent(event);
+        final boolean handled = this.gestureDetector.onTouchEvent(event) || scaled;
+        final int action = event.getActionMasked();
+        if (this.navigating && (action == MotionEvent.ACTION_UP || action == MotionEvent.ACTION_CANCEL)) {
+            // The camera stopped, so the image is refined with all the samples.
+            this.navigating = false;
+            final Config config = this.lastConfig;
+            this.navigationTask = this.navigationExecutor.submit(() -> renderScene(config, false));
+        }
+        return handled || super.onTouchEvent(event);
+    }
+
+    @Override
+    public boolean performClick() {
+        return super.performClick();
+    }
+
+    /**
+     * Renders again the last scene, but only the region of the image around a point of this view.
+     *
+     * @param x The horizontal coordinate of the point, in pixels.
+     * @param y The vertical coordinate of the point, in pixels.
+     */
+    @VisibleForTesting
+    void focusRegion(final float x, final float y) {
+        if (getWidth() <= 0 || getHeight() <= 0) {
+            return;
+        }
+        final float halfSize = CROP_WINDOW_SIZE / 2.0F;
+        final float left = Math.max(0.0F, Math.min(x / getWidth() - halfSize, 1.0F - CROP_WINDOW_SIZE));
+        final float top = Math.max(0.0F, Math.min(y / getHeight() - halfSize, 1.0F - CROP_WINDOW_SIZE));
+        final ConfigCropWindow.Builder builder = ConfigCropWindow.Builder.Companion.create();
+        builder.setLeft(left);
+        builder.setTop(top);
+        builder.setRight(left + CROP_WINDOW_SIZE);
+        builder.setBottom(top + CROP_WINDOW_SIZE);
+        renderCropWindow(builder.build());
+    }
+
+    /**
+     * Turns, moves or zooms the camera of the last scene, and renders it again with a single
+     * sample per pixel, so the new point of view is shown quickly.
+     * <br>
+     * The render is started by the {@link #navigationExecutor}, so the UI thread doesn't wait for
+     * the last one to stop.
+     * <br>
+     * The changes are accumulated by the Ray Tracer engine, so the ones made between two renders
+     * are applied by the next one. The scene and its acceleration structure stay loaded.
+     *
+     * @param distanceX The horizontal distance dragged, in pixels.
+     * @param distanceY The vertical distance dragged, in pixels.
+     * @param pan       Whether the drag moves the camera instead of turning it.
+     * @param zoom      How many times bigger the objects should look.
+     */
+    @VisibleForTesting
+    void navigate(final float distanceX, final float distanceY, final boolean pan, final float zoom) {
+        final Config config = this.lastConfig;
+        if (config == null || getWidth() <= 0 || getHeight() <= 0) {
+            return;
+        }
+        // The scene follows the fingers, so the camera goes the opposite way.
+        final float dragX = distanceX / getWidth();
+        final float dragY = distanceY / getHeight();
+        if (pan) {
+            rtMoveCamera(0.0F, 0.0F, dragX, -dragY, zoom);
+        } else {
+            rtMoveCamera(dragX * ROTATION_SPEED, -dragY * ROTATION_SPEED, 0.0F, 0.0F, zoom);
+        }
+        this.navigating = true;
+        final long now = SystemClock.uptimeMillis();
+        if (now - this.lastNavigationRender >= NAVIGATION_RENDER_INTERVAL
+            && (this.navigationTask == null || this.navigationTask.isDone())) {
+            this.lastNavigationRender = now;
+            final Config navigationConfig = createNavigationConfig(config);
+            this.navigationTask = this.navigationExecutor.submit(() -> renderScene(navigationConfig, true));
+        }
+    }
+
+    /**
+     * Helper method which renders again the last scene with another region of the image.
+     * <br>
+     * The new render continues from the samples of the last one, whether it was stopped or
+     * finished, so the region is refined while the rest of the image is kept.
+     *
+     * @param cropWindow The region of the image to render.
+     */
+    private void renderCropWindow(@NonNull final ConfigCropWindow cropWindow) {
+        final Config config = this.lastConfig;
+        if (config == null || config.getConfigCropWindow().equals(cropWindow)) {
+            return;
+        }
+        logger.info("renderCropWindow: " + cropWindow);
+        renderScene(copyConfig(config, config.getAccelerator(), config.getConfigResolution(), cropWindow));
+    }
+
     /**
      * Stops the Ray Tracer engine and sets its {@link State} to {@link State#STOPPED}.
      *
@@ -146,6 +382,20 @@ public final class DrawView extends GLSurfaceView {
     @VisibleForTesting
     native void rtStopRender(boolean wait);
 
+    /**
+     * Turns, moves and zooms the camera of the scene loaded in the Ray Tracer engine, in the next
+     * render of the same scene.
+     *
+     * @param yaw       The angle to turn the camera to the right, in radians.
+     * @param pitch     The angle to turn the camera up, in radians.
+     * @param moveRight The distance to move the camera to the right, as a fraction of the size of
+     *                  the scene.
+     * @param moveUp    The distance to move the camera up, as a fraction of the size of the scene.
+     * @param zoom      How many times bigger the objects should look.
+     */
+    @VisibleForTesting
+    native void rtMoveCamera(float yaw, float pitch, float moveRight, float moveUp, float zoom);
+
     /**
      * Sets the Ray Tracer engine {@link State} to {@link State#BUSY}.
      *
@@ -164,6 +414,36 @@ public final class DrawView extends GLSurfaceView {
     @VisibleForTesting
     native int rtGetNumberOfLights();
 
+    /**
+     * Saves into a file the image, the number of rendered tiles and the position of the sampler
+     * of the last render which was stopped before finishing, so it can be resumed even if the
+     * process is killed.
+     * <br>
+     * The file is written without blocking the Ray Tracer engine, so it can be called from any
+     * thread.
+     *
+     * @param filePath The path to the file.
+     * @return Whether there was a stopped render to save.
+     */
+    native boolean rtSaveRenderState(String filePath);
+
+    /**
+     * Loads the state of a stopped render saved by {@link #rtSaveRenderState(String)}, unless the
+     * Ray Tracer engine still has it in memory.
+     * <br>
+     * The next render with the same configuration continues from the loaded state.
+     *
+     * @param filePath The path to the file.
+     * @return Whether there is a stopped render to resume.
+     */
+    native boolean rtLoadRenderState(String filePath);
+
+    /**
+     * Discards the state of the last render, so the next render starts from the first sample
+     * even if it has the same configuration.
+     */
+    native void rtDiscardRenderState();
+
     /**
      * Helper method which gets the instance of the {@link Activity}.
      *
@@ -213,8 +493,14 @@ public final class DrawView extends GLSurfaceView {
 
         rtStopRender(true);
         Optional.ofNullable(this.lastTask)
-            .map(Pair::getSecond)
-            .ifPresent(task -> task.cancel(false));
+            .ifPresent(task -> {
+                // A task which didn't start yet is removed, so it can't start rendering after being stopped.
+                if (this.executorService instanceof ThreadPoolExecutor
+                    && ((ThreadPoolExecutor) this.executorService).remove((Runnable) task.getSecond())) {
+                    task.getSecond().cancel(false);
+                    task.getFirst().countDown();
+                }
+            });
 
         waitLastTask();
         this.renderer.updateButton(R.string.render);
@@ -229,43 +515,67 @@ public final class DrawView extends GLSurfaceView {
      *
      * @param config The ray tracer configuration.
      */
-    synchronized void renderScene(@NonNull final Config config) {
+    void renderScene(@NonNull final Config config) {
+        renderScene(config, false);
+    }
+
+    /**
+     * Asynchronously creates the requested scene and starts rendering it.
+     *
+     * @param config     The ray tracer configuration.
+     * @param navigation Whether it is a quick render started while the user moves the camera,
+     *                   which doesn't replace the {@link #lastConfig}.
+     */
+    private synchronized void renderScene(@NonNull final Config config, final boolean navigation) {
         logger.info(ConstantsMethods.RENDER_SCENE);
 
         MainActivity.resetErrno();
         stopDrawing();
         waitLastTask();
         rtStartRender(false);
+        if (!navigation) {
+            this.lastConfig = config;
+        }
+
+        // Only the UI thread can update the text in the Render button, and the renders of the
+        // gestures are started by the navigation executor.
+        post(() -> this.renderer.updateButton(R.string.stop));
 
-        final long tasksAlreadyDone = this.executorService instanceof ThreadPoolExecutor? ((ThreadPoolExecutor) this.executorService).getCompletedTaskCount() : -1L;
+        final CountDownLatch taskFinished = new CountDownLatch(1);
         final Future<Boolean> newTask = this.executorService.submit(() -> {
-            this.renderer.waitLastTask();
             try {
-                rtStartRender(true);
-                startRayTracing(config);
-                return Boolean.TRUE;
-            } catch (final LowMemoryException ex) {
-                UtilsLogging.logThrowable(ex, "DrawView#renderScene");
-                MainActivity.showUiMessage(ConstantsToast.DEVICE_WITHOUT_ENOUGH_MEMORY + ex.getMessage());
-            } catch (final Exception ex) {
-                UtilsLogging.logThrowable(ex, "DrawView#renderScene");
-                renderer.resetStats();
-                MainActivity.showUiMessage(ConstantsToast.COULD_NOT_LOAD_THE_SCENE + ex.getMessage());
-            }
+                this.renderer.waitLastTask();
+                try {
+                    rtStartRender(true);
+                    final Config admittedConfig = startRayTracing(config);
+                    if (!navigation) {
+                        // The gestures render again what was rendered, so they keep the scene
+                        // and the resolution admitted in memory.
+                        this.lastConfig = admittedConfig;
+                    }
+                    return Boolean.TRUE;
+                } catch (final LowMemoryException ex) {
+                    UtilsLogging.logThrowable(ex, "DrawView#renderScene");
+                    MainActivity.showUiMessage(ConstantsToast.DEVICE_WITHOUT_ENOUGH_MEMORY + ex.getMessage());
+                } catch (final Exception ex) {
+                    UtilsLogging.logThrowable(ex, "DrawView#renderScene");
+                    renderer.resetStats();
+                    MainActivity.showUiMessage(ConstantsToast.COULD_NOT_LOAD_THE_SCENE + ex.getMessage());
+                }
 
-            final String messageFailed = ConstantsMethods.RENDER_SCENE + " executor failed";
-            logger.severe(messageFailed);
-            this.renderer.rtFinishRender();
+                final String messageFailed = ConstantsMethods.RENDER_SCENE + " executor failed";
+                logger.severe(messageFailed);
+                this.renderer.rtFinishRender();
 
-            // Only the UI thread can update the text in the Render button.
-            post(() -> this.renderer.updateButton(R.string.render));
+                // Only the UI thread can update the text in the Render button.
+                post(() -> this.renderer.updateButton(R.string.render));
 
-            return Boolean.FALSE;
+                return Boolean.FALSE;
+            } finally {
+                taskFinished.countDown();
+            }
         });
-        this.lastTask = new Pair<>(tasksAlreadyDone, newTask);
-
-        // This should be executed by the UI thread, so it's good to go.
-        this.renderer.updateButton(R.string.stop);
+        this.lastTask = new Pair<>(taskFinished, newTask);
 
         final String messageFinished = ConstantsMethods.RENDER_SCENE + ConstantsMethods.FINISHED;
         logger.info(messageFinished);
@@ -276,18 +586,21 @@ public final class DrawView extends GLSurfaceView {
      * to render it.
      *
      * @param config The ray tracer configuration.
+     * @return The {@link Config} admitted in memory, which is rendered.
      * @throws LowMemoryException If the device has low free memory.
      */
+    @NonNull
     @VisibleForTesting
-    void startRayTracing(@NonNull final Config config) throws LowMemoryException {
+    Config startRayTracing(@NonNull final Config config) throws LowMemoryException {
         final String message = "startRayTracing executor";
         logger.info(message);
 
-        createScene(config);
+        final Config admittedConfig = createScene(config);
         requestRender(); // This will make the `MainRenderer#onDrawFrame` method to be called.
 
         final String messageFinished = "startRayTracing executor" + ConstantsMethods.FINISHED;
         logger.info(messageFinished);
+        return admittedConfig;
     }
 
     /**
@@ -296,10 +609,9 @@ public final class DrawView extends GLSurfaceView {
     void waitLastTask() {
         logger.info("waitLastTask");
 
-        while (this.lastTask != null && ((ThreadPoolExecutor) this.executorService).getCompletedTaskCount() <= this.lastTask.getFirst()) {
-            logger.info("Waiting for last task to finish create the renderer.");
-            Uninterruptibles.sleepUninterruptibly(500L, TimeUnit.MILLISECONDS);
-        }
+        Optional.ofNullable(this.lastTask)
+            .map(Pair::getFirst)
+            .ifPresent(Uninterruptibles::awaitUninterruptibly);
 
         this.renderer.waitLastTask();
         Optional.ofNullable(this.lastTask)
@@ -324,19 +636,28 @@ public final class DrawView extends GLSurfaceView {
      * Loads the scene and creates the Ray Tracer renderer.
      *
      * @param config The ray tracer configuration.
+     * @return The {@link Config} admitted in memory, with the crop window of the requested one.
      * @throws LowMemoryException If the device has low free memory.
      */
+    @NonNull
     @VisibleForTesting
-    void createScene(final Config config) throws LowMemoryException {
+    Config createScene(final Config config) throws LowMemoryException {
         logger.info("createScene");
 
         MainActivity.resetErrno();
-        final int numPrimitives = this.renderer.rtInitialize(config);
+        // The scene already loaded is kept, and only the render settings changed.
+        final boolean keepScene = this.renderer.isSceneResident(config);
+        final Config admittedConfig = admitConfig(config, keepScene);
+        // Only the crop window changed, so the region is refined and the rest of the image is kept.
+        final boolean keepImage = keepScene && this.renderer.onlyChangesCropWindow(admittedConfig);
+        MainRenderer.setResidentScene(null);
+        final int numPrimitives = this.renderer.rtInitialize(admittedConfig, keepScene);
         if (numPrimitives <= -1) {
             throw new FailureException("Couldn't load the scene.");
         }
+        MainRenderer.setResidentScene(admittedConfig);
 
-        this.renderer.resetStats(config.getThreads(), config.getConfigSamples(),
+        this.renderer.resetStats(admittedConfig.getThreads(), admittedConfig.getConfigSamples(),
             numPrimitives, rtGetNumberOfLights());
         final int widthView = getWidth();
         final int heightView = getHeight();
@@ -344,10 +665,129 @@ public final class DrawView extends GLSurfaceView {
         builder.setWidth(widthView);
         builder.setHeight(heightView);
         queueEvent(() -> this.renderer.setBitmap(
-            config.getConfigResolution(),
+            admittedConfig.getConfigResolution(),
             builder.build(),
-            config.getRasterize()
+            admittedConfig.getRasterize(),
+            keepImage
         ));
+        return admittedConfig;
+    }
+
+    /**
+     * Helper method which finds a {@link Config} whose scene fits in the available memory,
+     * before the scene is built.
+     * <br>
+     * If the requested {@link Config} doesn't fit, then it tries the leaner acceleration
+     * structures and afterwards lower resolutions.
+     * <br>
+     * The scene already loaded keeps its acceleration structure, so only the framebuffers and the
+     * denoiser of the new render are checked and only the resolution can be lowered.
+     *
+     * @param config    The requested ray tracer configuration.
+     * @param keepScene Whether the scene of the {@link Config} is already loaded.
+     * @return The requested {@link Config} or a leaner one.
+     * @throws LowMemoryException If the scene doesn't fit in memory with any {@link Config}.
+     */
+    @NonNull
+    private Config admitConfig(@NonNull final Config config, final boolean keepScene) throws LowMemoryException {
+        final int[] accelerators = keepScene
+            ? new int[] {config.getAccelerator()}
+            : new int[] {
+                config.getAccelerator(),
+                Accelerator.BVH.ordinal(),
+                Accelerator.REG_GRID.ordinal(),
+                Accelerator.NAIVE.ordinal()
+            };
+        ConfigResolution resolution = config.getConfigResolution();
+        while (true) {
+            for (int index = 0; index < accelerators.length; ++index) {
+                final int accelerator = accelerators[index];
+                if (index > 0 && accelerator == config.getAccelerator()) {
+                    continue;
+                }
+                final Config candidate = copyConfig(config, accelerator, resolution, config.getConfigCropWindow());
+                if (this.renderer.fitsInMemory(candidate, keepScene)) {
+                    if (!candidate.equals(config)) {
+                        logger.warning("The scene doesn't fit in memory, so it will be rendered with: " + candidate);
+                    }
+                    return candidate;
+                }
+            }
+            if (resolution.getWidth() <= MIN_RESOLUTION || resolution.getHeight() <= MIN_RESOLUTION) {
+                throw new LowMemoryException("The scene doesn't fit in the available memory.");
+            }
+            final ConfigResolution.Builder builder = ConfigResolution.Builder.Companion.create();
+            builder.setWidth(Math.max(MIN_RESOLUTION, resolution.getWidth() / 2));
+            builder.setHeight(Math.max(MIN_RESOLUTION, resolution.getHeight() / 2));
+            resolution = builder.build();
+        }
+    }
+
+    /**
+     * Helper method which copies a {@link Config} with another acceleration structure, resolution
+     * and region of the image to render.
+     *
+     * @param config      The {@link Config} to copy.
+     * @param accelerator The index of the acceleration structure.
+     * @param resolution  The resolution.
+     * @param cropWindow  The region of the image to render.
+     * @return A new {@link Config}.
+     */
+    @NonNull
+    private static Config copyConfig(@NonNull final Config config,
+                                     final int accelerator,
+                                     @NonNull final ConfigResolution resolution,
+                                     @NonNull final ConfigCropWindow cropWindow) {
+        final Config.Builder builder = copyConfigBuilder(config);
+        builder.setAccelerator(accelerator);
+        builder.setConfigResolution(resolution);
+        builder.setConfigCropWindow(cropWindow);
+        return builder.build();
+    }
+
+    /**
+     * Helper method which creates the {@link Config} rendered while the user moves the camera,
+     * with a single sample per pixel and per light and without the denoiser.
+     *
+     * @param config The {@link Config} of the scene.
+     * @return A new {@link Config}.
+     */
+    @NonNull
+    @VisibleForTesting
+    static Config createNavigationConfig(@NonNull final Config config) {
+        final Config.Builder builder = copyConfigBuilder(config);
+        final ConfigSamples.Builder builderSamples = ConfigSamples.Builder.Companion.create();
+        builderSamples.setSamplesPixel(1);
+        builderSamples.setSamplesLight(1);
+        builder.setConfigSamples(builderSamples.build());
+        builder.setDenoise(false);
+        return builder.build();
+    }
+
+    /**
+     * Helper method which creates a {@link Config.Builder} with all the fields of a
+     * {@link Config}.
+     *
+     * @param config The {@link Config} to copy.
+     * @return A new {@link Config.Builder}.
+     */
+    @NonNull
+    private static Config.Builder copyConfigBuilder(@NonNull final Config config) {
+        final Config.Builder builder = Config.Builder.Companion.create();
+        builder.setScene(config.getScene());
+        builder.setShader(config.getShader());
+        builder.setAccelerator(config.getAccelerator());
+        builder.setObjFilePath(config.getObjFilePath());
+        builder.setMatFilePath(config.getMatFilePath());
+        builder.setCamFilePath(config.getCamFilePath());
+        builder.setConfigSamples(config.getConfigSamples());
+        builder.setConfigResolution(config.getConfigResolution());
+        builder.setConfigCropWindow(config.getConfigCropWindow());
+        builder.setThreads(config.getThreads());
+        builder.setRasterize(config.getRasterize());
+        builder.setDenoise(config.getDenoise());
+        builder.setRenderTime(config.getRenderTime());
+        return builder;
     }
 
     @Override
@@ -360,6 +800,8 @@ public final class DrawView extends GLSurfaceView {
         this.changingConfigs = activity.isChangingConfigurations();
 
         MainActivity.resetErrno();
+        this.renderTasks.cancel();
+        Optional.ofNullable(this.navigationTask).ifPresent(task -> task.cancel(false));
         stopDrawing();
         setVisibility(View.GONE);
 
@@ -372,6 +814,8 @@ public final class DrawView extends GLSurfaceView {
         logger.info(ConstantsMethods.ON_DETACHED_FROM_WINDOW);
         super.onDetachedFromWindow();
 
+        this.renderTasks.cancel();
+        Optional.ofNullable(this.navigationTask).ifPresent(task -> task.cancel(false));
         stopDrawing();
         finishRenderer();
         // We need to call `closeRenderer` method with the GL rendering thread.
@@ -413,6 +857,31 @@ public final class DrawView extends GLSurfaceView {
         this.renderer.freeArrays();
     }
 
+    /**
+     * Releases the {@link android.graphics.Bitmap}s and buffers which the {@link MainRenderer}
+     * keeps to reuse in the next renders.
+     *
+     * @param level The level of the memory trim requested by the system.
+     */
+    void trimMemory(final int level) {
+        logger.info("trimMemory");
+
+        // The bitmaps are only used by the GL rendering thread.
+        queueEvent(() -> this.renderer.trimMemory(level));
+    }
+
+    /**
+     * This is an auxiliary method that serves as a middle man to let outside
+     * classes like {@link MainActivity} check whether the scene of a {@link Config} is already
+     * loaded in the Ray Tracer engine, so its files don't need to be read again.
+     *
+     * @param config The ray tracer configuration.
+     * @return Whether the scene of the {@link Config} is already loaded.
+     */
+    boolean isSceneResident(@NonNull final Config config) {
+        return this.renderer.isSceneResident(config);
+    }
+
     /**
      * This is an auxiliary method that serves as a middle man to let outside
      * classes like {@link MainActivity} get the current {@link State} of the
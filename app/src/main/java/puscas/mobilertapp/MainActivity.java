@@ -35,10 +35,13 @@ import com.google.common.io.Files;
 import java.io.File;
 import java.nio.file.FileSystems;
 import java.nio.file.Path;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.logging.Logger;
 
 import javax.annotation.Nonnull;
@@ -51,6 +54,7 @@ import puscas.mobilertapp.configs.Config;
 import puscas.mobilertapp.configs.ConfigResolution;
 import puscas.mobilertapp.configs.ConfigSamples;
 import puscas.mobilertapp.constants.Accelerator;
+import puscas.mobilertapp.constants.Constants;
 import puscas.mobilertapp.constants.ConstantsMethods;
 import puscas.mobilertapp.constants.ConstantsToast;
 import puscas.mobilertapp.constants.ConstantsUI;
@@ -96,6 +100,15 @@ public final class MainActivity extends Activity {
     @SuppressWarnings({"StaticFieldLeak"})
     private static Activity currentInstance = null;
 
+    /**
+     * The thread which writes and reads the file with the state of a stopped render, so the main
+     * thread never waits for it.
+     * <br>
+     * It is shared by all the instances of {@link MainActivity}, so the file is only read after the
+     * previous instance finished writing it.
+     */
+    private static final ExecutorService renderStateExecutor = Executors.newSingleThreadExecutor();
+
     /*
      ***********************************************************************
      * Private instance fields
@@ -137,6 +150,11 @@ public final class MainActivity extends Activity {
      */
     private NumberPicker pickerSamplesLight = null;
 
+    /**
+     * The {@link NumberPicker} to select the maximum time, in seconds, to render the scene.
+     */
+    private NumberPicker pickerRenderTime = null;
+
     /**
      * The {@link NumberPicker} to select the desired resolution for the
      * rendered image.
@@ -149,11 +167,35 @@ public final class MainActivity extends Activity {
      */
     private CheckBox checkBoxRasterize = null;
 
+    /**
+     * The {@link CheckBox} to select whether should remove the noise of the
+     * rendered image or not.
+     */
+    private CheckBox checkBoxDenoise = null;
+
     /**
      * The path to a directory containing the OBJ and MTL files of a scene.
      */
     private String sceneFilePath = null;
 
+    /**
+     * The path to the scene file of the last render, or an empty {@link String} if it was a scene
+     * built in the Ray Tracer engine.
+     */
+    private String renderedScenePath = null;
+
+    /**
+     * Whether the render which was stopped when this {@link Activity} was recreated should be
+     * resumed.
+     */
+    private boolean resumeRender = false;
+
+    /**
+     * Whether this {@link Activity} is resumed, so a loaded render state can be resumed
+     * immediately.
+     */
+    private boolean postResumed = false;
+
     /**
      * Loads the MobileRT native library.
      */
@@ -267,6 +309,8 @@ public final class MainActivity extends Activity {
         initializePickers(bundle);
         initializeCheckBoxRasterize(bundle.map(x -> x.getBoolean(ConstantsUI.CHECK_BOX_RASTERIZE))
             .orElse(true));
+        initializeCheckBoxDenoise(bundle.map(x -> x.getBoolean(ConstantsUI.CHECK_BOX_DENOISE))
+            .orElse(false));
 
         UtilsContext.checksStoragePermission(this);
 
@@ -284,8 +328,10 @@ public final class MainActivity extends Activity {
         final int accelerator = savedInstanceState.getInt(ConstantsUI.PICKER_ACCELERATOR);
         final int samplesPixel = savedInstanceState.getInt(ConstantsUI.PICKER_SAMPLES_PIXEL);
         final int samplesLight = savedInstanceState.getInt(ConstantsUI.PICKER_SAMPLES_LIGHT);
+        final int renderTime = savedInstanceState.getInt(ConstantsUI.PICKER_RENDER_TIME);
         final int sizes = savedInstanceState.getInt(ConstantsUI.PICKER_SIZE);
         final boolean rasterize = savedInstanceState.getBoolean(ConstantsUI.CHECK_BOX_RASTERIZE);
+        final boolean denoise = savedInstanceState.getBoolean(ConstantsUI.CHECK_BOX_DENOISE);
 
         this.pickerScene.setValue(scene);
         this.pickerShader.setValue(shader);
@@ -293,8 +339,40 @@ public final class MainActivity extends Activity {
         this.pickerAccelerator.setValue(accelerator);
         this.pickerSamplesPixel.setValue(samplesPixel);
         this.pickerSamplesLight.setValue(samplesLight);
+        this.pickerRenderTime.setValue(renderTime);
         this.pickerResolutions.setValue(sizes);
         this.checkBoxRasterize.setChecked(rasterize);
+        this.checkBoxDenoise.setChecked(denoise);
+
+        this.renderedScenePath = savedInstanceState.getString(ConstantsUI.RENDERED_SCENE_PATH);
+        if (savedInstanceState.getBoolean(ConstantsUI.RESUME_RENDER) && this.renderedScenePath != null) {
+            loadRenderState();
+        }
+    }
+
+    /**
+     * Helper method which loads the state of a render that was stopped when this {@link Activity}
+     * was recreated, in the {@link #renderStateExecutor}, and resumes the render once the state is
+     * loaded and this {@link Activity} is resumed.
+     */
+    private void loadRenderState() {
+        final File renderStateFile = getRenderStateFile();
+        final DrawView view = this.drawView;
+        renderStateExecutor.execute(() -> {
+            final boolean loaded = view.rtLoadRenderState(renderStateFile.getAbsolutePath());
+            if (!renderStateFile.delete()) {
+                logger.warning("Couldn't delete the render state file.");
+            }
+            if (loaded) {
+                runOnUiThread(() -> {
+                    if (this.postResumed) {
+                        resumeRender();
+                    } else {
+                        this.resumeRender = true;
+                    }
+                });
+            }
+        });
     }
 
     @Override
@@ -323,10 +401,30 @@ public final class MainActivity extends Activity {
                 UtilsLogging.logThrowable(ex, "MainActivity#onPostResume");
                 showUiMessage(Objects.requireNonNull(ex.getMessage()));
             }
+        } else if (this.resumeRender) {
+            resumeRender();
         }
+        this.postResumed = true;
         logger.info("onPostResume end");
     }
 
+    /**
+     * Helper method which continues the render stopped when this {@link Activity} was recreated
+     * or paused.
+     */
+    private void resumeRender() {
+        this.resumeRender = false;
+        if (isFinishing() || this.renderedScenePath == null) {
+            return;
+        }
+        try {
+            resumeRender(this.renderedScenePath);
+        } catch (final Exception ex) {
+            UtilsLogging.logThrowable(ex, "MainActivity#resumeRender");
+            showUiMessage(Objects.requireNonNull(ex.getMessage()));
+        }
+    }
+
     @Override
     protected void onSaveInstanceState(@NonNull final Bundle outState) {
         super.onSaveInstanceState(outState);
@@ -338,8 +436,19 @@ public final class MainActivity extends Activity {
         outState.putInt(ConstantsUI.PICKER_ACCELERATOR, this.pickerAccelerator.getValue());
         outState.putInt(ConstantsUI.PICKER_SAMPLES_PIXEL, this.pickerSamplesPixel.getValue());
         outState.putInt(ConstantsUI.PICKER_SAMPLES_LIGHT, this.pickerSamplesLight.getValue());
+        outState.putInt(ConstantsUI.PICKER_RENDER_TIME, this.pickerRenderTime.getValue());
         outState.putInt(ConstantsUI.PICKER_SIZE, this.pickerResolutions.getValue());
         outState.putBoolean(ConstantsUI.CHECK_BOX_RASTERIZE, this.checkBoxRasterize.isChecked());
+        outState.putBoolean(ConstantsUI.CHECK_BOX_DENOISE, this.checkBoxDenoise.isChecked());
+
+        // The render was already stopped by `onPause`, so its samples can be saved in case the
+        // process is killed. The file is written in the background, and the next instance only
+        // resumes the render if there was a stopped render in it.
+        outState.putString(ConstantsUI.RENDERED_SCENE_PATH, this.renderedScenePath);
+        outState.putBoolean(ConstantsUI.RESUME_RENDER, this.renderedScenePath != null);
+        final String renderStateFilePath = getRenderStateFile().getAbsolutePath();
+        final DrawView view = this.drawView;
+        renderStateExecutor.execute(() -> view.rtSaveRenderState(renderStateFilePath));
 
         this.drawView.finishRenderer();
     }
@@ -351,6 +460,9 @@ public final class MainActivity extends Activity {
 
         Utils.handleInterruption("MainActivity#onPause");
 
+        // A render interrupted by an app switch is resumed with the Activity.
+        this.postResumed = false;
+        this.resumeRender = this.drawView.getRayTracerState() == State.BUSY && this.renderedScenePath != null;
         this.drawView.setPreserveEGLContextOnPause(true);
         this.drawView.onPause();
         this.drawView.setVisibility(View.INVISIBLE);
@@ -373,6 +485,16 @@ public final class MainActivity extends Activity {
         logger.info(message);
     }
 
+    @Override
+    public void onTrimMemory(final int level) {
+        super.onTrimMemory(level);
+        logger.info("onTrimMemory: " + level);
+
+        if (this.drawView != null) {
+            this.drawView.trimMemory(level);
+        }
+    }
+
     @Override
     public void onDetachedFromWindow() {
         super.onDetachedFromWindow();
@@ -445,6 +567,7 @@ public final class MainActivity extends Activity {
 
         try {
             if (data != null && Objects.equals(resultCode, Activity.RESULT_OK)) {
+                final List<Uri> uris = new ArrayList<>();
                 if(Build.VERSION.SDK_INT >= Build.VERSION_CODES.JELLY_BEAN && data.getClipData() != null) {
                     final ClipData clipData = data.getClipData();
                     final int numFiles = clipData.getItemCount();
@@ -456,8 +579,8 @@ public final class MainActivity extends Activity {
                             throw new FailureException("There is no URI to a File! [" + i + "]");
                         }
                         final String filePath = getPathFromFile(uri);
-                        readFile(uri);
-                        if (filePath.endsWith(".obj")) {
+                        uris.add(uri);
+                        if (isSceneFile(filePath)) {
                             this.sceneFilePath = filePath;
                         }
                     }
@@ -468,12 +591,20 @@ public final class MainActivity extends Activity {
                         throw new FailureException("There is no URI to a File!");
                     }
                     final String filePath = getPathFromFile(uri);
-                    if (filePath.endsWith(".obj")) {
+                    if (isSceneFile(filePath)) {
                         this.sceneFilePath = filePath;
                     }
                     final File[] files = getFilesFromDirectory(uri);
                     for(final File file : files) {
-                        readFile(Uri.fromFile(file));
+                        uris.add(Uri.fromFile(file));
+                    }
+                }
+                if (this.sceneFilePath != null && this.drawView.isSceneResident(createConfigFromUI(this.sceneFilePath))) {
+                    // Only the render settings changed, so the loaded scene is rendered again.
+                    logger.info("The scene is already loaded: " + this.sceneFilePath);
+                } else {
+                    for (final Uri uri : uris) {
+                        readFile(uri);
                     }
                 }
             } else {
@@ -487,6 +618,18 @@ public final class MainActivity extends Activity {
         logger.info("onActivityResult finished");
     }
 
+    /**
+     * Helper method which checks whether a file is a scene that can be rendered, i.e., an OBJ
+     * file or a scene in the binary scene format.
+     *
+     * @param filePath The path to a file.
+     * @return Whether the file is a scene file.
+     */
+    private static boolean isSceneFile(@NonNull final String filePath) {
+        return filePath.endsWith(Constants.OBJ_FILE_EXTENSION)
+            || filePath.endsWith(Constants.BINARY_SCENE_FILE_EXTENSION);
+    }
+
     /**
      * Gets the files from the directory path received via parameter.
      * <p>
@@ -525,6 +668,8 @@ public final class MainActivity extends Activity {
             final State state = this.drawView.getRayTracerState();
             if (state == State.BUSY) {
                 this.drawView.stopDrawing();
+                // A render stopped by the user is not resumed.
+                this.drawView.rtDiscardRenderState();
             } else {
                 startRenderScene();
             }
@@ -547,12 +692,48 @@ public final class MainActivity extends Activity {
         logger.info(ConstantsMethods.START_RENDER);
 
         final Config config = createConfigFromUI(scenePath);
+        this.drawView.rtDiscardRenderState();
+        this.renderedScenePath = scenePath;
         this.drawView.renderScene(config);
 
         final String message = ConstantsMethods.START_RENDER + ConstantsMethods.FINISHED;
         logger.info(message);
     }
 
+    /**
+     * Helper method which resumes a render that was stopped when this {@link Activity} was
+     * recreated, from the last sample rendered.
+     * <br>
+     * If the process was killed, then the files of the scene are read again.
+     *
+     * @param scenePath The path to the scene file of the render, or an empty {@link String} if it
+     *                  was a scene built in the Ray Tracer engine.
+     */
+    private void resumeRender(@NonNull final String scenePath) {
+        logger.info("resumeRender");
+
+        final Config config = createConfigFromUI(scenePath);
+        if (!scenePath.isEmpty() && !this.drawView.isSceneResident(config)) {
+            for (final File file : getFilesFromDirectory(Uri.fromFile(new File(scenePath)))) {
+                readFile(Uri.fromFile(file));
+            }
+        }
+        this.drawView.renderScene(config);
+
+        final String message = "resumeRender" + ConstantsMethods.FINISHED;
+        logger.info(message);
+    }
+
+    /**
+     * Helper method which gets the file where the state of a stopped render is saved.
+     *
+     * @return The file with the state of a stopped render.
+     */
+    @NonNull
+    private File getRenderStateFile() {
+        return new File(getCacheDir(), "renderState.bin");
+    }
+
     /**
      * Helper method which starts the rendering process.
      */
@@ -734,7 +915,7 @@ public final class MainActivity extends Activity {
      * Create a Ray Tracer {@link Config} from the selected {@link NumberPicker}s
      * in the Android UI.
      *
-     * @param scenePath The path to the OBJ scene file.
+     * @param scenePath The path to the OBJ scene file or to the binary scene file.
      * @return A {@link Config}.
      */
     @NonNull
@@ -762,11 +943,19 @@ public final class MainActivity extends Activity {
         } else {
             filePathWithoutExtension = scenePath;
         }
-        builder.setObjFilePath(filePathWithoutExtension + ".obj");
+        if (scenePath.endsWith(Constants.BINARY_SCENE_FILE_EXTENSION)) {
+            // The binary scene contains the geometry, materials and camera in a single file.
+            builder.setObjFilePath(scenePath);
+        } else {
+            builder.setObjFilePath(filePathWithoutExtension + Constants.OBJ_FILE_EXTENSION);
+        }
         builder.setMatFilePath(filePathWithoutExtension + ".mtl");
         builder.setCamFilePath(filePathWithoutExtension + ".cam");
         builder.setThreads(this.pickerThreads.getValue());
         builder.setRasterize(this.checkBoxRasterize.isChecked());
+        builder.setDenoise(this.checkBoxDenoise.isChecked());
+        // The value of the picker is the number of seconds, where 0 means no limit.
+        builder.setRenderTime(this.pickerRenderTime.getValue() * 1000);
 
         return builder.build();
     }
@@ -821,6 +1010,14 @@ public final class MainActivity extends Activity {
             bundle.map(x -> x.getInt(ConstantsUI.PICKER_SAMPLES_LIGHT))
                 .orElse(1), samplesLight);
 
+        // The first value isn't a number, so the value of the picker is the number of seconds.
+        final String[] renderTimes = IntStreams.range(0, 61)
+            .mapToObj(value -> value == 0 ? "∞" : value + "s")
+            .toArray(String[]::new);
+        initializePicker(this.pickerRenderTime,
+            bundle.map(x -> x.getInt(ConstantsUI.PICKER_RENDER_TIME))
+                .orElse(0), renderTimes);
+
         initializePickerThreads(bundle.map(x -> x.getInt(ConstantsUI.PICKER_THREADS))
             .orElse(1));
 
@@ -896,6 +1093,23 @@ public final class MainActivity extends Activity {
         );
     }
 
+    /**
+     * Initializes the {@link #checkBoxDenoise} field.
+     *
+     * @param checkBoxDenoise The default value to put in the
+     *                        {@link #checkBoxDenoise} field.
+     */
+    private void initializeCheckBoxDenoise(final boolean checkBoxDenoise) {
+        this.checkBoxDenoise.setChecked(checkBoxDenoise);
+        final int scale = Math.round(getResources().getDisplayMetrics().density);
+        this.checkBoxDenoise.setPadding(
+            this.checkBoxDenoise.getPaddingLeft() - (5 * scale),
+            this.checkBoxDenoise.getPaddingTop(),
+            this.checkBoxDenoise.getPaddingRight(),
+            this.checkBoxDenoise.getPaddingBottom()
+        );
+    }
+
     /**
      * Initializes the {@link #pickerResolutions} field.
      *
@@ -968,10 +1182,12 @@ public final class MainActivity extends Activity {
         this.pickerShader = findViewById(R.id.pickerShader);
         this.pickerSamplesPixel = findViewById(R.id.pickerSamplesPixel);
         this.pickerSamplesLight = findViewById(R.id.pickerSamplesLight);
+        this.pickerRenderTime = findViewById(R.id.pickerRenderTime);
         this.pickerAccelerator = findViewById(R.id.pickerAccelerator);
         this.pickerThreads = findViewById(R.id.pickerThreads);
         this.pickerResolutions = findViewById(R.id.pickerSize);
         this.checkBoxRasterize = findViewById(R.id.preview);
+        this.checkBoxDenoise = findViewById(R.id.denoise);
         validateViews();
     }
 
@@ -983,6 +1199,7 @@ public final class MainActivity extends Activity {
         Preconditions.checkNotNull(this.pickerThreads, "pickerThreads shouldn't be null");
         Preconditions.checkNotNull(this.pickerAccelerator, "pickerAccelerator shouldn't be null");
         Preconditions.checkNotNull(this.pickerSamplesLight, "pickerSamplesLight shouldn't be null");
+        Preconditions.checkNotNull(this.pickerRenderTime, "pickerRenderTime shouldn't be null");
         Preconditions.checkNotNull(this.pickerSamplesPixel, "pickerSamplesPixel shouldn't be null");
         Preconditions.checkNotNull(this.pickerShader, "pickerShader shouldn't be null");
         Preconditions.checkNotNull(this.pickerScene, "pickerScene shouldn't be null");
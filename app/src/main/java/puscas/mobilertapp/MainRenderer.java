@@ -13,27 +13,28 @@ import android.widget.Button;
 import android.widget.TextView;
 
 import androidx.annotation.NonNull;
-import androidx.annotation.OptIn;
 import androidx.annotation.VisibleForTesting;
 
 import com.google.common.base.Preconditions;
-import com.google.common.util.concurrent.Uninterruptibles;
 
 import org.jetbrains.annotations.Contract;
 
 import java.lang.annotation.Native;
 import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
 import java.nio.FloatBuffer;
 import java.nio.IntBuffer;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.Map;
-import java.util.concurrent.TimeUnit;
 import java.util.logging.Logger;
 
 import javax.microedition.khronos.egl.EGLConfig;
 import javax.microedition.khronos.opengles.GL10;
 
 import java8.util.Optional;
-import kotlinx.coroutines.DelicateCoroutinesApi;
+import kotlin.Pair;
 import puscas.mobilertapp.configs.Config;
 import puscas.mobilertapp.configs.ConfigGlAttribute;
 import puscas.mobilertapp.configs.ConfigRenderTask;
@@ -46,6 +47,7 @@ import puscas.mobilertapp.constants.ConstantsToast;
 import puscas.mobilertapp.constants.State;
 import puscas.mobilertapp.exceptions.LowMemoryException;
 import puscas.mobilertapp.utils.AsyncTaskCoroutine;
+import puscas.mobilertapp.utils.SingleTaskScope;
 import puscas.mobilertapp.utils.Utils;
 import puscas.mobilertapp.utils.UtilsBuffer;
 import puscas.mobilertapp.utils.UtilsGL;
@@ -93,6 +95,53 @@ public final class MainRenderer implements GLSurfaceView.Renderer {
      */
     public static final int PIXEL_COLORS = 4;
 
+    /**
+     * The maximum number of resolutions whose {@link #bitmap} and {@link #dirtyPixels} are kept
+     * in the {@link #renderBuffersPool}.
+     */
+    private static final int MAX_POOLED_RESOLUTIONS = 2;
+
+    /**
+     * The number of bytes of each vertex in the preview geometry: the position (X, Y, Z) in floats
+     * and the color (RGBA) in unsigned bytes.
+     * It must be the same as the size of the {@code PreviewVertex} in the native code.
+     */
+    private static final int PREVIEW_VERTEX_BYTES = 16;
+
+    /**
+     * The number of position components of each vertex in the preview geometry (X, Y, Z).
+     */
+    private static final int PREVIEW_POSITION_COMPONENTS = 3;
+
+    /**
+     * The number of values of each batch returned by {@link #rtInitPreviewGeometry()}
+     * (first index, number of indices, first vertex).
+     */
+    private static final int PREVIEW_BATCH_COMPONENTS = 3;
+
+    /**
+     * The number of bytes of each index in the preview geometry.
+     */
+    private static final int BYTES_IN_INDEX = Short.SIZE / Byte.SIZE;
+
+    /**
+     * The number of tiles in the image rendered by the Ray Tracer engine.
+     * It must be the same as the {@code NumberOfTiles} in the native code.
+     */
+    private static final int NUMBER_OF_TILES = 256;
+
+    /**
+     * The number of values of each region returned by {@link #rtGetDirtyTiles(ByteBuffer, int[])}
+     * (X, Y, width, height).
+     */
+    private static final int REGION_COMPONENTS = 4;
+
+    /**
+     * The index of the framebuffers in the estimate returned by {@link #rtEstimateMemory}, after
+     * the memory of the scene and before the memory of the denoiser.
+     */
+    private static final int ESTIMATE_FRAMEBUFFERS = 3;
+
     /**
      * The default update interval in milliseconds of {@link RenderTask}.
      */
@@ -149,6 +198,39 @@ public final class MainRenderer implements GLSurfaceView.Renderer {
     @Native
     private Bitmap bitmap = null;
 
+    /**
+     * The pixels of the regions of the {@link #bitmap} which changed since the last frame, packed
+     * by the Ray Tracer engine so they can be uploaded to the texture.
+     */
+    private ByteBuffer dirtyPixels = null;
+
+    /**
+     * The {@link Config} used to load the scene which is kept by the Ray Tracer engine, or
+     * {@code null} if there is no scene loaded.
+     * <br>
+     * It is static because the Ray Tracer engine keeps the scene while the process is alive, even
+     * if the {@link android.app.Activity} is recreated.
+     */
+    private static volatile Config residentScene = null;
+
+    /**
+     * The {@link #bitmap} and the {@link #dirtyPixels} of the last used resolutions, from the
+     * least to the most recently used, so a render with the resolution of a previous one reuses
+     * them instead of allocating new ones.
+     */
+    private final Map<ConfigResolution, Pair<Bitmap, ByteBuffer>> renderBuffersPool =
+        new LinkedHashMap<>(MAX_POOLED_RESOLUTIONS + 1, 0.75F, true);
+
+    /**
+     * The regions of the {@link #bitmap} which changed since the last frame.
+     */
+    private final int[] dirtyRegions = new int[NUMBER_OF_TILES * REGION_COMPONENTS];
+
+    /**
+     * Whether the OpenGL texture was already allocated with the size of the {@link #bitmap}.
+     */
+    private boolean textureAllocated = false;
+
     /**
      * The number of threads to be used by the Ray Tracer engine.
      */
@@ -176,14 +258,21 @@ public final class MainRenderer implements GLSurfaceView.Renderer {
     private FloatBuffer floatBufferTexture = null;
 
     /**
-     * The vertices positions in the scene.
+     * The OpenGL vertex and index buffers with the preview geometry of the scene.
+     * They are kept between renders and only rebuilt when the scene changes.
      */
-    private ByteBuffer arrayVertices = null;
+    private final int[] previewBuffers = new int[2];
 
     /**
-     * The vertices colors in the scene.
+     * The batches of the preview geometry in the {@link #previewBuffers}, or {@code null} if the
+     * preview geometry is not in OpenGL.
      */
-    private ByteBuffer arrayColors = null;
+    private int[] previewBatches = null;
+
+    /**
+     * The identifier of the scene whose geometry is in the {@link #previewBuffers}.
+     */
+    private long previewSceneId = -1L;
 
     /**
      * The camera (e.g.: eye, direction, up and fov) in the scene.
@@ -218,13 +307,30 @@ public final class MainRenderer implements GLSurfaceView.Renderer {
      */
     private int shaderProgramRaster = 0;
 
+    /**
+     * The OpenGL framebuffer object where the preview is rendered, with its color texture and
+     * its depth renderbuffer.
+     */
+    private final int[] previewFramebuffer = new int[3];
+
+    /**
+     * The {@link ConfigResolution} of the {@link #previewFramebuffer}.
+     */
+    private ConfigResolution previewFramebufferResolution = null;
+
     /**
      * Determine if it is the first frame to render.
      * It is important because it should only call the Ray Tracer engine at the
      * first frame and the others just
      * update the texture with the {@link Bitmap}.
      */
-    private boolean firstFrame = false;
+    private volatile boolean firstFrame = false;
+
+    /**
+     * The lock which guards the {@link #firstFrame} field, so the threads waiting for the first
+     * frame to be drawn are notified as soon as it is.
+     */
+    private final Object firstFrameLock = new Object();
 
     /**
      * The {@link TextView} which will output the debug information about the
@@ -245,6 +351,12 @@ public final class MainRenderer implements GLSurfaceView.Renderer {
      */
     private RenderTask renderTask = null;
 
+    /**
+     * The {@link SingleTaskScope} where the {@link #renderTask} is launched, which is owned by the
+     * {@link DrawView}.
+     */
+    private SingleTaskScope renderTasks = new SingleTaskScope();
+
     /**
      * The OpenGL texture handle.
      * Useful in order to delete the allocated texture when the ray tracing engine is closed.
@@ -306,19 +418,6 @@ public final class MainRenderer implements GLSurfaceView.Renderer {
         return alpha << (3 * 8) | newPixel;
     }
 
-    /**
-     * Helper method that defines an array of some vertex attribute data.
-     *
-     * @param byteBuffer The data to pass to OpenGL context.
-     * @param attribute  The index of the generic vertex attribute to be modified.
-     */
-    private static void defineAttributeData(@NonNull final ByteBuffer byteBuffer,
-                                            final int attribute) {
-        UtilsGL.run(() -> GLES20.glVertexAttribPointer(attribute,
-            VERTEX_COMPONENTS, GLES20.GL_FLOAT, false, 0, byteBuffer));
-        UtilsGL.run(() -> GLES20.glEnableVertexAttribArray(attribute));
-    }
-
     /**
      * Create the Model View Projection matrices and specify them as values for the uniform
      * variables in the shader program.
@@ -349,43 +448,6 @@ public final class MainRenderer implements GLSurfaceView.Renderer {
             1, false, projectionMatrix, 0));
     }
 
-    /**
-     * Helper method that connects the vertices and colors in the GLSL attributes.
-     *
-     * @param shaderProgram The index of the shader program to connect the attributes.
-     * @param bbVertices    The vertices' buffer.
-     * @param bbColors      The colors' buffer.
-     */
-    private static void connectAttributes(final int shaderProgram,
-                                          @NonNull final ByteBuffer bbVertices,
-                                          @NonNull final ByteBuffer bbColors) {
-        final ConfigGlAttribute.Builder builderVerticesAttribute = ConfigGlAttribute.Builder.Companion.create();
-        builderVerticesAttribute.setAttributeName(VERTEX_POSITION);
-        builderVerticesAttribute.setBuffer(bbVertices);
-        builderVerticesAttribute.setAttributeLocation(0);
-        builderVerticesAttribute.setComponentsInBuffer(VERTEX_COMPONENTS);
-        UtilsShader.connectOpenGlAttribute(shaderProgram, builderVerticesAttribute.build());
-
-        final ConfigGlAttribute.Builder builderColorsAttribute = ConfigGlAttribute.Builder.Companion.create();
-        builderColorsAttribute.setAttributeName(VERTEX_COLOR);
-        builderColorsAttribute.setBuffer(bbColors);
-        builderColorsAttribute.setAttributeLocation(1);
-        builderColorsAttribute.setComponentsInBuffer(PIXEL_COLORS);
-        UtilsShader.connectOpenGlAttribute(shaderProgram, builderColorsAttribute.build());
-    }
-
-    /**
-     * Helper method that calculates the number of vertices in a {@link ByteBuffer}.
-     *
-     * @param bbVertices The vertices' buffer.
-     * @return The number of vertices in the {@link ByteBuffer}.
-     */
-    private static int getVertexCount(@NonNull final ByteBuffer bbVertices) {
-        logger.info("getVertexCount");
-
-        return bbVertices.capacity() / (Constants.BYTES_IN_FLOAT * VERTEX_COMPONENTS);
-    }
-
     /**
      * Updates the text in the render {@link Button}.
      * Note that only the UI thread can change the {@link #buttonRender} value.
@@ -407,10 +469,18 @@ public final class MainRenderer implements GLSurfaceView.Renderer {
     public State getState() {
         logger.info("getState");
 
-        while (this.firstFrame) {
-            logger.info("Waiting for the onDraw to start the RT engine!!!");
-            Uninterruptibles.sleepUninterruptibly(500L, TimeUnit.MILLISECONDS);
-            logger.info("Waited for the onDraw to start the RT engine!!!");
+        synchronized (this.firstFrameLock) {
+            while (this.firstFrame) {
+                logger.info("Waiting for the onDraw to start the RT engine!!!");
+                try {
+                    this.firstFrameLock.wait();
+                } catch (final InterruptedException ex) {
+                    UtilsLogging.logThrowable(ex, "MainRenderer#getState");
+                    Thread.currentThread().interrupt();
+                    break;
+                }
+                logger.info("Waited for the onDraw to start the RT engine!!!");
+            }
         }
 
         MainActivity.resetErrno();
@@ -462,12 +532,32 @@ public final class MainRenderer implements GLSurfaceView.Renderer {
 
     /**
      * Loads the scene and constructs the Ray Tracer renderer.
+     * <br>
+     * If {@code keepScene} is {@code true}, then the scene already loaded, with its shader and
+     * acceleration structure, is reused and only the render settings of the {@link Config} are
+     * applied.
      *
-     * @param config The ray tracer configuration.
+     * @param config    The ray tracer configuration.
+     * @param keepScene Whether the scene already loaded should be reused.
      * @return The number of primitives or a negative value if an error occurs.
      * @throws LowMemoryException If the device has low free memory.
      */
-    native int rtInitialize(Config config) throws LowMemoryException;
+    native int rtInitialize(Config config, boolean keepScene) throws LowMemoryException;
+
+    /**
+     * Estimates the memory needed to render a scene, right after parsing it and before building
+     * it.
+     *
+     * @param scene       The index of the scene.
+     * @param accelerator The index of the acceleration structure.
+     * @param width       The width of the image to render.
+     * @param height      The height of the image to render.
+     * @param denoise     Whether the rendered image is denoised.
+     * @return The bytes needed for the triangles, the acceleration structure, the textures, the
+     *     framebuffers and the denoiser, in this order.
+     * @throws LowMemoryException If the device has low free memory.
+     */
+    private native long[] rtEstimateMemory(int scene, int accelerator, int width, int height, boolean denoise) throws LowMemoryException;
 
     /**
      * Let Ray Tracer engine start to render the scene.
@@ -482,20 +572,64 @@ public final class MainRenderer implements GLSurfaceView.Renderer {
     private native void rtRenderIntoBitmap(Bitmap image, int numThreads) throws LowMemoryException;
 
     /**
-     * Creates a native array with all the positions of triangles in the scene.
+     * Gets the regions of the {@link Bitmap} rendered since the last call and copies their pixels
+     * to a buffer.
+     * The pixels of each region are packed one after the other, row by row.
      *
-     * @return A new array with all the primitives' vertices.
-     * @throws LowMemoryException If the device has low free memory.
+     * @param pixels  A direct {@link ByteBuffer}, with the size of the {@link Bitmap}, where the
+     *                pixels of the regions are copied into.
+     * @param regions The array where the X, Y, width and height of each region are copied into.
+     * @return The number of regions, or {@code -1} if the Ray Tracer engine is not rendering into
+     *     the {@link Bitmap}.
      */
-    private native ByteBuffer rtInitVerticesArray() throws LowMemoryException;
+    private native int rtGetDirtyTiles(ByteBuffer pixels, int[] regions);
 
     /**
-     * Creates a native array with all the colors of triangles in the scene.
+     * Clears all the pixels of a {@link Bitmap} to opaque black, splitting its rows by
+     * {@code numThreads} threads.
      *
-     * @return A new array with all the primitives' colors.
+     * @param image      The {@link Bitmap} to clear.
+     * @param numThreads The number of threads to be used.
+     */
+    private native void rtClearBitmap(Bitmap image, int numThreads);
+
+    /**
+     * Gets the identifier of the scene loaded in the Ray Tracer engine, which only changes when a
+     * different scene is loaded.
+     *
+     * @return The identifier of the scene.
+     */
+    private native long rtGetSceneId();
+
+    /**
+     * Builds the indexed geometry of the preview of the scene in native memory.
+     * <br>
+     * The geometry is read with {@link #rtGetPreviewVertices()} and {@link #rtGetPreviewIndices()}
+     * and it must be released with {@link #rtFreePreviewGeometry()}.
+     *
+     * @return The batches of the geometry, with {@link #PREVIEW_BATCH_COMPONENTS} values each.
      * @throws LowMemoryException If the device has low free memory.
      */
-    private native ByteBuffer rtInitColorsArray() throws LowMemoryException;
+    private native int[] rtInitPreviewGeometry() throws LowMemoryException;
+
+    /**
+     * Gets the vertices of the preview geometry, with {@link #PREVIEW_VERTEX_BYTES} bytes each.
+     *
+     * @return A {@link ByteBuffer} with the vertices or {@code null} if there are none.
+     */
+    private native ByteBuffer rtGetPreviewVertices();
+
+    /**
+     * Gets the 16 bits indices of the preview geometry.
+     *
+     * @return A {@link ByteBuffer} with the indices or {@code null} if there are none.
+     */
+    private native ByteBuffer rtGetPreviewIndices();
+
+    /**
+     * Releases the native memory of the preview geometry.
+     */
+    private native void rtFreePreviewGeometry();
 
     /**
      * Creates a native array with the camera's position, direction, up and
@@ -508,9 +642,7 @@ public final class MainRenderer implements GLSurfaceView.Renderer {
 
     /**
      * Free the memory of a native array.
-     * The memory allocated with {@link #rtInitVerticesArray()},
-     * {@link #rtInitColorsArray()} and
-     * {@link #rtInitCameraArray()} methods should be free using
+     * The memory allocated with {@link #rtInitCameraArray()} method should be free using
      * this method.
      *
      * @param byteBuffer A reference to {@link ByteBuffer} to free its memory.
@@ -519,31 +651,27 @@ public final class MainRenderer implements GLSurfaceView.Renderer {
     private native ByteBuffer rtFreeNativeBuffer(final ByteBuffer byteBuffer);
 
     /**
-     * Free the memory of {@link #arrayVertices},
-     * {@link #arrayColors} and {@link #arrayCamera}
-     * native arrays.
+     * Free the memory of the {@link #arrayCamera} native array.
      */
     void freeArrays() {
         logger.info("freeArrays");
-        this.arrayVertices = rtFreeNativeBuffer(this.arrayVertices);
-        this.arrayColors = rtFreeNativeBuffer(this.arrayColors);
         this.arrayCamera = rtFreeNativeBuffer(this.arrayCamera);
     }
 
     /**
-     * Helper method which initializes the {@link #arrayVertices},
-     * {@link #arrayColors} and {@link #arrayCamera}
-     * native arrays.
+     * Helper method which initializes the {@link #arrayCamera} native array and, if the scene
+     * changed, the preview geometry in the {@link #previewBuffers}.
      * @throws LowMemoryException If the device has low free memory.
      */
     private void initPreviewArrays() throws LowMemoryException {
         logger.info("initArrays");
         checksFreeMemory(1, this::freeArrays);
 
-        this.arrayVertices = rtInitVerticesArray();
-        checksFreeMemory(1, this::freeArrays);
-
-        this.arrayColors = rtInitColorsArray();
+        final long sceneId = rtGetSceneId();
+        if (this.previewBatches == null || this.previewSceneId != sceneId) {
+            uploadPreviewGeometry();
+            this.previewSceneId = sceneId;
+        }
         checksFreeMemory(1, this::freeArrays);
 
         this.arrayCamera = rtInitCameraArray();
@@ -552,6 +680,60 @@ public final class MainRenderer implements GLSurfaceView.Renderer {
         validateArrays();
     }
 
+    /**
+     * Helper method which builds the preview geometry of the scene and uploads it to the
+     * {@link #previewBuffers}.
+     * The native copy of the geometry is released right after it is uploaded.
+     *
+     * @throws LowMemoryException If the device has low free memory.
+     */
+    private void uploadPreviewGeometry() throws LowMemoryException {
+        logger.info("uploadPreviewGeometry");
+        this.previewBatches = null;
+        final int[] batches = rtInitPreviewGeometry();
+        try {
+            if (batches.length > 0) {
+                final ByteBuffer vertices = rtGetPreviewVertices();
+                final ByteBuffer indices = rtGetPreviewIndices();
+                if (this.previewBuffers[0] == 0) {
+                    UtilsGL.run(() -> GLES20.glGenBuffers(this.previewBuffers.length, this.previewBuffers, 0));
+                }
+                UtilsGL.run(() -> GLES20.glBindBuffer(GLES20.GL_ARRAY_BUFFER, this.previewBuffers[0]));
+                UtilsGL.run(() -> GLES20.glBufferData(GLES20.GL_ARRAY_BUFFER,
+                    vertices.capacity(), vertices, GLES20.GL_STATIC_DRAW));
+                UtilsGL.run(() -> GLES20.glBindBuffer(GLES20.GL_ELEMENT_ARRAY_BUFFER, this.previewBuffers[1]));
+                UtilsGL.run(() -> GLES20.glBufferData(GLES20.GL_ELEMENT_ARRAY_BUFFER,
+                    indices.capacity(), indices, GLES20.GL_STATIC_DRAW));
+                UtilsGL.run(() -> GLES20.glBindBuffer(GLES20.GL_ARRAY_BUFFER, 0));
+                UtilsGL.run(() -> GLES20.glBindBuffer(GLES20.GL_ELEMENT_ARRAY_BUFFER, 0));
+            }
+            this.previewBatches = batches;
+        } finally {
+            rtFreePreviewGeometry();
+        }
+    }
+
+    /**
+     * Helper method which deletes the {@link #previewBuffers}.
+     */
+    private void deletePreviewBuffers() {
+        if (this.previewBuffers[0] != 0) {
+            UtilsGL.run(() -> GLES20.glDeleteBuffers(this.previewBuffers.length, this.previewBuffers, 0));
+        }
+        resetPreviewBuffers();
+    }
+
+    /**
+     * Helper method which forgets the {@link #previewBuffers}, e.g. because the OpenGL context
+     * where they were created was lost.
+     */
+    private void resetPreviewBuffers() {
+        this.previewBuffers[0] = 0;
+        this.previewBuffers[1] = 0;
+        this.previewBatches = null;
+        this.previewSceneId = -1L;
+    }
+
     /**
      * Helper method which verifies if the Android device has low free memory.
      *
@@ -577,6 +759,71 @@ public final class MainRenderer implements GLSurfaceView.Renderer {
         return insufficientMem || this.memoryInfo.lowMemory;
     }
 
+    /**
+     * Checks whether the scene loaded in the Ray Tracer engine can be rendered with a
+     * {@link Config}, without loading it again.
+     *
+     * @param config The ray tracer configuration.
+     * @return Whether the scene of the {@link Config} is already loaded.
+     * @see Config#hasSameScene(Config)
+     */
+    boolean isSceneResident(@NonNull final Config config) {
+        final Config scene = residentScene;
+        return scene != null && config.hasSameScene(scene);
+    }
+
+    /**
+     * Checks whether a {@link Config} only changes the crop window of the last render, so its
+     * image can be refined instead of cleared.
+     *
+     * @param config The ray tracer configuration.
+     * @return Whether the {@link Config} only changes the crop window of the last render.
+     * @see Config#onlyChangesCropWindow(Config)
+     */
+    boolean onlyChangesCropWindow(@NonNull final Config config) {
+        final Config scene = residentScene;
+        return scene != null && config.onlyChangesCropWindow(scene);
+    }
+
+    /**
+     * Sets the {@link Config} of the scene loaded in the Ray Tracer engine.
+     *
+     * @param config The ray tracer configuration used to load the scene, or {@code null} if there
+     *               is no scene loaded.
+     */
+    static void setResidentScene(final Config config) {
+        residentScene = config;
+    }
+
+    /**
+     * Checks whether there is enough free memory to render a scene with a {@link Config},
+     * before the scene and its acceleration structure are built.
+     * <br>
+     * The triangles, the acceleration structure and the textures of a scene already loaded are
+     * already allocated, so only its framebuffers and denoiser are counted.
+     *
+     * @param config        The ray tracer configuration.
+     * @param sceneResident Whether the scene of the {@link Config} is already loaded.
+     * @return Whether the scene fits in the available memory.
+     * @throws LowMemoryException If the device has low free memory.
+     */
+    boolean fitsInMemory(@NonNull final Config config, final boolean sceneResident) throws LowMemoryException {
+        final ConfigResolution resolution = config.getConfigResolution();
+        final long[] estimate = rtEstimateMemory(config.getScene(), config.getAccelerator(),
+            resolution.getWidth(), resolution.getHeight(), config.getDenoise());
+        long bytesNeeded = 0L;
+        for (int index = sceneResident ? ESTIMATE_FRAMEBUFFERS : 0; index < estimate.length; ++index) {
+            bytesNeeded += estimate[index];
+        }
+        final String message = "ESTIMATED MEMORY: triangles=" + estimate[0] + "B, accelerator="
+            + estimate[1] + "B, textures=" + estimate[2] + "B, framebuffers=" + estimate[3]
+            + "B, denoiser=" + estimate[4] + "B";
+        logger.info(message);
+
+        final long megabytesNeeded = bytesNeeded / Constants.BYTES_IN_MEGABYTE + 1L;
+        return !isLowMemory((int) Math.min(Integer.MAX_VALUE, megabytesNeeded));
+    }
+
     /**
      * Helper method which checks if the Android device has low free memory.
      *
@@ -596,15 +843,17 @@ public final class MainRenderer implements GLSurfaceView.Renderer {
 
     /**
      * Prepares this object by setting up the {@link ConfigRenderTask#getRequestRender()}
-     * and {@link #renderTask} fields.
+     * and {@link #renderTasks} fields.
      *
      * @param requestRender A {@link Runnable} of
      *                      {@link GLSurfaceView#requestRender()} method.
+     * @param renderTasks   The {@link SingleTaskScope} where the {@link #renderTask} is launched.
      */
-    void prepareRenderer(final Runnable requestRender) {
+    void prepareRenderer(final Runnable requestRender, final SingleTaskScope renderTasks) {
         logger.info("prepareRenderer");
 
         this.configRenderTask.setRequestRender(requestRender);
+        this.renderTasks = renderTasks;
     }
 
     /**
@@ -637,6 +886,9 @@ public final class MainRenderer implements GLSurfaceView.Renderer {
      * Creates a new {@link Bitmap} with the size of {@code width} and
      * {@code height} and also sets the {@code #viewWidth} and
      * {@code #viewHeight} fields.
+     * <br>
+     * If a {@link Bitmap} with that resolution is in the {@link #renderBuffersPool}, then it is
+     * reused, together with its {@link #dirtyPixels}, and cleared by the Ray Tracer engine.
      *
      * @param configResolution     The resolution of the new {@link Bitmap}.
      * @param configResolutionView The resolution of the {@link SurfaceView}.
@@ -645,25 +897,118 @@ public final class MainRenderer implements GLSurfaceView.Renderer {
     void setBitmap(final ConfigResolution configResolution,
                    final ConfigResolution configResolutionView,
                    final boolean rasterize) {
+        setBitmap(configResolution, configResolutionView, rasterize, false);
+    }
+
+    /**
+     * Creates a new {@link Bitmap} with the size of {@code width} and
+     * {@code height} and also sets the {@code #viewWidth} and
+     * {@code #viewHeight} fields.
+     * <br>
+     * If a {@link Bitmap} with that resolution is in the {@link #renderBuffersPool}, then it is
+     * reused, together with its {@link #dirtyPixels}, and cleared by the Ray Tracer engine unless
+     * its image should be kept.
+     *
+     * @param configResolution     The resolution of the new {@link Bitmap}.
+     * @param configResolutionView The resolution of the {@link SurfaceView}.
+     * @param rasterize            The new {@link #rasterize}.
+     * @param keepImage            Whether the image of the last render with the same resolution
+     *                             should be kept, because the next render refines it.
+     */
+    void setBitmap(final ConfigResolution configResolution,
+                   final ConfigResolution configResolutionView,
+                   final boolean rasterize,
+                   final boolean keepImage) {
         logger.info(ConstantsMethods.SET_BITMAP);
         this.configResolution = configResolution;
         this.configResolutionView = configResolutionView;
 
-        this.bitmap = Bitmap.createBitmap(configResolution.getWidth(), configResolution.getHeight(), Bitmap.Config.ARGB_8888);
-        // For some reason, only from Android 4.2+, the method `Bitmap.createBitmap` sets the
-        // `errno` to `ENOMEM` which means that the system didn't have enough memory to do some
-        // operation, so we set the `errno` back to 0 here.
-        MainActivity.resetErrno();
-        this.bitmap.eraseColor(Color.BLACK);
-        validateBitmap(this.bitmap);
+        final Pair<Bitmap, ByteBuffer> pooledBuffers = this.renderBuffersPool.get(configResolution);
+        if (pooledBuffers != null && !pooledBuffers.getFirst().isRecycled()) {
+            logger.info("Reusing the bitmap with the resolution: " + configResolution);
+            this.bitmap = pooledBuffers.getFirst();
+            this.dirtyPixels = pooledBuffers.getSecond();
+            validateBitmap(this.bitmap);
+            // The bitmap still has the image of the previous render with this resolution.
+            if (!keepImage) {
+                rtClearBitmap(this.bitmap, this.numThreads);
+            }
+        } else {
+            this.bitmap = Bitmap.createBitmap(configResolution.getWidth(), configResolution.getHeight(), Bitmap.Config.ARGB_8888);
+            // For some reason, only from Android 4.2+, the method `Bitmap.createBitmap` sets the
+            // `errno` to `ENOMEM` which means that the system didn't have enough memory to do some
+            // operation, so we set the `errno` back to 0 here.
+            MainActivity.resetErrno();
+            this.bitmap.eraseColor(Color.BLACK);
+            validateBitmap(this.bitmap);
+
+            final int bitmapBytes = configResolution.getWidth() * configResolution.getHeight() * PIXEL_COLORS;
+            this.dirtyPixels = ByteBuffer.allocateDirect(bitmapBytes).order(ByteOrder.nativeOrder());
+            this.renderBuffersPool.put(configResolution, new Pair<>(this.bitmap, this.dirtyPixels));
+            trimRenderBuffersPool(MAX_POOLED_RESOLUTIONS);
+        }
+        this.textureAllocated = false;
 
-        this.firstFrame = true;
-        this.rasterize = rasterize;
+        synchronized (this.firstFrameLock) {
+            this.firstFrame = true;
+        }
+        // The preview would replace the image which is going to be refined.
+        this.rasterize = rasterize && !keepImage;
 
         final String messageFinished = ConstantsMethods.SET_BITMAP + ConstantsMethods.FINISHED;
         logger.info(messageFinished);
     }
 
+    /**
+     * Releases the {@link Bitmap}s and the buffers kept in the {@link #renderBuffersPool}, except
+     * the ones being used by the current render.
+     * <br>
+     * This method should be called by the OpenGL rendering thread, when the system asks the
+     * application to release memory.
+     *
+     * @param level The level of the memory trim requested by the system.
+     */
+    void trimMemory(final int level) {
+        logger.info("trimMemory: " + level);
+
+        trimRenderBuffersPool(1);
+
+        final String messageFinished = "trimMemory" + ConstantsMethods.FINISHED;
+        logger.info(messageFinished);
+    }
+
+    /**
+     * Helper method which releases the least recently used resolutions of the
+     * {@link #renderBuffersPool} until it has at most {@code maxResolutions} resolutions.
+     * <br>
+     * The buffers of the resolution being used are the most recently used, so they are never
+     * released. The released {@link Bitmap}s are not recycled, because the Ray Tracer engine or
+     * the {@link View} may still be reading them, so they are freed by the garbage collector.
+     *
+     * @param maxResolutions The maximum number of resolutions to keep.
+     */
+    private void trimRenderBuffersPool(final int maxResolutions) {
+        final Iterator<Map.Entry<ConfigResolution, Pair<Bitmap, ByteBuffer>>> iterator =
+            this.renderBuffersPool.entrySet().iterator();
+        while (this.renderBuffersPool.size() > maxResolutions && iterator.hasNext()) {
+            final Map.Entry<ConfigResolution, Pair<Bitmap, ByteBuffer>> entry = iterator.next();
+            if (entry.getValue().getFirst() != this.bitmap) {
+                logger.info("Releasing the bitmap with the resolution: " + entry.getKey());
+                iterator.remove();
+            }
+        }
+    }
+
+    /**
+     * Gets the number of resolutions whose {@link Bitmap} and buffers are kept to be reused.
+     *
+     * @return The number of resolutions in the {@link #renderBuffersPool}.
+     */
+    @VisibleForTesting
+    int getNumberOfPooledResolutions() {
+        return this.renderBuffersPool.size();
+    }
+
     /**
      * Converts an index of a pixel from OpenGL format to an index of a pixel of
      * Android format.
@@ -746,7 +1091,10 @@ public final class MainRenderer implements GLSurfaceView.Renderer {
         }
         if (this.shaderProgramRaster != 0) {
             UtilsGL.run(() -> GLES20.glDeleteProgram(this.shaderProgramRaster));
+            this.shaderProgramRaster = 0;
         }
+        deletePreviewBuffers();
+        deletePreviewFramebuffer();
 
         final String messageFinished = "closeRenderer" + ConstantsMethods.FINISHED;
         logger.info(messageFinished);
@@ -754,25 +1102,26 @@ public final class MainRenderer implements GLSurfaceView.Renderer {
 
     /**
      * Helper method which rasterizes the scene by using OpenGL rasterizer with
-     * the camera and the primitives received by parameters.
+     * the camera received by parameter and the preview geometry in the
+     * {@link #previewBuffers}.
      * After rendering the scene it reads the OpenGL frame buffer to copy the
      * rendered scene into an Android {@link Bitmap}.
+     * <br>
+     * The scene is rendered into the {@link #previewFramebuffer} with the resolution of the
+     * {@link #bitmap} and upside down, so its pixels can be copied as they are into the
+     * {@link #bitmap}. If that framebuffer can't be created, then the scene is rendered into the
+     * {@link View} and its pixels are converted by {@link #copyGlFrameBufferToBitmap}.
      *
-     * @param bbVertices    The primitives' vertices in the scene.
-     * @param bbColors      The primitives' colors in the scene.
      * @param bbCamera      The camera's position and vectors in the scene.
      * @param numPrimitives The number of primitives in the scene.
      * @throws LowMemoryException If the device has low free memory.
      */
     @VisibleForTesting
-    Bitmap renderSceneToBitmap(@NonNull final ByteBuffer bbVertices,
-                               @NonNull final ByteBuffer bbColors,
-                               @NonNull final ByteBuffer bbCamera,
+    Bitmap renderSceneToBitmap(@NonNull final ByteBuffer bbCamera,
                                final int numPrimitives) throws LowMemoryException {
         logger.info("renderSceneToBitmap");
 
-        if (UtilsBuffer.isAnyByteBufferEmpty(bbVertices, bbColors, bbCamera)
-            || numPrimitives <= 0) {
+        if (UtilsBuffer.isAnyByteBufferEmpty(bbCamera) || numPrimitives <= 0) {
             return this.bitmap;
         }
         UtilsGL.run(() -> GLES20.glClear(ConstantsRenderer.ALL_BUFFER_BIT));
@@ -780,43 +1129,193 @@ public final class MainRenderer implements GLSurfaceView.Renderer {
         final int neededMemoryMb = Utils.calculateSceneSize(numPrimitives);
         checksFreeMemory(neededMemoryMb, () -> logger.severe("SYSTEM WITH LOW MEMORY!!!"));
 
-        UtilsBuffer.resetByteBuffers(bbVertices, bbColors, bbCamera);
+        if (this.previewBatches == null || this.previewBatches.length == 0) {
+            return this.bitmap;
+        }
+        UtilsBuffer.resetByteBuffers(bbCamera);
 
-        this.shaderProgramRaster = UtilsShader.reCreateProgram(this.shaderProgramRaster);
+        createPreviewProgram();
+        UtilsGL.run(() -> GLES20.glUseProgram(this.shaderProgramRaster));
 
-        connectAttributes(this.shaderProgramRaster, bbVertices, bbColors);
+        createMatricesAsUniformVariables(bbCamera, this.shaderProgramRaster, this.configResolution);
 
-        UtilsShader.attachShaders(this.shaderProgramRaster, this.shadersPreviewCode);
+        final int handleFlipY = UtilsGL.<Integer, Integer, String>run(
+            this.shaderProgramRaster, "uniformFlipY", GLES20::glGetUniformLocation);
+        if (bindPreviewFramebuffer()) {
+            UtilsGL.run(() -> GLES20.glUniform1f(handleFlipY, -1.0F));
+            // Flipping the image also flips the winding of the triangles.
+            UtilsGL.run(() -> GLES20.glFrontFace(GLES20.GL_CW));
+            UtilsGL.run(() -> GLES20.glViewport(0, 0, this.configResolution.getWidth(), this.configResolution.getHeight()));
+            UtilsGL.run(() -> GLES20.glClear(ConstantsRenderer.ALL_BUFFER_BIT));
+
+            drawPreviewGeometry();
+            copyPreviewFramebufferToBitmap();
+
+            UtilsGL.run(() -> GLES20.glBindFramebuffer(GLES20.GL_FRAMEBUFFER, 0));
+            UtilsGL.run(() -> GLES20.glFrontFace(GLES20.GL_CCW));
+            UtilsGL.run(() -> GLES20.glViewport(0, 0, this.configResolutionView.getWidth(), this.configResolutionView.getHeight()));
+            return this.bitmap;
+        }
 
+        UtilsGL.run(() -> GLES20.glUniform1f(handleFlipY, 1.0F));
+        drawPreviewGeometry();
 
-        UtilsGL.run(() -> GLES20.glUseProgram(this.shaderProgramRaster));
+        return copyGlFrameBufferToBitmap(this.configResolution, this.configResolutionView);
+    }
 
-        createMatricesAsUniformVariables(bbCamera, this.shaderProgramRaster, this.configResolution);
+    /**
+     * Helper method which binds the {@link #previewFramebuffer}, and creates it if it doesn't
+     * exist yet with the resolution of the {@link #bitmap}.
+     *
+     * @return Whether the {@link #previewFramebuffer} is complete and bound.
+     */
+    private boolean bindPreviewFramebuffer() {
+        final int width = this.configResolution.getWidth();
+        final int height = this.configResolution.getHeight();
+        if (this.previewFramebuffer[0] != 0 && this.configResolution.equals(this.previewFramebufferResolution)) {
+            UtilsGL.run(() -> GLES20.glBindFramebuffer(GLES20.GL_FRAMEBUFFER, this.previewFramebuffer[0]));
+            return true;
+        }
+        deletePreviewFramebuffer();
+
+        final int[] maxSize = new int[2];
+        UtilsGL.run(() -> GLES20.glGetIntegerv(GLES20.GL_MAX_TEXTURE_SIZE, maxSize, 0));
+        UtilsGL.run(() -> GLES20.glGetIntegerv(GLES20.GL_MAX_RENDERBUFFER_SIZE, maxSize, 1));
+        if (Math.max(width, height) > Math.min(maxSize[0], maxSize[1])) {
+            logger.warning("The preview framebuffer is not supported with the resolution: " + this.configResolution);
+            return false;
+        }
 
-        defineAttributeData(bbVertices, 0);
+        UtilsGL.run(() -> GLES20.glGenFramebuffers(1, this.previewFramebuffer, 0));
+        UtilsGL.run(() -> GLES20.glGenTextures(1, this.previewFramebuffer, 1));
+        UtilsGL.run(() -> GLES20.glGenRenderbuffers(1, this.previewFramebuffer, 2));
+
+        UtilsGL.run(() -> GLES20.glBindTexture(GLES20.GL_TEXTURE_2D, this.previewFramebuffer[1]));
+        UtilsGL.run(() -> GLES20.glTexParameteri(GLES20.GL_TEXTURE_2D, GLES20.GL_TEXTURE_MIN_FILTER, GLES20.GL_NEAREST));
+        UtilsGL.run(() -> GLES20.glTexParameteri(GLES20.GL_TEXTURE_2D, GLES20.GL_TEXTURE_MAG_FILTER, GLES20.GL_NEAREST));
+        UtilsGL.run(() -> GLES20.glTexParameteri(GLES20.GL_TEXTURE_2D, GLES20.GL_TEXTURE_WRAP_S, GLES20.GL_CLAMP_TO_EDGE));
+        UtilsGL.run(() -> GLES20.glTexParameteri(GLES20.GL_TEXTURE_2D, GLES20.GL_TEXTURE_WRAP_T, GLES20.GL_CLAMP_TO_EDGE));
+        UtilsGL.run(() -> GLES20.glTexImage2D(GLES20.GL_TEXTURE_2D, 0, GLES20.GL_RGBA, width, height, 0,
+            GLES20.GL_RGBA, GLES20.GL_UNSIGNED_BYTE, null));
+        // The texture with the image rendered by the Ray Tracer engine must stay bound.
+        if (this.textureHandle != null) {
+            UtilsGL.run(() -> GLES20.glBindTexture(GLES20.GL_TEXTURE_2D, this.textureHandle[0]));
+        }
 
-        defineAttributeData(bbColors, 1);
+        UtilsGL.run(() -> GLES20.glBindRenderbuffer(GLES20.GL_RENDERBUFFER, this.previewFramebuffer[2]));
+        UtilsGL.run(() -> GLES20.glRenderbufferStorage(GLES20.GL_RENDERBUFFER, GLES20.GL_DEPTH_COMPONENT16, width, height));
+        UtilsGL.run(() -> GLES20.glBindRenderbuffer(GLES20.GL_RENDERBUFFER, 0));
+
+        UtilsGL.run(() -> GLES20.glBindFramebuffer(GLES20.GL_FRAMEBUFFER, this.previewFramebuffer[0]));
+        UtilsGL.run(() -> GLES20.glFramebufferTexture2D(GLES20.GL_FRAMEBUFFER, GLES20.GL_COLOR_ATTACHMENT0,
+            GLES20.GL_TEXTURE_2D, this.previewFramebuffer[1], 0));
+        UtilsGL.run(() -> GLES20.glFramebufferRenderbuffer(GLES20.GL_FRAMEBUFFER, GLES20.GL_DEPTH_ATTACHMENT,
+            GLES20.GL_RENDERBUFFER, this.previewFramebuffer[2]));
+
+        final int status = UtilsGL.<Integer>run(() -> GLES20.glCheckFramebufferStatus(GLES20.GL_FRAMEBUFFER));
+        if (status != GLES20.GL_FRAMEBUFFER_COMPLETE) {
+            logger.warning("The preview framebuffer is not complete: " + status);
+            UtilsGL.run(() -> GLES20.glBindFramebuffer(GLES20.GL_FRAMEBUFFER, 0));
+            deletePreviewFramebuffer();
+            return false;
+        }
+        this.previewFramebufferResolution = this.configResolution;
+        return true;
+    }
 
-        final int vertexCount = getVertexCount(bbVertices);
-        UtilsGL.run(() -> GLES20.glDrawArrays(GLES20.GL_TRIANGLES, 0, vertexCount));
+    /**
+     * Helper method which reads the pixels of the bound {@link #previewFramebuffer} and copies them
+     * into the {@link #bitmap}.
+     * <br>
+     * The pixels are read in RGBA, which is the order of the bytes in an
+     * {@link Bitmap.Config#ARGB_8888} {@link Bitmap}, and the image was rendered upside down, so
+     * they are copied without any conversion. They are read into the {@link #dirtyPixels}, which
+     * has the size of the {@link #bitmap} and is not used before the Ray Tracer engine starts
+     * rendering.
+     */
+    private void copyPreviewFramebufferToBitmap() {
+        this.dirtyPixels.position(0);
+        UtilsGL.run(() -> GLES20.glReadPixels(0, 0, this.configResolution.getWidth(), this.configResolution.getHeight(),
+            GLES20.GL_RGBA, GLES20.GL_UNSIGNED_BYTE, this.dirtyPixels));
+        this.bitmap.copyPixelsFromBuffer(this.dirtyPixels);
+        this.dirtyPixels.position(0);
+    }
 
-        UtilsGL.disableAttributeData(0, 1);
+    /**
+     * Helper method which deletes the {@link #previewFramebuffer}.
+     */
+    private void deletePreviewFramebuffer() {
+        if (this.previewFramebuffer[0] != 0) {
+            UtilsGL.run(() -> GLES20.glDeleteFramebuffers(1, this.previewFramebuffer, 0));
+        }
+        if (this.previewFramebuffer[1] != 0) {
+            UtilsGL.run(() -> GLES20.glDeleteTextures(1, this.previewFramebuffer, 1));
+        }
+        if (this.previewFramebuffer[2] != 0) {
+            UtilsGL.run(() -> GLES20.glDeleteRenderbuffers(1, this.previewFramebuffer, 2));
+        }
+        resetPreviewFramebuffer();
+    }
 
-        return copyGlFrameBufferToBitmap(this.configResolution, this.configResolutionView);
+    /**
+     * Helper method which forgets the {@link #previewFramebuffer}, e.g. because the OpenGL
+     * context where it was created was lost.
+     */
+    private void resetPreviewFramebuffer() {
+        Arrays.fill(this.previewFramebuffer, 0);
+        this.previewFramebufferResolution = null;
+    }
+
+    /**
+     * Helper method which creates and links the OpenGL program shader for the
+     * rasterization of the scene, if it wasn't created yet in the current OpenGL context.
+     */
+    private void createPreviewProgram() {
+        if (this.shaderProgramRaster != 0) {
+            return;
+        }
+        final int program = UtilsShader.reCreateProgram(0);
+        UtilsGL.run(() -> GLES20.glBindAttribLocation(program, 0, VERTEX_POSITION));
+        UtilsGL.run(() -> GLES20.glBindAttribLocation(program, 1, VERTEX_COLOR));
+        UtilsShader.attachShaders(program, this.shadersPreviewCode);
+        this.shaderProgramRaster = program;
+    }
+
+    /**
+     * Helper method which draws every batch of the preview geometry in the
+     * {@link #previewBuffers}.
+     */
+    private void drawPreviewGeometry() {
+        UtilsGL.run(() -> GLES20.glBindBuffer(GLES20.GL_ARRAY_BUFFER, this.previewBuffers[0]));
+        UtilsGL.run(() -> GLES20.glBindBuffer(GLES20.GL_ELEMENT_ARRAY_BUFFER, this.previewBuffers[1]));
+        UtilsGL.run(() -> GLES20.glEnableVertexAttribArray(0));
+        UtilsGL.run(() -> GLES20.glEnableVertexAttribArray(1));
+
+        for (int batch = 0; batch < this.previewBatches.length; batch += PREVIEW_BATCH_COMPONENTS) {
+            final int firstIndex = this.previewBatches[batch];
+            final int numIndices = this.previewBatches[batch + 1];
+            final int vertexOffset = this.previewBatches[batch + 2] * PREVIEW_VERTEX_BYTES;
+            final int colorOffset = vertexOffset + PREVIEW_POSITION_COMPONENTS * Constants.BYTES_IN_FLOAT;
+            UtilsGL.run(() -> GLES20.glVertexAttribPointer(0, PREVIEW_POSITION_COMPONENTS,
+                GLES20.GL_FLOAT, false, PREVIEW_VERTEX_BYTES, vertexOffset));
+            UtilsGL.run(() -> GLES20.glVertexAttribPointer(1, PIXEL_COLORS,
+                GLES20.GL_UNSIGNED_BYTE, true, PREVIEW_VERTEX_BYTES, colorOffset));
+            UtilsGL.run(() -> GLES20.glDrawElements(GLES20.GL_TRIANGLES, numIndices,
+                GLES20.GL_UNSIGNED_SHORT, firstIndex * BYTES_IN_INDEX));
+        }
+
+        UtilsGL.disableAttributeData(0, 1);
+        // The texture with the rendered image uses client side arrays, so the buffers must be unbound.
+        UtilsGL.run(() -> GLES20.glBindBuffer(GLES20.GL_ARRAY_BUFFER, 0));
+        UtilsGL.run(() -> GLES20.glBindBuffer(GLES20.GL_ELEMENT_ARRAY_BUFFER, 0));
     }
 
     /**
      * Creates and launches the {@link RenderTask} field.
      */
-    @OptIn(markerClass = DelicateCoroutinesApi.class)
     private void createAndLaunchRenderTask() {
         logger.info("createAndLaunchRenderTask");
 
-        Optional.ofNullable(this.renderTask)
-            .ifPresent(RenderTask::stopTask);
-
-        waitLastTask();
-
         this.configRenderTask.setTextView(this.textView);
         this.configRenderTask.setButtonRender(this.buttonRender);
         this.configRenderTask.setNumPrimitives(this.numPrimitives);
@@ -827,7 +1326,8 @@ public final class MainRenderer implements GLSurfaceView.Renderer {
         builder.setConfig(this.configRenderTask.build());
         this.renderTask = builder.build();
 
-        this.renderTask.executeAsync();
+        // The scope cancels the previous task, and only starts this one after the previous one finishes.
+        this.renderTasks.launch(this.renderTask);
         final String message = "createAndLaunchRenderTask" + ConstantsMethods.FINISHED;
         logger.info(message);
     }
@@ -856,22 +1356,60 @@ public final class MainRenderer implements GLSurfaceView.Renderer {
         builderTextureAttribute.setComponentsInBuffer(TEXTURE_COMPONENTS);
         UtilsShader.connectOpenGlAttribute(this.shaderProgram, builderTextureAttribute.build());
 
+        // Update the texture before drawing it, so the latest rendered tiles are shown.
+        uploadBitmap(bitmap);
+
         final int vertexCount = this.verticesTexture.length / Constants.BYTES_IN_FLOAT;
         UtilsGL.run(() -> GLES20.glDrawArrays(GLES20.GL_TRIANGLE_FAN, 0, vertexCount));
 
-        UtilsGL.run(() -> GLUtils.texImage2D(GLES20.GL_TEXTURE_2D, 0,
-            GLES20.GL_RGBA, bitmap, GLES20.GL_UNSIGNED_BYTE, 0));
-
         final String message = "drawBitmap" + ConstantsMethods.FINISHED;
         logger.info(message);
     }
 
+    /**
+     * Helper method that updates the OpenGL texture with the {@link Bitmap}.
+     * <br>
+     * The texture is only allocated once for each {@link Bitmap}. Afterwards, only the regions
+     * rendered since the last frame are uploaded, which avoids uploading the whole
+     * {@link Bitmap} every frame.
+     *
+     * @param bitmap The {@link Bitmap} to upload.
+     */
+    private void uploadBitmap(final Bitmap bitmap) {
+        if (!this.textureAllocated) {
+            UtilsGL.run(() -> GLUtils.texImage2D(GLES20.GL_TEXTURE_2D, 0,
+                GLES20.GL_RGBA, bitmap, GLES20.GL_UNSIGNED_BYTE, 0));
+            this.textureAllocated = true;
+            return;
+        }
+
+        final int numRegions = rtGetDirtyTiles(this.dirtyPixels, this.dirtyRegions);
+        if (numRegions < 0) {
+            // The Ray Tracer engine is not rendering, so it is not known which regions changed.
+            UtilsGL.run(() -> GLUtils.texSubImage2D(GLES20.GL_TEXTURE_2D, 0, 0, 0, bitmap));
+            return;
+        }
+
+        int offset = 0;
+        for (int region = 0; region < numRegions; ++region) {
+            final int index = region * REGION_COMPONENTS;
+            final int x = this.dirtyRegions[index];
+            final int y = this.dirtyRegions[index + 1];
+            final int width = this.dirtyRegions[index + 2];
+            final int height = this.dirtyRegions[index + 3];
+            this.dirtyPixels.position(offset);
+            UtilsGL.run(() -> GLES20.glTexSubImage2D(GLES20.GL_TEXTURE_2D, 0, x, y, width, height,
+                GLES20.GL_RGBA, GLES20.GL_UNSIGNED_BYTE, this.dirtyPixels));
+            offset += width * height * PIXEL_COLORS;
+        }
+        this.dirtyPixels.position(0);
+    }
+
     /**
      * Helper method that validates the native arrays.
      */
     private void validateArrays() {
-        Preconditions.checkNotNull(this.arrayVertices, "arrayVertices shouldn't be null");
-        Preconditions.checkNotNull(this.arrayColors, "arrayColors shouldn't be null");
+        Preconditions.checkNotNull(this.previewBatches, "previewBatches shouldn't be null");
         Preconditions.checkNotNull(this.arrayCamera, "arrayCamera shouldn't be null");
     }
 
@@ -925,6 +1463,12 @@ public final class MainRenderer implements GLSurfaceView.Renderer {
         UtilsGL.run(() -> GLES20.glUseProgram(this.shaderProgram));
 
         this.textureHandle = UtilsGL.bindTexture();
+        this.textureAllocated = false;
+
+        // The OpenGL objects of the preview were destroyed with the previous OpenGL context.
+        this.shaderProgramRaster = 0;
+        resetPreviewBuffers();
+        resetPreviewFramebuffer();
 
         final String message = "onSurfaceCreated" + ConstantsMethods.FINISHED;
         logger.info(message);
@@ -965,7 +1509,10 @@ public final class MainRenderer implements GLSurfaceView.Renderer {
                 MainActivity.resetRenderButton();
                 return;
             } finally {
-                this.firstFrame = false;
+                synchronized (this.firstFrameLock) {
+                    this.firstFrame = false;
+                    this.firstFrameLock.notifyAll();
+                }
             }
 
             createAndLaunchRenderTask();
@@ -986,7 +1533,7 @@ public final class MainRenderer implements GLSurfaceView.Renderer {
      */
     private Bitmap renderSceneIntoBitmap() throws LowMemoryException {
         initPreviewArrays();
-        return renderSceneToBitmap(this.arrayVertices, this.arrayColors, this.arrayCamera, this.numPrimitives);
+        return renderSceneToBitmap(this.arrayCamera, this.numPrimitives);
     }
 
 }
@@ -1,7 +1,7 @@
 package puscas.mobilertapp
 
 import android.graphics.Bitmap
-import android.os.Debug
+import android.os.Build
 import android.os.SystemClock
 import android.widget.Button
 import android.widget.TextView
@@ -14,12 +14,16 @@ import puscas.mobilertapp.constants.ConstantsUI
 import puscas.mobilertapp.constants.State
 import puscas.mobilertapp.utils.AsyncTaskCoroutine
 import puscas.mobilertapp.utils.Utils
+import java.lang.invoke.VarHandle
 import java.math.RoundingMode
+import java.nio.ByteBuffer
+import java.nio.ByteOrder
 import java.text.NumberFormat
 import java.util.Locale
 import java.util.concurrent.ExecutorService
 import java.util.concurrent.Executors
 import java.util.concurrent.TimeUnit
+import java.util.concurrent.atomic.AtomicInteger
 import java.util.logging.Logger
 
 /**
@@ -135,6 +139,29 @@ class RenderTask private constructor(
      */
     private val formatter = NumberFormat.getInstance(Locale.US)
 
+    /**
+     * The statistics of the Ray Tracer engine, which are updated by the native code.
+     * It is only read, without calling the native code.
+     */
+    private val stats: ByteBuffer by lazy { rtGetStats().order(ByteOrder.nativeOrder()) }
+
+    /**
+     * A counter only used as a memory fence for the reads of the [RenderTask.stats] on the
+     * Android versions without [VarHandle.acquireFence].
+     */
+    private val statsFence = AtomicInteger()
+
+    /**
+     * The version of the [RenderTask.stats] used to build the current text.
+     */
+    private var statsVersion = -1
+
+    /**
+     * The current Ray Tracer engine [State], read from the [RenderTask.stats].
+     * This task is only created after the Ray Tracer engine starts rendering.
+     */
+    private var currentState = State.BUSY
+
     /**
      * A private constructor of this class to force using the
      * RenderTask builder.
@@ -150,13 +177,8 @@ class RenderTask private constructor(
             logger.info(ConstantsMethods.TIMER)
             updateFps()
             updateTextStats()
-            val currentState = State.entries[rtGetState()]
-            stateT = currentState.toString()
             requestRender.run()
             publishProgressAsync()
-            if (currentState != State.BUSY) {
-                stopTask()
-            }
             logger.info(ConstantsMethods.TIMER + ConstantsMethods.FINISHED)
         }
         checksArguments()
@@ -167,16 +189,80 @@ class RenderTask private constructor(
      * that will be presented in the [TextView].
      */
     private fun updateTextStats() {
-        fpsT = "fps:" + formatter.format(rtGetFps().toDouble())
         fpsRenderT = "[" + formatter.format(fps.toDouble()) + "]"
-        timeFrameT =
-            ",t:" + formatter.format(rtGetTimeRenderer().toDouble() / millisecondsInSecond.toDouble())
         val currentTime = SystemClock.elapsedRealtime()
         timeT = "[" + formatter.format(
             (currentTime - startTimeStamp).toDouble() / millisecondsInSecond.toDouble()
         ) + "]"
-        allocatedT = ",m:" + (Debug.getNativeHeapAllocatedSize() / Constants.BYTES_IN_MEGABYTE) + "mb"
-        sampleT = "," + rtGetSample()
+        readStats()
+    }
+
+    /**
+     * Helper method that reads the statistics of the Ray Tracer engine and updates the text of
+     * the ones that changed since the last read.
+     * <br>
+     * The native code increments the version before and after updating the statistics, so a read
+     * is only consistent if the version is even and didn't change while reading. The statistics
+     * are read between two fences, so they are read after the first version and before the second.
+     */
+    private fun readStats() {
+        repeat(STATS_READ_ATTEMPTS) {
+            val version = stats.getInt(STATS_VERSION)
+            if (version % 2 != 0) {
+                return@repeat
+            }
+            if (version == statsVersion) {
+                return
+            }
+            acquireFence()
+            val state = stats.getInt(STATS_STATE)
+            val fpsEngine = stats.getFloat(STATS_FPS)
+            val sample = stats.getInt(STATS_SAMPLE)
+            val timeRenderer = stats.getLong(STATS_TIME_RENDERER)
+            val nativeHeap = stats.getLong(STATS_NATIVE_HEAP)
+            acquireFence()
+            if (stats.getInt(STATS_VERSION) != version) {
+                return@repeat
+            }
+            statsVersion = version
+            currentState = State.entries[state]
+            stateT = currentState.toString()
+            fpsT = "fps:" + formatter.format(fpsEngine.toDouble())
+            timeFrameT = ",t:" + formatter.format(timeRenderer.toDouble() / millisecondsInSecond.toDouble())
+            allocatedT = ",m:" + (nativeHeap / Constants.BYTES_IN_MEGABYTE) + "mb"
+            sampleT = ",$sample"
+            return
+        }
+    }
+
+    /**
+     * Helper method that stops the reads of the [RenderTask.stats] after this call from being
+     * reordered with the reads before it, because the [ByteBuffer] reads are plain reads.
+     * <br>
+     * The atomic increment is used on the Android versions without [VarHandle.acquireFence],
+     * because it is a full fence.
+     */
+    private fun acquireFence() {
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.TIRAMISU) {
+            VarHandle.acquireFence()
+        } else {
+            statsFence.incrementAndGet()
+        }
+    }
+
+    /**
+     * Helper method that logs how long each render thread was busy, how many tiles were
+     * rendered and how many shadow rays were blocked by the cached occluders.
+     */
+    private fun logThreadsBusyTime() {
+        val numThreads = stats.getInt(STATS_NUM_THREADS)
+        val busyTimes = (0 until numThreads).map { tid ->
+            stats.getLong(STATS_THREADS_BUSY_TIME + tid * Long.SIZE_BYTES) / MICROSECONDS_IN_MILLISECOND
+        }
+        logger.info("Tiles rendered: " + stats.getInt(STATS_TILES_DONE) + ", casted rays: "
+            + stats.getLong(STATS_CASTED_RAYS) + ", occluder cache hits: "
+            + stats.getLong(STATS_OCCLUDER_CACHE_HITS) + "/" + stats.getLong(STATS_OCCLUDER_CACHE_LOOKUPS)
+            + ", threads busy time (ms): " + busyTimes)
     }
 
     /**
@@ -189,7 +275,7 @@ class RenderTask private constructor(
         timeFrameT = ",t:" + formatter.format(0.0)
         timeT = "[" + formatter.format(0.0) + "]"
         stateT = " " + State.IDLE.id
-        allocatedT = ",m:" + (Debug.getNativeHeapAllocatedSize() / Constants.BYTES_IN_MEGABYTE) + "mb"
+        allocatedT = ",m:0mb"
         sampleT = ",0"
     }
 
@@ -204,35 +290,35 @@ class RenderTask private constructor(
     }
 
     /**
-     * Gets the number of frames per second which the Ray Tracer engine could
-     * render the scene.
+     * Gets the statistics of the Ray Tracer engine.
+     * The [ByteBuffer] is shared with the native code, which keeps it updated.
      *
-     * @return The number of frames per second.
+     * @return A read-only direct [ByteBuffer] with the statistics.
      */
-    private external fun rtGetFps(): Float
+    private external fun rtGetStats(): ByteBuffer
 
     /**
-     * Gets the time, in milliseconds, spent constructing the Ray Tracer
-     * renderer.
+     * Gets an `int` which represents the current Ray Tracer engine
+     * [State].
      *
-     * @return The time spent constructing the Ray Tracer renderer.
+     * @return The current Ray Tracer engine [State].
      */
-    private external fun rtGetTimeRenderer(): Long
+    external fun rtGetState(): Int
 
     /**
-     * Gets the current sample for all the pixels.
+     * Waits until the Ray Tracer engine [State] is different from the provided one, or until the
+     * timeout expires.
      *
-     * @return The current sample for all the pixels.
+     * @param state   The id of the [State] known by the caller.
+     * @param timeout The maximum time to wait, in `TimeUnit.MILLISECONDS`.
+     * @return The id of the current Ray Tracer engine [State].
      */
-    private external fun rtGetSample(): Int
+    private external fun rtAwaitState(state: Int, timeout: Long): Int
 
     /**
-     * Gets an `int` which represents the current Ray Tracer engine
-     * [State].
-     *
-     * @return The current Ray Tracer engine [State].
+     * Stops the Ray Tracer engine without waiting for it to finish the current frame.
      */
-    external fun rtGetState(): Int
+    private external fun rtCancelRender()
 
     /**
      * Auxiliary method which calculates the number of times
@@ -268,6 +354,20 @@ class RenderTask private constructor(
         logger.info("waitForTaskToFinish finished")
     }
 
+    /**
+     * Helper method which blocks until the Ray Tracer engine stops rendering, or until this task
+     * is stopped.
+     * The native code wakes this thread up as soon as the [State] changes, so there is no need to
+     * poll it in the [RenderTask.timer].
+     */
+    private fun waitForRenderToFinish() {
+        var state = State.BUSY.id
+        while (state == State.BUSY.id && !this.executorService.isShutdown) {
+            state = rtAwaitState(state, this.updateInterval)
+        }
+        logger.info("waitForRenderToFinish finished with state: $state")
+    }
+
     /**
      * Helper method which stops the [AsyncTaskCoroutine].
      */
@@ -277,6 +377,15 @@ class RenderTask private constructor(
         logger.info("stopTask finished")
     }
 
+    /**
+     * Stops the Ray Tracer engine that this task is monitoring.
+     */
+    override fun onCancelled() {
+        logger.info("onCancelled")
+        rtCancelRender()
+        logger.info("onCancelled finished")
+    }
+
     override fun onPreExecute() {
         logger.info("onPreExecute")
     }
@@ -292,6 +401,8 @@ class RenderTask private constructor(
             logger.severe("doInBackground failed")
             return
         }
+        waitForRenderToFinish()
+        stopTask()
         waitForTaskToFinish()
         val message = "doInBackground" + ConstantsMethods.FINISHED
         logger.info(message)
@@ -306,7 +417,9 @@ class RenderTask private constructor(
 
     override fun onPostExecute() {
         this.logger.info("onPostExecute")
+        readStats()
         printText()
+        logThreadsBusyTime()
         this.requestRender.run()
         stopTask()
         MainActivity.resetErrno()
@@ -316,6 +429,36 @@ class RenderTask private constructor(
         this.logger.info(message)
     }
 
+    companion object {
+        /**
+         * The maximum number of attempts to read the statistics while the native code is
+         * updating them.
+         */
+        private const val STATS_READ_ATTEMPTS = 4
+
+        /**
+         * The number of microseconds in a millisecond.
+         */
+        private const val MICROSECONDS_IN_MILLISECOND = 1000L
+
+        /**
+         * The offsets, in bytes, of the values in the statistics of the Ray Tracer engine.
+         * They must match the `RenderStats` structure in the native code.
+         */
+        private const val STATS_VERSION = 0
+        private const val STATS_STATE = 4
+        private const val STATS_FPS = 8
+        private const val STATS_SAMPLE = 12
+        private const val STATS_TIME_RENDERER = 16
+        private const val STATS_CASTED_RAYS = 24
+        private const val STATS_NATIVE_HEAP = 32
+        private const val STATS_TILES_DONE = 40
+        private const val STATS_NUM_THREADS = 44
+        private const val STATS_OCCLUDER_CACHE_LOOKUPS = 48
+        private const val STATS_OCCLUDER_CACHE_HITS = 56
+        private const val STATS_THREADS_BUSY_TIME = 64
+    }
+
     class Builder private constructor() {
         lateinit var config : ConfigRenderTask
 
@@ -15,8 +15,14 @@ import java.lang.annotation.Native
  * @property camFilePath      The path to the CAM file.
  * @property configSamples    The configurator for the number of samples.
  * @property configResolution The configurator for the desired resolution.
+ * @property configCropWindow The configurator for the region of the image to render.
  * @property threads          The number of threads.
  * @property rasterize        Whether the Ray Tracing engine should render a preview frame.
+ * @property denoise          Whether the Ray Tracing engine should remove the noise of the
+ *                            rendered image when the render finishes or is stopped.
+ * @property renderTime       The maximum time, in milliseconds, to render the scene, or 0 for no
+ *                            limit. The Ray Tracing engine only renders the complete samples per
+ *                            pixel that fit in that time.
  */
 data class Config private constructor(
     @Native val scene: Int,
@@ -27,13 +33,55 @@ data class Config private constructor(
     @Native val camFilePath :String,
     @Native val configSamples: ConfigSamples,
     @Native val configResolution: ConfigResolution,
+    @Native val configCropWindow: ConfigCropWindow,
     @Native val threads: Int,
     @Native val rasterize: Boolean,
+    @Native val denoise: Boolean,
+    @Native val renderTime: Int,
 ) {
 
     init {
         require(scene >= 0) { "The scene must be >= 0." }
         require(shader >= 0) { "The shader must be >= 0." }
+        require(renderTime >= 0) { "The renderTime must be >= 0." }
+    }
+
+    /**
+     * Checks whether the scene built by the Ray Tracer engine for another configuration can be
+     * rendered with this one.
+     * <br>
+     * The scene, the shader, the accelerator and the scene files define the scene that is built,
+     * while the samples, the resolution, the crop window, the threads, the preview, the denoiser
+     * and the render time are render settings which don't invalidate it.
+     *
+     * @param config The configuration of the scene that was built.
+     * @return Whether both configurations build the same scene.
+     */
+    fun hasSameScene(config: Config): Boolean {
+        return scene == config.scene
+            && shader == config.shader
+            && accelerator == config.accelerator
+            && objFilePath == config.objFilePath
+            && matFilePath == config.matFilePath
+            && camFilePath == config.camFilePath
+    }
+
+    /**
+     * Checks whether this configuration only changes the crop window of another one, so the
+     * image rendered with the other configuration can be refined instead of rendered again.
+     *
+     * @param config The configuration of the rendered image.
+     * @return Whether both configurations only differ in the crop window.
+     */
+    fun onlyChangesCropWindow(config: Config): Boolean {
+        return configCropWindow != config.configCropWindow
+            && hasSameScene(config)
+            && configSamples == config.configSamples
+            && configResolution == config.configResolution
+            && threads == config.threads
+            && rasterize == config.rasterize
+            && denoise == config.denoise
+            && renderTime == config.renderTime
     }
 
     class Builder private constructor() {
@@ -45,12 +93,15 @@ data class Config private constructor(
         var camFilePath = ""
         var configSamples = ConfigSamples.Builder.create().build()
         var configResolution = ConfigResolution.Builder.create().build()
+        var configCropWindow = ConfigCropWindow.Builder.create().build()
         var threads = 0
         var rasterize = false
+        var denoise = false
+        var renderTime = 0
 
         companion object { fun create() = Builder() }
 
-        fun build() = Config(scene, shader, accelerator, objFilePath, matFilePath, camFilePath, configSamples, configResolution, threads, rasterize)
+        fun build() = Config(scene, shader, accelerator, objFilePath, matFilePath, camFilePath, configSamples, configResolution, configCropWindow, threads, rasterize, denoise, renderTime)
     }
 
 }
@@ -0,0 +1,40 @@
+package puscas.mobilertapp.configs
+
+import java.lang.annotation.Native
+
+/**
+ * The configurator for the region of the image to render in the Ray Tracer engine.
+ * <br>
+ * The sides are fractions of the width and of the height of the image, so the same region is
+ * rendered at any resolution. The default region is the whole image.
+ *
+ * @property left   The left side, between 0 and 1.
+ * @property top    The top side, between 0 and 1.
+ * @property right  The right side, between 0 and 1.
+ * @property bottom The bottom side, between 0 and 1.
+ */
+data class ConfigCropWindow private constructor(
+    @Native val left: Float,
+    @Native val top: Float,
+    @Native val right: Float,
+    @Native val bottom: Float,
+) {
+
+    init {
+        require(left >= 0F && left < right) { "The left must be >= 0 and < right." }
+        require(top >= 0F && top < bottom) { "The top must be >= 0 and < bottom." }
+        require(right <= 1F) { "The right must be <= 1." }
+        require(bottom <= 1F) { "The bottom must be <= 1." }
+    }
+
+    class Builder private constructor() {
+        var left = 0F
+        var top = 0F
+        var right = 1F
+        var bottom = 1F
+
+        companion object { fun create() = Builder() }
+
+        fun build() = ConfigCropWindow(left, top, right, bottom)
+    }
+}
@@ -63,6 +63,19 @@ public final class Constants {
      */
     public static final String MOBILERT_FOLDER_NAME = "MobileRT";
 
+    /**
+     * The extension of the OBJ scene files.
+     */
+    public static final String OBJ_FILE_EXTENSION = ".obj";
+
+    /**
+     * The extension of the scene files in the MobileRT binary scene format.
+     * <br>
+     * These files are created from an OBJ scene with the native converter and are loaded
+     * without parsing any text.
+     */
+    public static final String BINARY_SCENE_FILE_EXTENSION = ".mrtb";
+
     /**
      * The name of the folder which contains the OBJ files.
      */
@@ -47,6 +47,12 @@ public final class ConstantsUI {
      */
     public static final String PICKER_SAMPLES_LIGHT = "pickerSamplesLight";
 
+    /**
+     * The key for the UI's {@link Bundle} of {@link android.widget.NumberPicker}
+     * for selecting the maximum time to render the scene.
+     */
+    public static final String PICKER_RENDER_TIME = "pickerRenderTime";
+
     /**
      * The key for the UI's {@link Bundle} of {@link android.widget.NumberPicker}
      * for selecting the resolution of the image.
@@ -59,6 +65,22 @@ public final class ConstantsUI {
      */
     public static final String CHECK_BOX_RASTERIZE = "checkBoxRasterize";
 
+    /**
+     * The key for the UI's {@link Bundle} of {@link android.widget.CheckBox}
+     * to turn on/off the denoiser.
+     */
+    public static final String CHECK_BOX_DENOISE = "checkBoxDenoise";
+
+    /**
+     * The key for the UI's {@link Bundle} of whether a stopped render should be resumed.
+     */
+    public static final String RESUME_RENDER = "resumeRender";
+
+    /**
+     * The key for the UI's {@link Bundle} of the path to the scene file of the last render.
+     */
+    public static final String RENDERED_SCENE_PATH = "renderedScenePath";
+
     /**
      * The line separator in the current system.
      */
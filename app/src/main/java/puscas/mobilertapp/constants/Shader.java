@@ -34,7 +34,12 @@ public enum Shader {
     /**
      * The Diffuse shader.
      */
-    DIFFUSE("Diffuse");
+    DIFFUSE("Diffuse"),
+
+    /**
+     * The Path Tracing shader, with multiple importance sampling for the direct lighting.
+     */
+    PATH_TRACING_MIS("PathTracingMIS");
 
     /**
      * Logger for this class.
@@ -1,19 +1,18 @@
 package puscas.mobilertapp.utils
 
-import kotlinx.coroutines.CoroutineStart
-import kotlinx.coroutines.Deferred
-import kotlinx.coroutines.DelicateCoroutinesApi
+import kotlinx.coroutines.CoroutineScope
 import kotlinx.coroutines.Dispatchers
-import kotlinx.coroutines.GlobalScope
 import kotlinx.coroutines.Job
 import kotlinx.coroutines.async
+import kotlinx.coroutines.launch
 import kotlinx.coroutines.runBlocking
 import java.util.logging.Logger
 
 /**
  * An abstract class which simulates the deprecated [android.os.AsyncTask] from Java.
  *
- * This implementation uses Kotlin coroutines for the asynchronous tasks.
+ * This implementation uses Kotlin coroutines for the asynchronous tasks, which are launched in a
+ * [CoroutineScope] owned by the caller (e.g. a [SingleTaskScope]), so they can't outlive it.
  */
 abstract class AsyncTaskCoroutine {
 
@@ -23,9 +22,22 @@ abstract class AsyncTaskCoroutine {
     private val logger = Logger.getLogger(AsyncTaskCoroutine::class.java.name)
 
     /**
-     * The last [Job] that was triggered to be calculated by the Kotlin coroutines.
+     * The [Job] of this task, which executes all the steps of the task.
      */
-    private var lastJob: Deferred<Unit>? = null
+    @Volatile
+    private var job: Job? = null
+
+    /**
+     * The [Job] which executes the [doInBackground] method.
+     */
+    @Volatile
+    private var backgroundJob: Job? = null
+
+    /**
+     * The [CoroutineScope] of the [AsyncTaskCoroutine.job], used to publish the progress.
+     */
+    @Volatile
+    private var taskScope: CoroutineScope? = null
 
     /**
      * Runs on the UI thread before [doInBackground].
@@ -83,6 +95,14 @@ abstract class AsyncTaskCoroutine {
      */
     protected abstract fun stopTask()
 
+    /**
+     * Runs when the task is cancelled by [cancel], after its [Job] was cancelled.
+     * Override this method to also stop the work that the task is monitoring.
+     */
+    protected open fun onCancelled() {
+        // The default task has nothing else to stop.
+    }
+
     /**
      * This method can be invoked from [doInBackground] to
      * publish updates on the UI thread while the background computation is
@@ -92,33 +112,56 @@ abstract class AsyncTaskCoroutine {
      * @see [onProgressUpdate]
      * @see [doInBackground]
      */
-    @DelicateCoroutinesApi
     protected fun publishProgressAsync() {
-        GlobalScope.async(context = Dispatchers.Main, start = CoroutineStart.DEFAULT, block = {
+        taskScope?.launch {
             onProgressUpdate()
-        })
+        }
     }
 
     /**
      * Executes the task in a secondary thread.
      *
-     * Note: this function schedules the task that will execute the [onPreExecute]
-     * method on a Kotlin coroutine which runs on the UI thread.
-     * It also schedules a second background Kotlin coroutine
-     * which executes some background task, which might be something compute
-     * intensive that when it finishes, it will then call the [onPostExecute]
-     * method on the UI thread.
-     */
-    @DelicateCoroutinesApi
-    fun executeAsync() {
-        GlobalScope.async(context = Dispatchers.Main, start = CoroutineStart.DEFAULT, block = {
+     * Note: this function launches a Kotlin coroutine in the provided [CoroutineScope] that will
+     * execute the [onPreExecute] method (on the UI thread, if the scope uses the main dispatcher).
+     * It then executes the background task in a child coroutine on the [Dispatchers.IO], which might
+     * be something compute intensive that when it finishes, it will then call the [onPostExecute]
+     * method. If the task is cancelled, the [onPostExecute] method is not called.
+     *
+     * @param scope The [CoroutineScope] which owns the task.
+     * @return The [Job] of the task.
+     */
+    fun executeAsync(scope: CoroutineScope): Job {
+        val newJob = scope.launch {
+            taskScope = this
             onPreExecute()
-            lastJob = GlobalScope.async(context = Dispatchers.IO, start = CoroutineStart.DEFAULT, block = {
+            val background = async(Dispatchers.IO) {
                 doInBackground()
-            })
-            (lastJob ?: return@async).await()
+            }
+            backgroundJob = background
+            background.await()
             onPostExecute()
-        })
+        }
+        job = newJob
+        return newJob
+    }
+
+    /**
+     * Cancels the [Job] of the task and stops it, without calling [onCancelled].
+     * This is used when the task is replaced by a new one which monitors the same work.
+     */
+    internal fun cancelJob() {
+        logger.info("cancelJob")
+        job?.cancel()
+        stopTask()
+    }
+
+    /**
+     * Cancels the task and the work that it is monitoring.
+     */
+    fun cancel() {
+        logger.info("cancel")
+        cancelJob()
+        onCancelled()
     }
 
     /**
@@ -127,21 +170,22 @@ abstract class AsyncTaskCoroutine {
     fun waitToFinish() {
         logger.info("waitToFinish")
 
+        val background = backgroundJob
+        if (background == null) {
+            stopTask()
+            logger.info("waitToFinish finished: task not started")
+            return
+        }
         runBlocking(Dispatchers.IO) {
-            logger.info("waitToFinish 1")
-            val finished: Unit? = lastJob?.await()
-            logger.info("waitToFinish 2: $finished")
-            lastJob?.join()
-            logger.info("waitToFinish 3")
-            if (finished != null) {
-                waitForTaskToFinish()
-            } else {
-                stopTask()
-            }
-            logger.info("waitToFinish 4")
+            background.join()
+        }
+        if (background.isCancelled) {
+            stopTask()
+        } else {
+            waitForTaskToFinish()
         }
 
-        logger.info("waitToFinish finished: " + lastJob?.isCompleted)
+        logger.info("waitToFinish finished: " + job?.isCompleted)
     }
 
 }
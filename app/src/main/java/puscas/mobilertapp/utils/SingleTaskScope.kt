@@ -0,0 +1,98 @@
+package puscas.mobilertapp.utils
+
+import kotlinx.coroutines.CoroutineScope
+import kotlinx.coroutines.Dispatchers
+import kotlinx.coroutines.Job
+import kotlinx.coroutines.SupervisorJob
+import java.util.logging.Logger
+import kotlin.coroutines.CoroutineContext
+
+/**
+ * A [CoroutineScope] owned by a UI component, which executes at most one [AsyncTaskCoroutine] at a
+ * time.
+ *
+ * Launching a new task cancels the current one, and the new task only starts after the [Job] of
+ * the previous one completes, so there is never more than one [Job] in this scope.
+ *
+ * @param context The [CoroutineContext] where the tasks run, which is the UI thread by default.
+ */
+class SingleTaskScope @JvmOverloads constructor(context: CoroutineContext = Dispatchers.Main) {
+
+    /**
+     * The [Logger] for this class.
+     */
+    private val logger = Logger.getLogger(SingleTaskScope::class.java.simpleName)
+
+    /**
+     * The [SupervisorJob] which is the parent of the [Job] of every task, so a failed task doesn't
+     * cancel this scope.
+     */
+    private val supervisor = SupervisorJob()
+
+    /**
+     * The [CoroutineScope] where the tasks are launched.
+     */
+    private val scope = CoroutineScope(supervisor + context)
+
+    /**
+     * The last launched task, which is either running or waiting for the previous one to finish.
+     */
+    private var task: AsyncTaskCoroutine? = null
+
+    /**
+     * The [Job] of the last task which started.
+     */
+    private var job: Job? = null
+
+    /**
+     * Launches a task, cancelling the current one.
+     *
+     * @param newTask The task to launch.
+     */
+    @Synchronized
+    fun launch(newTask: AsyncTaskCoroutine) {
+        logger.info("launch")
+        task?.cancelJob()
+        task = newTask
+        val running = job
+        if (running == null || running.isCompleted) {
+            job = newTask.executeAsync(scope)
+        } else {
+            running.invokeOnCompletion { startPendingTask(running) }
+        }
+    }
+
+    /**
+     * Cancels the current task and the work that it is monitoring.
+     */
+    @Synchronized
+    fun cancel() {
+        logger.info("cancel")
+        task?.cancel()
+        task = null
+    }
+
+    /**
+     * Gets the number of tasks' [Job]s which didn't complete yet.
+     *
+     * @return The number of [Job]s in this scope.
+     */
+    fun getActiveTasks(): Int {
+        return supervisor.children.count { !it.isCompleted }
+    }
+
+    /**
+     * Helper method which starts the last launched task after the [Job] of the previous one
+     * completes.
+     *
+     * @param finished The [Job] which completed.
+     */
+    @Synchronized
+    private fun startPendingTask(finished: Job) {
+        val pending = task
+        if (job === finished && pending != null) {
+            job = pending.executeAsync(scope)
+        }
+    }
+
+}
@@ -23,6 +23,7 @@ import org.powermock.modules.junit4.PowerMockRunner;
 import org.springframework.test.util.ReflectionTestUtils;
 
 import java.util.Objects;
+import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
@@ -30,7 +31,9 @@ import java.util.concurrent.TimeoutException;
 
 import kotlin.Pair;
 import puscas.mobilertapp.configs.Config;
+import puscas.mobilertapp.configs.ConfigResolution;
 import puscas.mobilertapp.configs.ConfigSamples;
+import puscas.mobilertapp.constants.Accelerator;
 import puscas.mobilertapp.constants.ConstantsError;
 import puscas.mobilertapp.exceptions.FailureException;
 import puscas.mobilertapp.exceptions.LowMemoryException;
@@ -170,7 +173,7 @@ public final class DrawViewTest {
 
         mainRenderer.resetStats(EasyMock.anyInt(), EasyMock.eq(ConfigSamples.Builder.Companion.create().build()), EasyMock.anyInt(), EasyMock.anyInt());
         EasyMock.expectLastCall().andVoid();
-        EasyMock.expect(mainRenderer.rtInitialize(EasyMock.anyObject(Config.class))).andReturn(2);
+        EasyMock.expect(mainRenderer.rtInitialize(EasyMock.anyObject(Config.class), EasyMock.anyBoolean())).andReturn(2);
         mainRenderer.rtFinishRender();
         EasyMock.expectLastCall().andVoid().anyTimes();
         ReflectionTestUtils.setField(drawView, "renderer", mainRenderer);
@@ -208,10 +211,13 @@ public final class DrawViewTest {
         Assertions.assertThat(currentThreadExecutorService.awaitTermination(10L, TimeUnit.SECONDS))
             .as("The thread pool finished")
             .isTrue();
-        final Pair<Long, Future<Boolean>> lastTask = (Pair<Long, Future<Boolean>>) Objects.requireNonNull(ReflectionTestUtils.getField(drawView, DrawView.class, "lastTask"));
+        final Pair<CountDownLatch, Future<Boolean>> lastTask = (Pair<CountDownLatch, Future<Boolean>>) Objects.requireNonNull(ReflectionTestUtils.getField(drawView, DrawView.class, "lastTask"));
         Assertions.assertThat(lastTask.getSecond().get())
             .as("The last task should be false.")
             .isFalse();
+        Assertions.assertThat(lastTask.getFirst().getCount())
+            .as("The latch of the last task should be released when the task finishes.")
+            .isZero();
 
         // Missing verification of call to MainActivity#showUiMessage method.
     }
@@ -243,8 +249,8 @@ public final class DrawViewTest {
         EasyMock.expect(lastTask.get(1L, TimeUnit.DAYS))
             .andThrow(new InterruptedException())
             .anyTimes();
-        // The '-1L' value is to allow the 'waitLastTask' method to not block waiting for the task to start and finish.
-        ReflectionTestUtils.setField(drawViewMocked, "lastTask", new Pair<>(-1L, lastTask));
+        // The released latch is to allow the 'waitLastTask' method to not block waiting for the task to start and finish.
+        ReflectionTestUtils.setField(drawViewMocked, "lastTask", new Pair<>(new CountDownLatch(0), lastTask));
 
         Assertions.assertThatCode(drawViewMocked::waitLastTask)
             .as("The call to DrawView#waitLastTask method")
@@ -295,4 +301,147 @@ public final class DrawViewTest {
         EasyMock.verifyUnexpectedCalls(drawViewMocked);
         EasyMock.verify(drawViewMocked);
     }
+
+    /**
+     * Tests that the {@link DrawView#createScene(Config)} method falls back to a leaner
+     * acceleration structure and then to a lower resolution when the scene doesn't fit in memory.
+     *
+     * @throws Exception If there is an error with the mocks.
+     */
+    @Test
+    public void testAdmitConfigWithLowMemory() throws Exception {
+        final DrawView drawView = EasyMock.partialMockBuilder(DrawView.class).createMock();
+        final MainRenderer mainRenderer = EasyMock.partialMockBuilder(MainRenderer.class)
+            .addMockedMethod("fitsInMemory")
+            .createMock();
+        // Only the naive accelerator with half of the resolution fits in memory.
+        EasyMock.expect(mainRenderer.fitsInMemory(EasyMock.anyObject(Config.class), EasyMock.eq(false)))
+            .andAnswer(() -> {
+                final Config candidate = (Config) EasyMock.getCurrentArguments()[0];
+                return candidate.getAccelerator() == Accelerator.NAIVE.ordinal()
+                    && candidate.getConfigResolution().getWidth() == 50;
+            })
+            .times(6);
+        EasyMock.replay(mainRenderer);
+        ReflectionTestUtils.setField(drawView, "renderer", mainRenderer);
+
+        final Config.Builder builder = Config.Builder.Companion.create();
+        builder.setAccelerator(Accelerator.BVH.ordinal());
+        final ConfigResolution.Builder builderResolution = ConfigResolution.Builder.Companion.create();
+        builderResolution.setWidth(100);
+        builderResolution.setHeight(60);
+        builder.setConfigResolution(builderResolution.build());
+        final Config config = builder.build();
+
+        final Config admittedConfig = ReflectionTestUtils.invokeMethod(drawView, "admitConfig", config, false);
+        Assertions.assertThat(admittedConfig)
+            .as("The admitted config")
+            .isNotNull()
+            .extracting(Config::getAccelerator)
+            .isEqualTo(Accelerator.NAIVE.ordinal());
+        Assertions.assertThat(Objects.requireNonNull(admittedConfig).getConfigResolution())
+            .as("The admitted resolution")
+            .extracting(ConfigResolution::getWidth, ConfigResolution::getHeight)
+            .containsExactly(50, 30);
+        EasyMock.verify(mainRenderer);
+    }
+
+    /**
+     * Tests that the {@link DrawView#createScene(Config)} method keeps the acceleration structure
+     * of a scene already loaded, and only lowers the resolution when its framebuffers don't fit in
+     * memory.
+     *
+     * @throws Exception If there is an error with the mocks.
+     */
+    @Test
+    public void testAdmitConfigWithResidentScene() throws Exception {
+        final DrawView drawView = EasyMock.partialMockBuilder(DrawView.class).createMock();
+        final MainRenderer mainRenderer = EasyMock.partialMockBuilder(MainRenderer.class)
+            .addMockedMethod("fitsInMemory")
+            .createMock();
+        // Only half of the resolution fits in memory.
+        EasyMock.expect(mainRenderer.fitsInMemory(EasyMock.anyObject(Config.class), EasyMock.eq(true)))
+            .andAnswer(() -> {
+                final Config candidate = (Config) EasyMock.getCurrentArguments()[0];
+                return candidate.getConfigResolution().getWidth() == 50;
+            })
+            .times(2);
+        EasyMock.replay(mainRenderer);
+        ReflectionTestUtils.setField(drawView, "renderer", mainRenderer);
+
+        final Config.Builder builder = Config.Builder.Companion.create();
+        builder.setAccelerator(Accelerator.BVH.ordinal());
+        final ConfigResolution.Builder builderResolution = ConfigResolution.Builder.Companion.create();
+        builderResolution.setWidth(100);
+        builderResolution.setHeight(60);
+        builder.setConfigResolution(builderResolution.build());
+        final Config config = builder.build();
+
+        final Config admittedConfig = ReflectionTestUtils.invokeMethod(drawView, "admitConfig", config, true);
+        Assertions.assertThat(admittedConfig)
+            .as("The admitted config")
+            .isNotNull()
+            .extracting(Config::getAccelerator)
+            .isEqualTo(Accelerator.BVH.ordinal());
+        Assertions.assertThat(Objects.requireNonNull(admittedConfig).getConfigResolution())
+            .as("The admitted resolution")
+            .extracting(ConfigResolution::getWidth, ConfigResolution::getHeight)
+            .containsExactly(50, 30);
+        EasyMock.verify(mainRenderer);
+    }
+
+    /**
+     * Tests that the {@link DrawView#createScene(Config)} method refuses to load a scene that
+     * doesn't fit in memory with any acceleration structure or resolution.
+     *
+     * @throws Exception If there is an error with the mocks.
+     */
+    @Test
+    public void testAdmitConfigWithoutMemory() throws Exception {
+        final DrawView drawView = EasyMock.partialMockBuilder(DrawView.class).createMock();
+        final MainRenderer mainRenderer = EasyMock.partialMockBuilder(MainRenderer.class)
+            .addMockedMethod("fitsInMemory")
+            .createMock();
+        EasyMock.expect(mainRenderer.fitsInMemory(EasyMock.anyObject(Config.class), EasyMock.eq(false)))
+            .andReturn(false)
+            .anyTimes();
+        EasyMock.replay(mainRenderer);
+        ReflectionTestUtils.setField(drawView, "renderer", mainRenderer);
+
+        final Config config = Config.Builder.Companion.create().build();
+        Assertions.assertThatThrownBy(() -> ReflectionTestUtils.invokeMethod(drawView, "admitConfig", config, false))
+            .as("The call to DrawView#admitConfig method")
+            .hasCauseInstanceOf(LowMemoryException.class);
+    }
+
+    /**
+     * Tests that the {@link DrawView#createNavigationConfig(Config)} method keeps the scene and
+     * only reduces the samples and disables the denoiser.
+     */
+    @Test
+    public void testCreateNavigationConfig() {
+        final ConfigSamples.Builder builderSamples = ConfigSamples.Builder.Companion.create();
+        builderSamples.setSamplesPixel(16);
+        builderSamples.setSamplesLight(4);
+        final Config.Builder builder = Config.Builder.Companion.create();
+        builder.setScene(2);
+        builder.setAccelerator(Accelerator.BVH.ordinal());
+        builder.setConfigSamples(builderSamples.build());
+        builder.setDenoise(true);
+        builder.setRenderTime(100);
+        final Config config = builder.build();
+
+        final Config navigationConfig = DrawView.createNavigationConfig(config);
+        Assertions.assertThat(navigationConfig.getConfigSamples())
+            .as("The samples while navigating")
+            .extracting(ConfigSamples::getSamplesPixel, ConfigSamples::getSamplesLight)
+            .containsExactly(1, 1);
+        Assertions.assertThat(navigationConfig.getDenoise())
+            .as("The denoiser while navigating")
+            .isFalse();
+        Assertions.assertThat(navigationConfig)
+            .as("The scene while navigating")
+            .extracting(Config::getScene, Config::getAccelerator, Config::getRenderTime)
+            .containsExactly(2, Accelerator.BVH.ordinal(), 100);
+    }
 }
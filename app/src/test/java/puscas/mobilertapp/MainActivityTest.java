@@ -81,7 +81,7 @@ public final class MainActivityTest {
         logger.info("setUp");
 
         this.targetMainActivityMocked = PowerMock.createNicePartialMockAndInvokeDefaultConstructor(MainActivity.class,
-            "runOnUiThread", "loadMobileRT", "validateViews", "findViewById", "initializePickerThreads", "initializePickerResolutions", "initializeCheckBoxRasterize"
+            "runOnUiThread", "loadMobileRT", "validateViews", "findViewById", "initializePickerThreads", "initializePickerResolutions", "initializeCheckBoxRasterize", "initializeCheckBoxDenoise"
         );
 
         Assertions.assertThat(this.targetMainActivityMocked)
@@ -18,9 +18,13 @@ import org.powermock.core.classloader.annotations.PrepareOnlyThisForTest;
 import org.powermock.modules.junit4.PowerMockRunner;
 import org.springframework.test.util.ReflectionTestUtils;
 
+import java.nio.Buffer;
 import java.nio.ByteBuffer;
+import java.nio.FloatBuffer;
 import java.util.Objects;
 import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 
 import javax.microedition.khronos.egl.EGLConfig;
 import javax.microedition.khronos.opengles.GL10;
@@ -216,8 +220,7 @@ public final class MainRendererTest {
 
         final ActivityManager.MemoryInfo memoryInfo = new ActivityManager.MemoryInfo();
         ReflectionTestUtils.setField(memoryInfo, "availMem", 100L * BYTES_IN_MEGABYTE);
-        ReflectionTestUtils.setField(mainRenderer, "arrayVertices", ByteBuffer.allocate(1));
-        ReflectionTestUtils.setField(mainRenderer, "arrayColors", ByteBuffer.allocate(1));
+        ReflectionTestUtils.setField(mainRenderer, "previewBatches", new int[0]);
         ReflectionTestUtils.setField(mainRenderer, "arrayCamera", ByteBuffer.allocate(1));
 
         // Setup mock.
@@ -269,6 +272,42 @@ public final class MainRendererTest {
             .isFalse();
     }
 
+    /**
+     * Tests that the {@link MainRenderer#onDrawFrame(GL10)} method only uploads the regions of the
+     * {@link Bitmap} rendered since the last frame, after the texture was allocated.
+     */
+    @Test
+    public void testOnDrawFrameUploadsDirtyTiles() throws Exception {
+        final MainRenderer mainRenderer = createMockedMainRenderer();
+        ReflectionTestUtils.setField(mainRenderer, "firstFrame", false);
+        ReflectionTestUtils.setField(mainRenderer, "textureAllocated", true);
+        ReflectionTestUtils.setField(mainRenderer, "floatBufferVertices", FloatBuffer.allocate(16));
+        ReflectionTestUtils.setField(mainRenderer, "floatBufferTexture", FloatBuffer.allocate(8));
+
+        // Setup mock with 1 region of 1x1 pixels.
+        PowerMock.expectPrivate(mainRenderer, "rtGetDirtyTiles", EasyMock.anyObject(ByteBuffer.class), EasyMock.anyObject(int[].class))
+            .andAnswer(() -> {
+                final int[] regions = (int[]) EasyMock.getCurrentArguments()[1];
+                regions[0] = 0;
+                regions[1] = 0;
+                regions[2] = 1;
+                regions[3] = 1;
+                return 1;
+            }).once();
+        EasyMock.replay(mainRenderer);
+
+        PowerMock.mockStaticNice(GLES20.class);
+        GLES20.glTexSubImage2D(EasyMock.eq(GLES20.GL_TEXTURE_2D), EasyMock.eq(0), EasyMock.eq(0), EasyMock.eq(0),
+            EasyMock.eq(1), EasyMock.eq(1), EasyMock.eq(GLES20.GL_RGBA), EasyMock.eq(GLES20.GL_UNSIGNED_BYTE), EasyMock.anyObject(Buffer.class));
+        PowerMock.expectLastCall().once();
+        PowerMock.replay(GLES20.class);
+
+        mainRenderer.onDrawFrame(EasyMock.mock(GL10.class));
+
+        PowerMock.verify(GLES20.class);
+        EasyMock.verify(mainRenderer);
+    }
+
     /**
      * Tests that the {@link MainRenderer#closeRenderer()} method will not call the
      * {@link GLES20#glDeleteTextures(int, int[], int)} method if
@@ -289,7 +328,7 @@ public final class MainRendererTest {
     }
 
     /**
-     * Tests that the {@link MainRenderer#renderSceneToBitmap(ByteBuffer, ByteBuffer, ByteBuffer, int)}
+     * Tests that the {@link MainRenderer#renderSceneToBitmap(ByteBuffer, int)}
      * method will throw a {@link LowMemoryException} if there is not enough memory available
      * to render the scene.
      */
@@ -310,8 +349,6 @@ public final class MainRendererTest {
         ReflectionTestUtils.setField(mainRenderer, "memoryInfo", memoryInfo);
 
         Assertions.assertThatThrownBy(() -> mainRenderer.renderSceneToBitmap(
-            ByteBuffer.allocate(1),
-            ByteBuffer.allocate(1),
             ByteBuffer.allocate(1),
             1234567
         ))
@@ -319,6 +356,80 @@ public final class MainRendererTest {
             .isInstanceOf(LowMemoryException.class);
     }
 
+    /**
+     * Tests that the preview geometry of the scene is only built again when a different scene is
+     * loaded.
+     *
+     * @throws Exception If there is an error with the mocks.
+     */
+    @Test
+    public void testPreviewGeometryIsOnlyRebuiltWhenSceneChanges() throws Exception {
+        final MainRenderer mainRenderer = createMockedMainRenderer(
+            "rtGetSceneId", "rtInitPreviewGeometry", "rtFreePreviewGeometry", "rtInitCameraArray", "checksFreeMemory"
+        );
+        final AtomicLong sceneId = new AtomicLong(1L);
+        final AtomicInteger numBuilds = new AtomicInteger(0);
+        PowerMock.expectPrivate(mainRenderer, "rtGetSceneId").andAnswer(sceneId::get).anyTimes();
+        PowerMock.expectPrivate(mainRenderer, "rtInitPreviewGeometry").andAnswer(() -> {
+            numBuilds.incrementAndGet();
+            return new int[0];
+        }).anyTimes();
+        PowerMock.expectPrivate(mainRenderer, "rtInitCameraArray").andReturn(ByteBuffer.allocate(1)).anyTimes();
+        EasyMock.replay(mainRenderer);
+
+        ReflectionTestUtils.invokeMethod(mainRenderer, "initPreviewArrays");
+        ReflectionTestUtils.invokeMethod(mainRenderer, "initPreviewArrays");
+        Assertions.assertThat(numBuilds.get())
+            .as("The preview geometry of the same scene should only be built once")
+            .isEqualTo(1);
+
+        sceneId.set(2L);
+        ReflectionTestUtils.invokeMethod(mainRenderer, "initPreviewArrays");
+        Assertions.assertThat(numBuilds.get())
+            .as("The preview geometry should be built again for another scene")
+            .isEqualTo(2);
+    }
+
+    /**
+     * Tests that the {@link MainRenderer#setBitmap(ConfigResolution, ConfigResolution, boolean)}
+     * method reuses the {@link Bitmap} of a previous render with the same resolution, and clears
+     * it with the Ray Tracer engine.
+     *
+     * @throws Exception If there is an error with the mocks.
+     */
+    @Test
+    public void testSetBitmapReusesPooledBitmap() throws Exception {
+        final MainRenderer mainRenderer = createMockedMainRenderer("rtClearBitmap");
+        final AtomicInteger numClears = new AtomicInteger(0);
+        PowerMock.expectPrivate(mainRenderer, "rtClearBitmap", EasyMock.anyObject(Bitmap.class), EasyMock.anyInt())
+            .andAnswer(() -> {
+                numClears.incrementAndGet();
+                return null;
+            })
+            .anyTimes();
+        EasyMock.replay(mainRenderer);
+
+        final Object bitmap = ReflectionTestUtils.getField(mainRenderer, "bitmap");
+        final Object dirtyPixels = ReflectionTestUtils.getField(mainRenderer, "dirtyPixels");
+        final ConfigResolution configResolution = ConfigResolution.Builder.Companion.create().build();
+        mainRenderer.setBitmap(configResolution, configResolution, false);
+
+        Assertions.assertThat(numClears.get())
+            .as("The reused bitmap should be cleared by the Ray Tracer engine")
+            .isEqualTo(1);
+        Assertions.assertThat(ReflectionTestUtils.getField(mainRenderer, "bitmap"))
+            .as("The bitmap with the same resolution")
+            .isSameAs(bitmap);
+        Assertions.assertThat(ReflectionTestUtils.getField(mainRenderer, "dirtyPixels"))
+            .as("The buffer of the dirty pixels with the same resolution")
+            .isSameAs(dirtyPixels);
+
+        mainRenderer.trimMemory(0);
+        Assertions.assertThat(mainRenderer.getNumberOfPooledResolutions())
+            .as("The bitmap being used shouldn't be released")
+            .isEqualTo(1);
+    }
+
     /**
      * Tests that the {@link MainRenderer#copyGlFrameBufferToBitmap(ConfigResolution, ConfigResolution)}
      * method will throw an {@link IllegalArgumentException} if the new created {@link Bitmap} for
@@ -401,6 +512,23 @@ public final class MainRendererTest {
      */
     @NonNull
     private MainRenderer createMockedMainRenderer() {
+        final MainRenderer mainRenderer = createMockedMainRenderer("initPreviewArrays", "rtRenderIntoBitmap", "rtGetDirtyTiles");
+        try {
+            PowerMock.expectPrivate(mainRenderer, "initPreviewArrays").andVoid().anyTimes();
+        } catch (final Exception ex) {
+            throw new RuntimeException(ex);
+        }
+        return mainRenderer;
+    }
+
+    /**
+     * Helper method which creates a partial mocked {@link MainRenderer} for the tests.
+     *
+     * @param mockedMethods The names of the methods to mock.
+     * @return A partial mocked {@link MainRenderer} to be used by the tests.
+     */
+    @NonNull
+    private MainRenderer createMockedMainRenderer(final String... mockedMethods) {
         final MainRenderer mainRenderer;
         final Bitmap bitmapMocked = EasyMock.createNiceMock(Bitmap.class);
         EasyMock.expect(bitmapMocked.isRecycled())
@@ -421,9 +549,7 @@ public final class MainRendererTest {
 
             PowerMock.replayAll();
             MemberModifier.suppress(MemberModifier.method(MainActivity.class, "resetErrno"));
-            mainRenderer = PowerMock.createNicePartialMockAndInvokeDefaultConstructor(MainRenderer.class, "initPreviewArrays", "rtRenderIntoBitmap");
-
-            PowerMock.expectPrivate(mainRenderer, "initPreviewArrays").andVoid().anyTimes();
+            mainRenderer = PowerMock.createNicePartialMockAndInvokeDefaultConstructor(MainRenderer.class, mockedMethods);
         } catch (final Exception ex) {
             throw new RuntimeException(ex);
         }
@@ -0,0 +1,118 @@
+package puscas.mobilertapp.configs;
+
+import org.assertj.core.api.Assertions;
+import org.junit.Test;
+
+/**
+ * The test suite for {@link ConfigCropWindow} class.
+ */
+public final class ConfigCropWindowTest {
+
+    /**
+     * Tests the default constructor of {@link ConfigCropWindow}, which covers the whole image.
+     */
+    @Test
+    public void testDefaultConstructor() {
+        final ConfigCropWindow configCropWindow = ConfigCropWindow.Builder.Companion.create().build();
+
+        Assertions.assertThat(configCropWindow.getLeft())
+            .as("Left not the expected value.")
+            .isZero();
+
+        Assertions.assertThat(configCropWindow.getTop())
+            .as("Top not the expected value.")
+            .isZero();
+
+        Assertions.assertThat(configCropWindow.getRight())
+            .as("Right not the expected value.")
+            .isOne();
+
+        Assertions.assertThat(configCropWindow.getBottom())
+            .as("Bottom not the expected value.")
+            .isOne();
+    }
+
+    /**
+     * Tests the building of {@link ConfigCropWindow} with valid values.
+     */
+    @Test
+    public void testBuild() {
+        final ConfigCropWindow.Builder builder = ConfigCropWindow.Builder.Companion.create();
+        final float left = 0.25F;
+        final float top = 0.5F;
+        final float right = 0.75F;
+        final float bottom = 0.625F;
+        builder.setLeft(left);
+        builder.setTop(top);
+        builder.setRight(right);
+        builder.setBottom(bottom);
+
+        final ConfigCropWindow configCropWindow = builder.build();
+        Assertions.assertThat(configCropWindow.getLeft())
+            .as("Left not the expected value.")
+            .isEqualTo(left);
+        Assertions.assertThat(configCropWindow.getTop())
+            .as("Top not the expected value.")
+            .isEqualTo(top);
+        Assertions.assertThat(configCropWindow.getRight())
+            .as("Right not the expected value.")
+            .isEqualTo(right);
+        Assertions.assertThat(configCropWindow.getBottom())
+            .as("Bottom not the expected value.")
+            .isEqualTo(bottom);
+    }
+
+    /**
+     * Test the building of {@link ConfigCropWindow} with invalid values.
+     * <p>
+     * The {@link ConfigCropWindow.Builder#build()} should fail with an exception.
+     */
+    @Test
+    public void testBuildWithInvalidValues() {
+        final ConfigCropWindow.Builder builder = ConfigCropWindow.Builder.Companion.create();
+
+        builder.setLeft(-0.5F);
+        Assertions.assertThatThrownBy(builder::build)
+            .as("Left not the expected value.")
+            .isInstanceOf(IllegalArgumentException.class);
+        builder.setLeft(1F);
+        Assertions.assertThatThrownBy(builder::build)
+            .as("Left not the expected value.")
+            .isInstanceOf(IllegalArgumentException.class);
+
+        builder.setLeft(0F);
+        builder.setRight(1.5F);
+        Assertions.assertThatThrownBy(builder::build)
+            .as("Right not the expected value.")
+            .isInstanceOf(IllegalArgumentException.class);
+
+        builder.setRight(1F);
+        builder.setTop(-0.5F);
+        Assertions.assertThatThrownBy(builder::build)
+            .as("Top not the expected value.")
+            .isInstanceOf(IllegalArgumentException.class);
+        builder.setTop(1F);
+        Assertions.assertThatThrownBy(builder::build)
+            .as("Top not the expected value.")
+            .isInstanceOf(IllegalArgumentException.class);
+
+        builder.setTop(0F);
+        builder.setBottom(1.5F);
+        Assertions.assertThatThrownBy(builder::build)
+            .as("Bottom not the expected value.")
+            .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    /**
+     * Tests the {@link ConfigCropWindow.Builder#toString()} method in the builder class of {@link ConfigCropWindow}.
+     */
+    @Test
+    public void testConfigCropWindowBuilderToString() {
+        final String configCropWindowBuilderStr = ConfigCropWindow.Builder.Companion.create().toString();
+        Assertions.assertThat(configCropWindowBuilderStr)
+            .as("The toString of ConfigCropWindow.Builder")
+            .isNotNull()
+            .isInstanceOf(String.class);
+    }
+
+}
@@ -69,6 +69,18 @@ public final class ConfigTest {
         Assertions.assertThat(config.getRasterize())
             .as("Rasterize field not the expected value.")
             .isEqualTo(false);
+
+        Assertions.assertThat(config.getDenoise())
+            .as("Denoise field not the expected value.")
+            .isEqualTo(false);
+
+        Assertions.assertThat(config.getRenderTime())
+            .as("Render time not the expected value.")
+            .isZero();
+
+        Assertions.assertThat(config.getConfigCropWindow())
+            .as("Crop window not the expected value.")
+            .isEqualTo(ConfigCropWindow.Builder.Companion.create().build());
     }
 
     /**
@@ -88,6 +100,8 @@ public final class ConfigTest {
         final String cam = "ghi";
         final int threads = 123;
         final boolean rasterize = true;
+        final boolean denoise = true;
+        final int renderTime = 500;
 
         final Config.Builder builder = Config.Builder.Companion.create();
         final ConfigResolution.Builder builderResolution = ConfigResolution.Builder.Companion.create();
@@ -107,6 +121,13 @@ public final class ConfigTest {
         builder.setCamFilePath(cam);
         builder.setThreads(threads);
         builder.setRasterize(rasterize);
+        builder.setDenoise(denoise);
+        builder.setRenderTime(renderTime);
+        final ConfigCropWindow.Builder builderCropWindow = ConfigCropWindow.Builder.Companion.create();
+        builderCropWindow.setLeft(0.5F);
+        builderCropWindow.setBottom(0.5F);
+        final ConfigCropWindow cropWindow = builderCropWindow.build();
+        builder.setConfigCropWindow(cropWindow);
         final Config config = builder.build();
 
         Assertions.assertThat(config.getConfigResolution().getWidth())
@@ -159,6 +180,18 @@ public final class ConfigTest {
         Assertions.assertThat(config.getRasterize())
             .as("Rasterize field not the expected value.")
             .isEqualTo(rasterize);
+
+        Assertions.assertThat(config.getDenoise())
+            .as("Denoise field not the expected value.")
+            .isEqualTo(denoise);
+
+        Assertions.assertThat(config.getRenderTime())
+            .as("Render time not the expected value.")
+            .isEqualTo(renderTime);
+
+        Assertions.assertThat(config.getConfigCropWindow())
+            .as("Crop window not the expected value.")
+            .isEqualTo(cropWindow);
     }
 
     /**
@@ -194,6 +227,97 @@ public final class ConfigTest {
         Assertions.assertThatThrownBy(builder::build)
             .as("The shader is invalid.")
             .isInstanceOf(IllegalArgumentException.class);
+
+        builder.setShader(shader);
+        builder.setRenderTime(-1);
+        Assertions.assertThatThrownBy(builder::build)
+            .as("The render time is invalid.")
+            .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    /**
+     * Tests that the {@link Config#hasSameScene(Config)} method only considers the fields which
+     * define the scene built by the Ray Tracer engine.
+     */
+    @Test
+    public void testHasSameScene() {
+        final Config.Builder builder = Config.Builder.Companion.create();
+        builder.setScene(Scene.OBJ.ordinal());
+        builder.setShader(Shader.PATH_TRACING.ordinal());
+        builder.setAccelerator(Accelerator.BVH.ordinal());
+        builder.setObjFilePath("scene.obj");
+        final Config config = builder.build();
+
+        final ConfigSamples.Builder builderSamples = ConfigSamples.Builder.Companion.create();
+        builderSamples.setSamplesPixel(4);
+        builderSamples.setSamplesLight(2);
+        builder.setConfigSamples(builderSamples.build());
+        final ConfigResolution.Builder builderResolution = ConfigResolution.Builder.Companion.create();
+        builderResolution.setWidth(2);
+        builderResolution.setHeight(2);
+        builder.setConfigResolution(builderResolution.build());
+        builder.setThreads(4);
+        builder.setRasterize(true);
+        builder.setDenoise(true);
+        builder.setRenderTime(1000);
+        final ConfigCropWindow.Builder builderCropWindow = ConfigCropWindow.Builder.Companion.create();
+        builderCropWindow.setRight(0.5F);
+        builder.setConfigCropWindow(builderCropWindow.build());
+        Assertions.assertThat(builder.build().hasSameScene(config))
+            .as("The render settings shouldn't change the scene")
+            .isTrue();
+
+        builder.setAccelerator(Accelerator.REG_GRID.ordinal());
+        Assertions.assertThat(builder.build().hasSameScene(config))
+            .as("The accelerator should change the scene")
+            .isFalse();
+
+        builder.setAccelerator(Accelerator.BVH.ordinal());
+        builder.setShader(Shader.WHITTED.ordinal());
+        Assertions.assertThat(builder.build().hasSameScene(config))
+            .as("The shader should change the scene")
+            .isFalse();
+
+        builder.setShader(Shader.PATH_TRACING.ordinal());
+        builder.setObjFilePath("other.obj");
+        Assertions.assertThat(builder.build().hasSameScene(config))
+            .as("The OBJ file should change the scene")
+            .isFalse();
+    }
+
+    /**
+     * Tests the {@link Config#onlyChangesCropWindow(Config)} method.
+     */
+    @Test
+    public void testOnlyChangesCropWindow() {
+        final Config.Builder builder = Config.Builder.Companion.create();
+        builder.setScene(Scene.OBJ.ordinal());
+        builder.setObjFilePath("scene.obj");
+        final Config config = builder.build();
+
+        Assertions.assertThat(builder.build().onlyChangesCropWindow(config))
+            .as("The same crop window shouldn't be a change")
+            .isFalse();
+
+        final ConfigCropWindow.Builder builderCropWindow = ConfigCropWindow.Builder.Companion.create();
+        builderCropWindow.setRight(0.5F);
+        builder.setConfigCropWindow(builderCropWindow.build());
+        Assertions.assertThat(builder.build().onlyChangesCropWindow(config))
+            .as("Only the crop window changed")
+            .isTrue();
+
+        final ConfigSamples.Builder builderSamples = ConfigSamples.Builder.Companion.create();
+        builderSamples.setSamplesPixel(4);
+        builder.setConfigSamples(builderSamples.build());
+        Assertions.assertThat(builder.build().onlyChangesCropWindow(config))
+            .as("The samples per pixel should change the render")
+            .isFalse();
+
+        builder.setConfigSamples(config.getConfigSamples());
+        builder.setObjFilePath("other.obj");
+        Assertions.assertThat(builder.build().onlyChangesCropWindow(config))
+            .as("The OBJ file should change the render")
+            .isFalse();
     }
 
     /**
@@ -20,7 +20,8 @@ public final class ShaderTest {
             "Whitted",
             "PathTracing",
             "DepthMap",
-            "Diffuse"
+            "Diffuse",
+            "PathTracingMIS"
         );
     }
 
@@ -0,0 +1,219 @@
+package puscas.mobilertapp.utils;
+
+import com.google.common.util.concurrent.Uninterruptibles;
+
+import org.assertj.core.api.Assertions;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import kotlinx.coroutines.ExecutorsKt;
+
+/**
+ * The unit tests for the {@link SingleTaskScope} class.
+ */
+public final class SingleTaskScopeTest {
+
+    /**
+     * The maximum time, in seconds, to wait for a task.
+     */
+    private static final long TIMEOUT = 10L;
+
+    /**
+     * The number of {@link TestTask}s running the {@link TestTask#doInBackground()} method.
+     */
+    private final AtomicInteger running = new AtomicInteger(0);
+
+    /**
+     * The maximum number of {@link TestTask}s that were running at the same time.
+     */
+    private final AtomicInteger maxRunning = new AtomicInteger(0);
+
+    /**
+     * The {@link ExecutorService} which simulates the UI thread.
+     */
+    private ExecutorService uiThread = null;
+
+    /**
+     * The {@link SingleTaskScope} to test.
+     */
+    private SingleTaskScope scope = null;
+
+    /**
+     * Setup method called before each test.
+     */
+    @Before
+    public void setUp() {
+        this.uiThread = Executors.newSingleThreadExecutor();
+        this.scope = new SingleTaskScope(ExecutorsKt.from(this.uiThread));
+    }
+
+    /**
+     * Tear down method called after each test.
+     */
+    @After
+    public void tearDown() {
+        this.scope.cancel();
+        this.uiThread.shutdownNow();
+    }
+
+    /**
+     * Tests that launching tasks in a row replaces the running task, and that there is never more
+     * than one task running or more than one job in the {@link SingleTaskScope}.
+     */
+    @Test
+    public void testLaunchRunsAtMostOneTask() {
+        TestTask previousTask = null;
+        for (int i = 0; i < 4; ++i) {
+            final TestTask task = new TestTask();
+            this.scope.launch(task);
+            Assertions.assertThat(this.scope.getActiveTasks())
+                .as("The number of jobs in the scope")
+                .isLessThanOrEqualTo(1);
+
+            Assertions.assertThat(Uninterruptibles.awaitUninterruptibly(task.started, TIMEOUT, TimeUnit.SECONDS))
+                .as("The task should start after the previous one finishes")
+                .isTrue();
+            Assertions.assertThat(this.scope.getActiveTasks())
+                .as("The number of jobs in the scope")
+                .isEqualTo(1);
+            if (previousTask != null) {
+                Assertions.assertThat(previousTask.cancelled.get())
+                    .as("A replaced task shouldn't cancel the work that it monitors")
+                    .isFalse();
+            }
+            previousTask = task;
+        }
+
+        Assertions.assertThat(this.maxRunning.get())
+            .as("The maximum number of tasks running at the same time")
+            .isEqualTo(1);
+    }
+
+    /**
+     * Tests that a task replaced before starting never runs.
+     */
+    @Test
+    public void testLaunchSkipsReplacedPendingTask() {
+        final TestTask firstTask = new TestTask();
+        this.scope.launch(firstTask);
+        Assertions.assertThat(Uninterruptibles.awaitUninterruptibly(firstTask.started, TIMEOUT, TimeUnit.SECONDS))
+            .as("The first task should start")
+            .isTrue();
+
+        final TestTask pendingTask = new TestTask();
+        final TestTask lastTask = new TestTask();
+        this.scope.launch(pendingTask);
+        this.scope.launch(lastTask);
+
+        Assertions.assertThat(Uninterruptibles.awaitUninterruptibly(lastTask.started, TIMEOUT, TimeUnit.SECONDS))
+            .as("The last task should start")
+            .isTrue();
+        Assertions.assertThat(pendingTask.started.getCount())
+            .as("The replaced pending task shouldn't start")
+            .isEqualTo(1L);
+        Assertions.assertThat(this.maxRunning.get())
+            .as("The maximum number of tasks running at the same time")
+            .isEqualTo(1);
+    }
+
+    /**
+     * Tests that cancelling the {@link SingleTaskScope} cancels the work of the running task and
+     * finishes its job.
+     */
+    @Test
+    public void testCancelStopsRunningTask() {
+        final TestTask task = new TestTask();
+        this.scope.launch(task);
+        Assertions.assertThat(Uninterruptibles.awaitUninterruptibly(task.started, TIMEOUT, TimeUnit.SECONDS))
+            .as("The task should start")
+            .isTrue();
+
+        this.scope.cancel();
+
+        Assertions.assertThat(task.cancelled.get())
+            .as("The cancelled task should cancel the work that it monitors")
+            .isTrue();
+        final long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(TIMEOUT);
+        while (this.scope.getActiveTasks() > 0 && System.nanoTime() < deadline) {
+            Uninterruptibles.sleepUninterruptibly(10L, TimeUnit.MILLISECONDS);
+        }
+        Assertions.assertThat(this.scope.getActiveTasks())
+            .as("The number of jobs in the scope after cancelling it")
+            .isZero();
+        Assertions.assertThat(task.postExecuted.get())
+            .as("A cancelled task shouldn't call the onPostExecute method")
+            .isFalse();
+    }
+
+    /**
+     * An {@link AsyncTaskCoroutine} which runs in background until it is stopped.
+     */
+    private final class TestTask extends AsyncTaskCoroutine {
+
+        /**
+         * Released when the {@link #doInBackground()} method starts.
+         */
+        private final CountDownLatch started = new CountDownLatch(1);
+
+        /**
+         * Released when the task is stopped.
+         */
+        private final CountDownLatch stopped = new CountDownLatch(1);
+
+        /**
+         * Whether the {@link #onCancelled()} method was called.
+         */
+        private final AtomicBoolean cancelled = new AtomicBoolean(false);
+
+        /**
+         * Whether the {@link #onPostExecute()} method was called.
+         */
+        private final AtomicBoolean postExecuted = new AtomicBoolean(false);
+
+        @Override
+        protected void onPreExecute() {
+            // Nothing to prepare.
+        }
+
+        @Override
+        protected void doInBackground() {
+            maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+            this.started.countDown();
+            Uninterruptibles.awaitUninterruptibly(this.stopped);
+            running.decrementAndGet();
+        }
+
+        @Override
+        protected void onProgressUpdate() {
+            // There is no progress to show.
+        }
+
+        @Override
+        protected void onPostExecute() {
+            this.postExecuted.set(true);
+        }
+
+        @Override
+        protected void waitForTaskToFinish() {
+            Uninterruptibles.awaitUninterruptibly(this.stopped);
+        }
+
+        @Override
+        protected void stopTask() {
+            this.stopped.countDown();
+        }
+
+        @Override
+        protected void onCancelled() {
+            this.cancelled.set(true);
+        }
+    }
+}